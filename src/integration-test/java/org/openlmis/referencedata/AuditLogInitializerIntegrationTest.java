@@ -21,6 +21,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.List;
@@ -59,9 +60,11 @@ import org.openlmis.referencedata.domain.SupplyLine;
 import org.openlmis.referencedata.domain.SupplyPartner;
 import org.openlmis.referencedata.domain.TradeItem;
 import org.openlmis.referencedata.domain.User;
+import org.openlmis.referencedata.domain.VersionIdentity;
 import org.openlmis.referencedata.repository.CommodityTypeRepository;
 import org.openlmis.referencedata.repository.FacilityOperatorRepository;
 import org.openlmis.referencedata.repository.FacilityRepository;
+import org.openlmis.referencedata.repository.FacilityTypeApprovedProductRepository;
 import org.openlmis.referencedata.repository.FacilityTypeRepository;
 import org.openlmis.referencedata.repository.GeographicLevelRepository;
 import org.openlmis.referencedata.repository.GeographicZoneRepository;
@@ -88,6 +91,7 @@ import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 
 @Transactional
@@ -103,6 +107,9 @@ public class AuditLogInitializerIntegrationTest {
   @Autowired
   private ApplicationContext applicationContext;
 
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
   @PersistenceContext
   private EntityManager entityManager;
 
@@ -127,6 +134,9 @@ public class AuditLogInitializerIntegrationTest {
   @Autowired
   private OrderableRepository orderableRepository;
 
+  @Autowired
+  private FacilityTypeApprovedProductRepository facilityTypeApprovedProductRepository;
+
   @Autowired
   private TradeItemRepository tradeItemRepository;
 
@@ -190,6 +200,39 @@ public class AuditLogInitializerIntegrationTest {
     executeTest(ftap.getVersionIdentity(), FacilityTypeApprovedProduct.class);
   }
 
+  @Test
+  public void shouldCreateOneSnapshotForEachVersionWhenReadInSmallBatches() {
+    //given
+    Program program = addNewProgram();
+    Orderable orderable = addNewOrderable();
+    UUID versionedFtapId = UUID.randomUUID();
+    UUID auditedFtapId = UUID.randomUUID();
+    UUID ftapId = UUID.randomUUID();
+
+    for (long versionNumber = 1; versionNumber <= 3; ++versionNumber) {
+      addFtap(versionedFtapId, versionNumber, program.getId(), orderable.getId(),
+          addNewFacilityType().getId());
+    }
+
+    addFtap(auditedFtapId, 1L, program.getId(), orderable.getId(), addNewFacilityType().getId());
+    addFtap(ftapId, 1L, program.getId(), orderable.getId(), addNewFacilityType().getId());
+
+    javers.commit(AuditLogInitializer.AUTHOR, facilityTypeApprovedProductRepository
+        .findByIdentityIdAndIdentityVersionNumber(auditedFtapId, 1L));
+
+    // when
+    new AuditLogInitializer(applicationContext, javers, transactionManager,
+        MoreExecutors.newDirectExecutorService(), 1).run();
+
+    // then
+    for (long versionNumber = 1; versionNumber <= 3; ++versionNumber) {
+      assertSingleSnapshot(new VersionIdentity(versionedFtapId, versionNumber));
+    }
+
+    assertSingleSnapshot(new VersionIdentity(auditedFtapId, 1L));
+    assertSingleSnapshot(new VersionIdentity(ftapId, 1L));
+  }
+
   @Test
   public void shouldCreateSnapshotsForFacilityType() {
     //given
@@ -375,7 +418,8 @@ public class AuditLogInitializerIntegrationTest {
 
     assertThat(snapshots, hasSize(0));
 
-    AuditLogInitializer auditLogInitializer = new AuditLogInitializer(applicationContext, javers);
+    AuditLogInitializer auditLogInitializer = new AuditLogInitializer(applicationContext, javers,
+        transactionManager, MoreExecutors.newDirectExecutorService(), 2000);
     auditLogInitializer.run();
 
     snapshots = javers.findSnapshots(jqlQuery.build());
@@ -394,6 +438,11 @@ public class AuditLogInitializerIntegrationTest {
     assertThat(instanceId.getTypeName(), is(clazz.getSimpleName()));
   }
 
+  private void assertSingleSnapshot(VersionIdentity identity) {
+    QueryBuilder jqlQuery = QueryBuilder.byInstanceId(identity, FacilityTypeApprovedProduct.class);
+    assertThat(javers.findSnapshots(jqlQuery.build()), hasSize(1));
+  }
+
   private CommodityType addCommodityTypeParent() {
     CommodityType typeParent = new CommodityType("ibuprofen", "CS", "CID", null, null);
     typeParent.setId(UUID.randomUUID());
@@ -15,7 +15,7 @@
 
 package org.openlmis.referencedata;
 
-import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang3.StringUtils;
 
 final class SqlInsert {
 
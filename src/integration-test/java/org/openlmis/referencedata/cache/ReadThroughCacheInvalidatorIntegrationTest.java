@@ -0,0 +1,166 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.function.Consumer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openlmis.referencedata.AvailableFeatures;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.domain.Right;
+import org.openlmis.referencedata.domain.Role;
+import org.openlmis.referencedata.dto.RoleDto;
+import org.openlmis.referencedata.repository.ProgramRepository;
+import org.openlmis.referencedata.repository.RightRepository;
+import org.openlmis.referencedata.repository.RoleRepository;
+import org.openlmis.referencedata.repository.custom.impl.ProgramRedisRepository;
+import org.openlmis.referencedata.repository.custom.impl.RoleDtoRedisRepository;
+import org.openlmis.referencedata.testbuilder.ProgramDataBuilder;
+import org.openlmis.referencedata.testbuilder.RightDataBuilder;
+import org.openlmis.referencedata.testbuilder.RoleDataBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.togglz.junit.TogglzRule;
+
+/**
+ * Entries are evicted after the transaction commits, so the changes in this test are made in
+ * committed transactions and the data is removed afterwards.
+ */
+@RunWith(SpringRunner.class)
+@ActiveProfiles({"test", "test-run"})
+@SpringBootTest
+public class ReadThroughCacheInvalidatorIntegrationTest {
+
+  @Rule
+  public TogglzRule togglzRule = TogglzRule.builder(AvailableFeatures.class)
+      .enable(AvailableFeatures.REDIS_CACHING)
+      .build();
+
+  @Autowired
+  private ProgramRepository programRepository;
+
+  @Autowired
+  private ProgramRedisRepository programRedisRepository;
+
+  @Autowired
+  private ReadThroughCache<Program> programCache;
+
+  @Autowired
+  private RightRepository rightRepository;
+
+  @Autowired
+  private RoleRepository roleRepository;
+
+  @Autowired
+  private RoleDtoRedisRepository roleDtoRedisRepository;
+
+  @Autowired
+  private ReadThroughCache<RoleDto> roleCache;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private TransactionTemplate transactionTemplate;
+
+  private Program program;
+  private Right right;
+  private Right otherRight;
+  private Role role;
+
+  @Before
+  public void setUp() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+
+    program = programRepository.save(new ProgramDataBuilder().build());
+    right = rightRepository.save(new RightDataBuilder().build());
+    otherRight = rightRepository.save(new RightDataBuilder().build());
+    role = roleRepository.save(new RoleDataBuilder().withRights(right).build());
+
+    inTransaction(() -> {
+      programCache.get(program.getId(), programRepository::findById);
+      roleCache.get(role.getId(), id -> roleRepository.findById(id).map(this::exportToDto));
+    });
+
+    assertTrue(programRedisRepository.exists(program.getId()));
+    assertTrue(roleDtoRedisRepository.exists(role.getId()));
+  }
+
+  @After
+  public void tearDown() {
+    roleRepository.findById(role.getId()).ifPresent(roleRepository::delete);
+    rightRepository.delete(right);
+    rightRepository.delete(otherRight);
+    programRepository.findById(program.getId()).ifPresent(programRepository::delete);
+  }
+
+  @Test
+  public void shouldEvictEntryAfterEntityIsUpdated() {
+    updateProgram(found -> found.setDescription("changed"));
+
+    assertFalse(programRedisRepository.exists(program.getId()));
+    assertTrue(roleDtoRedisRepository.exists(role.getId()));
+  }
+
+  @Test
+  public void shouldEvictEntryAfterEntityIsDeleted() {
+    inTransaction(() -> programRepository.deleteById(program.getId()));
+
+    assertFalse(programRedisRepository.exists(program.getId()));
+  }
+
+  @Test
+  public void shouldEvictEntryAfterCollectionOfEntityIsChanged() {
+    inTransaction(() -> roleRepository.findById(role.getId())
+        .ifPresent(found -> found.group(otherRight)));
+
+    assertFalse(roleDtoRedisRepository.exists(role.getId()));
+    assertTrue(programRedisRepository.exists(program.getId()));
+  }
+
+  @Test
+  public void shouldKeepEntryIfEntityIsNotChanged() {
+    updateProgram(found -> found.setDescription(program.getDescription()));
+
+    assertTrue(programRedisRepository.exists(program.getId()));
+  }
+
+  private void updateProgram(Consumer<Program> change) {
+    inTransaction(() -> programRepository.findById(program.getId()).ifPresent(change));
+  }
+
+  private void inTransaction(Runnable action) {
+    transactionTemplate.execute(status -> {
+      action.run();
+      return null;
+    });
+  }
+
+  private RoleDto exportToDto(Role role) {
+    RoleDto roleDto = new RoleDto();
+    role.export(roleDto);
+    return roleDto;
+  }
+}
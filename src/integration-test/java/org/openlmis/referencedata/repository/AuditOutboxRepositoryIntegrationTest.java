@@ -0,0 +1,72 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openlmis.referencedata.repository.AuditOutboxRepository.Operation.DELETE;
+import static org.openlmis.referencedata.repository.AuditOutboxRepository.Operation.SAVE;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.repository.AuditOutboxRepository.AuditOutboxEntry;
+import org.openlmis.referencedata.testbuilder.ProgramDataBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles({"test", "test-run"})
+@SpringBootTest
+@Transactional
+public class AuditOutboxRepositoryIntegrationTest {
+
+  @Autowired
+  private AuditOutboxRepository auditOutboxRepository;
+
+  private Program program = new ProgramDataBuilder().build();
+  private Program other = new ProgramDataBuilder().build();
+
+  @Test
+  public void shouldRemovePendingSavesOfEntityCreatedAndDeletedBeforePoll() {
+    auditOutboxRepository.add(Collections.singletonList(program), "creator", SAVE);
+    auditOutboxRepository.add(Collections.singletonList(program), "editor", SAVE);
+    auditOutboxRepository.add(Collections.singletonList(other), "creator", SAVE);
+
+    Optional<String> author = auditOutboxRepository.removePendingSaves(program);
+    auditOutboxRepository.add(Collections.singletonList(program), "remover", DELETE);
+
+    assertThat(author).contains("editor");
+
+    List<AuditOutboxEntry> entries = auditOutboxRepository.lockOldest(10);
+    assertThat(entries).hasSize(2);
+    assertThat(entries.get(0).getEntityId()).isEqualTo(other.getId());
+    assertThat(entries.get(0).isDelete()).isFalse();
+    assertThat(entries.get(1).getEntityId()).isEqualTo(program.getId());
+    assertThat(entries.get(1).getAuthor()).isEqualTo("remover");
+    assertThat(entries.get(1).isDelete()).isTrue();
+  }
+
+  @Test
+  public void shouldNotRemoveAnythingWhenThereAreNoPendingSaves() {
+    assertThat(auditOutboxRepository.removePendingSaves(program)).isEmpty();
+  }
+}
@@ -15,6 +15,9 @@
 
 package org.openlmis.referencedata.repository;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
 import org.junit.Assert;
 import org.junit.Test;
@@ -104,6 +107,20 @@ public abstract class CrudRedisRepositoryIntegrationTest<T extends Identifiable>
     Assert.assertEquals(id, instance.getId());
   }
 
+  @Test
+  public void shouldFindAllById() throws Exception {
+    CrudRedisRepository<T> repository = this.getRepository();
+
+    T instance = this.generateInstance();
+    repository.saveAll(Collections.singletonList(instance));
+
+    UUID missingId = UUID.randomUUID();
+    Map<UUID, T> found = repository.findAllById(Arrays.asList(instance.getId(), missingId));
+
+    Assert.assertEquals(1, found.size());
+    assertInstance(found.get(instance.getId()));
+  }
+
   @Test
   public void shouldDelete() throws Exception {
     CrudRedisRepository<T> repository = this.getRepository();
@@ -36,6 +36,7 @@ import com.google.common.collect.Sets;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.Polygon;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -426,6 +427,29 @@ public class FacilityRepositoryIntegrationTest extends BaseCrudRepositoryIntegra
     assertEquals(2, found.size());
   }
 
+  @Test
+  public void shouldWalkAllFacilitiesInBatches() {
+    // given
+    Facility facility2 = repository.save(generateInstance());
+    List<List<UUID>> batches = new ArrayList<>();
+
+    // when
+    repository.forEachBatch(2, batch -> batches.add(batch
+        .stream()
+        .map(Facility::getId)
+        .collect(Collectors.toList())));
+
+    // then
+    assertThat(batches, hasSize(2));
+    assertThat(batches.get(0), hasSize(2));
+    assertThat(batches.get(1), hasSize(1));
+    assertThat(batches
+            .stream()
+            .flatMap(List::stream)
+            .collect(Collectors.toSet()),
+        equalTo(ImmutableSet.of(facility.getId(), facility1.getId(), facility2.getId())));
+  }
+
   @Test
   public void shouldSetDefaultValueForSupportedProgramFlags() {
     facility.setSupportedPrograms(facility
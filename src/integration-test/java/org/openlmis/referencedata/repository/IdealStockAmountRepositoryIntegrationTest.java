@@ -15,17 +15,21 @@
 
 package org.openlmis.referencedata.repository;
 
+import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import org.assertj.core.util.Lists;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.openlmis.referencedata.domain.CommodityType;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.FacilityType;
@@ -34,6 +38,8 @@ import org.openlmis.referencedata.domain.GeographicZone;
 import org.openlmis.referencedata.domain.IdealStockAmount;
 import org.openlmis.referencedata.domain.ProcessingPeriod;
 import org.openlmis.referencedata.domain.ProcessingSchedule;
+import org.openlmis.referencedata.dto.IdealStockAmountCsvModel;
+import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.testbuilder.CommodityTypeDataBuilder;
 import org.openlmis.referencedata.testbuilder.FacilityDataBuilder;
 import org.openlmis.referencedata.testbuilder.FacilityTypeDataBuilder;
@@ -42,6 +48,8 @@ import org.openlmis.referencedata.testbuilder.GeographicZoneDataBuilder;
 import org.openlmis.referencedata.testbuilder.IdealStockAmountDataBuilder;
 import org.openlmis.referencedata.testbuilder.ProcessingPeriodDataBuilder;
 import org.openlmis.referencedata.testbuilder.ProcessingScheduleDataBuilder;
+import org.openlmis.referencedata.util.messagekeys.IdealStockAmountMessageKeys;
+import org.openlmis.referencedata.web.csv.recordhandler.IdealStockAmountWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -50,6 +58,9 @@ import org.springframework.data.domain.PageRequest;
 public class IdealStockAmountRepositoryIntegrationTest extends
     BaseCrudRepositoryIntegrationTest<IdealStockAmount> {
 
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
   @Autowired
   private IdealStockAmountRepository isaRepository;
 
@@ -74,6 +85,9 @@ public class IdealStockAmountRepositoryIntegrationTest extends
   @Autowired
   private GeographicZoneRepository geographicZoneRepository;
 
+  @Autowired
+  private IdealStockAmountWriter idealStockAmountWriter;
+
   private Facility facility;
   private ProcessingPeriod period;
   private ProcessingPeriod period2;
@@ -230,6 +244,71 @@ public class IdealStockAmountRepositoryIntegrationTest extends
     assertEquals(0, page.getContent().size());
   }
 
+  @Test
+  public void shouldBulkImportIdealStockAmounts() {
+    IdealStockAmount existing = isaRepository.save(generateInstance());
+
+    IdealStockAmount changed = generateInstance();
+    changed.setAmount(20);
+    IdealStockAmount added = generateInstance();
+    added.setProcessingPeriod(period2);
+    added.setAmount(30);
+    IdealStockAmount addedTwice = generateInstance();
+    addedTwice.setProcessingPeriod(period2);
+    addedTwice.setAmount(40);
+
+    int count = isaRepository.bulkImport(Arrays.asList(
+        singletonList(toCsvModel(changed)),
+        Arrays.asList(toCsvModel(added), toCsvModel(addedTwice))).iterator());
+
+    assertEquals(3, count);
+
+    Page<IdealStockAmount> page = isaRepository
+        .search(facilityId, commodityTypeId, null, PageRequest.of(0, 10));
+    assertEquals(2, page.getContent().size());
+    for (IdealStockAmount isa : page.getContent()) {
+      if (isa.getId().equals(existing.getId())) {
+        assertEquals(Integer.valueOf(20), isa.getAmount());
+      } else {
+        assertEquals(period2.getId(), isa.getProcessingPeriod().getId());
+        assertEquals(Integer.valueOf(40), isa.getAmount());
+      }
+    }
+  }
+
+  @Test
+  public void shouldNotBulkImportIdealStockAmountsIfFacilityDoesNotExist() {
+    IdealStockAmountCsvModel model = toCsvModel(generateInstance());
+    model.getFacility().setCode("unknown-facility");
+
+    expectedException.expect(ValidationMessageException.class);
+    expectedException.expectMessage(IdealStockAmountMessageKeys.ERROR_FACILITY_NOT_FOUND);
+
+    isaRepository.bulkImport(singletonList(singletonList(model)).iterator());
+  }
+
+  @Test
+  public void shouldUpdateAmountWrittenByEarlierChunkOfUpload() {
+    IdealStockAmount first = generateInstance();
+    first.setAmount(10);
+    IdealStockAmount second = generateInstance();
+    second.setAmount(20);
+
+    idealStockAmountWriter.write(singletonList(first));
+    idealStockAmountWriter.write(singletonList(second));
+
+    Page<IdealStockAmount> page = isaRepository
+        .search(facilityId, commodityTypeId, processingPeriodId, PageRequest.of(0, 10));
+    assertEquals(1, page.getContent().size());
+    assertEquals(Integer.valueOf(20), page.getContent().get(0).getAmount());
+  }
+
+  private IdealStockAmountCsvModel toCsvModel(IdealStockAmount isa) {
+    IdealStockAmountCsvModel model = new IdealStockAmountCsvModel();
+    isa.export(model);
+    return model;
+  }
+
   private void checkIsaProperties(IdealStockAmount isa, Page<IdealStockAmount> page) {
     IdealStockAmount idealStockAmount = page.getContent().get(0);
     assertEquals(isa.getId(), idealStockAmount.getId());
@@ -29,6 +29,9 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.openlmis.referencedata.domain.Orderable.COMMODITY_TYPE;
 import static org.openlmis.referencedata.domain.Orderable.TRADE_ITEM;
+import static org.openlmis.referencedata.util.CustomSqlFunctionsContributor.IDENTITY_IN_ARRAYS;
+import static org.openlmis.referencedata.util.CustomSqlFunctionsContributor.UUID_IN_ARRAY;
+import static org.openlmis.referencedata.util.CustomSqlFunctionsContributor.toArrayLiteral;
 
 import com.google.common.collect.Sets;
 import java.sql.Timestamp;
@@ -47,6 +50,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceException;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Root;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -621,6 +628,69 @@ public class OrderableRepositoryIntegrationTest {
     assertThat(actual.getContent().get(0).getVersionNumber(), is(orderable.getVersionNumber() - 1));
   }
 
+  @Test
+  public void shouldMatchIdentitiesBoundAsArrays() {
+    Orderable orderable1 = saveAndGetOrderable();
+    Orderable orderable2 = saveAndGetOrderable();
+    Orderable orderable3 = saveAndGetOrderable();
+    VersionIdentity previousVersion = new VersionIdentity(orderable2.getId(),
+        orderable2.getVersionNumber() - 1);
+
+    List<VersionIdentity> actual = findByIdentities(Lists.newArrayList(
+        orderable1.getVersionIdentity(), previousVersion, orderable3.getVersionIdentity()));
+
+    assertThat(actual, hasSize(3));
+    assertThat(actual, hasItems(
+        orderable1.getVersionIdentity(), previousVersion, orderable3.getVersionIdentity()));
+  }
+
+  @Test
+  public void shouldMatchNoIdentitiesBoundAsEmptyArrays() {
+    saveAndGetOrderable();
+
+    assertThat(findByIdentities(Collections.emptyList()), hasSize(0));
+  }
+
+  @Test
+  public void shouldMatchIdsBoundAsArray() {
+    Orderable orderable1 = saveAndGetOrderable();
+    Orderable orderable2 = saveAndGetOrderable();
+    saveAndGetOrderable();
+
+    List<VersionIdentity> actual = findByIds(
+        Lists.newArrayList(orderable1.getId(), orderable2.getId()));
+
+    // both versions of each orderable
+    assertThat(actual, hasSize(4));
+    assertThat(actual, hasItems(orderable1.getVersionIdentity(),
+        orderable2.getVersionIdentity()));
+  }
+
+  @Test
+  public void shouldMatchNoIdsBoundAsEmptyArray() {
+    saveAndGetOrderable();
+
+    assertThat(findByIds(Collections.emptyList()), hasSize(0));
+  }
+
+  @Test
+  public void shouldProcessLatestVersionsInBatches() {
+    Orderable orderableC = saveOrderableWithVersions("c", 3);
+    Orderable orderableA = saveOrderableWithVersions("a", 2);
+    Orderable orderableB = saveOrderableWithVersions("b", 1);
+    List<List<VersionIdentity>> batches = new ArrayList<>();
+
+    repository.forEachLatestBatch(2, batch -> batches.add(batch
+        .stream()
+        .map(Versionable::getVersionIdentity)
+        .collect(Collectors.toList())));
+
+    assertThat(batches, hasSize(2));
+    assertEquals(Arrays.asList(orderableA.getVersionIdentity(), orderableB.getVersionIdentity()),
+        batches.get(0));
+    assertEquals(Collections.singletonList(orderableC.getVersionIdentity()), batches.get(1));
+  }
+
   @Test
   public void shouldFindByIdentifier() {
     String identifierValue1 = UUID.randomUUID().toString();
@@ -894,6 +964,67 @@ public class OrderableRepositoryIntegrationTest {
     return program;
   }
 
+  private List<VersionIdentity> findByIdentities(List<VersionIdentity> identities) {
+    List<UUID> ids = identities
+        .stream()
+        .map(VersionIdentity::getId)
+        .collect(Collectors.toList());
+    List<Long> versionNumbers = identities
+        .stream()
+        .map(VersionIdentity::getVersionNumber)
+        .collect(Collectors.toList());
+
+    return findByFunction(IDENTITY_IN_ARRAYS, true,
+        toArrayLiteral(ids), toArrayLiteral(versionNumbers));
+  }
+
+  private List<VersionIdentity> findByIds(List<UUID> ids) {
+    return findByFunction(UUID_IN_ARRAY, false, toArrayLiteral(ids));
+  }
+
+  private List<VersionIdentity> findByFunction(String function, boolean withVersionNumber,
+      String... arrays) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Orderable> query = builder.createQuery(Orderable.class);
+    Root<Orderable> root = query.from(Orderable.class);
+
+    List<Expression<?>> arguments = new ArrayList<>();
+    arguments.add(root.get("identity").get("id"));
+
+    if (withVersionNumber) {
+      arguments.add(root.get("identity").get("versionNumber"));
+    }
+
+    for (String array : arrays) {
+      arguments.add(builder.literal(array));
+    }
+
+    query.where(builder.isTrue(builder.function(function, Boolean.class,
+        arguments.toArray(new Expression<?>[0]))));
+
+    return entityManager
+        .createQuery(query)
+        .getResultList()
+        .stream()
+        .map(Versionable::getVersionIdentity)
+        .collect(Collectors.toList());
+  }
+
+  private Orderable saveOrderableWithVersions(String fullProductName, int versions) {
+    OrderableDataBuilder builder = new OrderableDataBuilder()
+        .withProductCode(Code.code(CODE + getNextInstanceNumber()))
+        .withFullProductName(fullProductName);
+    Orderable orderable = repository.save(builder.withVersionNumber(1L).buildAsNew());
+
+    for (long versionNumber = 2; versionNumber <= versions; ++versionNumber) {
+      Orderable newVersion = builder.withVersionNumber(versionNumber).buildAsNew();
+      newVersion.setId(orderable.getId());
+      orderable = repository.save(newVersion);
+    }
+
+    return orderable;
+  }
+
   private Orderable saveAndGetOrderable() {
     int instanceNumber = getNextInstanceNumber();
     return saveAndGetOrderableWithTwoVersions(Code.code(CODE + instanceNumber));
@@ -0,0 +1,148 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import javax.annotation.Resource;
+import org.javers.core.Javers;
+import org.javers.core.commit.Commit;
+import org.javers.core.diff.Change;
+import org.javers.core.diff.changetype.NewObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openlmis.referencedata.domain.GeographicLevel;
+import org.openlmis.referencedata.service.AuditLogService.AuditedChanges;
+import org.openlmis.referencedata.testbuilder.GeographicLevelDataBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles({"test", "test-run"})
+@SpringBootTest
+@Transactional
+public class AuditLogServiceIntegrationTest {
+
+  private static final String AUTHOR = "author";
+
+  @Resource(name = "javersProvider")
+  private Javers javers;
+
+  @Autowired
+  private AuditLogService auditLogService;
+
+  private GeographicLevel level;
+  private Commit first;
+  private Commit second;
+  private Commit third;
+
+  @Before
+  public void setUp() {
+    level = new GeographicLevelDataBuilder().withName("first").build();
+    first = javers.commit(AUTHOR, level);
+
+    level.setName("second");
+    second = javers.commit(AUTHOR, level);
+
+    level.setName("third");
+    third = javers.commit("other", level);
+  }
+
+  @Test
+  public void shouldReturnChangesOfNewestCommitsFirst() {
+    List<Change> changes = findChanges(null, null, PageRequest.of(0, 1));
+
+    assertMadeBy(third, changes);
+  }
+
+  @Test
+  public void shouldCountPagesInCommits() {
+    List<Change> changes = findChanges(null, null, PageRequest.of(1, 1));
+
+    assertMadeBy(second, changes);
+  }
+
+  @Test
+  public void shouldReturnChangesOfCommitsOlderThanGivenOne() {
+    List<Change> changes = findChanges(null, commitId(second), PageRequest.of(0, 10));
+
+    assertMadeBy(first, changes);
+    assertTrue(changes.stream().anyMatch(change -> change instanceof NewObject));
+  }
+
+  @Test
+  public void shouldReturnChangesOfGivenAuthor() {
+    List<Change> changes = findChanges(AUTHOR, null, PageRequest.of(0, 1));
+
+    assertMadeBy(second, changes);
+  }
+
+  @Test
+  public void shouldReturnNothingPastLastPage() {
+    assertTrue(findChanges(null, null, PageRequest.of(3, 1)).isEmpty());
+  }
+
+  @Test
+  public void shouldReturnOldestCommitOfFullPageAsNextBefore() {
+    AuditedChanges changes = auditLogService
+        .findChanges(GeographicLevel.class, level.getId(), null, null, null, PageRequest.of(0, 2));
+
+    assertEquals(0, commitId(second).compareTo(changes.getNextBefore()));
+  }
+
+  @Test
+  public void shouldNotReturnNextBeforeOfLastPage() {
+    AuditedChanges changes = auditLogService
+        .findChanges(GeographicLevel.class, level.getId(), null, null, null, PageRequest.of(0, 4));
+
+    assertNull(changes.getNextBefore());
+  }
+
+  @Test
+  public void shouldIgnorePageNumberWhenBeforeIsGiven() {
+    List<Change> changes = findChanges(null, commitId(third), PageRequest.of(5, 1));
+
+    assertMadeBy(second, changes);
+  }
+
+  private List<Change> findChanges(String author, BigDecimal before, PageRequest page) {
+    return auditLogService
+        .findChanges(GeographicLevel.class, level.getId(), author, null, before, page)
+        .getChanges();
+  }
+
+  private void assertMadeBy(Commit commit, List<Change> changes) {
+    assertFalse(changes.isEmpty());
+
+    for (Change change : changes) {
+      assertEquals(commit.getId(), change.getCommitMetadata().get().getId());
+    }
+  }
+
+  private BigDecimal commitId(Commit commit) {
+    return new BigDecimal(commit.getId().value());
+  }
+}
@@ -62,7 +62,11 @@ public class UserImportPersisterIntegrationTest {
 
   @Before
   public void setup() {
-    ReflectionTestUtils.setField(userImportPersister, "importExecutorService",
+    ReflectionTestUtils.setField(userImportPersister, "persistExecutorService",
+        MoreExecutors.newDirectExecutorService());
+    ReflectionTestUtils.setField(userImportPersister, "contactDetailsExecutorService",
+        MoreExecutors.newDirectExecutorService());
+    ReflectionTestUtils.setField(userImportPersister, "authDetailsExecutorService",
         MoreExecutors.newDirectExecutorService());
     ReflectionTestUtils.setField(userImportPersister, "userDetailsService", userDetailsService);
     ReflectionTestUtils.setField(userImportPersister, "userAuthService", userAuthService);
@@ -103,6 +103,7 @@ import org.openlmis.referencedata.service.RightService;
 import org.openlmis.referencedata.service.SupplyPartnerBuilder;
 import org.openlmis.referencedata.service.UserService;
 import org.openlmis.referencedata.service.export.DataExportService;
+import org.openlmis.referencedata.service.export.DataImportJobService;
 import org.openlmis.referencedata.service.export.DataImportService;
 import org.openlmis.referencedata.testbuilder.UserDataBuilder;
 import org.openlmis.referencedata.util.Message;
@@ -314,6 +315,9 @@ public abstract class BaseWebIntegrationTest {
   @MockBean
   protected OrderableFulfillFactory factory;
 
+  @MockBean
+  protected OrderableFulfillIndex orderableFulfillIndex;
+
   @MockBean
   protected FacilityTypeService facilityTypeService;
 
@@ -332,6 +336,9 @@ public abstract class BaseWebIntegrationTest {
   @MockBean
   protected DataImportService dataImportService;
 
+  @MockBean
+  protected DataImportJobService dataImportJobService;
+
   /**
    * Constructor for test.
    */
@@ -20,15 +20,23 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.openlmis.referencedata.domain.RightName.DATA_IMPORT;
 import static org.openlmis.referencedata.web.export.DataImportController.RESOURCE_PATH;
 
 import guru.nidi.ramltester.junit.RamlMatchers;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.UUID;
 import org.junit.Before;
 import org.junit.Test;
+import org.openlmis.referencedata.domain.ImportJob;
 import org.openlmis.referencedata.dto.ImportResponseDto;
+import org.openlmis.referencedata.exception.NotFoundException;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.messagekeys.DataImportMessageKeys;
 import org.slf4j.profiler.Profiler;
 import org.springframework.http.HttpHeaders;
 import org.springframework.mock.web.MockMultipartFile;
@@ -39,6 +47,11 @@ public class DataImportControllerIntegrationTest extends BaseWebIntegrationTest
   private static final MultipartFile file = new MockMultipartFile(
       "orderable.csv", "test-data".getBytes());
 
+  private static final String JOB_URL = RESOURCE_PATH + "/jobs/{id}";
+  private static final String CANCEL_JOB_URL = JOB_URL + "/cancel";
+
+  private ImportJob job;
+
   @Before
   @Override
   public void setUp() {
@@ -51,6 +64,9 @@ public class DataImportControllerIntegrationTest extends BaseWebIntegrationTest
     } catch (InterruptedException ie) {
       // ignore in tests
     }
+
+    job = ImportJob.newQueuedJob("/tmp/import", Collections.singletonList("orderable.csv"));
+    job.setId(UUID.randomUUID());
   }
 
   @Test
@@ -85,4 +101,106 @@ public class DataImportControllerIntegrationTest extends BaseWebIntegrationTest
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldSubmitImportJobWithCorrectRight() throws IOException {
+    given(dataImportJobService.submit(any(MultipartFile.class))).willReturn(job);
+
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .multiPart("file", file.getOriginalFilename(), file.getInputStream())
+        .when()
+        .post(RESOURCE_PATH + "/jobs")
+        .then()
+        .statusCode(202)
+        .body(ID, is(job.getId().toString()))
+        .body("status", is(ImportJob.Status.QUEUED.toString()))
+        .body("files[0].fileName", is("orderable.csv"));
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotSubmitImportJobWithIncorrectRight() throws IOException {
+    mockUserHasNoRight(DATA_IMPORT);
+
+    String response = restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .multiPart("file", file.getOriginalFilename(), file.getInputStream())
+        .when()
+        .post(RESOURCE_PATH + "/jobs")
+        .then()
+        .statusCode(403)
+        .extract()
+        .path(MESSAGE_KEY);
+
+    assertThat(response, is(equalTo(MESSAGEKEY_ERROR_UNAUTHORIZED)));
+    verify(dataImportJobService, never()).submit(any(MultipartFile.class));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldGetImportJob() {
+    given(dataImportJobService.getJob(job.getId())).willReturn(job);
+
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .pathParam(ID, job.getId())
+        .when()
+        .get(JOB_URL)
+        .then()
+        .statusCode(200)
+        .body(ID, is(job.getId().toString()))
+        .body("files[0].rowsRead", is(0));
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldReturnNotFoundForNonExistentImportJob() {
+    given(dataImportJobService.getJob(job.getId())).willThrow(new NotFoundException(
+        new Message(DataImportMessageKeys.ERROR_JOB_NOT_FOUND, job.getId())));
+
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .pathParam(ID, job.getId())
+        .when()
+        .get(JOB_URL)
+        .then()
+        .statusCode(404);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldCancelImportJob() {
+    job.setStatus(ImportJob.Status.CANCELLED);
+    given(dataImportJobService.cancel(job.getId())).willReturn(job);
+
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .pathParam(ID, job.getId())
+        .when()
+        .post(CANCEL_JOB_URL)
+        .then()
+        .statusCode(200)
+        .body("status", is(ImportJob.Status.CANCELLED.toString()));
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldReturnBadRequestWhenCancellingFinishedImportJob() {
+    given(dataImportJobService.cancel(job.getId())).willThrow(new ValidationMessageException(
+        new Message(DataImportMessageKeys.ERROR_JOB_FINISHED, job.getId())));
+
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .pathParam(ID, job.getId())
+        .when()
+        .post(CANCEL_JOB_URL)
+        .then()
+        .statusCode(400);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
 }
@@ -25,7 +25,9 @@ import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -45,6 +47,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.assertj.core.util.Lists;
 import org.hamcrest.Matchers;
 import org.junit.Before;
@@ -59,6 +62,7 @@ import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.openlmis.referencedata.domain.SupplyLine;
 import org.openlmis.referencedata.domain.SupportedProgram;
+import org.openlmis.referencedata.dto.BasicFacilityDto;
 import org.openlmis.referencedata.dto.FacilityDto;
 import org.openlmis.referencedata.dto.MinimalFacilityDto;
 import org.openlmis.referencedata.exception.ValidationMessageException;
@@ -429,6 +433,59 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
     verifyZeroInteractions(rightService);
   }
 
+  @Test
+  public void shouldStreamAllFacilitiesWhenRequested() {
+    List<BasicFacilityDto> storedFacilities = asList(BasicFacilityDto.newInstance(facility),
+        BasicFacilityDto.newInstance(facility1));
+    doAnswer(invocation -> {
+      Consumer<List<BasicFacilityDto>> consumer = invocation.getArgument(0);
+      consumer.accept(storedFacilities.subList(0, 1));
+      consumer.accept(storedFacilities.subList(1, 2));
+      return null;
+    }).when(facilityService).forEachBasicFacilityBatch(any(Consumer.class));
+
+    PageDto response = restAssured
+        .given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .header(StreamingPageWriter.HEADER, true)
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(200)
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .extract().as(PageDto.class);
+
+    assertEquals(storedFacilities.size(), response.getContent().size());
+    assertEquals(storedFacilities.size(), response.getNumberOfElements());
+    assertEquals(storedFacilities.size(), response.getTotalElements());
+    verify(facilityService, never()).searchFacilities(any(), any());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldSearchInsteadOfStreamingWhenParamsProvided() {
+    MultiValueMap<String, Object> queryMap = new LinkedMultiValueMap<>();
+    queryMap.add(CODE, facility.getCode());
+
+    given(facilityService.searchFacilities(new FacilitySearchParams(queryMap), pageable))
+        .willReturn(Pagination.getPage(singletonList(facility), pageable));
+
+    PageDto response = restAssured
+        .given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .header(StreamingPageWriter.HEADER, true)
+        .queryParam(CODE, facility.getCode())
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(PageDto.class);
+
+    assertEquals(1, response.getContent().size());
+    verify(facilityService, never()).forEachBasicFacilityBatch(any());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldSearchWithParamsWhenParamsProvided() {
     List<Facility> storedFacilities = asList(facility, new FacilityDataBuilder()
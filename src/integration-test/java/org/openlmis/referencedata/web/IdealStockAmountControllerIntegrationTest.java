@@ -34,6 +34,7 @@ import com.jayway.restassured.response.ValidatableResponse;
 import com.jayway.restassured.specification.RequestSpecification;
 import guru.nidi.ramltester.junit.RamlMatchers;
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
@@ -199,6 +200,23 @@ public class IdealStockAmountControllerIntegrationTest extends BaseWebIntegratio
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.responseChecks());
   }
 
+  @Test
+  public void shouldUploadCsvInBulk() throws IOException {
+    ClassPathResource fullCsvToUpload =
+        new ClassPathResource("csv/idealStockAmounts/csvWithAllColumns.csv");
+    when(idealStockAmountService.bulkImport(any(InputStream.class))).thenReturn(1);
+
+    UploadResultDto result = upload(fullCsvToUpload, true)
+        .then()
+        .statusCode(200)
+        .extract().as(UploadResultDto.class);
+
+    verify(idealStockAmountService).bulkImport(any(InputStream.class));
+    verify(idealStockAmountRepository, never()).saveAll(anyList());
+    assertEquals(1, result.getAmount().intValue());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.responseChecks());
+  }
+
   @Test
   public void shouldNotUploadCsvWithoutMandatoryFields() throws IOException {
     ClassPathResource basicCsvToUpload =
@@ -258,10 +276,15 @@ public class IdealStockAmountControllerIntegrationTest extends BaseWebIntegratio
   }
 
   private Response upload(ClassPathResource basicCsvToUpload) throws IOException {
+    return upload(basicCsvToUpload, false);
+  }
+
+  private Response upload(ClassPathResource basicCsvToUpload, boolean bulk) throws IOException {
     return restAssured.given()
         .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
         .contentType(MediaType.MULTIPART_FORM_DATA_VALUE)
         .queryParam("format", "csv")
+        .queryParam("bulk", bulk)
         .multiPart(FILE_PARAM_NAME,
             basicCsvToUpload.getFilename(),
             basicCsvToUpload.getInputStream())
@@ -22,9 +22,11 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.openlmis.referencedata.domain.RightName.ORDERABLES_MANAGE;
@@ -39,6 +41,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.jayway.restassured.response.Response;
 import guru.nidi.ramltester.junit.RamlMatchers;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
@@ -57,6 +61,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
 import org.apache.http.HttpStatus;
 import org.joda.money.CurrencyUnit;
@@ -542,6 +547,74 @@ public class OrderableControllerIntegrationTest extends BaseWebIntegrationTest {
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldStreamLatestOrderablesAsNewlineDelimitedJson() throws IOException {
+    restAssured
+        .given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .accept(OrderableController.NDJSON_MEDIA_TYPE)
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(HttpStatus.SC_OK)
+        .contentType(OrderableController.NDJSON_MEDIA_TYPE);
+
+    verify(orderableService).exportLatestOrderables(any(OutputStream.class));
+    verify(orderableService, never())
+        .searchOrderables(any(QueryOrderableSearchParams.class), any(Pageable.class));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldStreamLatestOrderablesAsPageWhenRequested() {
+    final List<Orderable> items = Collections.singletonList(orderable);
+    when(orderableService
+        .getLatestLastUpdatedDate(any(QueryOrderableSearchParams.class), any(Profiler.class)))
+        .thenReturn(modifiedDate);
+    doAnswer(invocation -> {
+      Consumer<List<OrderableDto>> consumer = invocation.getArgument(0);
+      consumer.accept(OrderableDto.newInstances(items));
+      return null;
+    }).when(orderableService).forEachLatestOrderableBatch(any(Consumer.class));
+
+    PageDto response = restAssured
+        .given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .header(StreamingPageWriter.HEADER, true)
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(HttpStatus.SC_OK)
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .header(HttpHeaders.LAST_MODIFIED, modifiedDate.format(RFC_7231_FORMAT))
+        .extract().as(PageDto.class);
+
+    checkIfEquals(response, OrderableDto.newInstances(items));
+    verify(orderableService, never())
+        .searchOrderables(any(QueryOrderableSearchParams.class), any(Pageable.class));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldReturnNotModifiedInsteadOfStreamingIfNoOrderableWasModified() {
+    when(orderableService
+        .getLatestLastUpdatedDate(any(QueryOrderableSearchParams.class), any(Profiler.class)))
+        .thenReturn(modifiedDate);
+
+    restAssured
+        .given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .header(HttpHeaders.IF_MODIFIED_SINCE, modifiedDate.format(RFC_7231_FORMAT))
+        .header(StreamingPageWriter.HEADER, true)
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(HttpStatus.SC_NOT_MODIFIED);
+
+    verify(orderableService, never()).forEachLatestOrderableBatch(any());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldSearchOrderables() {
     final String code = "some-code";
@@ -22,7 +22,6 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
@@ -39,6 +38,7 @@ import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
 import org.openlmis.referencedata.domain.Orderable;
 import org.openlmis.referencedata.testbuilder.FacilityTypeApprovedProductsDataBuilder;
 import org.openlmis.referencedata.testbuilder.OrderableDataBuilder;
+import org.openlmis.referencedata.web.OrderableFulfillIndex.IndexedOrderable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpHeaders;
@@ -49,6 +49,7 @@ public class OrderableFulfillControllerIntegrationTest extends BaseWebIntegratio
   private static final String CAN_FULFILL_FOR_ME_FIELD_NAME = ".canFulfillForMe";
 
   private Orderable orderable = new OrderableDataBuilder().build();
+  private IndexedOrderable indexedOrderable;
   private UUID facilityId = UUID.randomUUID();
   private UUID programId = UUID.randomUUID();
 
@@ -59,13 +60,15 @@ public class OrderableFulfillControllerIntegrationTest extends BaseWebIntegratio
   @Before
   public void setUp() {
     super.setUp();
-    given(orderableRepository.findAllLatest(any())).willReturn(getPage(orderable));
+    given(orderableFulfillIndex.getLatestOrderables(any()))
+        .willAnswer(invocation -> Lists.newArrayList(indexedOrderable));
   }
 
   @Test
   public void shouldCreateResourceForTradeItem() {
     orderable.setId(tradeItemOrderableId);
-    given(factory.createFor(eq(orderable), any(), any()))
+    indexedOrderable = index(orderable);
+    given(factory.createFor(eq(indexedOrderable)))
         .willReturn(OrderableFulfill.ofTradeItem(commodityTypeOrderableId));
 
     String canFulfillForMeField = tradeItemOrderableId + CAN_FULFILL_FOR_ME_FIELD_NAME;
@@ -80,7 +83,8 @@ public class OrderableFulfillControllerIntegrationTest extends BaseWebIntegratio
   @Test
   public void shouldCreateResourceForCommodityType() {
     orderable.setId(commodityTypeOrderableId);
-    given(factory.createFor(eq(orderable), any(), any()))
+    indexedOrderable = index(orderable);
+    given(factory.createFor(eq(indexedOrderable)))
         .willReturn(OrderableFulfill.ofCommodityType(tradeItemOrderableId));
 
     String canBeFulfilledByMeField = commodityTypeOrderableId + CAN_BE_FULFILLED_BY_ME;
@@ -94,7 +98,7 @@ public class OrderableFulfillControllerIntegrationTest extends BaseWebIntegratio
 
   @Test
   public void shouldReturnEmptyListIfThereAreNoOrderables() {
-    given(orderableRepository.findAllLatest(any())).willReturn(new PageImpl<>(emptyList()));
+    given(orderableFulfillIndex.getLatestOrderables(any())).willReturn(emptyList());
 
     doRequest(null).body("isEmpty()", is(true));
     verifyZeroInteractions(factory);
@@ -103,9 +107,9 @@ public class OrderableFulfillControllerIntegrationTest extends BaseWebIntegratio
   @Test
   public void shouldCreateResourceBasingOnIds() {
     orderable.setId(commodityTypeOrderableId);
+    indexedOrderable = index(orderable);
 
-    given(orderableRepository.findAllLatestByIds(any(), any())).willReturn(getPage(orderable));
-    given(factory.createFor(eq(orderable), any(), any()))
+    given(factory.createFor(eq(indexedOrderable)))
         .willReturn(OrderableFulfill.ofCommodityType(tradeItemOrderableId));
 
     String canFulfillForMeField = commodityTypeOrderableId + CAN_FULFILL_FOR_ME_FIELD_NAME;
@@ -116,20 +120,21 @@ public class OrderableFulfillControllerIntegrationTest extends BaseWebIntegratio
     ValidatableResponse response = doRequest(params);
     response.body(canFulfillForMeField, hasItem(tradeItemOrderableId.toString()));
 
-    verify(orderableRepository, times(0)).findAllLatest(any());
+    verify(orderableFulfillIndex)
+        .getLatestOrderables(Collections.singleton(commodityTypeOrderableId));
   }
 
   @Test
   public void shouldCreateResourceBasingOnFacilityIdAndProgramIdParams() {
     orderable.setId(commodityTypeOrderableId);
+    indexedOrderable = index(orderable);
     FacilityTypeApprovedProduct ftap = new FacilityTypeApprovedProductsDataBuilder()
         .withOrderableId(commodityTypeOrderableId).build();
 
     given(facilityTypeApprovedProductRepository
         .searchProducts(eq(facilityId), eq(programId), any(), any(), eq(true), any(), any(),any()))
         .willReturn(getPage(ftap));
-    given(orderableRepository.findAllLatestByIds(any(), any())).willReturn(getPage(orderable));
-    given(factory.createFor(eq(orderable), any(), any()))
+    given(factory.createFor(eq(indexedOrderable)))
         .willReturn(OrderableFulfill.ofCommodityType(tradeItemOrderableId));
 
     String canFulfillForMeField = commodityTypeOrderableId + CAN_FULFILL_FOR_ME_FIELD_NAME;
@@ -141,11 +146,17 @@ public class OrderableFulfillControllerIntegrationTest extends BaseWebIntegratio
     ValidatableResponse response = doRequest(params);
     response.body(canFulfillForMeField, hasItem(tradeItemOrderableId.toString()));
 
-    verify(orderableRepository, times(0)).findAllLatest(any());
+    verify(orderableFulfillIndex)
+        .getLatestOrderables(Collections.singleton(commodityTypeOrderableId));
     verify(facilityTypeApprovedProductRepository)
         .searchProducts(eq(facilityId), eq(programId), any(), any(), eq(true), any(), any(), any());
   }
 
+  private IndexedOrderable index(Orderable orderable) {
+    return new IndexedOrderable(orderable.getId(), orderable.getTradeItemIdentifier(),
+        orderable.getCommodityTypeIdentifier(), orderable.getDispensable());
+  }
+
   @SafeVarargs
   private final <T> Page<T> getPage(T... instance) {
     return new PageImpl<>(Lists.newArrayList(instance));
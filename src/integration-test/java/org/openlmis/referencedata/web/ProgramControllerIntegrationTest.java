@@ -21,6 +21,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -97,8 +98,6 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
     mockUserHasRight(RightName.PROGRAMS_MANAGE);
 
     given(programRepository.findById(programId)).willReturn(Optional.of(program));
-    given(programRedisRepository.exists(programId)).willReturn(true);
-    given(programRedisRepository.findById(programId)).willReturn(program);
 
     restAssured
         .given()
@@ -110,7 +109,8 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
         .then()
         .statusCode(204);
 
-    verify(programRedisRepository, times(1)).delete(program);
+    verify(programRepository, times(1)).delete(program);
+    verify(programRedisRepository, times(1)).deleteById(programId);
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
@@ -222,8 +222,6 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
 
     programDto.setDescription(DESCRIPTION);
     given(programRepository.findById(programId)).willReturn(Optional.of(program));
-    given(programRedisRepository.findById(programId)).willReturn(program);
-    given(programRedisRepository.exists(programId)).willReturn(true);
 
     Program response = restAssured
         .given()
@@ -239,7 +237,8 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
 
     assertEquals(program, response);
     assertEquals("OpenLMIS", response.getDescription());
-    verify(programRedisRepository, times(1)).delete(program);
+    verify(programRepository, times(1)).save(any(Program.class));
+    verify(programRedisRepository, times(1)).deleteById(programId);
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
@@ -383,8 +382,6 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
   public void shouldGetProgramFromDatabaseWhenNotInCache() {
 
     togglzRule.enable(AvailableFeatures.REDIS_CACHING);
-    given(programRepository.existsById(programId)).willReturn(true);
-    given(programRedisRepository.exists(programId)).willReturn(false);
     given(programRepository.findById(programId)).willReturn(Optional.of(program));
 
     Program response = restAssured
@@ -428,8 +425,6 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
   public void shouldGetProgramFromCache() {
 
     togglzRule.enable(AvailableFeatures.REDIS_CACHING);
-    given(programRepository.existsById(programId)).willReturn(true);
-    given(programRedisRepository.exists(programId)).willReturn(true);
     given(programRedisRepository.findById(programId)).willReturn(program);
 
     Program response = restAssured
@@ -444,6 +439,7 @@ public class ProgramControllerIntegrationTest extends BaseWebIntegrationTest {
         .extract().as(Program.class);
 
     verify(programRedisRepository, times(1)).findById(programId);
+    verify(programRepository, never()).findById(programId);
     assertEquals(program, response);
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
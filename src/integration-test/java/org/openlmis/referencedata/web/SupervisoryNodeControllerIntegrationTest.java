@@ -186,9 +186,6 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
     mockUserHasRight(RightName.SUPERVISORY_NODES_MANAGE);
     given(supervisoryNodeRepository.findById(supervisoryNodeId))
         .willReturn(Optional.of(supervisoryNode));
-    given(supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)).willReturn(true);
-    given(supervisoryNodeDtoRedisRepository.findById(supervisoryNodeId))
-        .willReturn(supervisoryNodeDto);
 
     restAssured
         .given()
@@ -200,8 +197,8 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
         .then()
         .statusCode(204);
 
-    verify(supervisoryNodeDtoRedisRepository, times(1))
-        .delete(supervisoryNodeDto);
+    verify(supervisoryNodeRepository, times(1)).delete(supervisoryNode);
+    verify(supervisoryNodeDtoRedisRepository, times(1)).deleteById(supervisoryNodeId);
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
@@ -489,9 +486,6 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
     supervisoryNodeDto.setDescription(DESCRIPTION);
     given(supervisoryNodeRepository.findById(supervisoryNodeId))
         .willReturn(Optional.of(supervisoryNode));
-    given(supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)).willReturn(true);
-    given(supervisoryNodeDtoRedisRepository.findById(supervisoryNodeId))
-        .willReturn(supervisoryNodeDto);
 
     ValidatableResponse response = restAssured
         .given()
@@ -505,8 +499,7 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
         .statusCode(200);
 
     assertResponseBody(response, is(supervisoryNodeDto.getId().toString()));
-    verify(supervisoryNodeDtoRedisRepository,
-        times(1)).delete(supervisoryNodeDto);
+    verify(supervisoryNodeDtoRedisRepository, times(1)).deleteById(supervisoryNodeId);
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
@@ -729,8 +722,6 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
   public void shouldGetSupervisoryNodeFromDatabaseWhenNotInCache() {
 
     togglzRule.enable(AvailableFeatures.REDIS_CACHING);
-    given(supervisoryNodeRepository.existsById(supervisoryNodeId)).willReturn(true);
-    given(supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)).willReturn(false);
     given(supervisoryNodeRepository.findById(supervisoryNodeId))
         .willReturn(Optional.of(supervisoryNode));
 
@@ -752,8 +743,6 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
   public void shouldSaveSupervisoryNodeInCacheAfterGettingOneFromDatabase() {
 
     togglzRule.enable(AvailableFeatures.REDIS_CACHING);
-    given(supervisoryNodeRepository.existsById(supervisoryNodeId)).willReturn(true);
-    given(supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)).willReturn(false);
     given(supervisoryNodeRepository.findById(supervisoryNodeId))
         .willReturn(Optional.of(supervisoryNode));
 
@@ -775,8 +764,6 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
   @Test
   public void shouldGetSupervisoryNodeFromCache() {
     togglzRule.enable(AvailableFeatures.REDIS_CACHING);
-    given(supervisoryNodeRepository.existsById(supervisoryNodeId)).willReturn(true);
-    given(supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)).willReturn(true);
     given(supervisoryNodeDtoRedisRepository.findById(supervisoryNodeId))
         .willReturn(supervisoryNodeDto);
 
@@ -799,8 +786,6 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
   @Test
   public void shouldThrowErrorNotFoundWhenNeitherInDatabaseNorInCache() {
     togglzRule.enable(AvailableFeatures.REDIS_CACHING);
-    given(supervisoryNodeRepository.existsById(supervisoryNodeId)).willReturn(false);
-    given(supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)).willReturn(false);
 
     restAssured
         .given()
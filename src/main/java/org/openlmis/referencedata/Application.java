@@ -21,9 +21,7 @@ import java.time.Clock;
 import java.time.ZoneId;
 import java.util.Locale;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executors;
 import javax.annotation.PostConstruct;
 import org.flywaydb.core.Flyway;
 import org.flywaydb.core.api.callback.Callback;
@@ -65,6 +63,7 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -236,6 +235,18 @@ public class Application {
     return new JedisConnectionFactory(config, clientConfig);
   }
 
+  /**
+   * Creates the container that dispatches Redis pub/sub messages, e.g. second-level cache
+   * invalidations broadcast by other instances of this service.
+   */
+  @Bean
+  public RedisMessageListenerContainer redisMessageListenerContainer(
+      RedisProperties properties) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory(properties));
+    return container;
+  }
+
   @Bean
   public StringRedisSerializer stringRedisSerializer() {
     return new StringRedisSerializer();
@@ -284,9 +295,94 @@ public class Application {
         .build();
   }
 
+  /**
+   * Runs the batches of data import files. Its threads are shared by all files imported at the
+   * same time.
+   */
   @Bean("importExecutorService")
-  ExecutorService getImportExecutorService() {
-    return new ThreadPoolExecutor(1, 8, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+  ExecutorService getImportExecutorService(
+      @Value("${referencedata.import.concurrency}") int concurrency) {
+    return Executors.newFixedThreadPool(concurrency);
+  }
+
+  /**
+   * Runs the import of each file of a data import archive. Files wait for their batches on the
+   * import executor, so they get threads of their own.
+   */
+  @Bean("importFileExecutorService")
+  ExecutorService getImportFileExecutorService() {
+    return Executors.newCachedThreadPool();
+  }
+
+  /**
+   * Runs background data import jobs one at a time. Their batches are persisted on the import
+   * executor, so a job never waits for a thread it occupies itself.
+   */
+  @Bean("importJobExecutorService")
+  ExecutorService getImportJobExecutorService() {
+    return Executors.newSingleThreadExecutor();
+  }
+
+  /**
+   * Runs the local stage of the user import, which saves users and rolls back those that could
+   * not be completed.
+   */
+  @Bean("userImportPersistExecutorService")
+  ExecutorService getUserImportPersistExecutorService(
+      @Value("${referencedata.user.import.persist.concurrency}") int concurrency) {
+    return Executors.newFixedThreadPool(concurrency);
+  }
+
+  /**
+   * Runs the stage of the user import that sends contact details to the notification service.
+   */
+  @Bean("userImportContactDetailsExecutorService")
+  ExecutorService getUserImportContactDetailsExecutorService(
+      @Value("${referencedata.user.import.contactDetails.concurrency}") int concurrency) {
+    return Executors.newFixedThreadPool(concurrency);
+  }
+
+  /**
+   * Runs the stage of the user import that sends auth details to the auth service.
+   */
+  @Bean("userImportAuthDetailsExecutorService")
+  ExecutorService getUserImportAuthDetailsExecutorService(
+      @Value("${referencedata.user.import.authDetails.concurrency}") int concurrency) {
+    return Executors.newFixedThreadPool(concurrency);
+  }
+
+  /**
+   * Runs the audit log initializer, which creates snapshots of entities from several
+   * repositories at a time.
+   */
+  @Bean("auditLogInitializerExecutorService")
+  ExecutorService getAuditLogInitializerExecutorService(
+      @Value("${referencedata.audit.initializer.concurrency}") int concurrency) {
+    return Executors.newFixedThreadPool(concurrency);
+  }
+
+  /**
+   * Runs the cache warm-up, which loads several caches at a time after the service has started.
+   * Spring shuts it down with the application context.
+   */
+  @Bean("cacheWarmUpExecutorService")
+  ExecutorService getCacheWarmUpExecutorService(
+      @Value("${referencedata.cache.warmUp.concurrency}") int concurrency) {
+    return Executors.newFixedThreadPool(concurrency);
+  }
+
+  @Bean("csvParserExecutorService")
+  ExecutorService getCsvParserExecutorService(@Value("${csvParser.poolSize}") int poolSize) {
+    return Executors.newFixedThreadPool(poolSize);
+  }
+
+  /**
+   * Runs the reading stage of each CSV upload. Readers block while their upload's queue is full,
+   * so they get threads of their own instead of competing with the chunk processors.
+   */
+  @Bean("csvReaderExecutorService")
+  ExecutorService getCsvReaderExecutorService() {
+    return Executors.newCachedThreadPool();
   }
 
   /**
@@ -15,13 +15,17 @@
 
 package org.openlmis.referencedata;
 
-import static org.openlmis.referencedata.util.Pagination.handlePage;
+import static java.util.Collections.emptySet;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import org.javers.core.Javers;
-import org.javers.core.metamodel.object.CdoSnapshot;
-import org.javers.repository.jql.QueryBuilder;
 import org.javers.spring.annotation.JaversSpringDataAuditable;
 import org.openlmis.referencedata.domain.Identifiable;
 import org.openlmis.referencedata.domain.Versionable;
@@ -31,33 +35,54 @@ import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * AuditLogInitializer runs after its associated Spring application has loaded.
  * It examines each domain object in the database and registers them with JaVers
  * if they haven't already been so. This is, in part, a fix for
  * <a href="https://github.com/javers/javers/issues/214">this issue</a>.
+ *
+ * <p>Repositories are processed in parallel. Each of them is read in batches ordered by id, and
+ * every batch is read and committed to JaVers in a transaction of its own.
  */
 @Component
 @Profile("init-audit-log")
 @Order(20)
-@Transactional
 public class AuditLogInitializer implements CommandLineRunner {
   private static final XLogger LOGGER = XLoggerFactory.getXLogger(AuditLogInitializer.class);
 
+  static final String AUTHOR = "System: AuditLogInitializer";
+  private static final UUID FIRST_ID = new UUID(0L, 0L);
+
   private ApplicationContext applicationContext;
   private Javers javers;
+  private TransactionTemplate transactionTemplate;
+  private ExecutorService executorService;
+  private int batchSize;
 
+  /**
+   * Creates a new instance of the initializer.
+   */
   @Autowired
-  public AuditLogInitializer(ApplicationContext applicationContext, Javers javers) {
+  public AuditLogInitializer(ApplicationContext applicationContext, Javers javers,
+      PlatformTransactionManager transactionManager,
+      @Qualifier("auditLogInitializerExecutorService") ExecutorService executorService,
+      @Value("${referencedata.audit.initializer.batchSize}") int batchSize) {
     this.applicationContext = applicationContext;
     this.javers = javers;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.executorService = executorService;
+    this.batchSize = batchSize;
   }
 
   /**
@@ -74,55 +99,104 @@ public class AuditLogInitializer implements CommandLineRunner {
     Map<String,Object> repositoryMap =
         applicationContext.getBeansWithAnnotation(JaversSpringDataAuditable.class);
 
+    profiler.start("CREATE_SNAPSHOTS");
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+
     //For each one...
     for (Map.Entry<String, Object> entry : repositoryMap.entrySet()) {
       String beanName = entry.getKey();
       Object bean = entry.getValue();
-      profiler.start("CREATE_SNAPSHOTS_OF_" + beanName);
-      createSnapshots(bean);
+
+      if (bean instanceof BaseAuditableRepository) {
+        BaseAuditableRepository<?, ?> repository = (BaseAuditableRepository<?, ?>) bean;
+        futures.add(CompletableFuture.runAsync(
+            () -> createSnapshots(beanName, repository), executorService));
+      } else {
+        LOGGER.warn("The repository should implement findAllWithoutSnapshots method"
+            + "from BaseAuditableRepository with appropriate query");
+      }
     }
 
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
     profiler.stop().log();
     LOGGER.exit();
   }
 
-  private void createSnapshots(Object bean) {
-    if (bean instanceof BaseAuditableRepository) {
-      createSnapshots((BaseAuditableRepository<?, ?>) bean);
-    } else {
-      LOGGER.warn("The repository should implement findAllWithoutSnapshots method"
-          + "from BaseAuditableRepository with appropriate query");
+  private void createSnapshots(String beanName, BaseAuditableRepository<?, ?> repository) {
+    UUID lastId = FIRST_ID;
+    Set<Object> lastIdEntries = emptySet();
+    int count = 0;
+
+    while (true) {
+      UUID fromId = lastId;
+      Set<Object> skipped = lastIdEntries;
+      List<Identifiable> batch = transactionTemplate.execute(
+          status -> createSnapshots(repository, fromId, skipped));
+      int committed = batch.size() - countSkipped(batch, skipped);
+
+      if (committed == 0) {
+        break;
+      }
+
+      count += committed;
+      lastId = batch.get(batch.size() - 1).getId();
+      lastIdEntries = new HashSet<>();
+
+      // Only entities with the last id (other versions of it) can be read by the next batch again.
+      for (Identifiable identifiable : batch) {
+        if (lastId.equals(identifiable.getId())) {
+          lastIdEntries.add(getLocalId(identifiable));
+        }
+      }
     }
+
+    LOGGER.info("Created {} snapshots of entities from {}", count, beanName);
   }
 
-  private void createSnapshots(BaseAuditableRepository<?, ?> repository) {
-    handlePage(
-        repository::findAllWithoutSnapshots,
-        this::createSnapshot
-    );
+  private List<Identifiable> createSnapshots(BaseAuditableRepository<?, ?> repository,
+      UUID lastId, Set<Object> skipped) {
+    List<Identifiable> batch = new ArrayList<>();
+
+    // The entities which are skipped are read on top of the batch size, so that every batch
+    // commits new entities for as long as there are any left.
+    PageRequest page = PageRequest.of(0, batchSize + skipped.size());
+
+    for (Object object : repository.findAllWithoutSnapshots(lastId, page)) {
+      Identifiable identifiable = (Identifiable) object;
+      Object localId = getLocalId(identifiable);
+      batch.add(identifiable);
+
+      // An entity committed by the previous batch which is still returned has a snapshot that
+      // the query can't see. It is skipped instead of being committed over and over again.
+      if (skipped.contains(localId)) {
+        LOGGER.info(MessageKeys.ERROR_JAVERS_EXISTING_ENTRY, identifiable.getClass(), localId);
+        continue;
+      }
+
+      javers.commit(AUTHOR, identifiable);
+    }
+
+    return batch;
   }
 
-  private void createSnapshot(Object object) {
-    //...check whether there exists a snapshot for it in the audit log.
-    // Note that we don't care about checking for logged changes, per se,
-    // and thus use findSnapshots() rather than findChanges()
-    Identifiable identifiable = (Identifiable) object;
-    Object localId = identifiable.getId();
+  private int countSkipped(List<Identifiable> batch, Set<Object> skipped) {
+    int count = 0;
 
-    if (identifiable instanceof Versionable) {
-      Versionable versionable = (Versionable) identifiable;
-      localId = versionable.getVersionIdentity();
+    for (Identifiable identifiable : batch) {
+      if (skipped.contains(getLocalId(identifiable))) {
+        count++;
+      }
     }
 
-    QueryBuilder jqlQuery = QueryBuilder.byInstanceId(localId, object.getClass());
-    List<CdoSnapshot> snapshots = javers.findSnapshots(jqlQuery.build());
+    return count;
+  }
 
-    //If there are no snapshots of the domain object, then take one
-    if (snapshots.isEmpty()) {
-      javers.commit("System: AuditLogInitializer", identifiable);
-    } else {
-      LOGGER.info(MessageKeys.ERROR_JAVERS_EXISTING_ENTRY,
-          identifiable.getClass(), localId);
+  private Object getLocalId(Identifiable identifiable) {
+    if (identifiable instanceof Versionable) {
+      return ((Versionable) identifiable).getVersionIdentity();
     }
+
+    return identifiable.getId();
   }
 }
@@ -0,0 +1,62 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the Flyway migrations of the JaVers tables, kept in {@code db/audit-migration}. JaVers
+ * creates its tables when it starts, after the migrations of the service have run, so these
+ * migrations run afterwards and keep their own schema history table. As with the other
+ * migrations, only the first instance to start applies them.
+ */
+@Component
+@DependsOn("javersProvider")
+public class AuditLogSchemaMigration {
+
+  static final String LOCATION = "classpath:db/audit-migration";
+  static final String HISTORY_TABLE = "audit_log_schema_version";
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Value("${spring.flyway.schemas}")
+  private String schemaName;
+
+  /**
+   * Applies the pending migrations of the JaVers tables.
+   */
+  @PostConstruct
+  public void migrate() {
+    Flyway
+        .configure()
+        .dataSource(dataSource)
+        .schemas(schemaName)
+        .table(HISTORY_TABLE)
+        .locations(LOCATION)
+        .sqlMigrationPrefix("")
+        .baselineOnMigrate(true)
+        .baselineVersion("0")
+        .load()
+        .migrate();
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP clients used to call other OpenLMIS services. All of them share one pool of keep-alive
+ * connections, while connect and read timeouts are set for each target service. Requests are
+ * timed by the metrics Spring Boot adds to templates built with {@link RestTemplateBuilder}, and
+ * the connection pool is reported under the {@code services} name.
+ */
+@Configuration
+public class HttpClientConfig {
+
+  @Value("${serviceClient.maxConnections}")
+  private int maxConnections;
+
+  @Value("${serviceClient.maxConnectionsPerRoute}")
+  private int maxConnectionsPerRoute;
+
+  @Value("${serviceClient.idleTimeout}")
+  private long idleTimeout;
+
+  @Bean
+  PoolingHttpClientConnectionManager serviceConnectionManager() {
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+    return connectionManager;
+  }
+
+  @Bean(destroyMethod = "close")
+  CloseableHttpClient serviceHttpClient(PoolingHttpClientConnectionManager connectionManager) {
+    return HttpClients
+        .custom()
+        .setConnectionManager(connectionManager)
+        .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+        .evictExpiredConnections()
+        .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  @Bean
+  MeterBinder serviceConnectionPoolMetrics(
+      PoolingHttpClientConnectionManager connectionManager) {
+    return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "services");
+  }
+
+  /**
+   * Creates the template used to call the auth service.
+   */
+  @Bean("authRestTemplate")
+  RestTemplate authRestTemplate(RestTemplateBuilder builder, CloseableHttpClient httpClient,
+      @Value("${auth.server.connectTimeout}") int connectTimeout,
+      @Value("${auth.server.readTimeout}") int readTimeout) {
+    return buildRestTemplate(builder, httpClient, connectTimeout, readTimeout);
+  }
+
+  /**
+   * Creates the template used to call the notification service.
+   */
+  @Bean("notificationRestTemplate")
+  RestTemplate notificationRestTemplate(RestTemplateBuilder builder,
+      CloseableHttpClient httpClient,
+      @Value("${notification.connectTimeout}") int connectTimeout,
+      @Value("${notification.readTimeout}") int readTimeout) {
+    return buildRestTemplate(builder, httpClient, connectTimeout, readTimeout);
+  }
+
+  private RestTemplate buildRestTemplate(RestTemplateBuilder builder,
+      CloseableHttpClient httpClient, int connectTimeout, int readTimeout) {
+    HttpComponentsClientHttpRequestFactory requestFactory =
+        new HttpComponentsClientHttpRequestFactory(httpClient);
+    requestFactory.setConnectionRequestTimeout(connectTimeout);
+    requestFactory.setConnectTimeout(connectTimeout);
+    requestFactory.setReadTimeout(readTimeout);
+
+    return builder
+        .requestFactory(() -> requestFactory)
+        .build();
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.aspect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Resource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.javers.core.Javers;
+import org.javers.spring.auditable.AuthorProvider;
+import org.openlmis.referencedata.domain.Identifiable;
+import org.openlmis.referencedata.repository.AuditOutboxRepository;
+import org.openlmis.referencedata.repository.AuditOutboxRepository.Operation;
+import org.openlmis.referencedata.repository.BaseAuditableRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Audits auditable repositories when the synchronous JaVers aspect is disabled. Saved and deleted
+ * entities are added to the audit outbox within the changing transaction, and their snapshots and
+ * removals are committed later by {@link org.openlmis.referencedata.service.AuditOutboxProcessor},
+ * in the order in which they were added. When an entity is deleted while its saves are still
+ * waiting in the outbox, the snapshot of its last state is committed right away, because it can
+ * no longer be read once the entity is gone.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = AsyncAuditAspect.SYNC_AUDIT_PROPERTY, havingValue = "false")
+public class AsyncAuditAspect {
+  public static final String SYNC_AUDIT_PROPERTY =
+      "javers.springDataAuditableRepositoryAspectEnabled";
+
+  private static final String AUDITABLE_REPOSITORY =
+      "this(org.openlmis.referencedata.repository.BaseAuditableRepository)";
+
+  @Autowired
+  private AuditOutboxRepository auditOutboxRepository;
+
+  @Autowired
+  private AuthorProvider authorProvider;
+
+  @Resource(name = "javersProvider")
+  private Javers javers;
+
+  /**
+   * Adds the saved entity to the audit outbox.
+   */
+  @AfterReturning(pointcut = "execution(public * save(..)) && " + AUDITABLE_REPOSITORY,
+      returning = "saved")
+  public void afterSave(Object saved) {
+    audit(Collections.singletonList(saved));
+  }
+
+  /**
+   * Adds the saved entities to the audit outbox.
+   */
+  @AfterReturning(pointcut = "execution(public * saveAll(..)) && " + AUDITABLE_REPOSITORY,
+      returning = "saved")
+  public void afterSaveAll(Iterable<?> saved) {
+    List<Object> entities = new ArrayList<>();
+    saved.forEach(entities::add);
+    audit(entities);
+  }
+
+  /**
+   * Adds the removal of the deleted entity to the audit outbox.
+   */
+  @AfterReturning("execution(public * delete(..)) && " + AUDITABLE_REPOSITORY
+      + " && args(entity)")
+  public void afterDelete(Object entity) {
+    auditDeletes(Collections.singletonList(entity));
+  }
+
+  /**
+   * Adds the removals of the deleted entities to the audit outbox.
+   */
+  @AfterReturning("execution(public * deleteAll(..)) && " + AUDITABLE_REPOSITORY
+      + " && args(entities)")
+  public void afterDeleteAll(Iterable<?> entities) {
+    List<Object> deleted = new ArrayList<>();
+    entities.forEach(deleted::add);
+    auditDeletes(deleted);
+  }
+
+  /**
+   * Adds the removal of the entity deleted by id to the audit outbox. The entity is read before
+   * it is deleted, because its pending saves may still need a snapshot of it.
+   */
+  @Around("execution(public * deleteById(..)) && this(repository) && args(id)")
+  @SuppressWarnings("unchecked")
+  public Object aroundDeleteById(ProceedingJoinPoint joinPoint,
+      BaseAuditableRepository repository, Object id) throws Throwable {
+    Optional<Object> entity = repository.findById(id);
+    Object result = joinPoint.proceed();
+    entity.ifPresent(this::afterDelete);
+    return result;
+  }
+
+  private void audit(List<Object> entities) {
+    String author = authorProvider.provide();
+    List<Identifiable> identifiables = new ArrayList<>();
+
+    for (Object entity : entities) {
+      if (entity instanceof Identifiable) {
+        identifiables.add((Identifiable) entity);
+      } else {
+        // without an id it could not be read again later, so it is audited right away
+        javers.commit(author, entity);
+      }
+    }
+
+    auditOutboxRepository.add(identifiables, author, Operation.SAVE);
+  }
+
+  private void auditDeletes(List<Object> entities) {
+    String author = authorProvider.provide();
+    List<Identifiable> identifiables = new ArrayList<>();
+
+    for (Object entity : entities) {
+      if (entity instanceof Identifiable) {
+        Identifiable identifiable = (Identifiable) entity;
+        auditOutboxRepository
+            .removePendingSaves(identifiable)
+            .ifPresent(saveAuthor -> javers.commit(saveAuthor, entity));
+        identifiables.add(identifiable);
+      } else {
+        javers.commitShallowDelete(author, entity);
+      }
+    }
+
+    auditOutboxRepository.add(identifiables, author, Operation.DELETE);
+  }
+}
@@ -0,0 +1,287 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import static java.util.stream.Collectors.toList;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+import org.apache.commons.lang3.StringUtils;
+import org.openlmis.referencedata.domain.FacilityType;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.dto.SupervisoryNodeDto;
+import org.openlmis.referencedata.repository.FacilityTypeApprovedProductRepository;
+import org.openlmis.referencedata.repository.FacilityTypeRepository;
+import org.openlmis.referencedata.repository.ProgramRepository;
+import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
+import org.openlmis.referencedata.util.Pagination;
+import org.openlmis.referencedata.web.FacilityTypeApprovedProductSearchParams;
+import org.openlmis.referencedata.web.OrderableFulfillIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Loads the configured caches once the service has started, so that the first requests after a
+ * deploy don't all go to the database. Caches are loaded in parallel, each in a read-only
+ * transaction of its own, and the warm-up gives up waiting after the time budget.
+ *
+ * <p>Facility type approved products are not held in a cache of their own: loading them only
+ * warms the database buffers and query plans used by the FTAP search.
+ *
+ * <p>Until the warm-up has finished, this health indicator reports the service as out of
+ * service, so that it gets no traffic before its caches are loaded. The time and outcome of
+ * each cache are reported by the {@code cache.warmup} timer.
+ */
+@Component
+@SuppressWarnings("PMD.TooManyMethods")
+public class CacheWarmUp implements HealthIndicator {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CacheWarmUp.class);
+
+  static final String ORDERABLES = "orderables";
+  static final String FACILITY_TYPE_APPROVED_PRODUCTS = "facilityTypeApprovedProducts";
+  static final String PROGRAMS = "programs";
+  static final String FACILITY_TYPES = "facilityTypes";
+  static final String SUPERVISORY_NODES = "supervisoryNodes";
+
+  @Autowired
+  private OrderableFulfillIndex orderableFulfillIndex;
+
+  @Autowired
+  private FacilityTypeApprovedProductRepository facilityTypeApprovedProductRepository;
+
+  @Autowired
+  private ProgramRepository programRepository;
+
+  @Autowired
+  private FacilityTypeRepository facilityTypeRepository;
+
+  @Autowired
+  private SupervisoryNodeRepository supervisoryNodeRepository;
+
+  @Autowired
+  private ReadThroughCache<Program> programCache;
+
+  @Autowired
+  private ReadThroughCache<FacilityType> facilityTypeCache;
+
+  @Autowired
+  private ReadThroughCache<SupervisoryNodeDto> supervisoryNodeCache;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  @Qualifier("cacheWarmUpExecutorService")
+  private ExecutorService executorService;
+
+  @Value("${referencedata.cache.warmUp.caches}")
+  private String caches;
+
+  @Value("${referencedata.cache.warmUp.timeout}")
+  private long timeout;
+
+  @Value("${service.url}")
+  private String serviceUrl;
+
+  private final Map<String, String> results = new ConcurrentHashMap<>();
+
+  private volatile boolean finished;
+
+  @PostConstruct
+  public void init() {
+    finished = getCaches().isEmpty();
+  }
+
+  /**
+   * Loads the configured caches and waits until all of them are loaded or the time budget has
+   * passed.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    if (finished) {
+      return;
+    }
+
+    Map<String, Supplier<Integer>> loaders = getLoaders();
+    Map<String, CompletableFuture<Void>> loads = new LinkedHashMap<>();
+
+    for (String cache : getCaches()) {
+      Supplier<Integer> loader = loaders.get(cache);
+
+      if (null == loader) {
+        LOGGER.warn("Ignoring unknown cache {} in the warm-up", cache);
+        continue;
+      }
+
+      results.put(cache, "LOADING");
+      loads.put(cache, CompletableFuture.runAsync(() -> load(cache, loader), executorService));
+    }
+
+    try {
+      CompletableFuture
+          .allOf(loads.values().toArray(new CompletableFuture[0]))
+          .get(timeout, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException ex) {
+      loads.forEach((cache, load) -> {
+        if (!load.isDone()) {
+          LOGGER.warn("Cache {} was not loaded within {} ms", cache, timeout);
+          results.put(cache, "TIMEOUT");
+          record(cache, "timeout", TimeUnit.MILLISECONDS.toNanos(timeout));
+        }
+      });
+    } catch (ExecutionException ex) {
+      LOGGER.error("Cache warm-up failed", ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      finished = true;
+    }
+
+    LOGGER.info("Cache warm-up finished: {}", results);
+  }
+
+  @Override
+  public Health health() {
+    Health.Builder builder = finished ? Health.up() : Health.outOfService();
+    return builder.withDetails(results).build();
+  }
+
+  private void load(String cache, Supplier<Integer> loader) {
+    long start = System.nanoTime();
+
+    try {
+      TransactionTemplate template = new TransactionTemplate(transactionManager);
+      template.setReadOnly(true);
+      Integer count = template.execute(status -> loader.get());
+
+      results.put(cache, count + " entries");
+      record(cache, "success", System.nanoTime() - start);
+      LOGGER.info("Loaded {} entries of cache {}", count, cache);
+    } catch (RuntimeException ex) {
+      results.put(cache, "FAILED");
+      record(cache, "failure", System.nanoTime() - start);
+      LOGGER.error("Could not load cache {}", cache, ex);
+    }
+  }
+
+  private void record(String cache, String outcome, long nanos) {
+    meterRegistry
+        .timer("cache.warmup", "cache", cache, "outcome", outcome)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  private Set<String> getCaches() {
+    Set<String> names = new LinkedHashSet<>();
+    for (String name : StringUtils.split(StringUtils.defaultString(caches), ',')) {
+      if (StringUtils.isNotBlank(name)) {
+        names.add(name.trim());
+      }
+    }
+    return names;
+  }
+
+  private Map<String, Supplier<Integer>> getLoaders() {
+    Map<String, Supplier<Integer>> loaders = new LinkedHashMap<>();
+    loaders.put(ORDERABLES, this::loadOrderables);
+    loaders.put(FACILITY_TYPE_APPROVED_PRODUCTS, this::loadFacilityTypeApprovedProducts);
+    loaders.put(PROGRAMS, this::loadPrograms);
+    loaders.put(FACILITY_TYPES, this::loadFacilityTypes);
+    loaders.put(SUPERVISORY_NODES, this::loadSupervisoryNodes);
+    return loaders;
+  }
+
+  private int loadOrderables() {
+    return orderableFulfillIndex.getLatestOrderables(Collections.emptySet()).size();
+  }
+
+  /**
+   * Runs the FTAP search for each facility type and drops the results. There is no FTAP cache,
+   * so this only makes the first real searches hit warm database buffers and query plans.
+   */
+  private int loadFacilityTypeApprovedProducts() {
+    int count = 0;
+
+    for (FacilityType facilityType : facilityTypeRepository.findAll()) {
+      FacilityTypeApprovedProductSearchParams params =
+          new FacilityTypeApprovedProductSearchParams();
+      params.setFacilityTypeCodes(Collections.singleton(facilityType.getCode()));
+      params.setActive(true);
+
+      count += facilityTypeApprovedProductRepository
+          .searchProducts(params,
+              PageRequest.of(Pagination.DEFAULT_PAGE_NUMBER, Pagination.NO_PAGINATION))
+          .getNumberOfElements();
+    }
+
+    return count;
+  }
+
+  private int loadPrograms() {
+    List<Program> programs = programRepository.findAll();
+    programCache.putAll(programs);
+    return programs.size();
+  }
+
+  private int loadFacilityTypes() {
+    List<FacilityType> facilityTypes = facilityTypeRepository.findAll();
+    facilityTypeCache.putAll(facilityTypes);
+    return facilityTypes.size();
+  }
+
+  private int loadSupervisoryNodes() {
+    List<SupervisoryNodeDto> supervisoryNodes = supervisoryNodeRepository
+        .findAll()
+        .stream()
+        .map(supervisoryNode -> {
+          SupervisoryNodeDto dto = new SupervisoryNodeDto();
+          dto.setServiceUrl(serviceUrl);
+          supervisoryNode.export(dto);
+          return dto;
+        })
+        .collect(toList());
+
+    supervisoryNodeCache.putAll(supervisoryNodes);
+    return supervisoryNodes.size();
+  }
+}
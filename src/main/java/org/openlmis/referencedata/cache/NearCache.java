@@ -0,0 +1,106 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bounded in-memory copy of the most recently used entries of a {@link ReadThroughCache}. An
+ * entry is dropped when it is evicted on this instance or on any other instance (the eviction is
+ * broadcast by {@link NearCacheInvalidator}), and at the latest after the time to live, which
+ * bounds how long a missed broadcast can leave the entry stale.
+ *
+ * <p>A near cache with a maximum size of zero is disabled and keeps nothing.
+ */
+public class NearCache<T> {
+
+  private final Cache<UUID, T> entries;
+  private final Consumer<UUID> broadcaster;
+
+  /**
+   * Creates a new near cache.
+   *
+   * @param maximumSize the maximum number of entries, zero disables the near cache
+   * @param timeToLive  the number of seconds after which an entry is dropped
+   * @param broadcaster notifies other instances that an entry has been evicted
+   */
+  public NearCache(long maximumSize, long timeToLive, Consumer<UUID> broadcaster) {
+    this.entries = maximumSize > 0
+        ? CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive, TimeUnit.SECONDS)
+            .build()
+        : null;
+    this.broadcaster = broadcaster;
+  }
+
+  static <T> NearCache<T> disabled() {
+    return new NearCache<>(0, 0, id -> { });
+  }
+
+  public boolean isEnabled() {
+    return null != entries;
+  }
+
+  /**
+   * Returns the entry with the given id, or null if there is none.
+   */
+  public T get(UUID id) {
+    return isEnabled() ? entries.getIfPresent(id) : null;
+  }
+
+  /**
+   * Returns the entries with the given ids that are present.
+   */
+  public Map<UUID, T> getAll(Collection<UUID> ids) {
+    return isEnabled() ? entries.getAllPresent(ids) : new HashMap<>();
+  }
+
+  /**
+   * Adds the given entry.
+   */
+  public void put(UUID id, T value) {
+    if (isEnabled()) {
+      entries.put(id, value);
+    }
+  }
+
+  /**
+   * Drops the entry with the given id from this instance only.
+   */
+  public void invalidate(UUID id) {
+    if (isEnabled()) {
+      entries.invalidate(id);
+    }
+  }
+
+  /**
+   * Drops the entry with the given id from this instance and from all other instances.
+   */
+  public void evict(UUID id) {
+    if (isEnabled()) {
+      entries.invalidate(id);
+      broadcaster.accept(id);
+    }
+  }
+}
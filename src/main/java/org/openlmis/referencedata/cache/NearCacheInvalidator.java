@@ -0,0 +1,136 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the {@link NearCache near caches} of read-through caches and keeps them weakly
+ * consistent across service instances. Evictions are broadcast over Redis pub/sub, and every
+ * other instance drops the evicted entry from its own near cache. Other data kept in memory of
+ * each instance can be {@link #register(String, Consumer) registered} to be invalidated the same
+ * way.
+ */
+@Component
+public class NearCacheInvalidator implements MessageListener {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NearCacheInvalidator.class);
+
+  private final String nodeId = UUID.randomUUID().toString();
+
+  private final Map<String, Consumer<UUID>> invalidations = new ConcurrentHashMap<>();
+
+  @Autowired
+  private RedisMessageListenerContainer redisMessageListenerContainer;
+
+  @Autowired
+  private StringRedisTemplate stringRedisTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Value("${referencedata.cache.nearCache.channel}")
+  private String channel;
+
+  /**
+   * Subscribes this instance to the invalidation channel.
+   */
+  @PostConstruct
+  public void register() {
+    redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(channel));
+  }
+
+  /**
+   * Creates the near cache of the read-through cache with the given name.
+   *
+   * @param maximumSize the maximum number of entries, zero disables the near cache
+   * @param timeToLive  the number of seconds after which an entry is dropped
+   */
+  public <T> NearCache<T> create(String cache, long maximumSize, long timeToLive) {
+    NearCache<T> nearCache = new NearCache<>(maximumSize, timeToLive, id -> broadcast(cache, id));
+
+    if (nearCache.isEnabled()) {
+      LOGGER.info("Near cache of {} enabled, maximum size {}, time to live {}s",
+          cache, maximumSize, timeToLive);
+      register(cache, nearCache::invalidate);
+    }
+
+    return nearCache;
+  }
+
+  /**
+   * Registers data kept in memory of this instance under the given name. The invalidation is
+   * called with the broadcast id whenever another instance {@link #broadcast(String, UUID)
+   * broadcasts} a change of that data.
+   */
+  public void register(String name, Consumer<UUID> invalidation) {
+    invalidations.put(name, invalidation);
+  }
+
+  /**
+   * Tells the other instances that the data registered under the given name has changed.
+   *
+   * @param id id of the changed entry, or null if the whole data has changed
+   */
+  public void broadcast(String name, UUID id) {
+    try {
+      stringRedisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(
+          new NearCacheInvalidationMessage(nodeId, name, id)));
+    } catch (Exception ex) {
+      // other instances keep serving the stale data until it expires or is changed again
+      LOGGER.error("Could not broadcast invalidation of {} of {}", id, name, ex);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    NearCacheInvalidationMessage invalidation;
+    try {
+      invalidation = objectMapper.readValue(
+          new String(message.getBody(), StandardCharsets.UTF_8),
+          NearCacheInvalidationMessage.class);
+    } catch (IOException ex) {
+      LOGGER.warn("Ignoring malformed near cache invalidation message", ex);
+      return;
+    }
+
+    if (nodeId.equals(invalidation.getNodeId())) {
+      return;
+    }
+
+    Consumer<UUID> registered = invalidations.get(invalidation.getCache());
+    if (null != registered) {
+      registered.accept(invalidation.getId());
+    }
+  }
+}
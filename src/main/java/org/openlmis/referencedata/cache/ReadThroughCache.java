@@ -0,0 +1,236 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import org.openlmis.referencedata.AvailableFeatures;
+import org.openlmis.referencedata.domain.Identifiable;
+import org.openlmis.referencedata.repository.custom.CrudRedisRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read-through cache of objects kept in a {@link CrudRedisRepository}. Objects missing from the
+ * cache are loaded with the given loader and stored, so that the next read finds them. Entries
+ * are evicted by {@link ReadThroughCacheInvalidator} when the entity they were built from is
+ * updated or deleted, and expire after the time to live of the repository otherwise.
+ *
+ * <p>Entries may also be kept in a {@link NearCache} in front of Redis, which answers repeated
+ * reads without a network round-trip at the cost of serving an entry evicted on another instance
+ * until the eviction broadcast arrives or the near cache time to live passes.
+ *
+ * <p>The cache is only used while the {@link AvailableFeatures#REDIS_CACHING} feature is
+ * active. If Redis can't be reached, objects are loaded as if they were not cached. Hits,
+ * misses, puts and evictions are reported as {@code cache.*} metrics tagged with the cache name.
+ */
+public class ReadThroughCache<T extends Identifiable> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReadThroughCache.class);
+
+  @Getter
+  private final String name;
+
+  @Getter
+  private final Class<?> sourceType;
+
+  private final CrudRedisRepository<T> repository;
+  private final NearCache<T> nearCache;
+
+  private final Counter nearHits;
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter puts;
+  private final Counter evictions;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param name       the name of the cache, used in metrics
+   * @param sourceType the entity whose changes invalidate entries of this cache
+   * @param repository the repository that keeps the entries
+   */
+  public ReadThroughCache(String name, Class<?> sourceType, CrudRedisRepository<T> repository,
+      MeterRegistry meterRegistry) {
+    this(name, sourceType, repository, NearCache.disabled(), meterRegistry);
+  }
+
+  /**
+   * Creates a new cache with a near cache in front of the repository.
+   *
+   * @param name       the name of the cache, used in metrics
+   * @param sourceType the entity whose changes invalidate entries of this cache
+   * @param repository the repository that keeps the entries
+   * @param nearCache  the in-memory copy of recently used entries
+   */
+  public ReadThroughCache(String name, Class<?> sourceType, CrudRedisRepository<T> repository,
+      NearCache<T> nearCache, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.sourceType = sourceType;
+    this.repository = repository;
+    this.nearCache = nearCache;
+    this.nearHits = meterRegistry.counter("cache.gets", "cache", name, "result", "near_hit");
+    this.hits = meterRegistry.counter("cache.gets", "cache", name, "result", "hit");
+    this.misses = meterRegistry.counter("cache.gets", "cache", name, "result", "miss");
+    this.puts = meterRegistry.counter("cache.puts", "cache", name);
+    this.evictions = meterRegistry.counter("cache.evictions", "cache", name);
+  }
+
+  /**
+   * Returns the object with the given id from the cache, or loads it and adds it to the cache.
+   */
+  public Optional<T> get(UUID id, Function<UUID, Optional<T>> loader) {
+    if (!isEnabled()) {
+      return loader.apply(id);
+    }
+
+    T cached = nearCache.get(id);
+    if (null != cached) {
+      nearHits.increment();
+      return Optional.of(cached);
+    }
+
+    cached = read(() -> repository.findById(id), null);
+    if (null != cached) {
+      hits.increment();
+      nearCache.put(id, cached);
+      return Optional.of(cached);
+    }
+
+    misses.increment();
+    Optional<T> loaded = loader.apply(id);
+    loaded.ifPresent(object -> {
+      write(() -> repository.save(object), 1);
+      nearCache.put(id, object);
+    });
+
+    return loaded;
+  }
+
+  /**
+   * Returns the objects with the given ids, in the order of the ids. Objects missing from the
+   * cache are loaded with a single call to the loader and added to the cache.
+   */
+  public List<T> getAll(Collection<UUID> ids, Function<Collection<UUID>, Collection<T>> loader) {
+    if (!isEnabled()) {
+      return new ArrayList<>(loader.apply(ids));
+    }
+
+    Set<UUID> uniqueIds = new LinkedHashSet<>(ids);
+    Map<UUID, T> found = new HashMap<>(nearCache.getAll(uniqueIds));
+    nearHits.increment(found.size());
+
+    Set<UUID> remote = uniqueIds
+        .stream()
+        .filter(id -> !found.containsKey(id))
+        .collect(Collectors.toSet());
+
+    if (!remote.isEmpty()) {
+      Map<UUID, T> fromRedis = read(() -> repository.findAllById(remote), Collections.emptyMap());
+      hits.increment(fromRedis.size());
+      fromRedis.forEach(nearCache::put);
+      found.putAll(fromRedis);
+    }
+
+    Set<UUID> missing = remote
+        .stream()
+        .filter(id -> !found.containsKey(id))
+        .collect(Collectors.toSet());
+
+    if (missing.isEmpty()) {
+      return uniqueIds.stream().map(found::get).collect(Collectors.toList());
+    }
+
+    misses.increment(missing.size());
+    List<T> loaded = new ArrayList<>(loader.apply(missing));
+    write(() -> repository.saveAll(loaded), loaded.size());
+    loaded.forEach(object -> nearCache.put(object.getId(), object));
+
+    Map<UUID, T> all = loaded
+        .stream()
+        .collect(Collectors.toMap(Identifiable::getId, Function.identity(), (one, two) -> one));
+    all.putAll(found);
+
+    return uniqueIds
+        .stream()
+        .map(all::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Stores the given objects in the cache, if the cache is used.
+   */
+  public void putAll(Collection<T> objects) {
+    if (!isEnabled()) {
+      return;
+    }
+
+    write(() -> repository.saveAll(objects), objects.size());
+    objects.forEach(object -> nearCache.put(object.getId(), object));
+  }
+
+  /**
+   * Removes the object with the given id from the cache.
+   */
+  public void evict(UUID id) {
+    nearCache.evict(id);
+
+    try {
+      repository.deleteById(id);
+      evictions.increment();
+    } catch (RuntimeException ex) {
+      LOGGER.warn("Could not evict {} from the {} cache", id, name, ex);
+    }
+  }
+
+  private boolean isEnabled() {
+    return AvailableFeatures.REDIS_CACHING.isActive();
+  }
+
+  private <R> R read(Supplier<R> operation, R fallback) {
+    try {
+      return operation.get();
+    } catch (RuntimeException ex) {
+      LOGGER.warn("Could not read from the {} cache, loading from the database", name, ex);
+      return fallback;
+    }
+  }
+
+  private void write(Runnable operation, int count) {
+    try {
+      operation.run();
+      puts.increment(count);
+    } catch (RuntimeException ex) {
+      LOGGER.warn("Could not write to the {} cache", name, ex);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openlmis.referencedata.domain.FacilityType;
+import org.openlmis.referencedata.domain.Identifiable;
+import org.openlmis.referencedata.domain.ProcessingSchedule;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.domain.Role;
+import org.openlmis.referencedata.domain.SupervisoryNode;
+import org.openlmis.referencedata.dto.RoleDto;
+import org.openlmis.referencedata.dto.SupervisoryNodeDto;
+import org.openlmis.referencedata.repository.custom.CrudRedisRepository;
+import org.openlmis.referencedata.repository.custom.impl.FacilityTypeRedisRepository;
+import org.openlmis.referencedata.repository.custom.impl.ProcessingScheduleRedisRepository;
+import org.openlmis.referencedata.repository.custom.impl.ProgramRedisRepository;
+import org.openlmis.referencedata.repository.custom.impl.RoleDtoRedisRepository;
+import org.openlmis.referencedata.repository.custom.impl.SupervisoryNodeDtoRedisRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Read-through caches of frequently requested reference data. Each cache is evicted by
+ * {@link ReadThroughCacheInvalidator} when its source entity changes. The near cache of a cache
+ * is set up with the {@code referencedata.cache.<name>.nearCache.*} properties.
+ */
+@Configuration
+public class ReadThroughCacheConfiguration {
+
+  private static final String PROPERTY_PREFIX = "referencedata.cache.";
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private NearCacheInvalidator nearCacheInvalidator;
+
+  @Autowired
+  private Environment environment;
+
+  @Bean
+  public ReadThroughCache<Program> programCache(ProgramRedisRepository repository) {
+    return create("programs", Program.class, repository);
+  }
+
+  /**
+   * Creates the cache of supervisory node DTOs, evicted when the supervisory node changes.
+   */
+  @Bean
+  public ReadThroughCache<SupervisoryNodeDto> supervisoryNodeCache(
+      SupervisoryNodeDtoRedisRepository repository) {
+    return create("supervisoryNodes", SupervisoryNode.class, repository);
+  }
+
+  @Bean
+  public ReadThroughCache<FacilityType> facilityTypeCache(FacilityTypeRedisRepository repository) {
+    return create("facilityTypes", FacilityType.class, repository);
+  }
+
+  @Bean
+  public ReadThroughCache<RoleDto> roleCache(RoleDtoRedisRepository repository) {
+    return create("roles", Role.class, repository);
+  }
+
+  /**
+   * Creates the cache of processing schedules.
+   */
+  @Bean
+  public ReadThroughCache<ProcessingSchedule> processingScheduleCache(
+      ProcessingScheduleRedisRepository repository) {
+    return create("processingSchedules", ProcessingSchedule.class, repository);
+  }
+
+  private <T extends Identifiable> ReadThroughCache<T> create(String name, Class<?> sourceType,
+      CrudRedisRepository<T> repository) {
+    long maximumSize = environment.getRequiredProperty(
+        PROPERTY_PREFIX + name + ".nearCache.maximumSize", Long.class);
+    long timeToLive = environment.getRequiredProperty(
+        PROPERTY_PREFIX + name + ".nearCache.timeToLive", Long.class);
+
+    NearCache<T> nearCache = nearCacheInvalidator.create(name, maximumSize, timeToLive);
+    return new ReadThroughCache<>(name, sourceType, repository, nearCache, meterRegistry);
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts entries of {@link ReadThroughCache read-through caches} when the entity they were built
+ * from is updated or deleted, or when one of its collections changes. Entries are evicted once
+ * the transaction has committed, so that a concurrent read can't put the old state back.
+ */
+@Component
+public class ReadThroughCacheInvalidator implements
+    PostUpdateEventListener, PostDeleteEventListener, PostCollectionUpdateEventListener,
+    PostCollectionRemoveEventListener, PostCollectionRecreateEventListener {
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private List<ReadThroughCache<?>> caches;
+
+  /**
+   * Registers this instance as a Hibernate event listener.
+   */
+  @PostConstruct
+  public void register() {
+    EventListenerRegistry registry = entityManagerFactory
+        .unwrap(SessionFactoryImplementor.class)
+        .getServiceRegistry()
+        .getService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.POST_UPDATE, this);
+    registry.appendListeners(EventType.POST_DELETE, this);
+    registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+    registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    evictAfterCommit(event.getSession(), event.getEntity(), event.getId());
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    evictAfterCommit(event.getSession(), event.getEntity(), event.getId());
+  }
+
+  @Override
+  public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+    onCollectionChange(event);
+  }
+
+  @Override
+  public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+    onCollectionChange(event);
+  }
+
+  @Override
+  public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+    onCollectionChange(event);
+  }
+
+  @Override
+  public boolean requiresPostCommitHanding(EntityPersister persister) {
+    return false;
+  }
+
+  private void onCollectionChange(AbstractCollectionEvent event) {
+    evictAfterCommit(event.getSession(), event.getAffectedOwnerOrNull(),
+        event.getAffectedOwnerIdOrNull());
+  }
+
+  private void evictAfterCommit(EventSource session, Object entity, Object id) {
+    if (null == entity || !(id instanceof UUID)) {
+      return;
+    }
+
+    Set<ReadThroughCache<?>> affected = caches
+        .stream()
+        .filter(cache -> cache.getSourceType().isInstance(entity))
+        .collect(Collectors.toSet());
+
+    if (affected.isEmpty()) {
+      return;
+    }
+
+    session.getActionQueue().registerProcess((success, sessionImplementor) ->
+        affected.forEach(cache -> cache.evict((UUID) id)));
+  }
+}
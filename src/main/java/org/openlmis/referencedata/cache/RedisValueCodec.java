@@ -0,0 +1,178 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Encodes values kept in Redis. A value is written with the configured {@link Format} and, if
+ * it is larger than the compression threshold, compressed with GZIP. The payload is preceded by
+ * a header of three bytes: the envelope version, the format and the compression flag.
+ *
+ * <p>Values written with another envelope version, or that can't be decoded, are read as
+ * missing, so that they are loaded from the database and overwritten instead of being served
+ * after a change of the format or of the cached classes.
+ */
+@Component
+public class RedisValueCodec {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RedisValueCodec.class);
+
+  static final byte ENVELOPE_VERSION = 1;
+  static final byte UNCOMPRESSED = 0;
+  static final byte COMPRESSED = 1;
+  private static final int HEADER_LENGTH = 3;
+
+  public enum Format {
+    JSON((byte) 1, new JsonFactory()),
+    SMILE((byte) 2, new SmileFactory());
+
+    private final byte id;
+    private final JsonFactory factory;
+
+    Format(byte id, JsonFactory factory) {
+      this.id = id;
+      this.factory = factory;
+    }
+
+    static Format fromId(byte id) {
+      for (Format format : values()) {
+        if (format.id == id) {
+          return format;
+        }
+      }
+      return null;
+    }
+  }
+
+  private final ObjectMapper objectMapper;
+  private final Format format;
+  private final int compressionThreshold;
+
+  /**
+   * Creates a new codec.
+   *
+   * @param format               the format in which values are written
+   * @param compressionThreshold the number of bytes above which values are compressed
+   */
+  @Autowired
+  public RedisValueCodec(ObjectMapper objectMapper,
+      @Value("${referencedata.cache.format}") Format format,
+      @Value("${referencedata.cache.compressionThreshold}") int compressionThreshold) {
+    this.objectMapper = objectMapper;
+    this.format = format;
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  /**
+   * Returns a serializer of values of the given class.
+   */
+  public <T> RedisSerializer<T> serializerFor(Class<T> type) {
+    return new EnvelopeSerializer<>(type);
+  }
+
+  private final class EnvelopeSerializer<T> implements RedisSerializer<T> {
+
+    private final Class<T> type;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+    EnvelopeSerializer(Class<T> type) {
+      this.type = type;
+      this.writer = objectMapper.writerFor(type).without(SerializationFeature.INDENT_OUTPUT);
+      this.reader = objectMapper.readerFor(type);
+    }
+
+    @Override
+    public byte[] serialize(T value) {
+      if (null == value) {
+        return new byte[0];
+      }
+
+      try {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (JsonGenerator generator = format.factory.createGenerator(payload)) {
+          writer.writeValue(generator, value);
+        }
+
+        boolean compress = payload.size() > compressionThreshold;
+        ByteArrayOutputStream envelope = new ByteArrayOutputStream(payload.size() + HEADER_LENGTH);
+        envelope.write(ENVELOPE_VERSION);
+        envelope.write(format.id);
+        envelope.write(compress ? COMPRESSED : UNCOMPRESSED);
+
+        if (compress) {
+          try (GZIPOutputStream gzip = new GZIPOutputStream(envelope)) {
+            payload.writeTo(gzip);
+          }
+        } else {
+          payload.writeTo(envelope);
+        }
+
+        return envelope.toByteArray();
+      } catch (IOException ex) {
+        throw new SerializationException("Could not encode " + type.getSimpleName(), ex);
+      }
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) {
+      if (null == bytes || bytes.length < HEADER_LENGTH) {
+        return null;
+      }
+
+      Format valueFormat = Format.fromId(bytes[1]);
+      if (ENVELOPE_VERSION != bytes[0] || null == valueFormat) {
+        LOGGER.debug("Ignoring {} cached in an unknown format", type.getSimpleName());
+        return null;
+      }
+
+      try (InputStream payload = open(bytes);
+          JsonParser parser = valueFormat.factory.createParser(payload)) {
+        return reader.readValue(parser);
+      } catch (IOException | RuntimeException ex) {
+        LOGGER.warn("Ignoring {} that could not be decoded", type.getSimpleName(), ex);
+        return null;
+      }
+    }
+
+    private InputStream open(byte[] bytes) throws IOException {
+      InputStream payload = new ByteArrayInputStream(bytes, HEADER_LENGTH,
+          bytes.length - HEADER_LENGTH);
+      return COMPRESSED == bytes[2] ? new GZIPInputStream(payload) : payload;
+    }
+  }
+}
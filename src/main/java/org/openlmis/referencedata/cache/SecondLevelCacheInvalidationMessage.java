@@ -0,0 +1,52 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Message broadcast between service instances when a second-level cache entry has been changed
+ * by a committed transaction. Receivers evict the given entry from their local regions.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SecondLevelCacheInvalidationMessage {
+
+  public enum Type {
+    ENTITY, COLLECTION
+  }
+
+  private String nodeId;
+  private Type type;
+
+  /**
+   * Entity name for {@link Type#ENTITY} messages, collection role for
+   * {@link Type#COLLECTION} messages.
+   */
+  private String name;
+
+  /**
+   * Entity id or collection owner id. When null, the whole region is evicted.
+   */
+  private JsonNode id;
+
+}
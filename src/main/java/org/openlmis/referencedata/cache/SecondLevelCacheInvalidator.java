@@ -0,0 +1,249 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.openlmis.referencedata.cache.SecondLevelCacheInvalidationMessage.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the local Hibernate second-level cache coherent across service instances. Updates and
+ * deletes of cached entities and collections are broadcast over Redis pub/sub once the
+ * transaction has committed; every other instance evicts the affected entries from its own
+ * regions, so the next read goes to the database.
+ */
+@Component
+@SuppressWarnings("PMD.TooManyMethods")
+public class SecondLevelCacheInvalidator implements MessageListener,
+    PostUpdateEventListener, PostDeleteEventListener,
+    PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SecondLevelCacheInvalidator.class);
+
+  private final String nodeId = UUID.randomUUID().toString();
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private RedisMessageListenerContainer redisMessageListenerContainer;
+
+  @Autowired
+  private StringRedisTemplate stringRedisTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Value("${secondLevelCache.invalidation.enabled}")
+  private boolean enabled;
+
+  @Value("${secondLevelCache.invalidation.channel}")
+  private String channel;
+
+  private SessionFactoryImplementor sessionFactory;
+
+  /**
+   * Registers this instance as a Hibernate event listener and as a subscriber of the
+   * invalidation channel.
+   */
+  @PostConstruct
+  public void register() {
+    if (!enabled) {
+      LOGGER.info("Cluster-wide second-level cache invalidation is disabled");
+      return;
+    }
+
+    sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+    EventListenerRegistry registry = sessionFactory
+        .getServiceRegistry()
+        .getService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.POST_UPDATE, this);
+    registry.appendListeners(EventType.POST_DELETE, this);
+    registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+    registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+
+    redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(channel));
+    LOGGER.info("Second-level cache invalidation registered on channel {} as node {}",
+        channel, nodeId);
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    onEntityChange(event.getPersister(), event.getId(), event.getSession());
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    onEntityChange(event.getPersister(), event.getId(), event.getSession());
+  }
+
+  @Override
+  public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+    onCollectionChange(event);
+  }
+
+  @Override
+  public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+    onCollectionChange(event);
+  }
+
+  @Override
+  public boolean requiresPostCommitHanding(EntityPersister persister) {
+    return false;
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    SecondLevelCacheInvalidationMessage invalidation;
+    try {
+      invalidation = objectMapper.readValue(
+          new String(message.getBody(), StandardCharsets.UTF_8),
+          SecondLevelCacheInvalidationMessage.class);
+    } catch (IOException ex) {
+      LOGGER.warn("Ignoring malformed second-level cache invalidation message", ex);
+      return;
+    }
+
+    if (nodeId.equals(invalidation.getNodeId())) {
+      return;
+    }
+
+    if (Type.COLLECTION == invalidation.getType()) {
+      evictCollection(invalidation);
+    } else {
+      evictEntity(invalidation);
+    }
+  }
+
+  private void onEntityChange(EntityPersister persister, Serializable id, EventSource session) {
+    if (!persister.canWriteToCache()) {
+      return;
+    }
+
+    publishAfterCommit(session, new SecondLevelCacheInvalidationMessage(nodeId, Type.ENTITY,
+        persister.getEntityName(), objectMapper.valueToTree(id)));
+  }
+
+  private void onCollectionChange(AbstractCollectionEvent event) {
+    PersistentCollection collection = event.getCollection();
+    String role = collection.getRole();
+
+    if (null == role
+        || !sessionFactory.getMetamodel().collectionPersister(role).hasCache()) {
+      return;
+    }
+
+    Serializable ownerId = event.getAffectedOwnerIdOrNull();
+    publishAfterCommit(event.getSession(), new SecondLevelCacheInvalidationMessage(nodeId,
+        Type.COLLECTION, role, null == ownerId ? null : objectMapper.valueToTree(ownerId)));
+  }
+
+  private void publishAfterCommit(EventSource session,
+      SecondLevelCacheInvalidationMessage invalidation) {
+    session.getActionQueue().registerProcess((success, sessionImplementor) -> {
+      if (success) {
+        publish(invalidation);
+      }
+    });
+  }
+
+  private void publish(SecondLevelCacheInvalidationMessage invalidation) {
+    try {
+      stringRedisTemplate.convertAndSend(channel,
+          objectMapper.writeValueAsString(invalidation));
+    } catch (Exception ex) {
+      // the write has already been committed; other nodes will serve the stale entry
+      // until it is evicted by its region's expiry policy
+      LOGGER.error("Could not broadcast second-level cache invalidation for {}",
+          invalidation.getName(), ex);
+    }
+  }
+
+  private void evictEntity(SecondLevelCacheInvalidationMessage invalidation) {
+    Cache cache = sessionFactory.getCache();
+    String entityName = invalidation.getName();
+
+    try {
+      if (null == invalidation.getId()) {
+        cache.evictEntityData(entityName);
+        return;
+      }
+
+      Class<?> idClass = sessionFactory.getMetamodel()
+          .entityPersister(entityName)
+          .getIdentifierType()
+          .getReturnedClass();
+      cache.evictEntityData(entityName,
+          (Serializable) objectMapper.treeToValue(invalidation.getId(), idClass));
+    } catch (Exception ex) {
+      LOGGER.warn("Could not evict single {} entry, evicting whole region", entityName, ex);
+      cache.evictEntityData(entityName);
+    }
+  }
+
+  private void evictCollection(SecondLevelCacheInvalidationMessage invalidation) {
+    Cache cache = sessionFactory.getCache();
+    String role = invalidation.getName();
+
+    try {
+      if (null == invalidation.getId()) {
+        cache.evictCollectionData(role);
+        return;
+      }
+
+      CollectionPersister persister = sessionFactory.getMetamodel().collectionPersister(role);
+      Class<?> ownerIdClass = persister.getKeyType().getReturnedClass();
+      cache.evictCollectionData(role,
+          (Serializable) objectMapper.treeToValue(invalidation.getId(), ownerIdClass));
+    } catch (Exception ex) {
+      LOGGER.warn("Could not evict single {} entry, evicting whole region", role, ex);
+      cache.evictCollectionData(role);
+    }
+  }
+}
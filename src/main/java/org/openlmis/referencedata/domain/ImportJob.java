@@ -0,0 +1,96 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.domain;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.CascadeType;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.OneToMany;
+import javax.persistence.OrderBy;
+import javax.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A data import submitted to run in the background. The uploaded archive is spooled to
+ * {@link #spoolDirectory} and its files are imported in order. Progress of each file is tracked
+ * by {@link ImportJobFile}, so that an interrupted job can continue where it stopped.
+ */
+@Entity
+@Table(name = "import_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ImportJob extends BaseEntity {
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private Status status;
+
+  @Column(nullable = false, columnDefinition = "text")
+  private String spoolDirectory;
+
+  @Column(nullable = false)
+  private ZonedDateTime createdDate;
+
+  private ZonedDateTime finishedDate;
+
+  @Column(columnDefinition = "text")
+  private String errorMessage;
+
+  @OneToMany(mappedBy = "job", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+  @OrderBy("importOrder")
+  private List<ImportJobFile> files = new ArrayList<>();
+
+  /**
+   * Creates a new queued job for the given files.
+   *
+   * @param spoolDirectory directory the files are spooled to
+   * @param fileNames names of the files to import, in import order
+   * @return new instance of import job.
+   */
+  public static ImportJob newQueuedJob(String spoolDirectory, List<String> fileNames) {
+    ImportJob job = new ImportJob();
+    job.setStatus(Status.QUEUED);
+    job.setSpoolDirectory(spoolDirectory);
+    job.setCreatedDate(ZonedDateTime.now());
+
+    for (int i = 0; i < fileNames.size(); ++i) {
+      job.files.add(new ImportJobFile(job, fileNames.get(i), i));
+    }
+
+    return job;
+  }
+
+  public enum Status {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+      return COMPLETED == this || FAILED == this || CANCELLED == this;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Progress of a single file of an {@link ImportJob}. {@link #rowsRead} is the checkpoint: rows up
+ * to it belong to batches that have already been persisted, so a resumed job skips them.
+ */
+@Entity
+@Table(name = "import_job_files")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ImportJobFile extends BaseEntity {
+
+  @ManyToOne
+  @JoinColumn(name = "jobid", nullable = false)
+  private ImportJob job;
+
+  @Column(nullable = false, columnDefinition = "text")
+  private String fileName;
+
+  @Column(nullable = false)
+  private int importOrder;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private ImportJob.Status status;
+
+  @Column(nullable = false)
+  private int rowsRead;
+
+  @Column(nullable = false)
+  private int rowsPersisted;
+
+  @Column(nullable = false)
+  private int rowsFailed;
+
+  ImportJobFile(ImportJob job, String fileName, int importOrder) {
+    this.job = job;
+    this.fileName = fileName;
+    this.importOrder = importOrder;
+    this.status = ImportJob.Status.QUEUED;
+  }
+}
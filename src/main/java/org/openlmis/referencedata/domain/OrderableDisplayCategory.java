@@ -19,10 +19,13 @@ import static org.apache.commons.lang3.BooleanUtils.isFalse;
 
 import java.util.Objects;
 import java.util.UUID;
+import javax.persistence.Cacheable;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.Table;
 import lombok.Getter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.javers.core.metamodel.annotation.TypeName;
 
 /**
@@ -31,6 +34,8 @@ import org.javers.core.metamodel.annotation.TypeName;
 @Entity
 @Table(name = "orderable_display_categories", schema = "referencedata")
 @TypeName("OrderableDisplayCategory")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class OrderableDisplayCategory extends BaseEntity {
 
   @Embedded
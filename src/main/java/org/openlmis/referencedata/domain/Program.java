@@ -19,6 +19,7 @@ import static org.apache.commons.lang3.BooleanUtils.isFalse;
 
 import java.util.Objects;
 import java.util.UUID;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
@@ -27,6 +28,8 @@ import javax.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.javers.core.metamodel.annotation.TypeName;
 
 @Entity
@@ -35,6 +38,8 @@ import org.javers.core.metamodel.annotation.TypeName;
 @AllArgsConstructor
 @Table(name = "programs", schema = "referencedata")
 @TypeName("Program")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Program extends BaseEntity {
 
   @Column(nullable = false, unique = true, columnDefinition = "text")
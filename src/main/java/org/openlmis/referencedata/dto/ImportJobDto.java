@@ -0,0 +1,80 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.dto;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.openlmis.referencedata.domain.ImportJob;
+import org.openlmis.referencedata.domain.ImportJobFile;
+
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class ImportJobDto {
+  private UUID id;
+
+  private ImportJob.Status status;
+
+  private ZonedDateTime createdDate;
+
+  private ZonedDateTime finishedDate;
+
+  private String errorMessage;
+
+  private List<ImportJobFileDto> files;
+
+  /**
+   * Creates new instance based on the given import job.
+   */
+  public static ImportJobDto newInstance(ImportJob job) {
+    return new ImportJobDto(job.getId(), job.getStatus(), job.getCreatedDate(),
+        job.getFinishedDate(), job.getErrorMessage(), job.getFiles()
+            .stream()
+            .map(ImportJobFileDto::newInstance)
+            .collect(Collectors.toList()));
+  }
+
+  @ToString
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Getter
+  @Setter
+  public static class ImportJobFileDto {
+    private String fileName;
+
+    private ImportJob.Status status;
+
+    private Integer rowsRead;
+
+    private Integer rowsPersisted;
+
+    private Integer rowsFailed;
+
+    static ImportJobFileDto newInstance(ImportJobFile file) {
+      return new ImportJobFileDto(file.getFileName(), file.getStatus(), file.getRowsRead(),
+          file.getRowsPersisted(), file.getRowsFailed());
+    }
+  }
+}
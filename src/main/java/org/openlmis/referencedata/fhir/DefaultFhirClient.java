@@ -17,6 +17,7 @@ package org.openlmis.referencedata.fhir;
 
 import static org.apache.commons.lang3.StringUtils.startsWith;
 
+import ca.uhn.fhir.rest.server.exceptions.AuthenticationException;
 import lombok.Setter;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.openlmis.referencedata.domain.Facility;
@@ -82,7 +83,14 @@ class DefaultFhirClient implements FhirClient {
 
   private void synchronize(FhirLocation location) {
     IBaseResource resource = locationConvert.convert(location);
-    locationSynchronizer.synchronize(location, resource);
+
+    try {
+      locationSynchronizer.synchronize(location, resource);
+    } catch (AuthenticationException ex) {
+      // the rejected token has been dropped, so the second attempt is made with a new one
+      LOGGER.warn("Access token was rejected by the FHIR server, retrying with a new one");
+      locationSynchronizer.synchronize(location, resource);
+    }
   }
 
 }
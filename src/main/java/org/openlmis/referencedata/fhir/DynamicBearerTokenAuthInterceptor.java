@@ -17,20 +17,38 @@ package org.openlmis.referencedata.fhir;
 
 import ca.uhn.fhir.rest.api.Constants;
 import ca.uhn.fhir.rest.client.api.IHttpRequest;
+import ca.uhn.fhir.rest.client.api.IHttpResponse;
 import ca.uhn.fhir.rest.client.interceptor.BearerTokenAuthInterceptor;
 import lombok.AllArgsConstructor;
 import org.openlmis.referencedata.service.AuthService;
 
+/**
+ * Adds the service access token to FHIR requests. A token rejected by the FHIR server is
+ * dropped, so that the next request gets a new one.
+ */
 @AllArgsConstructor
 final class DynamicBearerTokenAuthInterceptor extends BearerTokenAuthInterceptor {
+  private final ThreadLocal<String> usedToken = new ThreadLocal<>();
+
   private AuthService authService;
 
   @Override
   public void interceptRequest(IHttpRequest theRequest) {
     String token = authService.obtainAccessToken();
+    usedToken.set(token);
     theRequest.addHeader(
         Constants.HEADER_AUTHORIZATION,
         Constants.HEADER_AUTHORIZATION_VALPREFIX_BEARER + token);
   }
 
+  @Override
+  public void interceptResponse(IHttpResponse theResponse) {
+    String token = usedToken.get();
+    usedToken.remove();
+
+    if (null != token && Constants.STATUS_HTTP_401_CLIENT_UNAUTHORIZED == theResponse.getStatus()) {
+      authService.invalidateToken(token);
+    }
+  }
+
 }
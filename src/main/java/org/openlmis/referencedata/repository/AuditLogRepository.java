@@ -0,0 +1,147 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.javers.core.metamodel.annotation.TypeName;
+import org.joda.time.LocalDateTime;
+import org.openlmis.referencedata.util.Pagination;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the audit log straight from the JaVers tables. Snapshots are ordered by the commit that
+ * created them, newest first, and paged in the database. Pages are read with a keyset: the next
+ * page starts after the last commit of the previous one, so that a page only touches the index
+ * entries it returns however deep it is. Page numbers are still supported for the first pages,
+ * but are read with an offset. Commits are numbered in the order they are made, which makes this
+ * the order of their commit dates as well. The indexes these queries rely on are added by the
+ * {@code db/audit-migration} migrations.
+ */
+@Repository
+public class AuditLogRepository {
+
+  private static final String FROM_SNAPSHOTS = " FROM referencedata.jv_snapshot s"
+      + " INNER JOIN referencedata.jv_global_id g ON g.global_id_pk = s.global_id_fk"
+      + " INNER JOIN referencedata.jv_commit c ON c.commit_pk = s.commit_fk"
+      + " WHERE g.type_name = :typeName";
+
+  private final NamedParameterJdbcTemplate template;
+
+  @Autowired
+  public AuditLogRepository(JdbcTemplate jdbcTemplate) {
+    this.template = new NamedParameterJdbcTemplate(jdbcTemplate);
+  }
+
+  /**
+   * Finds the commits of a page of snapshots of the given type, newest first.
+   *
+   * @param type                the audited type
+   * @param id                  the id of the audited instance, or null for all instances
+   * @param author              the author of the commits, ignored if blank
+   * @param changedPropertyName the name of a property changed by the commits, ignored if blank
+   * @param before              the id of a commit; only older commits are returned. Ignored if
+   *                            null
+   * @param pageable            the page to return. If {@code before} is given, only the page size
+   *                            is used and the page starts right after that commit
+   * @return the commits of the snapshots on the page, one per snapshot
+   */
+  public List<AuditedCommit> findCommits(Class<?> type, UUID id, String author,
+      String changedPropertyName, BigDecimal before, Pageable pageable) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    StringBuilder sql = new StringBuilder("SELECT c.commit_id, c.commit_date")
+        .append(FROM_SNAPSHOTS);
+    appendFilters(sql, params, type, id, author, changedPropertyName);
+
+    long pageSize = Pagination.getPageSize(pageable);
+    long offset = pageSize * Pagination.getPageNumber(pageable);
+
+    if (null != before) {
+      sql.append(" AND s.commit_fk < (SELECT commit_pk FROM referencedata.jv_commit"
+          + " WHERE commit_id = :before)");
+      params.addValue("before", before);
+      offset = 0;
+    }
+
+    sql.append(" ORDER BY s.commit_fk DESC LIMIT :limit OFFSET :offset");
+    params.addValue("limit", pageSize);
+    params.addValue("offset", offset);
+
+    return template.query(sql.toString(), params, (rs, rowNum) -> new AuditedCommit(
+        rs.getBigDecimal("commit_id"),
+        LocalDateTime.fromDateFields(rs.getTimestamp("commit_date"))));
+  }
+
+  /**
+   * Counts the snapshots of the given type made between the given commit dates, inclusive. The
+   * remaining parameters are the same as for {@link #findCommits}.
+   */
+  public int countSnapshots(Class<?> type, UUID id, String author, String changedPropertyName,
+      LocalDateTime from, LocalDateTime to) {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    StringBuilder sql = new StringBuilder("SELECT COUNT(*)").append(FROM_SNAPSHOTS);
+    appendFilters(sql, params, type, id, author, changedPropertyName);
+
+    sql.append(" AND c.commit_date BETWEEN :from AND :to");
+    params.addValue("from", new Timestamp(from.toDate().getTime()));
+    params.addValue("to", new Timestamp(to.toDate().getTime()));
+
+    return template.queryForObject(sql.toString(), params, Integer.class);
+  }
+
+  private void appendFilters(StringBuilder sql, MapSqlParameterSource params, Class<?> type,
+      UUID id, String author, String changedPropertyName) {
+    params.addValue("typeName", getTypeName(type));
+
+    if (null != id) {
+      // JaVers keeps local ids as JSON, so UUIDs are stored in quotes
+      sql.append(" AND g.local_id = :localId");
+      params.addValue("localId", '"' + id.toString() + '"');
+    }
+
+    if (StringUtils.isNotBlank(author)) {
+      sql.append(" AND c.author = :author");
+      params.addValue("author", author);
+    }
+
+    if (StringUtils.isNotBlank(changedPropertyName)) {
+      sql.append(" AND s.changed_properties LIKE :changedProperty");
+      params.addValue("changedProperty", "%\"" + changedPropertyName + "\"%");
+    }
+  }
+
+  private static String getTypeName(Class<?> type) {
+    TypeName typeName = type.getAnnotation(TypeName.class);
+    return null == typeName ? type.getName() : typeName.value();
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static final class AuditedCommit {
+    private final BigDecimal commitId;
+    private final LocalDateTime commitDate;
+  }
+}
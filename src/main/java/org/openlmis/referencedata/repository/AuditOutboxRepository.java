@@ -0,0 +1,163 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.commons.lang3.tuple.Pair;
+import org.hibernate.Hibernate;
+import org.openlmis.referencedata.domain.Identifiable;
+import org.openlmis.referencedata.domain.Versionable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Keeps the entities whose audit snapshots or removals are yet to be committed to JaVers. Entries
+ * are added within the transaction that changes the entity, so they are committed or rolled back
+ * with it.
+ */
+@Repository
+public class AuditOutboxRepository {
+
+  private static final String INSERT = "INSERT INTO referencedata.audit_outbox"
+      + " (entitytype, entityid, versionnumber, author, operation) VALUES (?, ?, ?, ?, ?)";
+
+  // rows locked by another worker are skipped, so that several instances can share the outbox
+  private static final String LOCK_OLDEST = "SELECT id, entitytype, entityid, versionnumber,"
+      + " author, operation FROM referencedata.audit_outbox"
+      + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+  private static final String DELETE_PENDING_SAVES = "DELETE FROM referencedata.audit_outbox"
+      + " WHERE entitytype = ? AND entityid = ? AND versionnumber IS NOT DISTINCT FROM ?"
+      + " AND operation = '" + Operation.SAVE + "' RETURNING id, author";
+
+  private static final String DELETE = "DELETE FROM referencedata.audit_outbox WHERE id IN (:ids)";
+
+  private static final String COUNT = "SELECT COUNT(*) FROM referencedata.audit_outbox";
+
+  private static final String OLDEST_CREATED_DATE = "SELECT createddate"
+      + " FROM referencedata.audit_outbox ORDER BY id LIMIT 1";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate template;
+
+  @Autowired
+  public AuditOutboxRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.template = new NamedParameterJdbcTemplate(jdbcTemplate);
+  }
+
+  /**
+   * Adds the given entities to the outbox.
+   */
+  public void add(Collection<? extends Identifiable> entities, String author,
+      Operation operation) {
+    if (entities.isEmpty()) {
+      return;
+    }
+
+    jdbcTemplate.batchUpdate(INSERT, entities, entities.size(), (ps, entity) -> {
+      ps.setString(1, Hibernate.getClass(entity).getName());
+      ps.setObject(2, entity.getId());
+      ps.setObject(3, getVersionNumber(entity));
+      ps.setString(4, author);
+      ps.setString(5, operation.name());
+    });
+  }
+
+  /**
+   * Removes the saves of the given entity that are still waiting in the outbox.
+   *
+   * @return the author of the latest removed save, if there were any
+   */
+  public Optional<String> removePendingSaves(Identifiable entity) {
+    return jdbcTemplate
+        .query(DELETE_PENDING_SAVES,
+            (rs, rowNum) -> Pair.of(rs.getLong("id"), rs.getString("author")),
+            Hibernate.getClass(entity).getName(), entity.getId(), getVersionNumber(entity))
+        .stream()
+        .max(Comparator.comparing(Pair::getLeft))
+        .map(Pair::getRight);
+  }
+
+  /**
+   * Returns up to {@code limit} oldest entries and locks them until the end of the current
+   * transaction. Entries locked by other transactions are skipped.
+   */
+  public List<AuditOutboxEntry> lockOldest(int limit) {
+    return jdbcTemplate.query(LOCK_OLDEST, (rs, rowNum) -> new AuditOutboxEntry(
+        rs.getLong("id"),
+        rs.getString("entitytype"),
+        rs.getObject("entityid", UUID.class),
+        (Long) rs.getObject("versionnumber"),
+        rs.getString("author"),
+        Operation.valueOf(rs.getString("operation"))), limit);
+  }
+
+  public void delete(Collection<Long> ids) {
+    template.update(DELETE, new MapSqlParameterSource("ids", ids));
+  }
+
+  public long count() {
+    return jdbcTemplate.queryForObject(COUNT, Long.class);
+  }
+
+  /**
+   * Returns the time at which the oldest entry was added, if there are any entries.
+   */
+  public Optional<Instant> findOldestCreatedDate() {
+    return jdbcTemplate
+        .query(OLDEST_CREATED_DATE, (rs, rowNum) -> rs.getTimestamp("createddate"))
+        .stream()
+        .findFirst()
+        .map(Timestamp::toInstant);
+  }
+
+  private static Long getVersionNumber(Identifiable entity) {
+    return entity instanceof Versionable
+        ? ((Versionable) entity).getVersionNumber()
+        : null;
+  }
+
+  public enum Operation {
+    SAVE, DELETE
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static final class AuditOutboxEntry {
+    private final long id;
+    private final String entityType;
+    private final UUID entityId;
+    private final Long versionNumber;
+    private final String author;
+    private final Operation operation;
+
+    public boolean isDelete() {
+      return Operation.DELETE == operation;
+    }
+  }
+}
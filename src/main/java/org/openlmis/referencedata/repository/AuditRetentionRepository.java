@@ -0,0 +1,144 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Removes old snapshots from the JaVers tables. A snapshot can be removed when it was made
+ * before a given date and a newer snapshot of the same object was made within the same period
+ * (day, week, month, etc.). This leaves the latest snapshot of each object in each period, and
+ * the latest snapshot of each object overall, which JaVers compares new commits against.
+ */
+@Repository
+public class AuditRetentionRepository {
+
+  // snapshots of value objects are kept with the snapshots of the entity that owns them
+  private static final String FIND_COMPACTABLE = "SELECT s.snapshot_pk, s.commit_fk,"
+      + " pg_column_size(s.*) AS size"
+      + " FROM referencedata.jv_snapshot s"
+      + " INNER JOIN referencedata.jv_commit c ON c.commit_pk = s.commit_fk"
+      + " INNER JOIN referencedata.jv_global_id g ON g.global_id_pk = s.global_id_fk"
+      + " LEFT JOIN referencedata.jv_global_id o ON o.global_id_pk = g.owner_id_fk"
+      + " WHERE COALESCE(o.type_name, g.type_name) = :typeName"
+      + " AND s.snapshot_pk > :lastSnapshotId"
+      + " AND c.commit_date < :before"
+      + " AND EXISTS (SELECT 1 FROM referencedata.jv_snapshot n"
+      + "   INNER JOIN referencedata.jv_commit nc ON nc.commit_pk = n.commit_fk"
+      + "   WHERE n.global_id_fk = s.global_id_fk"
+      + "   AND n.version > s.version"
+      + "   AND DATE_TRUNC(:period, nc.commit_date) = DATE_TRUNC(:period, c.commit_date))"
+      + " ORDER BY s.snapshot_pk"
+      + " LIMIT :limit";
+
+  private static final String DELETE_SNAPSHOTS = "DELETE FROM referencedata.jv_snapshot"
+      + " WHERE snapshot_pk IN (:ids)";
+
+  private static final String ORPHANED_COMMITS = "SELECT c.commit_pk"
+      + " FROM referencedata.jv_commit c"
+      + " WHERE c.commit_pk IN (:ids)"
+      + " AND NOT EXISTS (SELECT 1 FROM referencedata.jv_snapshot s"
+      + "   WHERE s.commit_fk = c.commit_pk)";
+
+  private static final String COMMITS_SIZE = "SELECT"
+      + " COALESCE((SELECT SUM(pg_column_size(c.*)) FROM referencedata.jv_commit c"
+      + "   WHERE c.commit_pk IN (:ids)), 0)"
+      + " + COALESCE((SELECT SUM(pg_column_size(p.*)) FROM referencedata.jv_commit_property p"
+      + "   WHERE p.commit_fk IN (:ids)), 0)";
+
+  private static final String DELETE_COMMIT_PROPERTIES = "DELETE"
+      + " FROM referencedata.jv_commit_property WHERE commit_fk IN (:ids)";
+
+  private static final String DELETE_COMMITS = "DELETE FROM referencedata.jv_commit"
+      + " WHERE commit_pk IN (:ids)";
+
+  private final NamedParameterJdbcTemplate template;
+
+  @Autowired
+  public AuditRetentionRepository(JdbcTemplate jdbcTemplate) {
+    this.template = new NamedParameterJdbcTemplate(jdbcTemplate);
+  }
+
+  /**
+   * Finds snapshots of objects of the given type that can be removed, in the order they were
+   * made.
+   *
+   * @param typeName       the JaVers type name of the audited entity
+   * @param before         only snapshots committed before this date are returned
+   * @param period         the period within which only the latest snapshot is kept, as accepted
+   *                       by the PostgreSQL {@code date_trunc} function
+   * @param lastSnapshotId only snapshots with a greater id are returned
+   * @param limit          the maximum number of snapshots to return
+   */
+  public List<CompactableSnapshot> findCompactable(String typeName, LocalDateTime before,
+      String period, long lastSnapshotId, int limit) {
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("typeName", typeName)
+        .addValue("before", Timestamp.valueOf(before))
+        .addValue("period", period)
+        .addValue("lastSnapshotId", lastSnapshotId)
+        .addValue("limit", limit);
+
+    return template.query(FIND_COMPACTABLE, params, (rs, rowNum) -> new CompactableSnapshot(
+        rs.getLong("snapshot_pk"),
+        rs.getLong("commit_fk"),
+        rs.getLong("size")));
+  }
+
+  public int deleteSnapshots(Collection<Long> ids) {
+    return template.update(DELETE_SNAPSHOTS, new MapSqlParameterSource("ids", ids));
+  }
+
+  /**
+   * Deletes those of the given commits that have no snapshots left.
+   *
+   * @return the number of bytes taken up by the deleted commits
+   */
+  public long deleteOrphanedCommits(Collection<Long> ids) {
+    List<Long> orphaned = template.queryForList(ORPHANED_COMMITS,
+        new MapSqlParameterSource("ids", ids), Long.class);
+
+    if (orphaned.isEmpty()) {
+      return 0;
+    }
+
+    MapSqlParameterSource params = new MapSqlParameterSource("ids", orphaned);
+    long size = template.queryForObject(COMMITS_SIZE, params, Long.class);
+
+    template.update(DELETE_COMMIT_PROPERTIES, params);
+    template.update(DELETE_COMMITS, params);
+
+    return size;
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static final class CompactableSnapshot {
+    private final long id;
+    private final long commitId;
+    private final long size;
+  }
+}
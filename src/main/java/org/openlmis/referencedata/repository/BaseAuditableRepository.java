@@ -16,8 +16,9 @@
 package org.openlmis.referencedata.repository;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
 import org.javers.spring.annotation.JaversSpringDataAuditable;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.PagingAndSortingRepository;
@@ -33,7 +34,9 @@ public interface BaseAuditableRepository<T, I extends Serializable>
     extends PagingAndSortingRepository<T, I> {
 
   /**
-   * Returns a {@link Page} of entities which there are no Javers logs created for.
+   * Returns entities which there are no Javers logs created for, ordered by id (and version
+   * number for versioned entities). Only entities with an id greater than or equal to the given
+   * one are returned, so that the next page can be read from the last id of the previous one.
    */
-  Page<T> findAllWithoutSnapshots(Pageable pageable);
+  List<T> findAllWithoutSnapshots(UUID lastId, Pageable pageable);
 }
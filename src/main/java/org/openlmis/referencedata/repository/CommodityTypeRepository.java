@@ -15,13 +15,14 @@
 
 package org.openlmis.referencedata.repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.CommodityType;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface CommodityTypeRepository
     extends PagingAndSortingRepository<CommodityType, UUID>,
@@ -30,21 +31,25 @@ public interface CommodityTypeRepository
   Optional<CommodityType> findByClassificationIdAndClassificationSystem(
       String classificationId, String classificationSystem);
 
+  List<CommodityType> findAllByClassificationIdIn(List<String> classificationIds);
+
   @Query(value = "SELECT\n"
       + "    ct.*\n"
       + "FROM\n"
       + "    referencedata.commodity_types ct\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    ct.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.commodity_types ct\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(ct.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(ct.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    ct.id\n",
       nativeQuery = true)
-  Page<CommodityType> findAllWithoutSnapshots(Pageable pageable);
+  List<CommodityType> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 }
@@ -18,10 +18,10 @@ package org.openlmis.referencedata.repository;
 import java.util.List;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.FacilityOperator;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface FacilityOperatorRepository
     extends PagingAndSortingRepository<FacilityOperator, UUID>,
@@ -33,18 +33,20 @@ public interface FacilityOperatorRepository
       + "FROM\n"
       + "    referencedata.facility_operators fo\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    fo.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.facility_operators fo\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(fo.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(fo.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    fo.id\n",
       nativeQuery = true)
-  Page<FacilityOperator> findAllWithoutSnapshots(Pageable pageable);
+  List<FacilityOperator> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 
   FacilityOperator findByCode(String code);
 
@@ -61,16 +61,18 @@ public interface FacilityRepository
       + "FROM\n"
       + "    referencedata.facilities f\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    f.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.facilities f\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(f.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(f.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    f.id\n",
       nativeQuery = true)
-  Page<Facility> findAllWithoutSnapshots(Pageable pageable);
+  List<Facility> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 }
@@ -48,16 +48,18 @@ public interface FacilityTypeRepository extends JpaRepository<FacilityType, UUID
       + "FROM\n"
       + "    referencedata.facility_types ft\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    ft.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.facility_types ft\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(ft.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(ft.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    ft.id\n",
       nativeQuery = true)
-  Page<FacilityType> findAllWithoutSnapshots(Pageable pageable);
+  List<FacilityType> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 }
@@ -15,12 +15,13 @@
 
 package org.openlmis.referencedata.repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.GeographicLevel;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface GeographicLevelRepository
     extends BaseAuditableRepository<GeographicLevel, UUID> {
@@ -34,16 +35,18 @@ public interface GeographicLevelRepository
       + "FROM\n"
       + "    referencedata.geographic_levels gl\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    gl.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.geographic_levels gl\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(gl.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(gl.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    gl.id\n",
       nativeQuery = true)
-  Page<GeographicLevel> findAllWithoutSnapshots(Pageable pageable);
+  List<GeographicLevel> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 }
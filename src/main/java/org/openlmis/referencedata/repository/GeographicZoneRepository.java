@@ -22,7 +22,6 @@ import java.util.UUID;
 import org.openlmis.referencedata.domain.GeographicLevel;
 import org.openlmis.referencedata.domain.GeographicZone;
 import org.openlmis.referencedata.repository.custom.GeographicZoneRepositoryCustom;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
@@ -55,18 +54,20 @@ public interface GeographicZoneRepository extends PagingAndSortingRepository<Geo
       + "FROM\n"
       + "    referencedata.geographic_zones gz\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    gz.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.geographic_zones gz\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(gz.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(gz.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    gz.id\n",
       nativeQuery = true)
-  Page<GeographicZone> findAllWithoutSnapshots(Pageable pageable);
+  List<GeographicZone> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 
   @Query("SELECT SUM(gz.catchmentPopulation) FROM GeographicZone gz WHERE gz.parent = :parent ")
   Integer sumCatchmentPopulationByParent(@Param("parent") GeographicZone parent);
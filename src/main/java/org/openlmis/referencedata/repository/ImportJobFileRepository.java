@@ -0,0 +1,37 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.repository;
+
+import java.util.UUID;
+import org.openlmis.referencedata.domain.ImportJob;
+import org.openlmis.referencedata.domain.ImportJobFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ImportJobFileRepository extends JpaRepository<ImportJobFile, UUID> {
+
+  @Modifying
+  @Query("UPDATE ImportJobFile f SET f.status = :status WHERE f.id = :id")
+  void updateStatus(@Param("id") UUID id, @Param("status") ImportJob.Status status);
+
+  @Modifying
+  @Query("UPDATE ImportJobFile f SET f.rowsRead = :rowsRead, f.rowsPersisted = :rowsPersisted,"
+      + " f.rowsFailed = :rowsFailed WHERE f.id = :id")
+  void updateProgress(@Param("id") UUID id, @Param("rowsRead") int rowsRead,
+      @Param("rowsPersisted") int rowsPersisted, @Param("rowsFailed") int rowsFailed);
+}
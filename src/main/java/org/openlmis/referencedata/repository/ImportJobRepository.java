@@ -0,0 +1,49 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.repository;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.openlmis.referencedata.domain.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+
+  List<ImportJob> findAllByStatusIn(Collection<ImportJob.Status> statuses);
+
+  @Query("SELECT j.status FROM ImportJob j WHERE j.id = :id")
+  ImportJob.Status findStatusById(@Param("id") UUID id);
+
+  @Modifying(clearAutomatically = true)
+  @Query("UPDATE ImportJob j SET j.status = :status"
+      + " WHERE j.id = :id AND j.status IN (:expectedStatuses)")
+  int updateStatus(@Param("id") UUID id, @Param("status") ImportJob.Status status,
+      @Param("expectedStatuses") Collection<ImportJob.Status> expectedStatuses);
+
+  @Modifying(clearAutomatically = true)
+  @Query("UPDATE ImportJob j SET j.status = :status, j.finishedDate = :finishedDate,"
+      + " j.errorMessage = :errorMessage"
+      + " WHERE j.id = :id AND j.status IN (:expectedStatuses)")
+  int finish(@Param("id") UUID id, @Param("status") ImportJob.Status status,
+      @Param("finishedDate") ZonedDateTime finishedDate,
+      @Param("errorMessage") String errorMessage,
+      @Param("expectedStatuses") Collection<ImportJob.Status> expectedStatuses);
+}
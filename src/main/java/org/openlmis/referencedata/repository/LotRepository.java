@@ -15,13 +15,14 @@
 
 package org.openlmis.referencedata.repository;
 
+import java.util.List;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.Lot;
 import org.openlmis.referencedata.repository.custom.LotRepositoryCustom;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface LotRepository
     extends PagingAndSortingRepository<Lot, UUID>, LotRepositoryCustom,
@@ -36,16 +37,18 @@ public interface LotRepository
       + "FROM\n"
       + "    referencedata.lots l\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    l.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.lots l\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(l.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(l.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    l.id\n",
       nativeQuery = true)
-  Page<Lot> findAllWithoutSnapshots(Pageable pageable);
+  List<Lot> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 }
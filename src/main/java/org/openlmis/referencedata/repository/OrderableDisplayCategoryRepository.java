@@ -19,10 +19,10 @@ import java.util.List;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.OrderableDisplayCategory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface OrderableDisplayCategoryRepository extends
         PagingAndSortingRepository<OrderableDisplayCategory, UUID>,
@@ -37,16 +37,19 @@ public interface OrderableDisplayCategoryRepository extends
       + "FROM\n"
       + "    referencedata.orderable_display_categories odc\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    odc.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.orderable_display_categories odc\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(odc.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(odc.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    odc.id\n",
       nativeQuery = true)
-  Page<OrderableDisplayCategory> findAllWithoutSnapshots(Pageable pageable);
+  List<OrderableDisplayCategory> findAllWithoutSnapshots(@Param("lastId") UUID lastId,
+      Pageable pageable);
 }
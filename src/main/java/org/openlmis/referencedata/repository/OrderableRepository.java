@@ -150,19 +150,22 @@ public interface OrderableRepository extends
           + "FROM\n"
           + "    referencedata.orderables o\n"
           + "WHERE\n"
-          + "    id NOT IN (\n"
+          + "    o.id >= :lastId\n"
+          + "    AND NOT EXISTS (\n"
           + "        SELECT\n"
-          + "            id\n"
+          + "            1\n"
           + "        FROM\n"
-          + "            referencedata.orderables o\n"
-          + "            INNER JOIN referencedata.jv_global_id g "
-          + "ON CAST(o.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-          + "            INNER JOIN referencedata.jv_snapshot s  "
+          + "            referencedata.jv_global_id g\n"
+          + "            INNER JOIN referencedata.jv_snapshot s "
           + "ON g.global_id_pk = s.global_id_fk\n"
+          + "        WHERE\n"
+          + "            CAST(g.local_id AS jsonb) = jsonb_build_object('id', o.id,\n"
+          + "                'versionNumber', o.versionnumber)\n"
           + "    )\n"
-          + ORDER_BY_PAGEABLE,
+          + "ORDER BY\n"
+          + "    o.id, o.versionnumber\n",
           nativeQuery = true)
-  Page<Orderable> findAllWithoutSnapshots(Pageable pageable);
+  List<Orderable> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 
   @Query(value = SELECT_LAST_UPDATED
           + FROM_REFERENCEDATA_ORDERABLES_CLAUSE
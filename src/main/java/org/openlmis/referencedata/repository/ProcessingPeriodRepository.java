@@ -18,13 +18,14 @@ package org.openlmis.referencedata.repository;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.ProcessingPeriod;
 import org.openlmis.referencedata.domain.ProcessingSchedule;
 import org.openlmis.referencedata.repository.custom.ProcessingPeriodRepositoryCustom;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ProcessingPeriodRepository extends JpaRepository<ProcessingPeriod, UUID>,
     ProcessingPeriodRepositoryCustom,
@@ -35,21 +36,26 @@ public interface ProcessingPeriodRepository extends JpaRepository<ProcessingPeri
   Optional<ProcessingPeriod> findOneByNameAndProcessingSchedule(String name,
                                                                 ProcessingSchedule schedule);
 
+  List<ProcessingPeriod> findAllByProcessingScheduleCodeInAndNameIn(List<Code> scheduleCodes,
+                                                                     List<String> names);
+
   @Query(value = "SELECT\n"
       + "    p.*\n"
       + "FROM\n"
       + "    referencedata.processing_periods p\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    p.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.processing_periods p\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(p.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(p.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    p.id\n",
       nativeQuery = true)
-  Page<ProcessingPeriod> findAllWithoutSnapshots(Pageable pageable);
+  List<ProcessingPeriod> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 }
@@ -15,35 +15,40 @@
 
 package org.openlmis.referencedata.repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.ProcessingSchedule;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ProcessingScheduleRepository
       extends JpaRepository<ProcessingSchedule, UUID>,
       BaseAuditableRepository<ProcessingSchedule, UUID> {
   Optional<ProcessingSchedule> findOneByCode(Code code);
 
+  List<ProcessingSchedule> findAllByCodeIn(List<Code> codes);
+
   @Query(value = "SELECT\n"
       + "    ps.*\n"
       + "FROM\n"
       + "    referencedata.processing_schedules ps\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    ps.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.processing_schedules ps\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(ps.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(ps.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    ps.id\n",
       nativeQuery = true)
-  Page<ProcessingSchedule> findAllWithoutSnapshots(Pageable pageable);
+  List<ProcessingSchedule> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 }
@@ -22,7 +22,6 @@ import java.util.UUID;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.repository.custom.ProgramRepositoryCustom;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -70,16 +69,18 @@ public interface ProgramRepository
       + "FROM\n"
       + "    referencedata.programs p\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    p.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.programs p\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(p.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(p.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    p.id\n",
       nativeQuery = true)
-  Page<Program> findAllWithoutSnapshots(Pageable pageable);
+  List<Program> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 }
@@ -15,13 +15,14 @@
 
 package org.openlmis.referencedata.repository;
 
+import java.util.List;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.RequisitionGroup;
 import org.openlmis.referencedata.repository.custom.RequisitionGroupRepositoryCustom;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface RequisitionGroupRepository
     extends JpaRepository<RequisitionGroup, UUID>, RequisitionGroupRepositoryCustom,
@@ -34,16 +35,18 @@ public interface RequisitionGroupRepository
       + "FROM\n"
       + "    referencedata.requisition_groups r\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    r.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.requisition_groups r\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(r.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(r.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    r.id\n",
       nativeQuery = true)
-  Page<RequisitionGroup> findAllWithoutSnapshots(Pageable pageable);
+  List<RequisitionGroup> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 }
@@ -15,13 +15,14 @@
 
 package org.openlmis.referencedata.repository;
 
+import java.util.List;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.Right;
 import org.openlmis.referencedata.repository.custom.RightRepositoryCustom;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface RightRepository extends PagingAndSortingRepository<Right, UUID>,
         RightRepositoryCustom,
@@ -33,16 +34,18 @@ public interface RightRepository extends PagingAndSortingRepository<Right, UUID>
       + "FROM\n"
       + "    referencedata.rights r\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    r.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.rights r\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(r.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(r.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    r.id\n",
       nativeQuery = true)
-  Page<Right> findAllWithoutSnapshots(Pageable pageable);
+  List<Right> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 }
@@ -20,7 +20,6 @@ import java.util.List;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.Role;
 import org.openlmis.referencedata.repository.custom.RoleRepositoryCustom;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -36,18 +35,20 @@ public interface RoleRepository extends JpaRepository<Role, UUID>, RoleRepositor
       + "FROM\n"
       + "    referencedata.roles r\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    r.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.roles r\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(r.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(r.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    r.id\n",
       nativeQuery = true)
-  Page<Role> findAllWithoutSnapshots(Pageable pageable);
+  List<Role> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 
   @Query("SELECT r FROM Role r JOIN r.rights rights WHERE rights.id = :rightId")
   List<Role> findAllByRightId(@Param("rightId") UUID rightId);
@@ -15,12 +15,13 @@
 
 package org.openlmis.referencedata.repository;
 
+import java.util.List;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.ServiceAccount;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ServiceAccountRepository extends JpaRepository<ServiceAccount, UUID>,
       BaseAuditableRepository<ServiceAccount, UUID> {
@@ -30,16 +31,18 @@ public interface ServiceAccountRepository extends JpaRepository<ServiceAccount,
       + "FROM\n"
       + "    referencedata.service_accounts sa\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    sa.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.service_accounts sa\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(sa.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(sa.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    sa.id\n",
       nativeQuery = true)
-  Page<ServiceAccount> findAllWithoutSnapshots(Pageable pageable);
+  List<ServiceAccount> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 }
@@ -20,7 +20,6 @@ import java.util.Set;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.openlmis.referencedata.repository.custom.SupervisoryNodeRepositoryCustom;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -41,18 +40,20 @@ public interface SupervisoryNodeRepository
       + "FROM\n"
       + "    referencedata.supervisory_nodes sn\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    sn.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.supervisory_nodes sn\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(sn.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(sn.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    sn.id\n",
       nativeQuery = true)
-  Page<SupervisoryNode> findAllWithoutSnapshots(Pageable pageable);
+  List<SupervisoryNode> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 
   @Query(value = "SELECT\n"
           + "    sn\n"
@@ -20,7 +20,6 @@ import java.util.UUID;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.SupplyLine;
 import org.openlmis.referencedata.repository.custom.SupplyLineRepositoryCustom;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -39,16 +38,18 @@ public interface SupplyLineRepository extends JpaRepository<SupplyLine, UUID>,
       + "FROM\n"
       + "    referencedata.supply_lines sln\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    sln.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.supply_lines sln\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(sln.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(sln.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    sln.id\n",
       nativeQuery = true)
-  Page<SupplyLine> findAllWithoutSnapshots(Pageable pageable);
+  List<SupplyLine> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 }
@@ -15,13 +15,14 @@
 
 package org.openlmis.referencedata.repository;
 
+import java.util.List;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.SupplyPartner;
 import org.openlmis.referencedata.repository.custom.SupplyPartnerRepositoryCustom;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface SupplyPartnerRepository
     extends JpaRepository<SupplyPartner, UUID>,
@@ -33,17 +34,19 @@ public interface SupplyPartnerRepository
       + "FROM\n"
       + "    referencedata.supply_partners sp\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    sp.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.supply_partners sp\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(sp.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(sp.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    sp.id\n",
       nativeQuery = true)
-  Page<SupplyPartner> findAllWithoutSnapshots(Pageable pageable);
+  List<SupplyPartner> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 
 }
@@ -21,7 +21,6 @@ import java.util.UUID;
 import org.openlmis.referencedata.domain.TradeItem;
 import org.openlmis.referencedata.dto.TradeItemCsvModel;
 import org.openlmis.referencedata.repository.custom.TradeItemRepositoryCustom;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -36,18 +35,20 @@ public interface TradeItemRepository
       + "FROM\n"
       + "    referencedata.trade_items t\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    t.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.trade_items t\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(t.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(t.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    t.id\n",
       nativeQuery = true)
-  Page<TradeItem> findAllWithoutSnapshots(Pageable pageable);
+  List<TradeItem> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 
   @Query(nativeQuery = true)
   List<TradeItemCsvModel> findAllTradeItemCsvModels();
@@ -23,7 +23,6 @@ import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.Right;
 import org.openlmis.referencedata.domain.User;
 import org.openlmis.referencedata.repository.custom.UserRepositoryCustom;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -95,18 +94,20 @@ public interface UserRepository extends
       + "FROM\n"
       + "    referencedata.users u\n"
       + "WHERE\n"
-      + "    id NOT IN (\n"
+      + "    u.id >= :lastId\n"
+      + "    AND NOT EXISTS (\n"
       + "        SELECT\n"
-      + "            id\n"
+      + "            1\n"
       + "        FROM\n"
-      + "            referencedata.users u\n"
-      + "            INNER JOIN referencedata.jv_global_id g "
-      + "ON CAST(u.id AS varchar) = SUBSTRING(g.local_id, 2, 36)\n"
-      + "            INNER JOIN referencedata.jv_snapshot s  ON g.global_id_pk = s.global_id_fk\n"
+      + "            referencedata.jv_global_id g\n"
+      + "            INNER JOIN referencedata.jv_snapshot s ON g.global_id_pk = s.global_id_fk\n"
+      + "        WHERE\n"
+      + "            g.local_id = '\"' || CAST(u.id AS varchar) || '\"'\n"
       + "    )\n"
-      + " ",
+      + "ORDER BY\n"
+      + "    u.id\n",
       nativeQuery = true)
-  Page<User> findAllWithoutSnapshots(Pageable pageable);
+  List<User> findAllWithoutSnapshots(@Param("lastId") UUID lastId, Pageable pageable);
 
   @Modifying
   @Query(value = "DELETE FROM referencedata.users u WHERE u.id IN (:userIds)", nativeQuery = true)
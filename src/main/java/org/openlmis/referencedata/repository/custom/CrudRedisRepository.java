@@ -15,15 +15,29 @@
 
 package org.openlmis.referencedata.repository.custom;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
 
 public interface CrudRedisRepository<T> {
 
   boolean exists(UUID uuid);
 
+  /**
+   * Returns the object with the given id, or null if there is none.
+   */
   T findById(UUID uuid);
 
+  /**
+   * Returns the objects with the given ids, by id. Ids without an object are left out.
+   */
+  Map<UUID, T> findAllById(Collection<UUID> uuids);
+
   void save(T object);
 
+  void saveAll(Collection<T> objects);
+
   void delete(T object);
+
+  void deleteById(UUID uuid);
 }
@@ -15,8 +15,10 @@
 
 package org.openlmis.referencedata.repository.custom;
 
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.openlmis.referencedata.domain.Facility;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -26,6 +28,8 @@ public interface FacilityRepositoryCustom {
   Page<Facility> search(SearchParams params, Set<UUID> geographicZoneIds, String extraData,
       Pageable pageable);
 
+  void forEachBatch(int batchSize, Consumer<List<Facility>> batchConsumer);
+
   interface SearchParams {
 
     String getCode();
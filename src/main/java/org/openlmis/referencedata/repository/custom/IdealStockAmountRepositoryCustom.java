@@ -15,6 +15,7 @@
 
 package org.openlmis.referencedata.repository.custom;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.IdealStockAmount;
@@ -27,4 +28,6 @@ public interface IdealStockAmountRepositoryCustom {
 
   Page<IdealStockAmount> search(UUID facilityId, UUID commodityTypeId, UUID processingPeriodId,
                                 Pageable pageable);
+
+  int bulkImport(Iterator<? extends List<? extends IdealStockAmount.Importer>> batches);
 }
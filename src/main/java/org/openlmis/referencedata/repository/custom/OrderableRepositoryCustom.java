@@ -16,8 +16,10 @@
 package org.openlmis.referencedata.repository.custom;
 
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.referencedata.domain.Orderable;
 import org.springframework.data.domain.Page;
@@ -29,6 +31,8 @@ public interface OrderableRepositoryCustom {
 
   ZonedDateTime findLatestModifiedDateByParams(SearchParams searchParams);
 
+  void forEachLatestBatch(int batchSize, Consumer<List<Orderable>> batchConsumer);
+
   interface SearchParams {
     Set<String> getExactCodes();
 
@@ -15,58 +15,119 @@
 
 package org.openlmis.referencedata.repository.custom.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import javax.annotation.PostConstruct;
-import lombok.Setter;
+import org.openlmis.referencedata.cache.RedisValueCodec;
 import org.openlmis.referencedata.domain.Identifiable;
 import org.openlmis.referencedata.repository.custom.CrudRedisRepository;
-import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Keeps each object under a key of its own, made of the key prefix of the repository and the
+ * object id, so that an object is read with a single command and expires after the time to live
+ * of the repository. Several objects are read and written in one round-trip by pipelining.
+ */
 @Repository
 public abstract class BaseRedisRepository<T extends Identifiable>
     implements CrudRedisRepository<T> {
 
-  private RedisTemplate redisTemplate;
-  private HashOperations hashOperations;
-  private ObjectMapper mapper = new ObjectMapper();
-
-  @Setter
-  private Class<T> clazz;
+  private final RedisTemplate<String, T> redisTemplate;
+  private final RedisSerializer<String> keySerializer = new StringRedisSerializer();
+  private final Duration timeToLive;
 
-  public BaseRedisRepository(RedisTemplate redisTemplate, Class<T> clazz) {
-    this.redisTemplate = redisTemplate;
-    this.clazz = clazz;
-  }
-
-  @PostConstruct
-  protected void init() {
-    hashOperations = redisTemplate.opsForHash();
+  /**
+   * Creates a repository of objects of the given class.
+   *
+   * @param timeToLive the number of seconds after which an entry expires
+   */
+  public BaseRedisRepository(RedisConnectionFactory connectionFactory, RedisValueCodec codec,
+      Class<T> clazz, long timeToLive) {
+    this.redisTemplate = new RedisTemplate<>();
+    this.redisTemplate.setConnectionFactory(connectionFactory);
+    this.redisTemplate.setKeySerializer(keySerializer);
+    this.redisTemplate.setValueSerializer(codec.serializerFor(clazz));
+    this.redisTemplate.afterPropertiesSet();
+    this.timeToLive = Duration.ofSeconds(timeToLive);
   }
 
   @Override
   public boolean exists(UUID id) {
-    return hashOperations.hasKey(getHashKey(), id.toString());
+    return Boolean.TRUE.equals(redisTemplate.hasKey(getKey(id)));
   }
 
   @Override
   public T findById(UUID id) {
-    return mapper.convertValue(this.redisTemplate.opsForHash()
-        .get(getHashKey(), id), clazz);
+    return redisTemplate.opsForValue().get(getKey(id));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Map<UUID, T> findAllById(Collection<UUID> ids) {
+    List<UUID> keys = new ArrayList<>(ids);
+    List<Object> values = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      for (UUID id : keys) {
+        connection.stringCommands().get(keySerializer.serialize(getKey(id)));
+      }
+      return null;
+    });
+
+    Map<UUID, T> found = new HashMap<>();
+    for (int i = 0; i < keys.size(); ++i) {
+      if (null != values.get(i)) {
+        found.put(keys.get(i), (T) values.get(i));
+      }
+    }
+
+    return found;
   }
 
   @Override
   public void save(T entity) {
-    hashOperations.put(getHashKey(), entity.getId(), entity);
+    redisTemplate.opsForValue().set(getKey(entity.getId()), entity, timeToLive);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void saveAll(Collection<T> entities) {
+    if (entities.isEmpty()) {
+      return;
+    }
+
+    RedisSerializer<T> valueSerializer =
+        (RedisSerializer<T>) redisTemplate.getValueSerializer();
+    redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      for (T entity : entities) {
+        connection.stringCommands().setEx(keySerializer.serialize(getKey(entity.getId())),
+            timeToLive.getSeconds(), valueSerializer.serialize(entity));
+      }
+      return null;
+    });
   }
 
   @Override
   public void delete(T entity) {
-    hashOperations.delete(getHashKey(), entity.getId().toString());
+    deleteById(entity.getId());
+  }
+
+  @Override
+  public void deleteById(UUID id) {
+    redisTemplate.delete(getKey(id));
+  }
+
+  private String getKey(UUID id) {
+    return getKeyPrefix() + ':' + id;
   }
 
-  protected abstract String getHashKey();
+  protected abstract String getKeyPrefix();
 
 }
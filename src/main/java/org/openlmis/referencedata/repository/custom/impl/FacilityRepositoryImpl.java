@@ -22,14 +22,18 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.query.NativeQuery;
 import org.hibernate.type.PostgresUUIDType;
 import org.openlmis.referencedata.domain.Facility;
@@ -60,6 +64,10 @@ public class FacilityRepositoryImpl implements FacilityRepositoryCustom {
   private static final String DEFAULT_SORT = "f.name ASC";
   private static final String ORDER_BY = "ORDER BY";
 
+  private static final String HQL_SELECT_ALL = "SELECT f"
+      + " FROM Facility AS f"
+      + " " + ORDER_BY + " " + DEFAULT_SORT;
+
   private static final String WITH_CODE = "UPPER(f.code) LIKE :code";
   private static final String WITH_NAME = "UPPER(f.name) LIKE :name";
   private static final String WITH_ZONE = "g.id IN (:zones)";
@@ -123,6 +131,47 @@ public class FacilityRepositoryImpl implements FacilityRepositoryCustom {
     return Pagination.getPage(facilities, pageable, ids.size());
   }
 
+  /**
+   * Walks all facilities in name order in fixed-size batches. Facilities are read through a
+   * forward-only cursor, each batch is handed to the consumer and then detached, so only one
+   * batch is held in the persistence context at a time. Must be called within a transaction.
+   *
+   * @param batchSize     number of facilities per batch (also used as the JDBC fetch size)
+   * @param batchConsumer called with every batch
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public void forEachBatch(int batchSize, Consumer<List<Facility>> batchConsumer) {
+    org.hibernate.query.Query<Facility> query = entityManager
+        .createQuery(HQL_SELECT_ALL, Facility.class)
+        .unwrap(org.hibernate.query.Query.class);
+
+    try (ScrollableResults results = query
+        .setReadOnly(true)
+        .setFetchSize(batchSize)
+        .scroll(ScrollMode.FORWARD_ONLY)) {
+      List<Facility> batch = new ArrayList<>(batchSize);
+
+      while (results.next()) {
+        batch.add((Facility) results.get(0));
+
+        if (batch.size() == batchSize) {
+          processBatch(batch, batchConsumer);
+        }
+      }
+
+      if (!batch.isEmpty()) {
+        processBatch(batch, batchConsumer);
+      }
+    }
+  }
+
+  private void processBatch(List<Facility> batch, Consumer<List<Facility>> batchConsumer) {
+    batchConsumer.accept(batch);
+    batch.clear();
+    entityManager.clear();
+  }
+
   private Page<Facility> searchWithoutExtraData(SearchParams searchParams,
                                                 Set<UUID> geographicZoneIds, Pageable pageable) {
 
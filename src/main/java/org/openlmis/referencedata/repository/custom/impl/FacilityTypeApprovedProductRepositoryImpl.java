@@ -17,6 +17,7 @@ package org.openlmis.referencedata.repository.custom.impl;
 
 import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static org.openlmis.referencedata.util.CustomSqlFunctionsContributor.toArrayLiteral;
 
 import com.google.common.collect.Maps;
 import java.util.ArrayList;
@@ -38,7 +39,6 @@ import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Subquery;
-import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.hibernate.query.NativeQuery;
 import org.hibernate.transform.DistinctRootEntityResultTransformer;
@@ -183,10 +183,9 @@ public class FacilityTypeApprovedProductRepositoryImpl
     List<VersionIdentity> identities = executeNativeQuery(nativeQuery);
 
     profiler.start("RETRIEVE_FTAPS");
-    List<FacilityTypeApprovedProduct> ftaps = new ArrayList<>();
-    for (List<VersionIdentity> partition : ListUtils.partition(identities, MAX_IDENTITIES_SIZE)) {
-      ftaps.addAll(retrieveFtaps(partition));
-    }
+    List<FacilityTypeApprovedProduct> ftaps = identities.isEmpty()
+        ? Collections.emptyList()
+        : retrieveFtaps(identities);
 
     profiler.stop().log();
     return Pagination.getPage(ftaps, pageable, total);
@@ -214,10 +213,9 @@ public class FacilityTypeApprovedProductRepositoryImpl
     List<VersionIdentity> identities = getIdentities(searchParams, identityList, builder, pageable);
 
     profiler.start("RETRIEVE_FTAPS");
-    List<FacilityTypeApprovedProduct> ftaps = new ArrayList<>();
-    for (List<VersionIdentity> partition : ListUtils.partition(identities, MAX_IDENTITIES_SIZE)) {
-      ftaps.addAll(retrieveFtaps(partition));
-    }
+    List<FacilityTypeApprovedProduct> ftaps = identities.isEmpty()
+        ? Collections.emptyList()
+        : retrieveFtaps(identities);
 
     profiler.stop().log();
     return Pagination.getPage(ftaps, pageable, total);
@@ -269,7 +267,7 @@ public class FacilityTypeApprovedProductRepositoryImpl
 
     Set<UUID> orderableIds = searchParams.getOrderableIds();
     if (!isEmpty(orderableIds)) {
-      predicate = builder.and(predicate, root.get(ORDERABLE_ID)).in(orderableIds);
+      predicate = builder.and(predicate, uuidIn(builder, root.get(ORDERABLE_ID), orderableIds));
     }
 
     Set<String> facilityTypeCodes = searchParams.getFacilityTypeCodes();
@@ -281,7 +279,7 @@ public class FacilityTypeApprovedProductRepositoryImpl
     }
 
     if (!isEmpty(identities)) {
-      predicate = builder.and(predicate, builder.in(root.get(IDENTITY)).value(identities));
+      predicate = builder.and(predicate, identityIn(builder, root.get(IDENTITY), identities));
     } else {
       Subquery<String> latestFtapQuery = createFtapSubQuery(newQuery, builder);
       predicate = builder.and(predicate, builder.in(builder.concat(
@@ -331,8 +329,8 @@ public class FacilityTypeApprovedProductRepositoryImpl
     String orderablesCondition = "1=1";
 
     if (!isEmpty(orderableIds)) {
-      orderablesCondition += " AND o.id in (:orderableIds)";
-      params.put("orderableIds", orderableIds);
+      orderablesCondition += " AND o.id = ANY(CAST(:orderableIds AS uuid[]))";
+      params.put("orderableIds", toArrayLiteral(orderableIds));
     }
 
     if (isNotBlank(orderableCode)) {
@@ -435,7 +433,7 @@ public class FacilityTypeApprovedProductRepositoryImpl
     CriteriaQuery<FacilityTypeApprovedProduct> criteriaQuery =
         criteriaBuilder.createQuery(FacilityTypeApprovedProduct.class);
     Root<FacilityTypeApprovedProduct> root = criteriaQuery.from(FacilityTypeApprovedProduct.class);
-    criteriaQuery.select(root).where(root.get(IDENTITY).in(identities));
+    criteriaQuery.select(root).where(identityIn(criteriaBuilder, root.get(IDENTITY), identities));
 
     return entityManager
         .createQuery(criteriaQuery)
@@ -0,0 +1,40 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.repository.custom.impl;
+
+import org.openlmis.referencedata.cache.RedisValueCodec;
+import org.openlmis.referencedata.domain.FacilityType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class FacilityTypeRedisRepository extends BaseRedisRepository<FacilityType> {
+
+  private static final String KEY_PREFIX = "FACILITY_TYPE";
+
+  @Autowired
+  FacilityTypeRedisRepository(RedisConnectionFactory connectionFactory, RedisValueCodec codec,
+      @Value("${referencedata.cache.facilityTypes.timeToLive}") long timeToLive) {
+    super(connectionFactory, codec, FacilityType.class, timeToLive);
+  }
+
+  @Override
+  protected String getKeyPrefix() {
+    return KEY_PREFIX;
+  }
+}
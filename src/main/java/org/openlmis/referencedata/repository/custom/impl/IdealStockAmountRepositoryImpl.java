@@ -15,12 +15,22 @@
 
 package org.openlmis.referencedata.repository.custom.impl;
 
+import static org.openlmis.referencedata.util.messagekeys.IdealStockAmountMessageKeys.ERROR_COMMODITY_TYPE_NOT_FOUND;
+import static org.openlmis.referencedata.util.messagekeys.IdealStockAmountMessageKeys.ERROR_FACILITY_NOT_FOUND;
+import static org.openlmis.referencedata.util.messagekeys.IdealStockAmountMessageKeys.ERROR_PROCESSING_PERIOD_NOT_FOUND;
 import static org.springframework.util.CollectionUtils.isEmpty;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -30,6 +40,7 @@ import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 import org.apache.commons.lang3.tuple.Pair;
 import org.hibernate.SQLQuery;
+import org.hibernate.Session;
 import org.hibernate.type.IntegerType;
 import org.hibernate.type.LongType;
 import org.hibernate.type.PostgresUUIDType;
@@ -37,8 +48,12 @@ import org.openlmis.referencedata.domain.CommodityType;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.IdealStockAmount;
 import org.openlmis.referencedata.domain.ProcessingPeriod;
+import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.custom.IdealStockAmountRepositoryCustom;
+import org.openlmis.referencedata.util.Message;
 import org.openlmis.referencedata.util.Pagination;
+import org.openlmis.referencedata.util.messagekeys.ProcessingScheduleMessageKeys;
+import org.postgresql.PGConnection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -64,6 +79,79 @@ public class IdealStockAmountRepositoryImpl implements IdealStockAmountRepositor
       + " count(*) AS count"
       + " FROM referencedata.ideal_stock_amounts";
 
+  private static final String STAGING_TABLE = "ideal_stock_amounts_staging";
+
+  private static final String CREATE_STAGING_SQL = "CREATE TEMPORARY TABLE " + STAGING_TABLE
+      + " (rownumber integer NOT NULL,"
+      + " facilitycode text,"
+      + " classificationid text,"
+      + " classificationsystem text,"
+      + " periodname text,"
+      + " schedulecode text,"
+      + " amount integer,"
+      + " facilityid uuid,"
+      + " commoditytypeid uuid,"
+      + " processingscheduleid uuid,"
+      + " processingperiodid uuid)"
+      + " ON COMMIT DROP";
+
+  private static final String COPY_TO_STAGING_SQL = "COPY " + STAGING_TABLE
+      + " (rownumber, facilitycode, classificationid, classificationsystem, periodname,"
+      + " schedulecode, amount)"
+      + " FROM STDIN WITH (FORMAT csv)";
+
+  private static final String[] RESOLVE_STAGED_SQL = {
+      "ANALYZE " + STAGING_TABLE,
+      "UPDATE " + STAGING_TABLE + " st SET facilityid = f.id"
+          + " FROM referencedata.facilities f"
+          + " WHERE f.code = st.facilitycode",
+      "UPDATE " + STAGING_TABLE + " st SET commoditytypeid = c.id"
+          + " FROM referencedata.commodity_types c"
+          + " WHERE c.classificationid = st.classificationid"
+          + " AND c.classificationsystem = st.classificationsystem",
+      "UPDATE " + STAGING_TABLE + " st SET processingscheduleid = s.id"
+          + " FROM referencedata.processing_schedules s"
+          + " WHERE s.code = st.schedulecode",
+      "UPDATE " + STAGING_TABLE + " st SET processingperiodid = p.id"
+          + " FROM referencedata.processing_periods p"
+          + " WHERE p.processingscheduleid = st.processingscheduleid"
+          + " AND p.name = st.periodname"
+  };
+
+  private static final String FIND_UNRESOLVED_SQL = "SELECT"
+      + " facilitycode, classificationid, classificationsystem, periodname, schedulecode,"
+      + " facilityid IS NULL, processingscheduleid IS NULL, processingperiodid IS NULL"
+      + " FROM " + STAGING_TABLE
+      + " WHERE facilityid IS NULL"
+      + " OR processingperiodid IS NULL"
+      + " OR commoditytypeid IS NULL"
+      + " ORDER BY rownumber"
+      + " LIMIT 1";
+
+  private static final String LAST_STAGED_SQL = "SELECT"
+      + " DISTINCT ON (facilityid, commoditytypeid, processingperiodid)"
+      + " facilityid, commoditytypeid, processingperiodid, amount"
+      + " FROM " + STAGING_TABLE
+      + " ORDER BY facilityid, commoditytypeid, processingperiodid, rownumber DESC";
+
+  private static final String MATCHES_STAGED = "isa.facilityid = st.facilityid"
+      + " AND isa.commoditytypeid = st.commoditytypeid"
+      + " AND isa.processingperiodid = st.processingperiodid";
+
+  private static final String[] MERGE_STAGED_SQL = {
+      "UPDATE referencedata.ideal_stock_amounts isa"
+          + " SET amount = st.amount"
+          + " FROM (" + LAST_STAGED_SQL + ") st"
+          + " WHERE " + MATCHES_STAGED,
+      "INSERT INTO referencedata.ideal_stock_amounts"
+          + " (id, facilityid, commoditytypeid, processingperiodid, amount)"
+          + " SELECT uuid_generate_v4(), st.facilityid, st.commoditytypeid,"
+          + " st.processingperiodid, st.amount"
+          + " FROM (" + LAST_STAGED_SQL + ") st"
+          + " WHERE NOT EXISTS (SELECT 1 FROM referencedata.ideal_stock_amounts isa"
+          + " WHERE " + MATCHES_STAGED + ")"
+  };
+
   private static final String WHERE = "WHERE";
   private static final String AND = " AND ";
 
@@ -77,6 +165,15 @@ public class IdealStockAmountRepositoryImpl implements IdealStockAmountRepositor
   private static final int COMMODITY_ID = 3;
   private static final int PERIOD_ID = 4;
 
+  private static final int FACILITY_CODE = 1;
+  private static final int CLASSIFICATION_ID = 2;
+  private static final int CLASSIFICATION_SYSTEM = 3;
+  private static final int PERIOD_NAME = 4;
+  private static final int SCHEDULE_CODE = 5;
+  private static final int FACILITY_MISSING = 6;
+  private static final int SCHEDULE_MISSING = 7;
+  private static final int PERIOD_MISSING = 8;
+
   @PersistenceContext
   private EntityManager entityManager;
 
@@ -134,6 +231,121 @@ public class IdealStockAmountRepositoryImpl implements IdealStockAmountRepositor
     return Pagination.getPage(result, pageable, count.get(0));
   }
 
+  /**
+   * Creates or updates ideal stock amounts in bulk. Rows are copied into a temporary staging
+   * table batch by batch, references are resolved by codes with set-based updates and then the
+   * amounts of existing ideal stock amounts are updated and the missing ones are inserted. If the
+   * same facility, commodity type and period appear more than once, the last row wins. Nothing
+   * is written if any reference cannot be resolved.
+   *
+   * <p>The statements are executed directly on the JDBC connection of the current transaction,
+   * so the persistence context is flushed first and is not aware of the changes afterwards.
+   *
+   * @param batches consecutive batches of rows to import
+   * @return number of imported rows
+   */
+  @Override
+  public int bulkImport(Iterator<? extends List<? extends IdealStockAmount.Importer>> batches) {
+    entityManager.flush();
+
+    Session session = entityManager.unwrap(Session.class);
+    session.doWork(connection -> execute(connection, CREATE_STAGING_SQL));
+
+    int rowCount = 0;
+    while (batches.hasNext()) {
+      List<? extends IdealStockAmount.Importer> batch = batches.next();
+      int firstRow = rowCount;
+      session.doWork(connection -> copyToStaging(connection, batch, firstRow));
+      rowCount += batch.size();
+    }
+
+    session.doWork(connection -> execute(connection, RESOLVE_STAGED_SQL));
+
+    Message unresolved = session.doReturningWork(this::findUnresolved);
+    if (null != unresolved) {
+      throw new ValidationMessageException(unresolved);
+    }
+
+    session.doWork(connection -> execute(connection, MERGE_STAGED_SQL));
+
+    return rowCount;
+  }
+
+  private void execute(Connection connection, String... statements) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      for (String sql : statements) {
+        statement.execute(sql);
+      }
+    }
+  }
+
+  private void copyToStaging(Connection connection,
+      List<? extends IdealStockAmount.Importer> batch, int firstRow) throws SQLException {
+    StringBuilder csv = new StringBuilder();
+    int rowNumber = firstRow;
+
+    for (IdealStockAmount.Importer isa : batch) {
+      csv.append(++rowNumber);
+      appendCsvValue(csv, null == isa.getFacility() ? null : isa.getFacility().getCode());
+      appendCsvValue(csv, null == isa.getCommodityType()
+          ? null : isa.getCommodityType().getClassificationId());
+      appendCsvValue(csv, null == isa.getCommodityType()
+          ? null : isa.getCommodityType().getClassificationSystem());
+      appendCsvValue(csv, null == isa.getProcessingPeriod()
+          ? null : isa.getProcessingPeriod().getName());
+      appendCsvValue(csv, null == isa.getProcessingPeriod()
+          || null == isa.getProcessingPeriod().getProcessingSchedule()
+          ? null : isa.getProcessingPeriod().getProcessingSchedule().getCode());
+      csv.append(',');
+      if (null != isa.getAmount()) {
+        csv.append(isa.getAmount());
+      }
+      csv.append('\n');
+    }
+
+    try {
+      connection
+          .unwrap(PGConnection.class)
+          .getCopyAPI()
+          .copyIn(COPY_TO_STAGING_SQL, new StringReader(csv.toString()));
+    } catch (IOException ex) {
+      throw new SQLException(ex);
+    }
+  }
+
+  private static void appendCsvValue(StringBuilder csv, String value) {
+    csv.append(',');
+    if (null != value) {
+      csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+  }
+
+  private Message findUnresolved(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement();
+         ResultSet row = statement.executeQuery(FIND_UNRESOLVED_SQL)) {
+      if (!row.next()) {
+        return null;
+      }
+
+      if (row.getBoolean(FACILITY_MISSING)) {
+        return new Message(ERROR_FACILITY_NOT_FOUND, row.getString(FACILITY_CODE));
+      }
+
+      if (row.getBoolean(SCHEDULE_MISSING)) {
+        return new Message(ProcessingScheduleMessageKeys.ERROR_NOT_FOUND_WITH_CODE,
+            row.getString(SCHEDULE_CODE));
+      }
+
+      if (row.getBoolean(PERIOD_MISSING)) {
+        return new Message(ERROR_PROCESSING_PERIOD_NOT_FOUND,
+            row.getString(PERIOD_NAME), row.getString(SCHEDULE_CODE));
+      }
+
+      return new Message(ERROR_COMMODITY_TYPE_NOT_FOUND,
+          row.getString(CLASSIFICATION_ID), row.getString(CLASSIFICATION_SYSTEM));
+    }
+  }
+
   private IdealStockAmount toMinimalIsa(Object[] values) {
     Facility facility = new Facility((UUID) values[FACILITY_ID]);
 
@@ -16,8 +16,10 @@
 package org.openlmis.referencedata.repository.custom.impl;
 
 import static org.apache.commons.collections4.CollectionUtils.isEmpty;
+import static org.openlmis.referencedata.util.CustomSqlFunctionsContributor.IDENTITY_IN_ARRAYS;
+import static org.openlmis.referencedata.util.CustomSqlFunctionsContributor.UUID_IN_ARRAY;
+import static org.openlmis.referencedata.util.CustomSqlFunctionsContributor.toArrayLiteral;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -27,51 +29,69 @@ import java.util.stream.Collectors;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
-import org.apache.commons.collections4.ListUtils;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
 import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.referencedata.domain.VersionIdentity;
 import org.springframework.data.domain.Pageable;
 
+/**
+ * Base for repositories that can be searched by a set of version identities. Identities are
+ * passed to the database as two parallel array parameters, so the count, the page and the entity
+ * retrieval are each a single statement regardless of how many identities are given.
+ */
 abstract class IdentitiesSearchableRepository<T> {
 
-  static final Integer MAX_IDENTITIES_SIZE = 500;
+  private static final String ID = "id";
+  private static final String VERSION_NUMBER = "versionNumber";
 
   abstract <E> TypedQuery<E> prepareQuery(T searchParams, CriteriaQuery<E> query,
       boolean count, Collection<VersionIdentity> identities, Pageable pageable);
 
   Long getTotal(T searchParams, Set<Pair<UUID, Long>> identityPairs,
       List<VersionIdentity> identityList, CriteriaBuilder builder, Pageable pageable) {
-    Long total = 0L;
     if (!isEmpty(identityPairs)) {
       identityList.addAll(convertPairToVersionIdentity(identityPairs));
-      for (List<VersionIdentity> part : ListUtils.partition(identityList, MAX_IDENTITIES_SIZE)) {
-        CriteriaQuery<Long> countQuery = builder.createQuery(Long.class);
-        total += prepareQuery(searchParams, countQuery, true, part, pageable)
-            .getSingleResult();
-      }
-    } else {
-      CriteriaQuery<Long> countQuery = builder.createQuery(Long.class);
-      total += prepareQuery(searchParams, countQuery, true, identityList, pageable)
-          .getSingleResult();
     }
-    return total;
+
+    CriteriaQuery<Long> countQuery = builder.createQuery(Long.class);
+    return prepareQuery(searchParams, countQuery, true, identityList, pageable)
+        .getSingleResult();
   }
 
   List<VersionIdentity> getIdentities(T searchParams, List<VersionIdentity> identityList,
       CriteriaBuilder builder, Pageable pageable) {
-    List<VersionIdentity> identities = new ArrayList<>();
-    if (!isEmpty(identityList)) {
-      for (List<VersionIdentity> part : ListUtils.partition(identityList, MAX_IDENTITIES_SIZE)) {
-        CriteriaQuery<VersionIdentity> query = builder.createQuery(VersionIdentity.class);
-        identities.addAll(prepareQuery(searchParams, query, false, part, pageable)
-            .getResultList());
-      }
-    } else {
-      CriteriaQuery<VersionIdentity> query = builder.createQuery(VersionIdentity.class);
-      identities.addAll(prepareQuery(searchParams, query, false, identityList, pageable)
-          .getResultList());
-    }
-    return identities;
+    CriteriaQuery<VersionIdentity> query = builder.createQuery(VersionIdentity.class);
+    return prepareQuery(searchParams, query, false, identityList, pageable)
+        .getResultList();
+  }
+
+  /**
+   * Creates a predicate matching entities whose identity is one of the given identities.
+   */
+  Predicate identityIn(CriteriaBuilder builder, Path<?> identity,
+      Collection<VersionIdentity> identities) {
+    List<UUID> ids = identities
+        .stream()
+        .map(VersionIdentity::getId)
+        .collect(Collectors.toList());
+    List<Long> versionNumbers = identities
+        .stream()
+        .map(VersionIdentity::getVersionNumber)
+        .collect(Collectors.toList());
+
+    return builder.isTrue(builder.function(IDENTITY_IN_ARRAYS, Boolean.class,
+        identity.get(ID), identity.get(VERSION_NUMBER),
+        builder.literal(toArrayLiteral(ids)), builder.literal(toArrayLiteral(versionNumbers))));
+  }
+
+  /**
+   * Creates a predicate matching rows whose id is one of the given ids.
+   */
+  Predicate uuidIn(CriteriaBuilder builder, Expression<?> id, Collection<UUID> ids) {
+    return builder.isTrue(builder.function(UUID_IN_ARRAY, Boolean.class,
+        id, builder.literal(toArrayLiteral(ids))));
   }
 
   private List<VersionIdentity> convertPairToVersionIdentity(Set<Pair<UUID, Long>> identityPairs) {
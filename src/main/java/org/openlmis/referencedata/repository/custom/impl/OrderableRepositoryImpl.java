@@ -32,6 +32,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -44,9 +45,10 @@ import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Subquery;
-import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.collections4.SetUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.jpa.QueryHints;
 import org.hibernate.transform.DistinctRootEntityResultTransformer;
 import org.openlmis.referencedata.domain.Orderable;
@@ -103,6 +105,12 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
   private static final String ORDERABLE = "orderable";
   private static final String LATEST_ORDERABLE_ALIAS = "latest";
   private static final String TRADE_ITEM = "tradeItem";
+  private static final String SELECT_LATEST_IDENTITIES = "SELECT o.identity"
+      + " FROM Orderable o"
+      + " WHERE (o.identity.id, o.identity.versionNumber)"
+      + " IN (SELECT identity.id, MAX(identity.versionNumber)"
+      + " FROM Orderable GROUP BY identity.id)"
+      + " ORDER BY o.fullProductName";
   @PersistenceContext
   private EntityManager entityManager;
   @Autowired
@@ -145,10 +153,9 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
     List<VersionIdentity> identities = getIdentities(searchParams, identityList, builder, pageable);
 
     profiler.start("RETRIEVE_ORDERABLES");
-    List<Orderable> orderables = new ArrayList<>();
-    for (List<VersionIdentity> partition : ListUtils.partition(identities, MAX_IDENTITIES_SIZE)) {
-      orderables.addAll(retrieveOrderables(partition));
-    }
+    List<Orderable> orderables = identities.isEmpty()
+        ? Collections.emptyList()
+        : retrieveOrderables(identities);
 
     profiler.stop().log();
     return Pagination.getPage(orderables, pageable, total);
@@ -241,7 +248,7 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
                 root.get(IDENTITY).get(VERSION_NUMBER)).as(String.class))
             .value(latestOrderablesQuery));
       } else {
-        where = builder.and(where, builder.in(root.get(IDENTITY)).value(identities));
+        where = builder.and(where, identityIn(builder, root.get(IDENTITY), identities));
       }
 
       if (isNotEmpty(searchParams.getExactCodes())) {
@@ -291,6 +298,56 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
     return latestOrderablesQuery;
   }
 
+  /**
+   * Walks the latest versions of all orderables in fixed-size batches. Identities are read
+   * through a forward-only cursor, each batch is hydrated with the orderable entity graph, handed
+   * to the consumer and then detached, so only one batch is held in the persistence context at a
+   * time. Must be called within a transaction.
+   *
+   * @param batchSize     number of orderables per batch (also used as the JDBC fetch size)
+   * @param batchConsumer called with every batch, in full product name order
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public void forEachLatestBatch(int batchSize, Consumer<List<Orderable>> batchConsumer) {
+    Profiler profiler = new Profiler("ORDERABLE_REPOSITORY_FOR_EACH_LATEST_BATCH");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("OPEN_LATEST_IDENTITIES_CURSOR");
+    org.hibernate.query.Query<VersionIdentity> query = entityManager
+        .createQuery(SELECT_LATEST_IDENTITIES, VersionIdentity.class)
+        .unwrap(org.hibernate.query.Query.class);
+
+    try (ScrollableResults results = query
+        .setReadOnly(true)
+        .setFetchSize(batchSize)
+        .scroll(ScrollMode.FORWARD_ONLY)) {
+      profiler.start("PROCESS_BATCHES");
+      List<VersionIdentity> batch = new ArrayList<>(batchSize);
+
+      while (results.next()) {
+        batch.add((VersionIdentity) results.get(0));
+
+        if (batch.size() == batchSize) {
+          processBatch(batch, batchConsumer);
+        }
+      }
+
+      if (!batch.isEmpty()) {
+        processBatch(batch, batchConsumer);
+      }
+    } finally {
+      profiler.stop().log();
+    }
+  }
+
+  private void processBatch(List<VersionIdentity> batch,
+      Consumer<List<Orderable>> batchConsumer) {
+    batchConsumer.accept(retrieveOrderables(batch));
+    batch.clear();
+    entityManager.clear();
+  }
+
   private Query getLastUpdatedQuery(SearchParams searchParams, boolean count) {
     String startNativeQuery = count ? NATIVE_COUNT_LAST_UPDATED : NATIVE_SELECT_LAST_UPDATED;
     StringBuilder builder = new StringBuilder(startNativeQuery);
@@ -343,7 +400,7 @@ public class OrderableRepositoryImpl extends IdentitiesSearchableRepository<Sear
     CriteriaQuery<Orderable> criteriaQuery = criteriaBuilder.createQuery(Orderable.class);
     Root<Orderable> root = criteriaQuery.from(Orderable.class);
     criteriaQuery.select(root);
-    criteriaQuery.where(root.get(IDENTITY).in(identities));
+    criteriaQuery.where(identityIn(criteriaBuilder, root.get(IDENTITY), identities));
     criteriaQuery.orderBy(criteriaBuilder.asc(root.get(FULL_PRODUCT_NAME)));
 
     return retrieveOrderables(criteriaQuery);
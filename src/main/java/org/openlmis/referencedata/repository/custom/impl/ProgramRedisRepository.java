@@ -15,23 +15,26 @@
 
 package org.openlmis.referencedata.repository.custom.impl;
 
+import org.openlmis.referencedata.cache.RedisValueCodec;
 import org.openlmis.referencedata.domain.Program;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class ProgramRedisRepository extends BaseRedisRepository<Program> {
 
-  private static final String HASH_KEY = "PROGRAM";
+  private static final String KEY_PREFIX = "PROGRAM";
 
   @Autowired
-  ProgramRedisRepository(RedisTemplate redisTemplate) {
-    super(redisTemplate, Program.class);
+  ProgramRedisRepository(RedisConnectionFactory connectionFactory, RedisValueCodec codec,
+      @Value("${referencedata.cache.programs.timeToLive}") long timeToLive) {
+    super(connectionFactory, codec, Program.class, timeToLive);
   }
 
   @Override
-  protected String getHashKey() {
-    return HASH_KEY;
+  protected String getKeyPrefix() {
+    return KEY_PREFIX;
   }
 }
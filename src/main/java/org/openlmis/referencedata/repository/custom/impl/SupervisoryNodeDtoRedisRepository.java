@@ -15,24 +15,28 @@
 
 package org.openlmis.referencedata.repository.custom.impl;
 
+import org.openlmis.referencedata.cache.RedisValueCodec;
 import org.openlmis.referencedata.dto.SupervisoryNodeDto;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class SupervisoryNodeDtoRedisRepository
     extends BaseRedisRepository<SupervisoryNodeDto> {
 
-  private static final String HASH_KEY = "SUPERVISORY_NODE_DTO";
+  private static final String KEY_PREFIX = "SUPERVISORY_NODE_DTO";
 
   @Autowired
-  SupervisoryNodeDtoRedisRepository(RedisTemplate redisTemplate) {
-    super(redisTemplate, SupervisoryNodeDto.class);
+  SupervisoryNodeDtoRedisRepository(RedisConnectionFactory connectionFactory,
+      RedisValueCodec codec,
+      @Value("${referencedata.cache.supervisoryNodes.timeToLive}") long timeToLive) {
+    super(connectionFactory, codec, SupervisoryNodeDto.class, timeToLive);
   }
 
   @Override
-  protected String getHashKey() {
-    return HASH_KEY;
+  protected String getKeyPrefix() {
+    return KEY_PREFIX;
   }
 }
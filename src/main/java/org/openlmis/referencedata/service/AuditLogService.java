@@ -0,0 +1,133 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.annotation.Resource;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.javers.core.Javers;
+import org.javers.core.commit.CommitId;
+import org.javers.core.diff.Change;
+import org.javers.repository.jql.QueryBuilder;
+import org.joda.time.LocalDateTime;
+import org.openlmis.referencedata.repository.AuditLogRepository;
+import org.openlmis.referencedata.repository.AuditLogRepository.AuditedCommit;
+import org.openlmis.referencedata.util.Pagination;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+@Service
+public class AuditLogService {
+
+  @Resource(name = "javersProvider")
+  private Javers javers;
+
+  @Autowired
+  private AuditLogRepository auditLogRepository;
+
+  /**
+   * Returns JaVers changes for the specified type, optionally filtered by id, author, and
+   * property, newest first. The page of snapshots is resolved by {@link AuditLogRepository} and
+   * JaVers is only asked for the changes made by the commits on that page.
+   *
+   * @param before the id of a commit; only changes made by older commits are returned and the page
+   *               number is ignored. Ignored if null
+   * @return the changes on the page and the commit the next page should be read before
+   */
+  public AuditedChanges findChanges(Class<?> type, UUID id, String author,
+      String changedPropertyName, BigDecimal before, Pageable page) {
+    List<AuditedCommit> commits = auditLogRepository
+        .findCommits(type, id, author, changedPropertyName, before, page);
+
+    if (commits.isEmpty()) {
+      return new AuditedChanges(new ArrayList<>(), null);
+    }
+
+    // only a full page can be followed by another one. An instance has a single snapshot in each
+    // commit, so no snapshot of the last commit is left for the next page
+    AuditedCommit last = commits.get(commits.size() - 1);
+    BigDecimal nextBefore = commits.size() < Pagination.getPageSize(page)
+        ? null
+        : last.getCommitId();
+
+    Map<BigDecimal, Integer> commitOrder = new HashMap<>();
+    for (AuditedCommit commit : commits) {
+      commitOrder.putIfAbsent(normalize(commit.getCommitId()), commitOrder.size());
+    }
+
+    // other commits may share the commit dates at the edges of the page, so the query is limited
+    // to the snapshots in that range and the changes of other commits are dropped afterwards
+    LocalDateTime from = last.getCommitDate();
+    LocalDateTime to = commits.get(0).getCommitDate();
+    int snapshots = auditLogRepository
+        .countSnapshots(type, id, author, changedPropertyName, from, to);
+
+    QueryBuilder queryBuilder = null == id
+        ? QueryBuilder.byClass(type)
+        : QueryBuilder.byInstanceId(id, type);
+    queryBuilder = queryBuilder
+        .withNewObjectChanges(true)
+        .from(from)
+        .to(to)
+        .limit(snapshots);
+
+    if (StringUtils.isNotBlank(author)) {
+      queryBuilder = queryBuilder.byAuthor(author);
+    }
+    if (StringUtils.isNotBlank(changedPropertyName)) {
+      queryBuilder = queryBuilder.andProperty(changedPropertyName);
+    }
+
+    List<Change> changes = javers.findChanges(queryBuilder.build())
+        .stream()
+        .filter(change -> commitOrder.containsKey(getCommitId(change)))
+        .sorted(Comparator.comparing((Change change) -> commitOrder.get(getCommitId(change))))
+        .collect(Collectors.toList());
+
+    return new AuditedChanges(changes, nextBefore);
+  }
+
+  private static BigDecimal getCommitId(Change change) {
+    CommitId commitId = change.getCommitMetadata().get().getId();
+    return normalize(new BigDecimal(commitId.value()));
+  }
+
+  private static BigDecimal normalize(BigDecimal commitId) {
+    return commitId.stripTrailingZeros();
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static final class AuditedChanges {
+    private final List<Change> changes;
+
+    /**
+     * The id of the oldest commit on the page, to be passed as {@code before} to read the next
+     * page, or null if there is no next page.
+     */
+    private final BigDecimal nextBefore;
+  }
+}
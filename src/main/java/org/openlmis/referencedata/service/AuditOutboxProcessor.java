@@ -0,0 +1,214 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.javers.core.Javers;
+import org.javers.repository.jql.InstanceIdDTO;
+import org.openlmis.referencedata.aspect.AsyncAuditAspect;
+import org.openlmis.referencedata.domain.VersionIdentity;
+import org.openlmis.referencedata.repository.AuditOutboxRepository;
+import org.openlmis.referencedata.repository.AuditOutboxRepository.AuditOutboxEntry;
+import org.openlmis.referencedata.util.TransactionUtils;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Commits JaVers snapshots and removals of the entities in the audit outbox, in batches of entries
+ * that are each handled in a single transaction, in the order in which the entries were added. An
+ * entity saved several times before its batch is processed gets one snapshot of its current
+ * state. Pending entries are flushed when the service shuts down; whatever could not be flushed
+ * in time stays in the outbox and is processed after the next start.
+ */
+@Component
+@ConditionalOnProperty(name = AsyncAuditAspect.SYNC_AUDIT_PROPERTY, havingValue = "false")
+public class AuditOutboxProcessor {
+
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(AuditOutboxProcessor.class);
+
+  @Resource(name = "javersProvider")
+  private Javers javers;
+
+  @Autowired
+  private AuditOutboxRepository auditOutboxRepository;
+
+  @Autowired
+  private TransactionUtils transactionUtils;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private Clock clock;
+
+  @Value("${referencedata.audit.outbox.batchSize}")
+  private int batchSize;
+
+  @Value("${referencedata.audit.outbox.pollInterval}")
+  private long pollInterval;
+
+  @Value("${referencedata.audit.outbox.shutdownTimeout}")
+  private long shutdownTimeout;
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  private Timer batchTimer;
+
+  /**
+   * Registers the outbox metrics and starts polling the outbox.
+   */
+  @PostConstruct
+  public void start() {
+    Gauge.builder("audit.outbox.pending", auditOutboxRepository, AuditOutboxRepository::count)
+        .description("Number of saved entities waiting for their audit snapshots")
+        .register(meterRegistry);
+    Gauge.builder("audit.outbox.lag", this, AuditOutboxProcessor::getLagSeconds)
+        .description("Age of the oldest entity waiting for its audit snapshot")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    batchTimer = Timer.builder("audit.outbox.batch")
+        .description("Time taken to commit audit snapshots of a batch of outbox entries")
+        .register(meterRegistry);
+
+    scheduler.scheduleWithFixedDelay(this::processPending, pollInterval, pollInterval,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Flushes the outbox before the service stops.
+   */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    scheduler.execute(this::processPending);
+    scheduler.shutdown();
+
+    if (!scheduler.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+      XLOGGER.warn("Audit outbox was not flushed within {} ms, the remaining entries will be "
+          + "processed after restart", shutdownTimeout);
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Commits snapshots of all entities in the outbox, batch by batch.
+   */
+  public void processPending() {
+    try {
+      while (!Thread.currentThread().isInterrupted() && processBatch() == batchSize) {
+        XLOGGER.debug("Processed a full batch of audit outbox entries, looking for more");
+      }
+    } catch (RuntimeException ex) {
+      XLOGGER.error("Failed to commit audit snapshots, they will be retried", ex);
+    }
+  }
+
+  int processBatch() {
+    Timer.Sample sample = Timer.start(meterRegistry);
+
+    int processed = transactionUtils.runInOwnTransaction(() -> {
+      List<AuditOutboxEntry> entries = auditOutboxRepository.lockOldest(batchSize);
+
+      Map<List<Object>, AuditOutboxEntry> latestEntries = new LinkedHashMap<>();
+      for (AuditOutboxEntry entry : entries) {
+        latestEntries.put(Arrays.asList(entry.getEntityType(), entry.getEntityId(),
+            entry.getVersionNumber(), entry.getOperation()), entry);
+      }
+      latestEntries.values().forEach(this::commit);
+
+      if (!entries.isEmpty()) {
+        auditOutboxRepository.delete(entries
+            .stream()
+            .map(AuditOutboxEntry::getId)
+            .collect(Collectors.toList()));
+      }
+
+      return entries.size();
+    });
+
+    if (null != batchTimer) {
+      sample.stop(batchTimer);
+    }
+
+    return processed;
+  }
+
+  private void commit(AuditOutboxEntry entry) {
+    Class<?> type;
+    try {
+      type = ClassUtils.resolveClassName(entry.getEntityType(), getClass().getClassLoader());
+    } catch (IllegalArgumentException ex) {
+      XLOGGER.warn("Skipping audit of unknown type {}", entry.getEntityType());
+      return;
+    }
+
+    Object id = null == entry.getVersionNumber()
+        ? entry.getEntityId()
+        : new VersionIdentity(entry.getEntityId(), entry.getVersionNumber());
+
+    if (entry.isDelete()) {
+      commitDelete(entry, type, id);
+      return;
+    }
+
+    // saves pending when the entity is deleted are committed by the delete itself
+    Object entity = entityManager.find(type, id);
+    if (null != entity) {
+      javers.commit(entry.getAuthor(), entity);
+    }
+  }
+
+  private void commitDelete(AuditOutboxEntry entry, Class<?> type, Object id) {
+    if (!javers.getLatestSnapshot(id, type).isPresent()) {
+      XLOGGER.warn("Skipping audit of the removal of {} {}, it has never been audited",
+          entry.getEntityType(), id);
+      return;
+    }
+
+    javers.commitShallowDeleteById(entry.getAuthor(), InstanceIdDTO.instanceId(id, type));
+  }
+
+  private double getLagSeconds() {
+    return auditOutboxRepository
+        .findOldestCreatedDate()
+        .map(created -> Duration.between(created, clock.instant()).toMillis() / 1000.0)
+        .orElse(0.0);
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.openlmis.referencedata.repository.AuditRetentionRepository;
+import org.openlmis.referencedata.repository.AuditRetentionRepository.CompactableSnapshot;
+import org.openlmis.referencedata.util.TransactionUtils;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compacts the audit log according to retention policies defined per audited type. A policy
+ * keeps all snapshots made within a given time (for example two years) and, for older ones, only
+ * the latest snapshot of each entity in each period (for example a month). Snapshots are deleted
+ * in small batches, each in a transaction of its own, together with commits that are left
+ * without snapshots. The space taken up by the deleted rows is logged and reported by the
+ * {@code audit.retention.reclaimed} metric; it can be reused once the tables are vacuumed.
+ *
+ * <p>Policies are given as a comma-separated list of {@code type:retention:period} entries,
+ * where {@code type} is the audit log type name, {@code retention} is an ISO-8601 period and
+ * {@code period} is a PostgreSQL {@code date_trunc} field, e.g. {@code Orderable:P2Y:month}.
+ */
+@Component
+@ConditionalOnProperty(name = "referencedata.audit.retention.enabled", havingValue = "true")
+public class AuditRetentionJob {
+
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(AuditRetentionJob.class);
+
+  private static final Set<String> PERIODS = new HashSet<>(Arrays.asList(
+      "day", "week", "month", "quarter", "year"));
+
+  @Autowired
+  private AuditRetentionRepository auditRetentionRepository;
+
+  @Autowired
+  private TransactionUtils transactionUtils;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private Clock clock;
+
+  @Value("${referencedata.audit.retention.policies}")
+  private String policies;
+
+  @Value("${referencedata.audit.retention.batchSize}")
+  private int batchSize;
+
+  @Value("${referencedata.audit.retention.interval}")
+  private long interval;
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  private List<RetentionPolicy> retentionPolicies;
+
+  /**
+   * Parses the retention policies and schedules the job.
+   */
+  @PostConstruct
+  public void start() {
+    retentionPolicies = parsePolicies(policies);
+    scheduler.scheduleWithFixedDelay(this::run, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    scheduler.shutdownNow();
+  }
+
+  /**
+   * Compacts the audit log of every type with a retention policy.
+   */
+  public void run() {
+    for (RetentionPolicy policy : retentionPolicies) {
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+
+      try {
+        compact(policy);
+      } catch (RuntimeException ex) {
+        XLOGGER.error("Failed to compact the audit log of {}, it will be retried",
+            policy.getTypeName(), ex);
+      }
+    }
+  }
+
+  void compact(RetentionPolicy policy) {
+    LocalDateTime before = LocalDateTime.now(clock).minus(policy.getRetention());
+    Counter snapshotsCounter = meterRegistry.counter("audit.retention.snapshots",
+        "type", policy.getTypeName());
+    Counter reclaimedCounter = meterRegistry.counter("audit.retention.reclaimed",
+        "type", policy.getTypeName());
+
+    long lastSnapshotId = 0;
+    long snapshots = 0;
+    long reclaimed = 0;
+    DeletedBatch batch;
+
+    do {
+      long fromSnapshotId = lastSnapshotId;
+      batch = transactionUtils.runInOwnTransaction(() -> deleteBatch(policy, before,
+          fromSnapshotId));
+
+      lastSnapshotId = batch.getLastSnapshotId();
+      snapshots += batch.getSnapshots();
+      reclaimed += batch.getSize();
+    } while (batch.getSnapshots() == batchSize && !Thread.currentThread().isInterrupted());
+
+    snapshotsCounter.increment(snapshots);
+    reclaimedCounter.increment(reclaimed);
+    XLOGGER.info("Compacted the audit log of {}: deleted {} snapshots, reclaimed {} bytes",
+        policy.getTypeName(), snapshots, reclaimed);
+  }
+
+  private DeletedBatch deleteBatch(RetentionPolicy policy, LocalDateTime before,
+      long lastSnapshotId) {
+    List<CompactableSnapshot> snapshots = auditRetentionRepository.findCompactable(
+        policy.getTypeName(), before, policy.getPeriod(), lastSnapshotId, batchSize);
+
+    if (snapshots.isEmpty()) {
+      return new DeletedBatch(lastSnapshotId, 0, 0);
+    }
+
+    auditRetentionRepository.deleteSnapshots(snapshots
+        .stream()
+        .map(CompactableSnapshot::getId)
+        .collect(Collectors.toList()));
+    long commitsSize = auditRetentionRepository.deleteOrphanedCommits(snapshots
+        .stream()
+        .map(CompactableSnapshot::getCommitId)
+        .collect(Collectors.toSet()));
+
+    return new DeletedBatch(
+        snapshots.get(snapshots.size() - 1).getId(),
+        snapshots.size(),
+        snapshots.stream().mapToLong(CompactableSnapshot::getSize).sum() + commitsSize);
+  }
+
+  static List<RetentionPolicy> parsePolicies(String policies) {
+    List<RetentionPolicy> parsed = new ArrayList<>();
+
+    for (String policy : StringUtils.split(StringUtils.defaultString(policies), ',')) {
+      String[] parts = StringUtils.split(policy.trim(), ':');
+
+      if (parts.length != 3 || !PERIODS.contains(parts[2].trim())) {
+        throw new IllegalArgumentException("Invalid audit retention policy: " + policy
+            + ", expected type:retention:period where period is one of " + PERIODS);
+      }
+
+      parsed.add(new RetentionPolicy(parts[0].trim(), Period.parse(parts[1].trim()),
+          parts[2].trim()));
+    }
+
+    return parsed;
+  }
+
+  @Getter
+  @AllArgsConstructor
+  private static final class DeletedBatch {
+    private final long lastSnapshotId;
+    private final int snapshots;
+    private final long size;
+  }
+
+  @Getter
+  @AllArgsConstructor
+  static final class RetentionPolicy {
+    private final String typeName;
+    private final Period retention;
+    private final String period;
+  }
+}
@@ -17,20 +17,28 @@ package org.openlmis.referencedata.service;
 
 import static org.openlmis.referencedata.service.RequestHelper.createUri;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.util.Map;
+import java.util.function.Function;
 import org.apache.commons.codec.binary.Base64;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestOperations;
-import org.springframework.web.client.RestTemplate;
 
 @Service
 public class AuthService {
   private static final String ACCESS_TOKEN = "access_token";
+  private static final String EXPIRES_IN = "expires_in";
+  private static final String INVALID_TOKEN = "invalid_token";
 
   @Value("${auth.server.clientId}")
   private String clientId;
@@ -41,14 +49,86 @@ public class AuthService {
   @Value("${auth.server.authorizationUrl}")
   private String authorizationUrl;
 
-  private RestOperations restTemplate = new RestTemplate();
+  @Value("${auth.server.accessToken.expiryMargin}")
+  private long expiryMargin;
+
+  @Autowired
+  private Clock clock;
+
+  @Autowired
+  @Qualifier("authRestTemplate")
+  private RestOperations restTemplate;
+
+  private final Object refreshLock = new Object();
+  private volatile CachedToken cachedToken;
 
   /**
-   * Retrieves access token from the auth service.
+   * Retrieves access token from the auth service. The token is reused until
+   * {@code auth.server.accessToken.expiryMargin} seconds before it expires, or until it is
+   * {@link #invalidateToken(String) invalidated}. When it has to be replaced, only one caller
+   * requests a new token while the others wait for it.
    *
    * @return token.
    */
   public String obtainAccessToken() {
+    CachedToken token = cachedToken;
+
+    if (null == token || token.isExpired(clock.instant())) {
+      synchronized (refreshLock) {
+        token = cachedToken;
+
+        if (null == token || token.isExpired(clock.instant())) {
+          token = requestAccessToken();
+          cachedToken = token;
+        }
+      }
+    }
+
+    return token.value;
+  }
+
+  /**
+   * Drops the given access token, so that the next caller requests a new one. Nothing happens
+   * if the cached token has already been replaced.
+   *
+   * @param token the token rejected by another service
+   */
+  public void invalidateToken(String token) {
+    synchronized (refreshLock) {
+      if (null != cachedToken && cachedToken.value.equals(token)) {
+        cachedToken = null;
+      }
+    }
+  }
+
+  /**
+   * Calls another service with the access token. If the token is rejected, because it has been
+   * revoked or the auth service has lost it, it is replaced and the call is repeated once.
+   *
+   * @param call the call to make with the given token
+   * @return the result of the call
+   */
+  public <T> T callWithAccessToken(Function<String, T> call) {
+    String token = obtainAccessToken();
+
+    try {
+      return call.apply(token);
+    } catch (HttpStatusCodeException ex) {
+      if (!isTokenRejected(ex)) {
+        throw ex;
+      }
+
+      invalidateToken(token);
+      return call.apply(obtainAccessToken());
+    }
+  }
+
+  private static boolean isTokenRejected(HttpStatusCodeException ex) {
+    return HttpStatus.UNAUTHORIZED == ex.getStatusCode()
+        || ex.getResponseBodyAsString().contains(INVALID_TOKEN);
+  }
+
+  private CachedToken requestAccessToken() {
     String plainCreds = clientId + ":" + clientSecret;
     byte[] plainCredsBytes = plainCreds.getBytes();
     byte[] base64CredsBytes = Base64.encodeBase64(plainCredsBytes);
@@ -63,15 +143,35 @@ public class AuthService {
         .init()
         .set("grant_type", "client_credentials");
 
+    Instant requestedAt = clock.instant();
     ResponseEntity<?> response = restTemplate.exchange(
         createUri(authorizationUrl, params), HttpMethod.POST, request, Object.class
     );
 
-    return ((Map<String, String>) response.getBody()).get(ACCESS_TOKEN);
+    Map<String, Object> body = (Map<String, Object>) response.getBody();
+    Object expiresIn = body.get(EXPIRES_IN);
+    Instant expiresAt = expiresIn instanceof Number
+        ? requestedAt.plusSeconds(((Number) expiresIn).longValue() - expiryMargin)
+        : requestedAt;
+
+    return new CachedToken((String) body.get(ACCESS_TOKEN), expiresAt);
   }
 
   void setRestTemplate(RestOperations restTemplate) {
     this.restTemplate = restTemplate;
   }
-  
+
+  private static final class CachedToken {
+    private final String value;
+    private final Instant expiresAt;
+
+    CachedToken(String value, Instant expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired(Instant now) {
+      return !now.isBefore(expiresAt);
+    }
+  }
 }
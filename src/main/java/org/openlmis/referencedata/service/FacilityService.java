@@ -24,13 +24,16 @@ import com.google.common.collect.Sets;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.openlmis.referencedata.domain.Facility;
+import org.openlmis.referencedata.dto.BasicFacilityDto;
 import org.openlmis.referencedata.dto.FacilityDto;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.FacilityTypeRepository;
 import org.openlmis.referencedata.repository.GeographicZoneRepository;
 import org.openlmis.referencedata.service.export.ExportableDataService;
+import org.openlmis.referencedata.util.Pagination;
 import org.openlmis.referencedata.util.messagekeys.FacilityTypeMessageKeys;
 import org.openlmis.referencedata.util.messagekeys.GeographicZoneMessageKeys;
 import org.openlmis.referencedata.web.FacilitySearchParams;
@@ -38,9 +41,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class FacilityService implements ExportableDataService<FacilityDto> {
@@ -59,6 +66,9 @@ public class FacilityService implements ExportableDataService<FacilityDto> {
   @Autowired
   private GeographicZoneService geographicZoneService;
 
+  @Value("${facilities.stream.batchSize}")
+  private int streamBatchSize;
+
   private ObjectMapper mapper = new ObjectMapper();
 
   /**
@@ -119,11 +129,32 @@ public class FacilityService implements ExportableDataService<FacilityDto> {
     return facilityRepository.search(params, zones, extraDataString, pageable);
   }
 
+  /**
+   * Hands all facilities, converted to {@link BasicFacilityDto}s, to the given consumer in
+   * batches of {@code facilities.stream.batchSize}, in name order. Every batch is detached before
+   * the next one is read.
+   */
+  @Transactional(readOnly = true)
+  public void forEachBasicFacilityBatch(Consumer<List<BasicFacilityDto>> batchConsumer) {
+    facilityRepository.forEachBatch(streamBatchSize, batch -> batchConsumer.accept(batch
+        .stream()
+        .map(BasicFacilityDto::newInstance)
+        .collect(toList())));
+  }
+
   @Override
   public List<FacilityDto> findAllExportableItems() {
     return facilityRepository.findAll().stream().map(FacilityDto::newInstance).collect(toList());
   }
 
+  @Override
+  public void forEachExportableBatch(int batchSize, Consumer<List<FacilityDto>> batchConsumer) {
+    Pagination.handlePages(facilityRepository::findAll,
+        PageRequest.of(Pagination.DEFAULT_PAGE_NUMBER, batchSize, Sort.by("id")),
+        page -> batchConsumer.accept(
+            page.stream().map(FacilityDto::newInstance).collect(toList())));
+  }
+
   @Override
   public Class<FacilityDto> getExportableType() {
     return FacilityDto.class;
@@ -0,0 +1,41 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import lombok.Getter;
+import org.openlmis.referencedata.domain.Orderable;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when trade items, commodity types or orderables have been written. Consumers that
+ * keep derived fulfillment data in memory (see
+ * {@link org.openlmis.referencedata.web.OrderableFulfillIndex}) drop the affected part after the
+ * surrounding transaction commits.
+ */
+@Getter
+public class FulfillmentDataChangedEvent extends ApplicationEvent {
+
+  private final Class<?> changedType;
+
+  public FulfillmentDataChangedEvent(Object source, Class<?> changedType) {
+    super(source);
+    this.changedType = changedType;
+  }
+
+  public boolean isOrderableChange() {
+    return Orderable.class.equals(changedType);
+  }
+}
@@ -16,14 +16,19 @@
 package org.openlmis.referencedata.service;
 
 import com.google.common.collect.Lists;
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.IdealStockAmount;
+import org.openlmis.referencedata.dto.IdealStockAmountCsvModel;
 import org.openlmis.referencedata.repository.IdealStockAmountRepository;
+import org.openlmis.referencedata.util.EasyBatchUtils;
+import org.openlmis.referencedata.util.FileHelper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class IdealStockAmountService {
@@ -31,6 +36,9 @@ public class IdealStockAmountService {
   @Autowired
   private IdealStockAmountRepository repository;
 
+  @Autowired
+  private FileHelper fileHelper;
+
   public List<IdealStockAmount> search() {
     return search(null);
   }
@@ -45,4 +53,17 @@ public class IdealStockAmountService {
     return repository.search(requestParams.getFacilityId(), requestParams.getCommodityTypeId(),
         requestParams.getProcessingPeriodId(), pageable);
   }
+
+  /**
+   * Imports ideal stock amounts from the given CSV file in bulk. The file is read in batches that
+   * are copied straight to the database, so no entities are created for the imported rows.
+   *
+   * @param csvStream the input stream containing the CSV data
+   * @return number of imported rows
+   */
+  @Transactional
+  public int bulkImport(InputStream csvStream) {
+    return repository.bulkImport(fileHelper.readCsvInBatches(IdealStockAmountCsvModel.class,
+        csvStream, EasyBatchUtils.DEFAULT_BATCH_SIZE));
+  }
 }
@@ -16,25 +16,66 @@
 package org.openlmis.referencedata.service;
 
 import static org.apache.commons.collections4.CollectionUtils.isEmpty;
-import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.openlmis.referencedata.util.messagekeys.DtoExpansionMessageKeys.ERROR;
 
-import java.lang.reflect.InvocationTargetException;
+import com.google.common.collect.Maps;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import org.apache.commons.beanutils.PropertyUtils;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import org.apache.commons.lang3.tuple.Pair;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
 import org.openlmis.referencedata.domain.BaseEntity;
 import org.openlmis.referencedata.dto.ObjectReferenceDto;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.springframework.stereotype.Component;
 
+/**
+ * Expands object references of DTOs with data of the entities they were exported from. Each
+ * expand path is compiled once per DTO class into a plan of method handles, which is cached and
+ * reused for every DTO of that class. When a page of DTOs is expanded, the entity references
+ * needed at each level of the path are collected first and the uninitialized ones are loaded
+ * with one query per entity type, instead of one lazy load per reference.
+ */
 @Component
 public class ObjectReferenceExpander {
 
   private static final String EXPORT_METHOD_NAME = "export";
   private static final String EXPORTER_INTERFACE_NAME = "Exporter";
+  private static final String ID = "id";
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType EXPORT_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+
+  private static final Map<Pair<Class<?>, String>, Step> PLANS = Maps.newConcurrentMap();
+  private static final Map<Pair<Class<?>, String>, MethodHandle> ENTITY_GETTERS =
+      Maps.newConcurrentMap();
+  private static final Map<Pair<Class<?>, Class<?>>, MethodHandle> EXPORTERS =
+      Maps.newConcurrentMap();
+
+  @PersistenceContext
+  private EntityManager entityManager;
 
   /**
    * Expands the DTO object. The requirement is that the field names in the {@code expands}
@@ -47,85 +88,224 @@ public class ObjectReferenceExpander {
    * @param expands a set of field names from the passed DTO to expand
    */
   public void expandDto(Object dto, BaseEntity entity, Set<String> expands) {
-    if (isEmpty(expands)) {
+    expandDtos(Collections.singletonList(dto), Collections.singletonList(entity), expands);
+  }
+
+  /**
+   * Expands DTOs of a page at once. The DTO at each position is expanded with data of the entity
+   * at the same position, as described in {@link #expandDto(Object, BaseEntity, Set)}.
+   *
+   * @param dtos     the DTOs to expand, all of the same class
+   * @param entities entity objects to get data from
+   * @param expands  a set of field names from the passed DTOs to expand
+   */
+  public void expandDtos(List<?> dtos, List<? extends BaseEntity> entities,
+      Set<String> expands) {
+    if (isEmpty(expands) || dtos.isEmpty()) {
       return;
     }
-    expands.forEach(e -> expand(dto, entity, e));
+
+    Class<?> dtoClass = dtos.get(0).getClass();
+    for (String expand : expands) {
+      Step plan = PLANS.computeIfAbsent(Pair.of(dtoClass, expand),
+          key -> compile(dtoClass, expand));
+      plan.apply(this, new ArrayList<>(dtos), new ArrayList<>(entities));
+    }
   }
 
-  private void expand(Object dto, Object entity, String expand) {
-    String propertyName = null;
+  private Step compile(Class<?> dtoClass, String expand) {
+    String[] parts = expand.split("\\.", 2);
+    String propertyName = parts[0];
 
     try {
-      String[] parts = expand.split("\\.", 2);
-      propertyName = parts[0];
+      PropertyDescriptor descriptor = findProperty(dtoClass, propertyName);
+      Method dtoGetter = descriptor.getReadMethod();
 
-      Object entityProperty = PropertyUtils.getProperty(entity, propertyName);
+      Class<?> elementClass = null;
+      MethodHandle elementConstructor = null;
+      Class<?> nextDtoClass = descriptor.getPropertyType();
 
-      if (entityProperty == null) {
-        return;
+      if (Collection.class.isAssignableFrom(descriptor.getPropertyType())) {
+        elementClass = getElementClass(dtoGetter.getGenericReturnType());
+        elementConstructor = LOOKUP
+            .findConstructor(elementClass, MethodType.methodType(void.class))
+            .asType(MethodType.methodType(Object.class));
+        nextDtoClass = elementClass;
       }
 
-      if (entityProperty instanceof Collection) {
-        expandCollection(dto, entityProperty, propertyName, parts.length == 2 ? parts[1] : null);
-      } else {
-        expandField(dto, entityProperty, propertyName, parts.length == 2 ? parts[1] : null);
-      }
-    } catch (InvocationTargetException | IllegalAccessException | NoSuchMethodException
-        | InstantiationException | NoSuchFieldException e) {
-      throw new ValidationMessageException(e, ERROR, propertyName, dto.getClass());
+      Step next = parts.length == 2 ? compile(nextDtoClass, parts[1]) : null;
+      return new Step(propertyName, dtoClass, LOOKUP.unreflect(dtoGetter).asType(GETTER_TYPE),
+          elementClass, elementConstructor, next);
+    } catch (ReflectiveOperationException | IntrospectionException ex) {
+      throw new ValidationMessageException(ex, ERROR, propertyName, dtoClass);
     }
   }
 
-  private void expandCollection(Object dto, Object entity, String propertyName, String expand)
-      throws NoSuchFieldException, IllegalAccessException, NoSuchMethodException,
-      InvocationTargetException, InstantiationException {
-    Class dtoClass = getGenericClassFromCollection(dto, propertyName);
-    Object dtoProperty = PropertyUtils.getProperty(dto, propertyName);
-
-    Collection collection = ((Collection) dtoProperty);
-    collection.clear();
+  private static PropertyDescriptor findProperty(Class<?> type, String propertyName)
+      throws IntrospectionException, NoSuchFieldException {
+    for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+      if (descriptor.getName().equals(propertyName) && null != descriptor.getReadMethod()) {
+        return descriptor;
+      }
+    }
 
-    for (Object e : (Collection) entity) {
-      Object dtoInstance = dtoClass.newInstance();
-      getExportMethod(e, dtoClass).invoke(e, dtoInstance);
-      collection.add(dtoInstance);
+    throw new NoSuchFieldException(propertyName);
+  }
 
-      if (isNotBlank(expand)) {
-        expand(dtoInstance, entity, expand);
+  private static Class<?> getElementClass(Type collectionType) throws NoSuchFieldException {
+    if (collectionType instanceof ParameterizedType) {
+      Type element = ((ParameterizedType) collectionType).getActualTypeArguments()[0];
+      if (element instanceof Class) {
+        return (Class<?>) element;
       }
     }
+
+    throw new NoSuchFieldException(collectionType.getTypeName());
+  }
+
+  private static MethodHandle getEntityGetter(Class<?> entityClass, String propertyName) {
+    return ENTITY_GETTERS.computeIfAbsent(Pair.of(entityClass, propertyName), key -> {
+      try {
+        return LOOKUP
+            .unreflect(findProperty(entityClass, propertyName).getReadMethod())
+            .asType(GETTER_TYPE);
+      } catch (ReflectiveOperationException | IntrospectionException ex) {
+        throw new IllegalArgumentException(ex);
+      }
+    });
   }
 
-  private void expandField(Object dto, Object entity, String propertyName, String expand)
-      throws IllegalAccessException, NoSuchMethodException, InvocationTargetException {
-    Object dtoProperty = PropertyUtils.getProperty(dto, propertyName);
-    getExportMethod(entity, dtoProperty.getClass()).invoke(entity, dtoProperty);
+  private static MethodHandle getExporter(Class<?> entityClass, Class<?> dtoClass) {
+    return EXPORTERS.computeIfAbsent(Pair.of(entityClass, dtoClass), key -> {
+      Class<?> exporter = null;
+      for (Class<?> type : dtoClass.getInterfaces()) {
+        if (type.getName().contains(EXPORTER_INTERFACE_NAME)) {
+          exporter = type;
+        }
+      }
 
-    if (isNotBlank(expand)) {
-      expand(dtoProperty, entity, expand);
-    }
+      try {
+        return LOOKUP
+            .unreflect(entityClass.getMethod(EXPORT_METHOD_NAME, exporter))
+            .asType(EXPORT_TYPE);
+      } catch (ReflectiveOperationException ex) {
+        throw new IllegalArgumentException(ex);
+      }
+    });
+  }
+
+  private static Object invoke(MethodHandle getter, Object target) throws Throwable {
+    return (Object) getter.invokeExact(target);
   }
 
-  private Class getExporter(Class<?>[] asd) {
-    Class importer = null;
-    for (Class inter : asd) {
-      if (inter.getName().contains(EXPORTER_INTERFACE_NAME)) {
-        importer = inter;
+  /**
+   * Loads the uninitialized entity references among the given values with one query per
+   * entity type, so that they are initialized from the persistence context when exported.
+   */
+  private void loadReferences(List<Object> values) {
+    Map<Class<?>, Set<Object>> uninitialized = new HashMap<>();
+
+    for (Object value : values) {
+      if (value instanceof HibernateProxy) {
+        LazyInitializer initializer = ((HibernateProxy) value).getHibernateLazyInitializer();
+        if (initializer.isUninitialized()) {
+          uninitialized
+              .computeIfAbsent(initializer.getPersistentClass(), key -> new HashSet<>())
+              .add(initializer.getIdentifier());
+        }
       }
     }
-    return importer;
+
+    uninitialized.forEach(this::load);
   }
 
-  private Method getExportMethod(Object entity, Class dtoClass) throws NoSuchMethodException {
-    return entity.getClass().getMethod(EXPORT_METHOD_NAME, getExporter(dtoClass.getInterfaces()));
+  private <T> void load(Class<T> entityClass, Set<Object> ids) {
+    if (ids.size() < 2 || null == entityManager) {
+      return;
+    }
+
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<T> query = builder.createQuery(entityClass);
+    Root<T> root = query.from(entityClass);
+    entityManager
+        .createQuery(query.select(root).where(root.get(ID).in(ids)))
+        .getResultList();
   }
 
-  private Class getGenericClassFromCollection(Object dto, String propertyName)
-      throws NoSuchFieldException {
-    return (Class) ((ParameterizedType) dto.getClass()
-        .getDeclaredField(propertyName)
-        .getGenericType())
-        .getActualTypeArguments()[0];
+  /**
+   * One property of a compiled expand path, such as {@code supervisoryNode} in
+   * {@code supervisoryNode.requisitionGroup}.
+   */
+  private static final class Step {
+    private final String propertyName;
+    private final Class<?> dtoClass;
+    private final MethodHandle dtoGetter;
+    private final Class<?> elementClass;
+    private final MethodHandle elementConstructor;
+    private final Step next;
+
+    Step(String propertyName, Class<?> dtoClass, MethodHandle dtoGetter, Class<?> elementClass,
+        MethodHandle elementConstructor, Step next) {
+      this.propertyName = propertyName;
+      this.dtoClass = dtoClass;
+      this.dtoGetter = dtoGetter;
+      this.elementClass = elementClass;
+      this.elementConstructor = elementConstructor;
+      this.next = next;
+    }
+
+    @SuppressWarnings("unchecked")
+    void apply(ObjectReferenceExpander expander, List<Object> dtos, List<Object> entities) {
+      try {
+        List<Object> values = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+          values.add(null == entity
+              ? null
+              : invoke(getEntityGetter(entity.getClass(), propertyName), entity));
+        }
+
+        expander.loadReferences(values);
+
+        List<Object> nextDtos = new ArrayList<>();
+        List<Object> nextEntities = new ArrayList<>();
+
+        for (int i = 0; i < values.size(); ++i) {
+          Object value = values.get(i);
+          if (null == value) {
+            continue;
+          }
+
+          Object dtoProperty = invoke(dtoGetter, dtos.get(i));
+
+          if (value instanceof Collection) {
+            Collection<Object> collection = (Collection<Object>) dtoProperty;
+            collection.clear();
+
+            for (Object element : (Collection<?>) value) {
+              Object dtoElement = (Object) elementConstructor.invokeExact();
+              getExporter(element.getClass(), elementClass).invokeExact(element, dtoElement);
+              collection.add(dtoElement);
+
+              nextDtos.add(dtoElement);
+              nextEntities.add(element);
+            }
+          } else {
+            getExporter(value.getClass(), dtoProperty.getClass())
+                .invokeExact(value, dtoProperty);
+
+            nextDtos.add(dtoProperty);
+            nextEntities.add(value);
+          }
+        }
+
+        if (null != next && !nextDtos.isEmpty()) {
+          next.apply(expander, nextDtos, nextEntities);
+        }
+      } catch (ValidationMessageException ex) {
+        throw ex;
+      } catch (Throwable ex) {
+        throw new ValidationMessageException(ex, ERROR, propertyName, dtoClass);
+      }
+    }
   }
 }
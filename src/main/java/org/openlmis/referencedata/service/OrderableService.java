@@ -15,12 +15,20 @@
 
 package org.openlmis.referencedata.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.sql.Timestamp;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import javax.validation.constraints.NotNull;
@@ -28,14 +36,19 @@ import org.openlmis.referencedata.domain.Orderable;
 import org.openlmis.referencedata.dto.OrderableDto;
 import org.openlmis.referencedata.repository.OrderableRepository;
 import org.openlmis.referencedata.service.export.ExportableDataService;
+import org.openlmis.referencedata.util.Pagination;
 import org.openlmis.referencedata.web.QueryOrderableSearchParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class OrderableService implements ExportableDataService<OrderableDto> {
@@ -47,6 +60,12 @@ public class OrderableService implements ExportableDataService<OrderableDto> {
   @Autowired
   private OrderableRepository orderableRepository;
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Value("${orderables.export.batchSize}")
+  private int exportBatchSize;
+
   /**
    * Method returns all orderables with matched parameters.
    *
@@ -112,6 +131,55 @@ public class OrderableService implements ExportableDataService<OrderableDto> {
             .findLatestModifiedDateByParams(queryParams);
   }
 
+  /**
+   * Writes the latest versions of all orderables to the given stream as newline-delimited JSON,
+   * one {@link OrderableDto} per line. Orderables are read and converted in batches of
+   * {@code orderables.export.batchSize}, and every batch is written out and detached before the
+   * next one is read, so the whole catalog is never held in memory.
+   *
+   * @param outputStream the stream to write to; it is flushed but not closed.
+   */
+  @Transactional(readOnly = true)
+  public void exportLatestOrderables(OutputStream outputStream) throws IOException {
+    Profiler profiler = new Profiler("EXPORT_LATEST_ORDERABLES");
+    profiler.setLogger(LOGGER);
+
+    ObjectWriter writer = objectMapper
+        .writerFor(OrderableDto.class)
+        .without(SerializationFeature.INDENT_OUTPUT);
+    OutputStream buffered = new BufferedOutputStream(outputStream);
+
+    profiler.start("WRITE_BATCHES");
+    try {
+      orderableRepository.forEachLatestBatch(exportBatchSize, batch -> {
+        try {
+          for (Orderable orderable : batch) {
+            buffered.write(writer.writeValueAsBytes(OrderableDto.newInstance(orderable)));
+            buffered.write('\n');
+          }
+          buffered.flush();
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      });
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    } finally {
+      profiler.stop().log();
+    }
+  }
+
+  /**
+   * Hands the latest versions of all orderables, converted to {@link OrderableDto}s, to the
+   * given consumer in batches of {@code orderables.export.batchSize}, in full product name
+   * order. Every batch is detached before the next one is read.
+   */
+  @Transactional(readOnly = true)
+  public void forEachLatestOrderableBatch(Consumer<List<OrderableDto>> batchConsumer) {
+    orderableRepository.forEachLatestBatch(exportBatchSize,
+        batch -> batchConsumer.accept(OrderableDto.newInstances(batch)));
+  }
+
   private ZonedDateTime getZoneDateTime(Timestamp timestamp) {
 
     if (null != timestamp) {
@@ -128,6 +196,14 @@ public class OrderableService implements ExportableDataService<OrderableDto> {
     return toDto(orderables);
   }
 
+  @Override
+  public void forEachExportableBatch(int batchSize, Consumer<List<OrderableDto>> batchConsumer) {
+    Pagination.handlePages(orderableRepository::findAll,
+        PageRequest.of(Pagination.DEFAULT_PAGE_NUMBER, batchSize,
+            Sort.by("identity.id", "identity.versionNumber")),
+        page -> batchConsumer.accept(toDto(page)));
+  }
+
   @Override
   public Class<OrderableDto> getExportableType() {
     return OrderableDto.class;
@@ -16,10 +16,14 @@
 package org.openlmis.referencedata.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 import org.openlmis.referencedata.domain.ProgramOrderable;
 import org.openlmis.referencedata.repository.ProgramOrderableRepository;
 import org.openlmis.referencedata.service.export.ExportableDataService;
+import org.openlmis.referencedata.util.Pagination;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -33,6 +37,14 @@ public class ProgramOrderableService implements ExportableDataService<ProgramOrd
     return programOrderableRepository.findAll();
   }
 
+  @Override
+  public void forEachExportableBatch(int batchSize,
+      Consumer<List<ProgramOrderable>> batchConsumer) {
+    Pagination.handlePages(programOrderableRepository::findAll,
+        PageRequest.of(Pagination.DEFAULT_PAGE_NUMBER, batchSize, Sort.by("id")),
+        batchConsumer);
+  }
+
   @Override
   public Class<ProgramOrderable> getExportableType() {
     return ProgramOrderable.class;
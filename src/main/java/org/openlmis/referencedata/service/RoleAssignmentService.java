@@ -16,11 +16,15 @@
 package org.openlmis.referencedata.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 import org.openlmis.referencedata.domain.RoleAssignment;
 import org.openlmis.referencedata.dto.RoleAssignmentImportDto;
 import org.openlmis.referencedata.repository.RoleAssignmentRepository;
 import org.openlmis.referencedata.service.export.ExportableDataService;
+import org.openlmis.referencedata.util.Pagination;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -36,6 +40,14 @@ public class RoleAssignmentService implements ExportableDataService<RoleAssignme
     return RoleAssignmentImportDto.mapToDto(roleAssignments);
   }
 
+  @Override
+  public void forEachExportableBatch(int batchSize,
+      Consumer<List<RoleAssignmentImportDto>> batchConsumer) {
+    Pagination.handlePages(roleAssignmentRepository::findAll,
+        PageRequest.of(Pagination.DEFAULT_PAGE_NUMBER, batchSize, Sort.by("id")),
+        page -> batchConsumer.accept(RoleAssignmentImportDto.mapToDto(page)));
+  }
+
   @Override
   public Class<RoleAssignmentImportDto> getExportableType() {
     return RoleAssignmentImportDto.class;
@@ -18,10 +18,14 @@ package org.openlmis.referencedata.service;
 import static java.util.stream.Collectors.toList;
 
 import java.util.List;
+import java.util.function.Consumer;
 import org.openlmis.referencedata.dto.SupportedProgramCsvModel;
 import org.openlmis.referencedata.repository.SupportedProgramRepository;
 import org.openlmis.referencedata.service.export.ExportableDataService;
+import org.openlmis.referencedata.util.Pagination;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -35,6 +39,16 @@ public class SupportedProgramService implements ExportableDataService<SupportedP
         .collect(toList());
   }
 
+  @Override
+  public void forEachExportableBatch(int batchSize,
+      Consumer<List<SupportedProgramCsvModel>> batchConsumer) {
+    Pagination.handlePages(supportedProgramRepository::findAll,
+        PageRequest.of(Pagination.DEFAULT_PAGE_NUMBER, batchSize,
+            Sort.by("facilityProgram.facility.id", "facilityProgram.program.id")),
+        page -> batchConsumer.accept(
+            page.stream().map(SupportedProgramCsvModel::newInstance).collect(toList())));
+  }
+
   @Override
   public Class<SupportedProgramCsvModel> getExportableType() {
     return SupportedProgramCsvModel.class;
@@ -27,6 +27,7 @@ import org.openlmis.referencedata.dto.UserApiResponseDto;
 import org.openlmis.referencedata.dto.UserDto;
 import org.openlmis.referencedata.service.export.UserImportHelper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
@@ -34,7 +35,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestOperations;
-import org.springframework.web.client.RestTemplate;
 
 @Service
 public class UserAuthService {
@@ -50,7 +50,9 @@ public class UserAuthService {
 
   private String usersAuthApiUrl = "/api/users/auth";
 
-  private RestOperations restTemplate = new RestTemplate();
+  @Autowired
+  @Qualifier("authRestTemplate")
+  private RestOperations restTemplate;
 
   /**
    * Saves auth user details.
@@ -62,13 +64,13 @@ public class UserAuthService {
       List<UserDto.UserAuthDetailsApiContract> userAuthDetails) {
     String url = serviceUrl + usersAuthApiUrl + "/batch";
 
-    ResponseEntity<UserApiResponseDto> response =
+    ResponseEntity<UserApiResponseDto> response = authService.callWithAccessToken(token ->
         restTemplate.exchange(
             url,
             HttpMethod.POST,
-            RequestHelper.createEntity(userAuthDetails, authService.obtainAccessToken()),
+            RequestHelper.createEntity(userAuthDetails, token),
             new ParameterizedTypeReference<UserApiResponseDto>() {}
-        );
+        ));
 
     return response.getBody();
   }
@@ -90,19 +92,16 @@ public class UserAuthService {
    * @return list of auth user details.
    */
   public List<UserDto.UserAuthDetailsApiContract> getAuthUserDetails(Boolean lockedOut) {
-    String url = serviceUrl + usersAuthApiUrl + "/batch";
-    if (lockedOut != null) {
-      url += "?lockedOut=" + lockedOut;
-    }
+    String url = serviceUrl + usersAuthApiUrl + "/batch"
+        + (lockedOut != null ? "?lockedOut=" + lockedOut : "");
 
     ResponseEntity<List<UserDto.UserAuthDetailsApiContract>> response =
-        restTemplate.exchange(
+        authService.callWithAccessToken(token -> restTemplate.exchange(
             url,
             HttpMethod.GET,
-            RequestHelper.createEntity(
-                RequestHelper.createHeadersWithAuth(authService.obtainAccessToken())),
+            RequestHelper.createEntity(RequestHelper.createHeadersWithAuth(token)),
             new ParameterizedTypeReference<List<UserDto.UserAuthDetailsApiContract>>() {}
-        );
+        ));
 
     return response.getBody();
   }
@@ -115,12 +114,12 @@ public class UserAuthService {
   public void deleteAuthUsersByUserUuids(Set<UUID> ids) {
     String url = serviceUrl + usersAuthApiUrl + "/batch";
 
-    restTemplate.exchange(
+    authService.callWithAccessToken(token -> restTemplate.exchange(
         url,
         HttpMethod.DELETE,
-        RequestHelper.createEntity(ids, authService.obtainAccessToken()),
+        RequestHelper.createEntity(ids, token),
         Void.class
-    );
+    ));
   }
 
   /**
@@ -29,6 +29,7 @@ import org.openlmis.referencedata.dto.UserContactDetailsDto;
 import org.openlmis.referencedata.dto.UserDto;
 import org.openlmis.referencedata.service.export.UserImportHelper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.domain.PageImpl;
@@ -37,7 +38,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestOperations;
-import org.springframework.web.client.RestTemplate;
 
 @Service
 public class UserDetailsService {
@@ -53,7 +53,9 @@ public class UserDetailsService {
 
   private String userContactDetailsApiUrl = "/api/userContactDetails";
 
-  private RestOperations restTemplate = new RestTemplate();
+  @Autowired
+  @Qualifier("notificationRestTemplate")
+  private RestOperations restTemplate;
 
   /**
    * Gets all user contact detail instances.
@@ -63,14 +65,13 @@ public class UserDetailsService {
   public PageImpl<UserContactDetailsDto.UserContactDetailsApiContract> getUserContactDetails() {
     String url = serviceUrl + userContactDetailsApiUrl;
     ResponseEntity<CustomPageImpl<UserContactDetailsDto.UserContactDetailsApiContract>> response =
-        restTemplate.exchange(
+        authService.callWithAccessToken(token -> restTemplate.exchange(
             url,
             HttpMethod.GET,
-            RequestHelper.createEntity(
-                RequestHelper.createHeadersWithAuth(authService.obtainAccessToken())),
+            RequestHelper.createEntity(RequestHelper.createHeadersWithAuth(token)),
             new ParameterizedTypeReference
                 <CustomPageImpl<UserContactDetailsDto.UserContactDetailsApiContract>>() {}
-        );
+        ));
 
     return response.getBody();
   }
@@ -85,14 +86,14 @@ public class UserDetailsService {
       List<UserContactDetailsDto.UserContactDetailsApiContract> userDetails) {
     String url = serviceUrl + userContactDetailsApiUrl + "/batch";
 
-    ResponseEntity<UserApiResponseDto> response =
+    ResponseEntity<UserApiResponseDto> response = authService.callWithAccessToken(token ->
         restTemplate.exchange(
             url,
             HttpMethod.PUT,
-            RequestHelper.createEntity(userDetails, authService.obtainAccessToken()),
+            RequestHelper.createEntity(userDetails, token),
             new ParameterizedTypeReference<UserApiResponseDto>() {},
             userDetails
-        );
+        ));
 
     return response.getBody();
   }
@@ -105,12 +106,12 @@ public class UserDetailsService {
   public void deleteUserContactDetailsByUserUuids(Set<UUID> ids) {
     String url = serviceUrl + userContactDetailsApiUrl + "/batch";
 
-    restTemplate.exchange(
+    authService.callWithAccessToken(token -> restTemplate.exchange(
         url,
         HttpMethod.DELETE,
-        RequestHelper.createEntity(ids, authService.obtainAccessToken()),
+        RequestHelper.createEntity(ids, token),
         Void.class
-    );
+    ));
   }
 
   /**
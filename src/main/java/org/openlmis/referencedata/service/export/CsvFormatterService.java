@@ -45,4 +45,20 @@ public class CsvFormatterService implements DataFormatterService {
     csvFormatter.process(outputStream, new ModelClass(type), data);
   }
 
+  /**
+   * Calls the process method of the {@link CsvFormatter} class that writes items of the given
+   * source batch by batch, so that the whole data set is never held in memory.
+   *
+   * @param outputStream output stream to which the data will be written
+   * @param source       service that supplies exportable items in batches
+   * @param batchSize    maximum number of items loaded at once
+   * @param <T>          type of exported objects
+   */
+  @Override
+  public <T> void process(OutputStream outputStream, ExportableDataService<T> source,
+      int batchSize) throws IOException {
+    csvFormatter.process(outputStream, new ModelClass<>(source.getExportableType()),
+        batchConsumer -> source.forEachExportableBatch(batchSize, batchConsumer));
+  }
+
 }
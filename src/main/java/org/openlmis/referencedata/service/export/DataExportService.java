@@ -16,21 +16,24 @@
 package org.openlmis.referencedata.service.export;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
-
-import org.apache.commons.io.output.ByteArrayOutputStream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.util.messagekeys.MessageKeys;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
@@ -48,75 +51,68 @@ public class DataExportService {
   @Autowired
   private ResourceLoader loader;
 
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Value("${dataExport.batchSize}")
+  private int batchSize;
+
   /**
-   * Return zip archive with files in specific format.
+   * Writes zip archive with files in specific format into the given output stream. Every file is
+   * written batch by batch as its rows are read, so the archive is never held in memory. All
+   * parameters are validated before anything is written.
    *
-   * @param params query parameters.
-   * @return byte data in zip format
+   * @param params       query parameters.
+   * @param outputStream stream to which the zip archive will be written
    */
-  public byte[] exportData(ExportParams params) {
-    try (ByteArrayOutputStream outputStream = toZip(params)) {
+  public void exportData(ExportParams params, OutputStream outputStream) {
+    DataFormatterService formatter = getFormatter(params.getFormat());
+    String[] filenames = params.getData().split(",");
 
-      return outputStream.toByteArray();
-    } catch (IOException ex) {
-      throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
+    for (String file : filenames) {
+      getDataService(file);
+      buildFilePath(params.getFormat(), file);
     }
-  }
 
-  private ByteArrayOutputStream toZip(ExportParams params) {
-    try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-         ZipOutputStream zip = new ZipOutputStream(baos)) {
-      for (Map.Entry<String, ByteArrayOutputStream> file : generateFiles(params).entrySet()) {
-        ZipEntry entry = new ZipEntry(file.getKey() + "." + params.getFormat());
-        entry.setSize(file.getValue().toByteArray().length);
-        zip.putNextEntry(entry);
-        zip.write(file.getValue().toByteArray());
-      }
-      zip.closeEntry();
+    try (ZipOutputStream zip = new ZipOutputStream(outputStream)) {
+      for (String file : filenames) {
+        zip.putNextEntry(new ZipEntry(file + "." + params.getFormat()));
+        formatter.process(new CloseShieldOutputStream(zip), getDataService(file), batchSize);
+        zip.closeEntry();
 
-      return baos;
+        zip.putNextEntry(new ZipEntry(file + MAPPING_FILE_SUFFIX + "." + params.getFormat()));
+        writeMappingFile(params.getFormat(), file, zip);
+        zip.closeEntry();
+      }
     } catch (IOException ex) {
       throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
     }
   }
 
-  private Map<String, ByteArrayOutputStream> generateFiles(ExportParams params)
-          throws IOException {
-    Map<String, ByteArrayOutputStream> output = new HashMap<>();
-    String[] filenames = params.getData().split(",");
-
-    for (String file : filenames) {
-      output.put(file, generateFile(params.getFormat(), file));
-      output.put(file + MAPPING_FILE_SUFFIX, getMappingFile(params.getFormat(), file));
+  private DataFormatterService getFormatter(String format) {
+    try {
+      return beanFactory.getBean(format + FORMATTER_SERVICE_NAME_SUFFIX,
+          DataFormatterService.class);
+    } catch (BeansException ex) {
+      throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
     }
-
-    return output;
   }
 
-  private <T> ByteArrayOutputStream generateFile(String format, String filename) {
-    try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
-      DataFormatterService formatter = beanFactory.getBean(format
-              + FORMATTER_SERVICE_NAME_SUFFIX, DataFormatterService.class);
-
-      ExportableDataService<T> service = beanFactory.getBean(filename
-              + SERVICE_NAME_SUFFIX, ExportableDataService.class);
+  private <T> ExportableDataService<T> getDataService(String filename) {
+    try {
+      ExportableDataService<T> service = beanFactory.getBean(filename + SERVICE_NAME_SUFFIX,
+          ExportableDataService.class);
 
-      List<T> data = service.findAllExportableItems();
-
-      formatter.process(output, data, service.getExportableType());
-      return output;
-    } catch (IOException | BeansException ex) {
+      return new DetachingDataService<>(service, entityManager);
+    } catch (BeansException ex) {
       throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
     }
   }
 
-  private ByteArrayOutputStream getMappingFile(String format, String filename) throws IOException {
+  private void writeMappingFile(String format, String filename, OutputStream outputStream) {
     String mappingFilePath = buildFilePath(format, filename);
-    try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
-      Resource resource = loader.getResource(mappingFilePath);
-      output.write(resource.getInputStream());
-
-      return output;
+    try (InputStream input = loader.getResource(mappingFilePath).getInputStream()) {
+      IOUtils.copy(input, outputStream);
     } catch (IOException ex) {
       throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
     }
@@ -133,6 +129,39 @@ public class DataExportService {
     return "classpath:" + filePath;
   }
 
+  /**
+   * Clears the persistence context after each exported batch, so that entities loaded for
+   * previous batches can be garbage collected while the export is still running.
+   */
+  private static final class DetachingDataService<T> implements ExportableDataService<T> {
+
+    private final ExportableDataService<T> delegate;
+    private final EntityManager entityManager;
+
+    DetachingDataService(ExportableDataService<T> delegate, EntityManager entityManager) {
+      this.delegate = delegate;
+      this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<T> findAllExportableItems() {
+      return delegate.findAllExportableItems();
+    }
+
+    @Override
+    public Class<T> getExportableType() {
+      return delegate.getExportableType();
+    }
+
+    @Override
+    public void forEachExportableBatch(int batchSize, Consumer<List<T>> batchConsumer) {
+      delegate.forEachExportableBatch(batchSize, batch -> {
+        batchConsumer.accept(batch);
+        entityManager.clear();
+      });
+    }
+  }
+
   public interface ExportParams {
 
     String getFormat();
@@ -23,4 +23,7 @@ public interface DataFormatterService {
 
   <T> void process(OutputStream outputStream, List<T> data, Class<T> type) throws IOException;
 
+  <T> void process(OutputStream outputStream, ExportableDataService<T> source, int batchSize)
+      throws IOException;
+
 }
@@ -0,0 +1,298 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service.export;
+
+import static org.openlmis.referencedata.util.messagekeys.DataImportMessageKeys.ERROR_JOB_FINISHED;
+import static org.openlmis.referencedata.util.messagekeys.DataImportMessageKeys.ERROR_JOB_NOT_FOUND;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import org.openlmis.referencedata.domain.ImportJob;
+import org.openlmis.referencedata.domain.ImportJobFile;
+import org.openlmis.referencedata.dto.ImportResponseDto;
+import org.openlmis.referencedata.exception.NotFoundException;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.repository.ImportJobFileRepository;
+import org.openlmis.referencedata.repository.ImportJobRepository;
+import org.openlmis.referencedata.util.FileHelper;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.SpooledZipEntries;
+import org.openlmis.referencedata.util.TransactionUtils;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.slf4j.profiler.Profiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Runs data imports as background jobs. The uploaded archive is spooled to a directory of its
+ * own and the job is queued on the import job executor. Its files are imported in parallel in
+ * the order of their dependencies, like {@link DataImportService#importData} does. Progress of
+ * each file is saved after every persisted batch, so a job interrupted by a restart continues
+ * from the last checkpoint, and a cancelled job stops before its next batch.
+ */
+@Service
+public class DataImportJobService {
+
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(DataImportJobService.class);
+
+  private static final List<ImportJob.Status> ACTIVE_STATUSES =
+      Arrays.asList(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING);
+
+  @Autowired
+  private FileHelper fileHelper;
+
+  @Autowired
+  private DataImportService dataImportService;
+
+  @Autowired
+  private ImportJobRepository importJobRepository;
+
+  @Autowired
+  private ImportJobFileRepository importJobFileRepository;
+
+  @Autowired
+  private TransactionUtils transactionUtils;
+
+  @Autowired
+  @Qualifier("importJobExecutorService")
+  private ExecutorService importJobExecutorService;
+
+  @Value("${dataImport.spoolDirectory}")
+  private String spoolDirectory;
+
+  /**
+   * Spools the given ZIP archive and queues a job importing it.
+   *
+   * @param zipFile ZIP archive being imported.
+   * @return the queued job
+   */
+  public ImportJob submit(MultipartFile zipFile) {
+    fileHelper.validateMultipartFile(zipFile);
+
+    final Path directory = Paths.get(spoolDirectory, UUID.randomUUID().toString());
+    final ImportJob job;
+    try {
+      final SpooledZipEntries entries =
+          fileHelper.spoolZipEntries(zipFile, DataImportService.IMPORT_ORDER, directory);
+      final List<String> fileNames = DataImportService.IMPORT_ORDER
+          .stream()
+          .filter(entries.getNames()::contains)
+          .collect(Collectors.toList());
+
+      job = transactionUtils.runInOwnTransaction(() -> importJobRepository
+          .save(ImportJob.newQueuedJob(directory.toString(), fileNames)));
+    } catch (RuntimeException ex) {
+      deleteSpool(directory);
+      throw ex;
+    }
+
+    schedule(job.getId());
+    return job;
+  }
+
+  /**
+   * Returns the job with the given id.
+   *
+   * @throws NotFoundException if there is no such job
+   */
+  @Transactional(readOnly = true)
+  public ImportJob getJob(UUID id) {
+    return importJobRepository
+        .findById(id)
+        .orElseThrow(() -> new NotFoundException(new Message(ERROR_JOB_NOT_FOUND, id)));
+  }
+
+  /**
+   * Cancels the job with the given id. A running job stops before its next batch; batches that
+   * have already been persisted are kept.
+   *
+   * @throws NotFoundException if there is no such job
+   * @throws ValidationMessageException if the job has already finished
+   */
+  @Transactional
+  public ImportJob cancel(UUID id) {
+    getJob(id);
+
+    if (0 == importJobRepository.finish(id, ImportJob.Status.CANCELLED, ZonedDateTime.now(),
+        null, ACTIVE_STATUSES)) {
+      throw new ValidationMessageException(new Message(ERROR_JOB_FINISHED, id));
+    }
+
+    return getJob(id);
+  }
+
+  /**
+   * Queues again the jobs that were queued or running when the application stopped and whose
+   * files are spooled on this instance.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumeInterruptedJobs() {
+    for (ImportJob job : importJobRepository.findAllByStatusIn(ACTIVE_STATUSES)) {
+      if (Files.isDirectory(Paths.get(job.getSpoolDirectory()))) {
+        XLOGGER.info("Resuming import job {}", job.getId());
+        schedule(job.getId());
+      }
+    }
+  }
+
+  private void schedule(UUID jobId) {
+    importJobExecutorService.execute(() -> run(jobId));
+  }
+
+  void run(UUID jobId) {
+    final ImportJob job = importJobRepository.findById(jobId).orElse(null);
+    if (null == job) {
+      return;
+    }
+
+    final Path directory = Paths.get(job.getSpoolDirectory());
+    if (0 == transactionUtils.runInOwnTransaction(() -> importJobRepository
+        .updateStatus(jobId, ImportJob.Status.RUNNING, ACTIVE_STATUSES))) {
+      deleteSpool(directory);
+      return;
+    }
+
+    final Profiler profiler = new Profiler("DATA_IMPORT_JOB");
+    profiler.setLogger(XLOGGER);
+
+    try {
+      final SpooledZipEntries entries = SpooledZipEntries.fromDirectory(directory);
+      final Map<String, ImportJobFile> pendingFiles = new LinkedHashMap<>();
+      for (ImportJobFile file : job.getFiles()) {
+        if (ImportJob.Status.COMPLETED != file.getStatus()) {
+          pendingFiles.put(file.getFileName(), file);
+        }
+      }
+
+      checkNotCancelled(jobId);
+      dataImportService.importFiles(entries, pendingFiles.keySet(), profiler,
+          fileName -> new JobFileProgress(pendingFiles.get(fileName)),
+          (fileName, entryProfiler, progress) ->
+              importFile(jobId, entries, fileName, entryProfiler, progress));
+
+      finish(jobId, ImportJob.Status.COMPLETED, null);
+    } catch (InterruptedException ex) {
+      XLOGGER.warn("Import job {} was interrupted, it will be resumed on restart", jobId);
+      Thread.currentThread().interrupt();
+      return;
+    } catch (CancellationException ex) {
+      XLOGGER.info("Import job {} was cancelled", jobId);
+    } catch (IOException | RuntimeException ex) {
+      XLOGGER.error("Import job {} failed", jobId, ex);
+      finish(jobId, ImportJob.Status.FAILED, ex.getMessage());
+    } finally {
+      profiler.stop().log();
+    }
+
+    deleteSpool(directory);
+  }
+
+  private ImportResponseDto.ImportDetails importFile(UUID jobId, SpooledZipEntries entries,
+      String fileName, Profiler entryProfiler, JobFileProgress progress)
+      throws InterruptedException {
+    checkNotCancelled(jobId);
+    progress.save(ImportJob.Status.RUNNING);
+
+    final ImportResponseDto.ImportDetails details;
+    try {
+      details = dataImportService.importEntry(entries, fileName, entryProfiler, progress);
+      if (null != details) {
+        progress.complete(details);
+      }
+    } catch (CancellationException ex) {
+      progress.save(ImportJob.Status.CANCELLED);
+      throw ex;
+    } catch (RuntimeException ex) {
+      progress.save(ImportJob.Status.FAILED);
+      throw ex;
+    }
+
+    progress.save(ImportJob.Status.COMPLETED);
+    return details;
+  }
+
+  private void checkNotCancelled(UUID jobId) {
+    if (ImportJob.Status.CANCELLED == importJobRepository.findStatusById(jobId)) {
+      throw new CancellationException("Import job " + jobId + " was cancelled");
+    }
+  }
+
+  private void finish(UUID jobId, ImportJob.Status status, String errorMessage) {
+    transactionUtils.runInOwnTransaction(() -> importJobRepository
+        .finish(jobId, status, ZonedDateTime.now(), errorMessage, ACTIVE_STATUSES));
+  }
+
+  private void deleteSpool(Path directory) {
+    try {
+      SpooledZipEntries.fromDirectory(directory).close();
+      Files.deleteIfExists(directory);
+    } catch (IOException ex) {
+      XLOGGER.warn("Could not delete import spool directory {}", directory, ex);
+    }
+  }
+
+  /**
+   * Progress of a job file that is saved after every persisted batch, together with a check
+   * whether the job has been cancelled in the meantime.
+   */
+  private class JobFileProgress extends ImportProgress {
+    private final UUID jobId;
+    private final UUID fileId;
+
+    JobFileProgress(ImportJobFile file) {
+      super(file.getRowsRead(), file.getRowsPersisted(), file.getRowsFailed());
+      this.jobId = file.getJob().getId();
+      this.fileId = file.getId();
+    }
+
+    @Override
+    protected void onCheckpoint() {
+      transactionUtils.runInOwnTransaction(() -> {
+        importJobFileRepository.updateProgress(fileId, getRowsRead(), getRowsPersisted(),
+            getRowsFailed());
+        return null;
+      });
+      checkNotCancelled(jobId);
+    }
+
+    void save(ImportJob.Status status) {
+      transactionUtils.runInOwnTransaction(() -> {
+        importJobFileRepository.updateProgress(fileId, getRowsRead(), getRowsPersisted(),
+            getRowsFailed());
+        importJobFileRepository.updateStatus(fileId, status);
+        return null;
+      });
+    }
+  }
+}
@@ -31,4 +31,15 @@ public interface DataImportPersister<E, D, U> {
 
   ImportResponseDto.ImportDetails processAndPersist(
       InputStream dataStream, Profiler profiler) throws InterruptedException;
+
+  /**
+   * Imports the data, continuing from and reporting to the given progress. Persisters that do
+   * not read their file in batches import the whole file again and report nothing until it is
+   * done.
+   */
+  default ImportResponseDto.ImportDetails processAndPersist(
+      InputStream dataStream, Profiler profiler, ImportProgress progress)
+      throws InterruptedException {
+    return processAndPersist(dataStream, profiler);
+  }
 }
@@ -15,43 +15,86 @@
 
 package org.openlmis.referencedata.service.export;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
 
 import org.openlmis.referencedata.dto.BaseDto;
 import org.openlmis.referencedata.dto.ImportResponseDto;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.util.FileHelper;
 import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.SpooledZipEntries;
 import org.openlmis.referencedata.util.messagekeys.CsvUploadMessageKeys;
+import org.openlmis.referencedata.util.messagekeys.MessageKeys;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+/**
+ * Imports ZIP archives with CSV files. Each file is imported by the {@link DataImportPersister}
+ * registered under its name. Files are imported in parallel, except that a file is only started
+ * once every file it depends on (see {@link #IMPORT_DEPENDENCIES}) has been imported.
+ */
 @Service
 public class DataImportService {
-  private static final List<String> IMPORT_ORDER =
-      Arrays.asList(
-          FacilityImportPersister.FACILITY_FILE_NAME,
-          SupportedProgramImportPersister.SUPPORTED_PROGRAM_FILE_NAME,
-          OrderableImportPersister.ORDERABLE_FILE_NAME,
-          ProgramOrderableImportPersister.PROGRAM_ORDERABLE_FILE_NAME,
-          TradeItemImportPersister.TRADE_ITEM_FILE_NAME,
-          GeographicZonesImportPersister.GEOGRAPHIC_ZONE_FILE_NAME,
-          UserImportPersister.USER_FILE_NAME,
-          RoleAssignmentPersister.ROLE_ASSIGNMENT_FILE
-      );
+
+  /**
+   * Files each importable file depends on, in an order in which every file comes after its
+   * dependencies. Files that write the same entities depend on each other as well, so they are
+   * never imported at the same time.
+   */
+  static final Map<String, List<String>> IMPORT_DEPENDENCIES =
+      ImmutableMap.<String, List<String>>builder()
+          .put(GeographicZonesImportPersister.GEOGRAPHIC_ZONE_FILE_NAME,
+              emptyList())
+          .put(FacilityImportPersister.FACILITY_FILE_NAME,
+              singletonList(GeographicZonesImportPersister.GEOGRAPHIC_ZONE_FILE_NAME))
+          .put(SupportedProgramImportPersister.SUPPORTED_PROGRAM_FILE_NAME,
+              singletonList(FacilityImportPersister.FACILITY_FILE_NAME))
+          .put(OrderableImportPersister.ORDERABLE_FILE_NAME,
+              emptyList())
+          .put(ProgramOrderableImportPersister.PROGRAM_ORDERABLE_FILE_NAME,
+              singletonList(OrderableImportPersister.ORDERABLE_FILE_NAME))
+          .put(TradeItemImportPersister.TRADE_ITEM_FILE_NAME,
+              asList(OrderableImportPersister.ORDERABLE_FILE_NAME,
+                  ProgramOrderableImportPersister.PROGRAM_ORDERABLE_FILE_NAME))
+          .put(UserImportPersister.USER_FILE_NAME,
+              singletonList(FacilityImportPersister.FACILITY_FILE_NAME))
+          .put(RoleAssignmentPersister.ROLE_ASSIGNMENT_FILE,
+              asList(FacilityImportPersister.FACILITY_FILE_NAME,
+                  UserImportPersister.USER_FILE_NAME))
+          .build();
+
+  static final List<String> IMPORT_ORDER = ImmutableList.copyOf(IMPORT_DEPENDENCIES.keySet());
 
   @Autowired private FileHelper fileHelper;
   @Autowired private BeanFactory beanFactory;
 
+  @Autowired
+  @Qualifier("importFileExecutorService")
+  private ExecutorService importFileExecutorService;
+
   /**
    * Imports the data from a ZIP with CSV files.
    *
@@ -64,33 +107,149 @@ public class DataImportService {
     profiler.start("VALIDATE_ZIP_FILE");
     fileHelper.validateMultipartFile(zipFile);
 
-    profiler.start("CONVERT_TO_ZIP_FILE_MAP");
-    final Map<String, InputStream> fileMap = fileHelper.convertMultipartFileToZipFileMap(zipFile);
+    profiler.start("SPOOL_ZIP_ENTRIES");
+    try (SpooledZipEntries entries = fileHelper.spoolZipEntries(zipFile)) {
+      profiler.start("VALIDATE_CSV_FILES");
+      for (String fileName : entries.getNames()) {
+        fileHelper.validateCsvFile(fileName, IMPORT_ORDER);
+      }
 
-    profiler.start("VALIDATE_CSV_FILES");
-    for (String fileName : fileMap.keySet()) {
-      fileHelper.validateCsvFile(fileName, IMPORT_ORDER);
+      return importFiles(entries, IMPORT_ORDER, profiler,
+          importFileName -> ImportProgress.fromStart(),
+          (importFileName, entryProfiler, progress) ->
+              importEntry(entries, importFileName, entryProfiler, progress));
     }
+  }
 
-    final List<ImportResponseDto.ImportDetails> result = new ArrayList<>();
+  /**
+   * Imports the given files of a spooled ZIP archive, each file once the files it depends on have
+   * been imported. Files that are not given, or are missing from the archive, are treated as
+   * imported already. Waits for every started import to finish before it returns or throws.
+   *
+   * @param entries spooled entries of the archive
+   * @param fileNames names of the files to import
+   * @param profiler profiler to start the nested entry profilers from
+   * @param progressFactory creates the progress of a file, on the calling thread
+   * @param fileImport imports a single file, on the import file executor
+   * @return the import summaries of the files, in the import order
+   * @throws InterruptedException when it was interrupted
+   */
+  <P extends ImportProgress> List<ImportResponseDto.ImportDetails> importFiles(
+      SpooledZipEntries entries, Collection<String> fileNames, Profiler profiler,
+      Function<String, P> progressFactory, FileImport<P> fileImport)
+      throws InterruptedException {
+    final Map<String, CompletableFuture<ImportResponseDto.ImportDetails>> imports =
+        new LinkedHashMap<>();
+    final List<ImportProgress> progresses = new ArrayList<>();
     for (String importFileName : IMPORT_ORDER) {
-      final InputStream fileStream = fileMap.get(importFileName);
+      imports.put(importFileName, fileNames.contains(importFileName)
+          ? scheduleImport(entries, importFileName, profiler, imports, progresses,
+              progressFactory, fileImport)
+          : CompletableFuture.completedFuture(null));
+    }
 
-      if (fileStream == null) {
-        continue;
-      }
+    return awaitImports(imports.values(), progresses);
+  }
+
+  /**
+   * Imports a single spooled file of a ZIP archive with the persister registered under its name.
+   *
+   * @param entries spooled entries of the archive
+   * @param importFileName name of the file to import
+   * @param entryProfiler profiler of the file
+   * @param progress progress to continue from and report to
+   * @return the import summary
+   * @throws InterruptedException when it was interrupted
+   */
+  ImportResponseDto.ImportDetails importEntry(SpooledZipEntries entries, String importFileName,
+      Profiler entryProfiler, ImportProgress progress) throws InterruptedException {
+    try (InputStream fileStream = entries.open(importFileName)) {
+      final DataImportPersister<?, ?, ? extends BaseDto> persister =
+          beanFactory.getBean(importFileName, DataImportPersister.class);
+      return persister.processAndPersist(fileStream, entryProfiler, progress);
+    } catch (NoSuchBeanDefinitionException e) {
+      throw new ValidationMessageException(
+          e, new Message(CsvUploadMessageKeys.ERROR_FILE_NAME_INVALID, importFileName));
+    } catch (IOException e) {
+      throw new ValidationMessageException(e, MessageKeys.ERROR_IO, e.getMessage());
+    }
+  }
+
+  private <P extends ImportProgress> CompletableFuture<ImportResponseDto.ImportDetails>
+      scheduleImport(SpooledZipEntries entries, String importFileName, Profiler profiler,
+      Map<String, CompletableFuture<ImportResponseDto.ImportDetails>> imports,
+      List<ImportProgress> progresses, Function<String, P> progressFactory,
+      FileImport<P> fileImport) {
+    if (!entries.getNames().contains(importFileName)) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    // nested profilers are started here, as the parent profiler is not thread-safe
+    final Profiler entryProfiler = profiler.startNested("IMPORT_ZIP_ENTRY: " + importFileName);
+    final CompletableFuture<?>[] dependencies = IMPORT_DEPENDENCIES
+        .get(importFileName)
+        .stream()
+        .map(imports::get)
+        .toArray(CompletableFuture[]::new);
+    final P progress = progressFactory.apply(importFileName);
+    progresses.add(progress);
+
+    return CompletableFuture
+        .allOf(dependencies)
+        .thenApplyAsync(ignored -> {
+          try {
+            return fileImport.importFile(importFileName, entryProfiler, progress);
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(ex);
+          }
+        }, importFileExecutorService);
+  }
 
+  private List<ImportResponseDto.ImportDetails> awaitImports(
+      Collection<CompletableFuture<ImportResponseDto.ImportDetails>> imports,
+      List<ImportProgress> progresses) throws InterruptedException {
+    final List<ImportResponseDto.ImportDetails> result = new ArrayList<>();
+    Throwable failure = null;
+
+    // every import has to finish before the spooled entries are deleted
+    for (CompletableFuture<ImportResponseDto.ImportDetails> fileImport : imports) {
       try {
-        final Profiler entryProfiler = profiler.startNested("IMPORT_ZIP_ENTRY: " + importFileName);
-        final DataImportPersister<?, ?, ? extends BaseDto> persister =
-            beanFactory.getBean(importFileName, DataImportPersister.class);
-        result.add(persister.processAndPersist(fileStream, entryProfiler));
-      } catch (NoSuchBeanDefinitionException e) {
-        throw new ValidationMessageException(
-            e, new Message(CsvUploadMessageKeys.ERROR_FILE_NAME_INVALID, importFileName));
+        final ImportResponseDto.ImportDetails details = fileImport.get();
+        if (null != details) {
+          result.add(details);
+        }
+      } catch (ExecutionException ex) {
+        if (null == failure) {
+          failure = ex.getCause();
+        }
+      } catch (InterruptedException ex) {
+        // cancelling a future does not interrupt a running import, so its batch loop is stopped
+        progresses.forEach(ImportProgress::cancel);
+        imports.forEach(future -> future.cancel(false));
+        throw ex;
       }
     }
 
+    if (failure instanceof InterruptedException) {
+      throw (InterruptedException) failure;
+    }
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+
     return result;
   }
+
+  /**
+   * Imports a single file of an archive.
+   */
+  @FunctionalInterface
+  interface FileImport<P extends ImportProgress> {
+    ImportResponseDto.ImportDetails importFile(String importFileName, Profiler entryProfiler,
+        P progress) throws InterruptedException;
+  }
 }
@@ -16,6 +16,7 @@
 package org.openlmis.referencedata.service.export;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ExportableDataService<T> {
 
@@ -23,4 +24,17 @@ public interface ExportableDataService<T> {
 
   Class<T> getExportableType();
 
+  /**
+   * Hands exportable items to the given consumer in batches of at most the given size, so that
+   * the caller can write each batch out before the next one is loaded. Services backed by large
+   * tables should override it to page through their rows; by default all items are handed over
+   * as a single batch.
+   *
+   * @param batchSize     maximum number of items in a single batch
+   * @param batchConsumer action that should be executed on each batch
+   */
+  default void forEachExportableBatch(int batchSize, Consumer<List<T>> batchConsumer) {
+    batchConsumer.accept(findAllExportableItems());
+  }
+
 }
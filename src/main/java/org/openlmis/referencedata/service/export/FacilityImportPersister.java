@@ -18,6 +18,8 @@ package org.openlmis.referencedata.service.export;
 import static java.util.Collections.emptyMap;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_BATCH_SIZE;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_MAX_BATCHES_IN_FLIGHT;
 
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -28,11 +30,12 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.FacilityOperator;
 import org.openlmis.referencedata.domain.FacilityType;
 import org.openlmis.referencedata.domain.GeographicZone;
-import org.openlmis.referencedata.dto.BasicFacilityDto;
 import org.openlmis.referencedata.dto.FacilityDto;
 import org.openlmis.referencedata.dto.FacilityOperatorDto;
 import org.openlmis.referencedata.dto.FacilityTypeDto;
@@ -44,8 +47,10 @@ import org.openlmis.referencedata.repository.FacilityOperatorRepository;
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.FacilityTypeRepository;
 import org.openlmis.referencedata.repository.GeographicZoneRepository;
+import org.openlmis.referencedata.util.CsvBatchIterator;
 import org.openlmis.referencedata.util.EasyBatchUtils;
 import org.openlmis.referencedata.util.FileHelper;
+import org.openlmis.referencedata.util.ReferenceResolver;
 import org.openlmis.referencedata.util.TransactionUtils;
 import org.openlmis.referencedata.util.messagekeys.FacilityTypeMessageKeys;
 import org.openlmis.referencedata.util.messagekeys.GeographicZoneMessageKeys;
@@ -66,6 +71,7 @@ public class FacilityImportPersister
   @Autowired private FacilityTypeRepository facilityTypeRepository;
   @Autowired private FacilityOperatorRepository facilityOperatorRepository;
   @Autowired private TransactionUtils transactionUtils;
+  @PersistenceContext private EntityManager entityManager;
 
   @Autowired
   @Qualifier("importExecutorService")
@@ -75,42 +81,58 @@ public class FacilityImportPersister
   public ImportResponseDto.ImportDetails processAndPersist(InputStream dataStream,
                                                            Profiler profiler)
       throws InterruptedException {
-    profiler.start("READ_CSV");
-    List<FacilityDto> importedDtos = fileHelper.readCsv(FacilityDto.class, dataStream);
+    return processAndPersist(dataStream, profiler, ImportProgress.fromStart());
+  }
+
+  @Override
+  public ImportResponseDto.ImportDetails processAndPersist(InputStream dataStream,
+                                                           Profiler profiler,
+                                                           ImportProgress progress)
+      throws InterruptedException {
+    profiler.start("OPEN_CSV");
+    CsvBatchIterator<FacilityDto> batches =
+        fileHelper.readCsvInBatches(FacilityDto.class, dataStream, DEFAULT_BATCH_SIZE);
+    final ImportContext importContext = new ImportContext();
 
     profiler.start("CREATE_OR_UPDATE_SAVE_ALL");
-    List<FacilityDto> result =
+    int result =
         new EasyBatchUtils(importExecutorService)
             .processInBatches(
-                importedDtos,
-                batch -> transactionUtils.runInOwnTransaction(() -> importBatch(batch)));
+                progress.resume(batches),
+                batch -> transactionUtils.runInOwnTransaction(
+                    () -> importBatch(importContext, batch)),
+                DEFAULT_MAX_BATCHES_IN_FLIGHT,
+                progress::onBatchCompleted);
 
     profiler.start("RETURN");
     return new ImportResponseDto.ImportDetails(
         FACILITY_FILE_NAME,
-        importedDtos.size(),
-        result.size(),
+        batches.getRowCount(),
+        result,
         0,
-        new ArrayList<>());
+        new ArrayList<>()
+    );
   }
 
-  private List<FacilityDto> importBatch(List<FacilityDto> importedDtosBatch) {
-    final List<Facility> toPersistBatch = createOrUpdate(importedDtosBatch);
+  private List<FacilityDto> importBatch(ImportContext importContext,
+      List<FacilityDto> importedDtosBatch) {
+    final List<Facility> toPersistBatch = createOrUpdate(importContext, importedDtosBatch);
     final List<Facility> persistedObjects = facilityRepository.saveAll(toPersistBatch);
 
     return FacilityDto.newInstances(persistedObjects);
   }
 
-  private List<Facility> createOrUpdate(List<FacilityDto> dtoList) {
-    final ImportContext importContext = new ImportContext(dtoList);
+  private List<Facility> createOrUpdate(ImportContext importContext, List<FacilityDto> dtoList) {
+    importContext.prefetch(dtoList);
+    final Map<String, Facility> facilityByCode = findFacilitiesByCode(dtoList);
     final List<Facility> persistList = new LinkedList<>();
 
     for (FacilityDto dto : dtoList) {
-      Optional<Facility> latestFacility = facilityRepository.findByCode(dto.getCode());
+      Facility latestFacility = facilityByCode.get(dto.getCode());
 
-      if (latestFacility.isPresent()) {
-        latestFacility.get().updateFrom(dto);
-        persistList.add(latestFacility.get());
+      if (null != latestFacility) {
+        latestFacility.updateFrom(dto);
+        persistList.add(latestFacility);
       } else {
         persistList.add(build(importContext, dto));
       }
@@ -119,29 +141,40 @@ public class FacilityImportPersister
     return persistList;
   }
 
+  private Map<String, Facility> findFacilitiesByCode(List<FacilityDto> dtoList) {
+    final List<String> distinctFacilityCodes =
+        dtoList.stream()
+            .map(MinimalFacilityDto::getCode)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(toList());
+
+    return distinctFacilityCodes.isEmpty()
+        ? emptyMap()
+        : facilityRepository.findAllByCodeIn(distinctFacilityCodes).stream()
+            .collect(toMap(Facility::getCode, Function.identity()));
+  }
+
   private Facility build(ImportContext importContext, FacilityDto importer) {
     final GeographicZone geographicZone =
         Optional.ofNullable(importer.getGeographicZone())
             .map(GeographicZoneSimpleDto::getCode)
-            .map(importContext.geographicZoneByCode::get)
+            .flatMap(importContext.geographicZones::find)
             .orElseThrow(
                 () -> new ValidationMessageException(GeographicZoneMessageKeys.ERROR_NOT_FOUND));
     final FacilityType facilityType =
         Optional.ofNullable(importer.getType())
             .map(FacilityTypeDto::getCode)
-            .map(importContext.facilityTypeByCode::get)
+            .flatMap(importContext.facilityTypes::find)
             .orElseThrow(
                 () -> new ValidationMessageException(FacilityTypeMessageKeys.ERROR_NOT_FOUND));
     final FacilityOperator facilityOperator =
         Optional.ofNullable(importer.getOperator())
             .map(FacilityOperatorDto::getCode)
-            .map(importContext.facilityOperatorByCode::get)
+            .flatMap(importContext.facilityOperators::find)
             .orElse(null);
 
-    final Facility facility =
-        Optional.ofNullable(importer.getCode())
-            .map(importContext.facilityByCode::get)
-            .orElseGet(Facility::new);
+    final Facility facility = new Facility();
     facility.updateFrom(importer);
     facility.setGeographicZone(geographicZone);
     facility.setType(facilityType);
@@ -149,57 +182,33 @@ public class FacilityImportPersister
     return facility;
   }
 
+  /**
+   * References shared by all batches of a single import, so that the id of each geographic zone,
+   * facility type and operator is looked up only once per import. Each batch gets references
+   * bound to its own transaction.
+   */
   private class ImportContext {
-    final Map<String, GeographicZone> geographicZoneByCode;
-    final Map<String, FacilityType> facilityTypeByCode;
-    final Map<String, FacilityOperator> facilityOperatorByCode;
-    final Map<String, Facility> facilityByCode;
-
-    ImportContext(List<FacilityDto> dtoList) {
-      final List<String> distinctGeographicZoneCodes =
-          dtoList.stream()
-              .map(BasicFacilityDto::getGeographicZone)
-              .filter(Objects::nonNull)
-              .map(GeographicZoneSimpleDto::getCode)
-              .distinct()
-              .collect(toList());
-      final List<String> distinctFacilityTypeCodes =
-          dtoList.stream()
-              .map(BasicFacilityDto::getType)
-              .filter(Objects::nonNull)
-              .map(FacilityTypeDto::getCode)
-              .distinct()
-              .collect(toList());
-      final List<String> distinctFacilityOperatorCodes =
-          dtoList.stream()
-              .map(BasicFacilityDto::getOperator)
-              .filter(Objects::nonNull)
-              .map(FacilityOperator.Importer::getCode)
-              .distinct()
-              .collect(toList());
-      final List<String> distinctFacilityCodes =
-          dtoList.stream().map(MinimalFacilityDto::getCode).distinct().collect(toList());
-
-      geographicZoneByCode =
-          distinctGeographicZoneCodes.isEmpty()
-              ? emptyMap()
-              : geographicZoneRepository.findAllByCodeIn(distinctGeographicZoneCodes).stream()
-                  .collect(toMap(GeographicZone::getCode, Function.identity()));
-      facilityTypeByCode =
-          distinctFacilityTypeCodes.isEmpty()
-              ? emptyMap()
-              : facilityTypeRepository.findAllByCodeIn(distinctFacilityTypeCodes).stream()
-                  .collect(toMap(FacilityType::getCode, Function.identity()));
-      facilityOperatorByCode =
-          distinctFacilityOperatorCodes.isEmpty()
-              ? emptyMap()
-              : facilityOperatorRepository.findAllByCodeIn(distinctFacilityOperatorCodes).stream()
-                  .collect(toMap(FacilityOperator::getCode, Function.identity()));
-      facilityByCode =
-          distinctFacilityCodes.isEmpty()
-              ? emptyMap()
-              : facilityRepository.findAllByCodeIn(distinctFacilityCodes).stream()
-                  .collect(toMap(Facility::getCode, Function.identity()));
+    final ReferenceResolver<String, GeographicZone> geographicZones =
+        new ReferenceResolver<>(geographicZoneRepository::findAllByCodeIn, GeographicZone::getCode,
+            id -> entityManager.getReference(GeographicZone.class, id));
+    final ReferenceResolver<String, FacilityType> facilityTypes =
+        new ReferenceResolver<>(facilityTypeRepository::findAllByCodeIn, FacilityType::getCode,
+            id -> entityManager.getReference(FacilityType.class, id));
+    final ReferenceResolver<String, FacilityOperator> facilityOperators =
+        new ReferenceResolver<>(facilityOperatorRepository::findAllByCodeIn,
+            FacilityOperator::getCode,
+            id -> entityManager.getReference(FacilityOperator.class, id));
+
+    void prefetch(List<FacilityDto> dtoList) {
+      geographicZones.prefetch(dtoList, dto -> Optional.ofNullable(dto.getGeographicZone())
+          .map(GeographicZoneSimpleDto::getCode)
+          .orElse(null));
+      facilityTypes.prefetch(dtoList, dto -> Optional.ofNullable(dto.getType())
+          .map(FacilityTypeDto::getCode)
+          .orElse(null));
+      facilityOperators.prefetch(dtoList, dto -> Optional.ofNullable(dto.getOperator())
+          .map(FacilityOperator.Importer::getCode)
+          .orElse(null));
     }
   }
 }
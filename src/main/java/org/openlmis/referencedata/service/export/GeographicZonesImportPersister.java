@@ -15,11 +15,17 @@
 
 package org.openlmis.referencedata.service.export;
 
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_BATCH_SIZE;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_MAX_BATCHES_IN_FLIGHT;
+
+import com.google.common.collect.Iterators;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.openlmis.referencedata.domain.GeographicLevel;
@@ -30,6 +36,7 @@ import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.GeographicLevelRepository;
 import org.openlmis.referencedata.repository.GeographicZoneRepository;
+import org.openlmis.referencedata.util.CsvBatchIterator;
 import org.openlmis.referencedata.util.EasyBatchUtils;
 import org.openlmis.referencedata.util.FileHelper;
 import org.openlmis.referencedata.util.TransactionUtils;
@@ -63,24 +70,42 @@ public class GeographicZonesImportPersister
   public ImportResponseDto.ImportDetails processAndPersist(InputStream dataStream,
                                                            Profiler profiler)
       throws InterruptedException {
-    profiler.start("READ CSV");
-    List<GeographicZoneDto> importedDtos = fileHelper.readCsv(GeographicZoneDto.class, dataStream)
-        .stream().filter(dto -> dto.getCode() != null).collect(Collectors.toList());
+    return processAndPersist(dataStream, profiler, ImportProgress.fromStart());
+  }
+
+  @Override
+  public ImportResponseDto.ImportDetails processAndPersist(InputStream dataStream,
+                                                           Profiler profiler,
+                                                           ImportProgress progress)
+      throws InterruptedException {
+    profiler.start("OPEN CSV");
+    CsvBatchIterator<GeographicZoneDto> batches =
+        fileHelper.readCsvInBatches(GeographicZoneDto.class, dataStream, DEFAULT_BATCH_SIZE);
+    AtomicInteger skipped = new AtomicInteger();
+    Iterator<List<GeographicZoneDto>> remaining = progress.resume(batches);
+    Iterator<List<GeographicZoneDto>> batchesWithCode = Iterators.transform(remaining, batch -> {
+      List<GeographicZoneDto> withCode = batch.stream()
+          .filter(dto -> dto.getCode() != null).collect(Collectors.toList());
+      skipped.addAndGet(batch.size() - withCode.size());
+      return withCode;
+    });
 
     int lowestLevelNumber = findLowestHierarchyLevelNumber();
 
     profiler.start("CREATE_OR_UPDATE_SAVE_ALL");
-    List<GeographicZoneDto> result = new EasyBatchUtils(importExecutorService)
+    int result = new EasyBatchUtils(importExecutorService)
         .processInBatches(
-            importedDtos,
+            batchesWithCode,
             batch -> transactionUtils.runInOwnTransaction(() ->
-                importBatch(batch, lowestLevelNumber)));
+                importBatch(batch, lowestLevelNumber)),
+            DEFAULT_MAX_BATCHES_IN_FLIGHT,
+            progress::onBatchCompleted);
 
     profiler.start("RETURN");
     return new ImportResponseDto.ImportDetails(
         GEOGRAPHIC_ZONE_FILE_NAME,
-        importedDtos.size(),
-        result.size(),
+        batches.getRowCount() - skipped.get(),
+        result,
         0,
         new ArrayList<>()
     );
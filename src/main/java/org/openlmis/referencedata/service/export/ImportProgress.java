@@ -0,0 +1,153 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service.export;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import lombok.Getter;
+import org.openlmis.referencedata.dto.ImportResponseDto;
+
+/**
+ * Tracks how far the import of a single file has got. Persisters that read their file in batches
+ * pull the batches through {@link #resume(Iterator)} and report each persisted batch to
+ * {@link #onBatchCompleted(int)}. Rows read up to the checkpoint the progress was created with
+ * are skipped, so an interrupted import continues after the last persisted batch. Once the
+ * progress is {@link #cancel() cancelled}, pulling the next batch throws a
+ * {@link CancellationException}, which stops the batch loop of the persister.
+ *
+ * <p>Batches must be reported in the order they were pulled, as
+ * {@link org.openlmis.referencedata.util.EasyBatchUtils} does.
+ */
+public class ImportProgress {
+
+  private final int checkpoint;
+  private final int rowsPersistedBefore;
+  private final int rowsFailedBefore;
+  private final Deque<Integer> pendingBatchSizes = new ArrayDeque<>();
+  private volatile boolean cancelled;
+
+  @Getter
+  private int rowsRead;
+
+  @Getter
+  private int rowsPersisted;
+
+  @Getter
+  private int rowsFailed;
+
+  /**
+   * Creates progress of an import that continues from the given state.
+   *
+   * @param rowsRead rows already read and persisted, the checkpoint
+   * @param rowsPersisted rows already persisted successfully
+   * @param rowsFailed rows that already failed
+   */
+  public ImportProgress(int rowsRead, int rowsPersisted, int rowsFailed) {
+    this.checkpoint = rowsRead;
+    this.rowsPersistedBefore = rowsPersisted;
+    this.rowsFailedBefore = rowsFailed;
+    this.rowsRead = rowsRead;
+    this.rowsPersisted = rowsPersisted;
+    this.rowsFailed = rowsFailed;
+  }
+
+  /**
+   * Creates progress of an import that starts from the beginning of the file.
+   */
+  public static ImportProgress fromStart() {
+    return new ImportProgress(0, 0, 0);
+  }
+
+  /**
+   * Returns batches of the given source that are not covered by the checkpoint. Whole batches
+   * are skipped, so the source should be split the same way as in the interrupted import.
+   */
+  public <T> Iterator<List<T>> resume(Iterator<List<T>> batches) {
+    int skipped = 0;
+    while (skipped < checkpoint && batches.hasNext()) {
+      skipped += batches.next().size();
+    }
+
+    return new Iterator<List<T>>() {
+      @Override
+      public boolean hasNext() {
+        checkNotCancelled();
+        return batches.hasNext();
+      }
+
+      @Override
+      public List<T> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        List<T> batch = batches.next();
+        pendingBatchSizes.add(batch.size());
+        return batch;
+      }
+    };
+  }
+
+  /**
+   * Records the oldest pending batch as persisted and moves the checkpoint past it.
+   *
+   * @param processed number of rows of the batch persisted successfully
+   */
+  public void onBatchCompleted(int processed) {
+    Integer batchSize = pendingBatchSizes.poll();
+    if (null == batchSize) {
+      return;
+    }
+
+    rowsRead += batchSize;
+    rowsPersisted += processed;
+    onCheckpoint();
+  }
+
+  /**
+   * Records the result of the whole file. Counts of persisters that do not report batches are
+   * taken from the result as they are.
+   */
+  public void complete(ImportResponseDto.ImportDetails details) {
+    rowsRead = details.getTotalEntriesCount();
+    rowsPersisted = rowsPersistedBefore + details.getSuccessfulEntriesCount();
+    rowsFailed = rowsFailedBefore + details.getFailedEntriesCount();
+  }
+
+  /**
+   * Stops the import at the next batch. Can be called from any thread.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * Called on the importing thread after each persisted batch. Does nothing by default.
+   */
+  protected void onCheckpoint() {
+    // nothing to do by default
+  }
+
+  private void checkNotCancelled() {
+    if (cancelled) {
+      throw new CancellationException("Import was cancelled");
+    }
+  }
+}
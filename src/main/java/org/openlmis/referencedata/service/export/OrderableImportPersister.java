@@ -18,6 +18,8 @@ package org.openlmis.referencedata.service.export;
 import static java.util.Collections.emptyMap;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_BATCH_SIZE;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_MAX_BATCHES_IN_FLIGHT;
 
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -32,12 +34,15 @@ import org.openlmis.referencedata.domain.Orderable;
 import org.openlmis.referencedata.dto.ImportResponseDto;
 import org.openlmis.referencedata.dto.OrderableDto;
 import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.service.FulfillmentDataChangedEvent;
+import org.openlmis.referencedata.util.CsvBatchIterator;
 import org.openlmis.referencedata.util.EasyBatchUtils;
 import org.openlmis.referencedata.util.FileHelper;
 import org.openlmis.referencedata.util.TransactionUtils;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service(OrderableImportPersister.ORDERABLE_FILE_NAME)
@@ -49,6 +54,7 @@ public class OrderableImportPersister
   @Autowired private FileHelper fileHelper;
   @Autowired private OrderableRepository orderableRepository;
   @Autowired private TransactionUtils transactionUtils;
+  @Autowired private ApplicationEventPublisher applicationEventPublisher;
 
   @Autowired
   @Qualifier("importExecutorService")
@@ -58,21 +64,32 @@ public class OrderableImportPersister
   public ImportResponseDto.ImportDetails processAndPersist(InputStream dataStream,
                                                            Profiler profiler)
       throws InterruptedException {
-    profiler.start("READ_CSV");
-    List<OrderableDto> importedDtos = fileHelper.readCsv(OrderableDto.class, dataStream);
+    return processAndPersist(dataStream, profiler, ImportProgress.fromStart());
+  }
+
+  @Override
+  public ImportResponseDto.ImportDetails processAndPersist(InputStream dataStream,
+                                                           Profiler profiler,
+                                                           ImportProgress progress)
+      throws InterruptedException {
+    profiler.start("OPEN_CSV");
+    CsvBatchIterator<OrderableDto> batches =
+        fileHelper.readCsvInBatches(OrderableDto.class, dataStream, DEFAULT_BATCH_SIZE);
 
     profiler.start("CREATE_OR_UPDATE_SAVE_ALL");
-    List<OrderableDto> result =
+    int result =
         new EasyBatchUtils(importExecutorService)
             .processInBatches(
-                importedDtos,
-                batch -> transactionUtils.runInOwnTransaction(() -> importBatch(batch)));
+                progress.resume(batches),
+                batch -> transactionUtils.runInOwnTransaction(() -> importBatch(batch)),
+                DEFAULT_MAX_BATCHES_IN_FLIGHT,
+                progress::onBatchCompleted);
 
     profiler.start("RETURN");
     return new ImportResponseDto.ImportDetails(
         ORDERABLE_FILE_NAME,
-        importedDtos.size(),
-        result.size(),
+        batches.getRowCount(),
+        result,
         0,
         new ArrayList<>()
     );
@@ -81,6 +98,7 @@ public class OrderableImportPersister
   private List<OrderableDto> importBatch(List<OrderableDto> importedDtosBatch) {
     final List<Orderable> toPersistBatch = createOrUpdate(importedDtosBatch);
     final List<Orderable> persistedObjects = orderableRepository.saveAll(toPersistBatch);
+    applicationEventPublisher.publishEvent(new FulfillmentDataChangedEvent(this, Orderable.class));
 
     return OrderableDto.newInstances(persistedObjects);
   }
@@ -18,6 +18,8 @@ package org.openlmis.referencedata.service.export;
 import static java.util.Collections.emptyMap;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_BATCH_SIZE;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_MAX_BATCHES_IN_FLIGHT;
 
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -42,6 +44,7 @@ import org.openlmis.referencedata.repository.OrderableDisplayCategoryRepository;
 import org.openlmis.referencedata.repository.OrderableRepository;
 import org.openlmis.referencedata.repository.ProgramOrderableRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
+import org.openlmis.referencedata.util.CsvBatchIterator;
 import org.openlmis.referencedata.util.EasyBatchUtils;
 import org.openlmis.referencedata.util.FileHelper;
 import org.openlmis.referencedata.util.TransactionUtils;
@@ -76,22 +79,32 @@ public class ProgramOrderableImportPersister
   public ImportResponseDto.ImportDetails processAndPersist(InputStream dataStream,
                                                            Profiler profiler)
       throws InterruptedException {
-    profiler.start("READ_CSV");
-    List<ProgramOrderableCsvModel> importedDtos =
-        fileHelper.readCsv(ProgramOrderableCsvModel.class, dataStream);
+    return processAndPersist(dataStream, profiler, ImportProgress.fromStart());
+  }
+
+  @Override
+  public ImportResponseDto.ImportDetails processAndPersist(InputStream dataStream,
+                                                           Profiler profiler,
+                                                           ImportProgress progress)
+      throws InterruptedException {
+    profiler.start("OPEN_CSV");
+    CsvBatchIterator<ProgramOrderableCsvModel> batches =
+        fileHelper.readCsvInBatches(ProgramOrderableCsvModel.class, dataStream, DEFAULT_BATCH_SIZE);
 
     profiler.start("CREATE_OR_UPDATE_SAVE_ALL");
-    List<ProgramOrderableDto> result =
+    int result =
         new EasyBatchUtils(importExecutorService)
             .processInBatches(
-                importedDtos,
-                batch -> transactionUtils.runInOwnTransaction(() -> importBatch(batch)));
+                progress.resume(batches),
+                batch -> transactionUtils.runInOwnTransaction(() -> importBatch(batch)),
+                DEFAULT_MAX_BATCHES_IN_FLIGHT,
+                progress::onBatchCompleted);
 
     profiler.start("RETURN");
     return new ImportResponseDto.ImportDetails(
         PROGRAM_ORDERABLE_FILE_NAME,
-        importedDtos.size(),
-        result.size(),
+        batches.getRowCount(),
+        result,
         0,
         new ArrayList<>()
     );
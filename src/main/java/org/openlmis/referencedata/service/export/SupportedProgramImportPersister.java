@@ -19,6 +19,8 @@ import static java.util.Collections.emptyMap;
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_BATCH_SIZE;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_MAX_BATCHES_IN_FLIGHT;
 
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -41,6 +43,7 @@ import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
 import org.openlmis.referencedata.repository.SupportedProgramRepository;
+import org.openlmis.referencedata.util.CsvBatchIterator;
 import org.openlmis.referencedata.util.EasyBatchUtils;
 import org.openlmis.referencedata.util.FileHelper;
 import org.openlmis.referencedata.util.TransactionUtils;
@@ -72,22 +75,32 @@ public class SupportedProgramImportPersister
   public ImportResponseDto.ImportDetails processAndPersist(InputStream dataStream,
                                                            Profiler profiler)
       throws InterruptedException {
-    profiler.start("READ_CSV");
-    List<SupportedProgramCsvModel> importedDtos =
-        fileHelper.readCsv(SupportedProgramCsvModel.class, dataStream);
+    return processAndPersist(dataStream, profiler, ImportProgress.fromStart());
+  }
+
+  @Override
+  public ImportResponseDto.ImportDetails processAndPersist(InputStream dataStream,
+                                                           Profiler profiler,
+                                                           ImportProgress progress)
+      throws InterruptedException {
+    profiler.start("OPEN_CSV");
+    CsvBatchIterator<SupportedProgramCsvModel> batches =
+        fileHelper.readCsvInBatches(SupportedProgramCsvModel.class, dataStream, DEFAULT_BATCH_SIZE);
 
     profiler.start("CREATE_OR_UPDATE_SAVE_ALL");
-    List<SupportedProgramDto> result =
+    int result =
         new EasyBatchUtils(importExecutorService)
             .processInBatches(
-                importedDtos,
-                batch -> transactionUtils.runInOwnTransaction(() -> importBatch(batch)));
+                progress.resume(batches),
+                batch -> transactionUtils.runInOwnTransaction(() -> importBatch(batch)),
+                DEFAULT_MAX_BATCHES_IN_FLIGHT,
+                progress::onBatchCompleted);
 
     profiler.start("RETURN");
     return new ImportResponseDto.ImportDetails(
         SUPPORTED_PROGRAM_FILE_NAME,
-        importedDtos.size(),
-        result.size(),
+        batches.getRowCount(),
+        result,
         0,
         new ArrayList<>()
     );
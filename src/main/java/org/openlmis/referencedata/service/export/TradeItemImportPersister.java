@@ -39,6 +39,7 @@ import org.openlmis.referencedata.dto.TradeItemDto;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.repository.OrderableRepository;
 import org.openlmis.referencedata.repository.TradeItemRepository;
+import org.openlmis.referencedata.service.FulfillmentDataChangedEvent;
 import org.openlmis.referencedata.util.EasyBatchUtils;
 import org.openlmis.referencedata.util.FileHelper;
 import org.openlmis.referencedata.util.Message;
@@ -46,6 +47,7 @@ import org.openlmis.referencedata.util.TransactionUtils;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service(TradeItemImportPersister.TRADE_ITEM_FILE_NAME)
@@ -60,6 +62,7 @@ public class TradeItemImportPersister
   @Autowired private TradeItemRepository tradeItemRepository;
   @Autowired private OrderableRepository orderableRepository;
   @Autowired private TransactionUtils transactionUtils;
+  @Autowired private ApplicationEventPublisher applicationEventPublisher;
 
   @Autowired
   @Qualifier("importExecutorService")
@@ -114,6 +117,8 @@ public class TradeItemImportPersister
   private List<OrderableDto> importBatch(List<TradeItemCsvModel> importedDtosBatch) {
     final List<Orderable> toPersistBatch = createOrUpdate(importedDtosBatch);
     final List<Orderable> persistedObjects = orderableRepository.saveAll(toPersistBatch);
+    applicationEventPublisher.publishEvent(new FulfillmentDataChangedEvent(this, TradeItem.class));
+    applicationEventPublisher.publishEvent(new FulfillmentDataChangedEvent(this, Orderable.class));
 
     return OrderableDto.newInstances(persistedObjects);
   }
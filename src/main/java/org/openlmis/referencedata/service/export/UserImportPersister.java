@@ -15,11 +15,22 @@
 
 package org.openlmis.referencedata.service.export;
 
+import static java.util.Collections.emptyList;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_MAX_BATCHES_IN_FLIGHT;
+
+import com.google.common.collect.Lists;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -29,28 +40,51 @@ import org.openlmis.referencedata.dto.ImportResponseDto;
 import org.openlmis.referencedata.dto.ImportedUserItemDto;
 import org.openlmis.referencedata.dto.SaveBatchResultDto;
 import org.openlmis.referencedata.dto.UserDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.service.UserAuthService;
 import org.openlmis.referencedata.service.UserDetailsService;
 import org.openlmis.referencedata.service.UserService;
-import org.openlmis.referencedata.util.EasyBatchUtils;
 import org.openlmis.referencedata.util.FileHelper;
+import org.openlmis.referencedata.util.messagekeys.EasyBatchMessageKeys;
 import org.openlmis.referencedata.validate.UserImportValidator;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+/**
+ * Imports users in a pipeline of three stages: users are saved locally, then their contact
+ * details are sent to the notification service and finally their auth details are sent to the
+ * auth service. Each stage runs on its own executor with its own batch size, and a batch moves on
+ * to the next stage as soon as it leaves the previous one, so the remote stages of a batch overlap
+ * with the local stage of the next ones. Once a batch has passed all stages, the users that did
+ * not make it through are rolled back. Batches are pulled through the {@link ImportProgress}, so
+ * an import job can be cancelled or resumed between them.
+ */
 @Service(UserImportPersister.USER_FILE_NAME)
 public class UserImportPersister implements DataImportPersister<User, UserDto, UserDto> {
   public static final String USER_FILE_NAME = "user.csv";
 
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(UserImportPersister.class);
+
   @Autowired
   private FileHelper fileHelper;
 
   @Autowired
-  @Qualifier("importExecutorService")
-  private ExecutorService importExecutorService;
+  @Qualifier("userImportPersistExecutorService")
+  private ExecutorService persistExecutorService;
+
+  @Autowired
+  @Qualifier("userImportContactDetailsExecutorService")
+  private ExecutorService contactDetailsExecutorService;
+
+  @Autowired
+  @Qualifier("userImportAuthDetailsExecutorService")
+  private ExecutorService authDetailsExecutorService;
 
   @Autowired
   private UserDetailsService userDetailsService;
@@ -67,10 +101,27 @@ public class UserImportPersister implements DataImportPersister<User, UserDto, U
   @Autowired
   private UserImportRollback userImportRollback;
 
+  @Value("${referencedata.user.import.persist.batchSize}")
+  private int persistBatchSize;
+
+  @Value("${referencedata.user.import.contactDetails.batchSize}")
+  private int contactDetailsBatchSize;
+
+  @Value("${referencedata.user.import.authDetails.batchSize}")
+  private int authDetailsBatchSize;
+
   @Override
   public ImportResponseDto.ImportDetails processAndPersist(InputStream dataStream,
                                                            Profiler profiler)
       throws InterruptedException {
+    return processAndPersist(dataStream, profiler, ImportProgress.fromStart());
+  }
+
+  @Override
+  public ImportResponseDto.ImportDetails processAndPersist(InputStream dataStream,
+                                                           Profiler profiler,
+                                                           ImportProgress progress)
+      throws InterruptedException {
     profiler.start("READ CSV");
     List<UserDto> importedData = fileHelper.readCsv(UserDto.class, dataStream);
     UserImportValidator.validateFileEntries(importedData);
@@ -84,44 +135,126 @@ public class UserImportPersister implements DataImportPersister<User, UserDto, U
         .stream()
         .collect(Collectors.toMap(Facility::getCode, Function.identity(),
             (existing, replacement) -> existing));
-    List<ImportResponseDto.ErrorDetails> errors = new ArrayList<>();
-    List<UserDto> successResults = new EasyBatchUtils(importExecutorService)
-        .processInBatches(
-            importedData,
-            batch -> saveCompleteUsers(batch, importedData, errors, facilityMap)
-        );
+
+    profiler.start("SAVE USERS");
+    List<ImportResponseDto.ErrorDetails> errors = Collections.synchronizedList(new ArrayList<>());
+    Iterator<List<UserDto>> batches = progress.resume(
+        Lists.partition(importedData, persistBatchSize).iterator());
+    Deque<CompletableFuture<List<UserDto>>> inFlight = new ArrayDeque<>();
+    int processed = 0;
+    int successful = 0;
+
+    try {
+      // the next batch is pulled, and the import can be cancelled, only once the oldest batch
+      // has passed all stages
+      while (batches.hasNext()) {
+        if (inFlight.size() >= DEFAULT_MAX_BATCHES_IN_FLIGHT) {
+          successful += awaitAndReport(inFlight.poll(), progress);
+        }
+
+        List<UserDto> batch = batches.next();
+        processed += batch.size();
+        inFlight.add(saveCompleteUsers(batch, errors, facilityMap));
+      }
+
+      while (!inFlight.isEmpty()) {
+        successful += awaitAndReport(inFlight.poll(), progress);
+      }
+    } finally {
+      // if the import stops early, the batches still in flight are left to save their users
+      // and to roll back their inconsistent data before the import reports its failure
+      CompletableFuture
+          .allOf(inFlight.toArray(new CompletableFuture[0]))
+          .handle((result, failure) -> null)
+          .join();
+    }
 
     profiler.start("RETURN");
 
     return new ImportResponseDto.ImportDetails(
         USER_FILE_NAME,
         importedData.size(),
-        successResults.size(),
-        importedData.size() - successResults.size(),
-        errors
+        successful,
+        processed - successful,
+        new ArrayList<>(errors)
     );
   }
 
-  private List<UserDto> saveCompleteUsers(List<UserDto> batch, List<UserDto> importedDtos,
-                                          List<ImportResponseDto.ErrorDetails> errors,
-                                          Map<String, Facility> facilityMap) {
-    List<ImportedUserItemDto> userPersistResult = userService.saveUsersFromFile(batch, facilityMap);
-    SaveBatchResultDto<UserDto> contactDetailsBatchResult =
-        userDetailsService.saveUsersContactDetailsFromFile(
-            toUserDtos(userPersistResult), importedDtos);
-    errors.addAll(contactDetailsBatchResult.getErrors());
-    SaveBatchResultDto<UserDto> authDetailsBatchResult =
-        userAuthService.saveUserAuthDetailsFromFile(
-            contactDetailsBatchResult.getSuccessfulEntries());
-    errors.addAll(authDetailsBatchResult.getErrors());
-
-    UserImportResult userImportResult = new UserImportResult(
-        userPersistResult, contactDetailsBatchResult.getSuccessfulEntries(),
-        authDetailsBatchResult.getSuccessfulEntries());
-
-    userImportRollback.cleanupInconsistentData(userImportResult);
-
-    return authDetailsBatchResult.getSuccessfulEntries();
+  private CompletableFuture<List<UserDto>> saveCompleteUsers(List<UserDto> batch,
+      List<ImportResponseDto.ErrorDetails> errors, Map<String, Facility> facilityMap) {
+    return CompletableFuture
+        .supplyAsync(() -> userService.saveUsersFromFile(batch, facilityMap),
+            persistExecutorService)
+        .thenCompose(userPersistResult -> saveUsersDetails(batch, userPersistResult, errors));
+  }
+
+  private CompletableFuture<List<UserDto>> saveUsersDetails(List<UserDto> batch,
+      List<ImportedUserItemDto> userPersistResult, List<ImportResponseDto.ErrorDetails> errors) {
+    // the batch holds the file entries of all users persisted from it, so there is no need to
+    // search the whole file for their contact details
+    CompletableFuture<List<UserDto>> contactDetailsResult = saveInParts(
+        toUserDtos(userPersistResult), contactDetailsBatchSize,
+        part -> userDetailsService.saveUsersContactDetailsFromFile(part, batch),
+        contactDetailsExecutorService, errors);
+    CompletableFuture<List<UserDto>> authDetailsResult = contactDetailsResult
+        .thenCompose(contactDetails -> saveInParts(contactDetails, authDetailsBatchSize,
+            userAuthService::saveUserAuthDetailsFromFile, authDetailsExecutorService, errors));
+
+    return authDetailsResult.handleAsync((authDetails, failure) -> {
+      // if a stage failed, none of the new users of this batch is considered complete, so
+      // that all of them are removed rather than left without some of their details
+      userImportRollback.cleanupInconsistentData(null == failure
+          ? new UserImportResult(userPersistResult, contactDetailsResult.join(), authDetails)
+          : new UserImportResult(userPersistResult, emptyList(), emptyList()));
+
+      if (null != failure) {
+        throw failure instanceof CompletionException
+            ? (CompletionException) failure
+            : new CompletionException(failure);
+      }
+
+      return authDetails;
+    }, persistExecutorService);
+  }
+
+  private CompletableFuture<List<UserDto>> saveInParts(List<UserDto> users, int partSize,
+      Function<List<UserDto>, SaveBatchResultDto<UserDto>> save, ExecutorService executorService,
+      List<ImportResponseDto.ErrorDetails> errors) {
+    List<CompletableFuture<List<UserDto>>> parts = Lists
+        .partition(users, partSize)
+        .stream()
+        .map(part -> CompletableFuture
+            .supplyAsync(() -> save.apply(part), executorService)
+            .thenApply(result -> {
+              errors.addAll(result.getErrors());
+              return result.getSuccessfulEntries();
+            }))
+        .collect(Collectors.toList());
+
+    return CompletableFuture
+        .allOf(parts.toArray(new CompletableFuture[0]))
+        .thenApply(ignored -> parts
+            .stream()
+            .flatMap(part -> part.join().stream())
+            .collect(Collectors.toList()));
+  }
+
+  private int awaitAndReport(CompletableFuture<List<UserDto>> batch, ImportProgress progress)
+      throws InterruptedException {
+    int successful = await(batch).size();
+    progress.onBatchCompleted(successful);
+    return successful;
+  }
+
+  private List<UserDto> await(CompletableFuture<List<UserDto>> batch)
+      throws InterruptedException {
+    try {
+      return batch.get();
+    } catch (ExecutionException ee) {
+      XLOGGER.error("Failed to import batch of users", ee);
+      throw new ValidationMessageException(
+          ee, EasyBatchMessageKeys.ERROR_FAILED_TO_PROCESS_BATCH, ee.getMessage());
+    }
   }
 
   private List<UserDto> toUserDtos(List<ImportedUserItemDto> userPersistResult) {
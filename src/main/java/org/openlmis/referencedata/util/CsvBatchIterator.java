@@ -0,0 +1,86 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.util.messagekeys.MessageKeys;
+import org.openlmis.referencedata.web.csv.parser.CsvBeanReader;
+
+/**
+ * Reads a CSV file lazily, one batch of rows at a time. Only the batch being returned is held in
+ * memory. Counts the rows read so far, so callers can report the total once the file has been
+ * consumed.
+ *
+ * @param <T> the type each row is mapped to
+ */
+public class CsvBatchIterator<T> implements Iterator<List<T>> {
+
+  private final CsvBeanReader<T> reader;
+  private final int batchSize;
+
+  private T next;
+  private int rowCount;
+
+  CsvBatchIterator(CsvBeanReader<T> reader, int batchSize) {
+    this.reader = reader;
+    this.batchSize = batchSize;
+    this.next = readRow();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return null != next;
+  }
+
+  @Override
+  public List<T> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    List<T> batch = new ArrayList<>(batchSize);
+    while (null != next && batch.size() < batchSize) {
+      batch.add(next);
+      next = readRow();
+    }
+
+    return batch;
+  }
+
+  /**
+   * Returns the number of rows read so far.
+   */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  private T readRow() {
+    try {
+      T row = reader.readWithCellProcessors();
+      if (null != row) {
+        rowCount++;
+      }
+      return row;
+    } catch (IOException ex) {
+      throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
+    }
+  }
+}
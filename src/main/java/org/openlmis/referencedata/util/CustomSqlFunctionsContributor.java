@@ -0,0 +1,71 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.util;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers SQL functions that let JPQL and criteria queries filter by an arbitrary number of
+ * ids through a single array parameter, instead of expanding an IN list with one bind variable
+ * per element. Array parameters are passed as PostgreSQL array literals built with
+ * {@link #toArrayLiteral(Collection)}.
+ */
+public class CustomSqlFunctionsContributor implements MetadataBuilderContributor {
+
+  /**
+   * {@code identity_in_arrays(id, versionNumber, :ids, :versionNumbers)} - true if the
+   * (id, versionNumber) pair is one of the pairs built from the two parallel arrays.
+   */
+  public static final String IDENTITY_IN_ARRAYS = "identity_in_arrays";
+
+  /**
+   * {@code uuid_in_array(id, :ids)} - true if the id is an element of the array.
+   */
+  public static final String UUID_IN_ARRAY = "uuid_in_array";
+
+  @Override
+  public void contribute(MetadataBuilder metadataBuilder) {
+    metadataBuilder.applySqlFunction(IDENTITY_IN_ARRAYS,
+        new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN,
+            "((?1, ?2) IN (SELECT * FROM unnest(CAST(?3 AS uuid[]), CAST(?4 AS bigint[]))))"));
+    metadataBuilder.applySqlFunction(UUID_IN_ARRAY,
+        new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN,
+            "(?1 = ANY(CAST(?2 AS uuid[])))"));
+  }
+
+  /**
+   * Formats the given values as a PostgreSQL array literal, e.g. {@code {"a","b","c"}}. Every
+   * element is quoted, with backslashes and double quotes escaped, so the literal is valid for
+   * text arrays as well as for UUID and number arrays.
+   */
+  public static String toArrayLiteral(Collection<?> values) {
+    return values
+        .stream()
+        .map(Objects::toString)
+        .map(CustomSqlFunctionsContributor::quoteArrayElement)
+        .collect(Collectors.joining(",", "{", "}"));
+  }
+
+  private static String quoteArrayElement(String value) {
+    return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+  }
+}
@@ -18,13 +18,17 @@ package org.openlmis.referencedata.util;
 import static java.util.stream.Collectors.toList;
 
 import com.google.common.collect.Lists;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.util.messagekeys.EasyBatchMessageKeys;
 import org.slf4j.ext.XLogger;
@@ -32,6 +36,7 @@ import org.slf4j.ext.XLoggerFactory;
 
 public class EasyBatchUtils {
   public static final int DEFAULT_BATCH_SIZE = 1000;
+  public static final int DEFAULT_MAX_BATCHES_IN_FLIGHT = 4;
   private static final XLogger XLOGGER = XLoggerFactory.getXLogger(EasyBatchUtils.class);
 
   private final ExecutorService executorService;
@@ -81,15 +86,96 @@ public class EasyBatchUtils {
 
     final List<R> result = new ArrayList<>();
     for (Future<List<R>> invokedTask : executorService.invokeAll(toExecute)) {
-      try {
-        result.addAll(invokedTask.get());
-      } catch (ExecutionException ee) {
-        XLOGGER.error("Failed to run batch in EasyBatchUtils", ee);
-        throw new ValidationMessageException(
-            ee, EasyBatchMessageKeys.ERROR_FAILED_TO_PROCESS_BATCH, ee.getMessage());
+      result.addAll(await(invokedTask));
+    }
+
+    return result;
+  }
+
+  /**
+   * Execute {@code processBatch} on batches pulled from {@code batches}. At most {@code
+   * maxBatchesInFlight} batches are submitted and not yet completed at any time; the next batch is
+   * pulled only when the oldest submitted one has finished, so a lazily read source is never
+   * consumed faster than it is processed and only a bounded number of batches is held in memory.
+   * Processed items are counted, not collected.
+   *
+   * @param batches the source of batches to process
+   * @param processBatch the batch processor
+   * @param maxBatchesInFlight the maximum number of batches submitted and not yet completed
+   * @param <T> the type of item to process
+   * @param <R> the type of processed item
+   * @return the number of processed items
+   * @throws InterruptedException this blocking operation was interrupted
+   */
+  public <T, R> int processInBatches(
+      Iterator<List<T>> batches,
+      Function<List<T>, List<R>> processBatch,
+      int maxBatchesInFlight)
+      throws InterruptedException {
+    return processInBatches(batches, processBatch, maxBatchesInFlight, processed -> { });
+  }
+
+  /**
+   * Execute {@code processBatch} on batches pulled from {@code batches}, like {@link
+   * #processInBatches(Iterator, Function, int)}, and call {@code onBatchCompleted} with the number
+   * of processed items of each batch. Batches are reported on the calling thread, in the order
+   * they were pulled, so everything before a reported batch has been processed as well. An
+   * exception thrown by {@code onBatchCompleted} stops the processing and cancels the batches
+   * still in flight.
+   *
+   * @param batches the source of batches to process
+   * @param processBatch the batch processor
+   * @param maxBatchesInFlight the maximum number of batches submitted and not yet completed
+   * @param onBatchCompleted called with the number of processed items of each completed batch
+   * @param <T> the type of item to process
+   * @param <R> the type of processed item
+   * @return the number of processed items
+   * @throws InterruptedException this blocking operation was interrupted
+   */
+  public <T, R> int processInBatches(
+      Iterator<List<T>> batches,
+      Function<List<T>, List<R>> processBatch,
+      int maxBatchesInFlight,
+      IntConsumer onBatchCompleted)
+      throws InterruptedException {
+
+    final Deque<Future<List<R>>> inFlight = new ArrayDeque<>();
+    int result = 0;
+
+    try {
+      while (batches.hasNext()) {
+        if (inFlight.size() >= maxBatchesInFlight) {
+          result += awaitAndReport(inFlight.poll(), onBatchCompleted);
+        }
+
+        final List<T> batch = batches.next();
+        inFlight.add(executorService.submit(() -> processBatch.apply(batch)));
+      }
+
+      while (!inFlight.isEmpty()) {
+        result += awaitAndReport(inFlight.poll(), onBatchCompleted);
       }
+    } finally {
+      inFlight.forEach(future -> future.cancel(true));
     }
 
     return result;
   }
+
+  private <R> int awaitAndReport(Future<List<R>> future, IntConsumer onBatchCompleted)
+      throws InterruptedException {
+    final int processed = await(future).size();
+    onBatchCompleted.accept(processed);
+    return processed;
+  }
+
+  private <R> List<R> await(Future<List<R>> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException ee) {
+      XLOGGER.error("Failed to run batch in EasyBatchUtils", ee);
+      throw new ValidationMessageException(
+          ee, EasyBatchMessageKeys.ERROR_FAILED_TO_PROCESS_BATCH, ee.getMessage());
+    }
+  }
 }
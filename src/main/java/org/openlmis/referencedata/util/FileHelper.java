@@ -15,14 +15,13 @@
 
 package org.openlmis.referencedata.util;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -79,41 +78,108 @@ public class FileHelper {
   }
 
   /**
-   * Converts a multipart file containing a zip archive to a map of file names to input streams of
-   * the corresponding file contents.
+   * Opens a CSV stream for reading in batches of the given size. Rows are read and mapped only
+   * when the next batch is requested.
+   *
+   * @param clazz the class representing the target type for mapping CSV data
+   * @param csvStream the input stream containing the CSV data to be read
+   * @param batchSize the maximum number of rows in a batch
+   * @return an iterator over consecutive batches of rows
+   * @throws ValidationMessageException if an error occurs while reading the CSV headers or rows
+   */
+  public <T> CsvBatchIterator<T> readCsvInBatches(Class<T> clazz, InputStream csvStream,
+      int batchSize) {
+    try {
+      return new CsvBatchIterator<>(
+          new CsvBeanReader<>(new ModelClass<>(clazz), csvStream, validator),
+          batchSize);
+    } catch (IOException e) {
+      throw new ValidationMessageException(e, MessageKeys.ERROR_IO, e.getMessage());
+    }
+  }
+
+  /**
+   * Copies every file entry of a multipart ZIP archive to its own temporary file, reading the
+   * archive as a stream. The caller must close the returned object to delete the files.
    *
    * @param multipartFile the multipart file containing the zip archive
-   * @return a map of file names to input streams of the corresponding file contents
+   * @return the spooled entries, by entry name
    * @throws ValidationMessageException if an error occurs while reading the multipart file or
-   *                                    parsing the zip archive
+   *                                    parsing the zip archive, or if the archive is empty
    */
-  public Map<String, InputStream> convertMultipartFileToZipFileMap(
-          MultipartFile multipartFile) {
-    byte[] buffer = new byte[1024];
+  public SpooledZipEntries spoolZipEntries(MultipartFile multipartFile) {
+    SpooledZipEntries entries = new SpooledZipEntries();
 
     try (ZipInputStream zipInputStream = new ZipInputStream(multipartFile.getInputStream())) {
-      Map<String, InputStream> zipFileMap = new HashMap<>();
       ZipEntry zipEntry;
-      int bytesRead;
 
       while ((zipEntry = zipInputStream.getNextEntry()) != null) {
-        // Read bytes from zip file and write it to output stream
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        while ((bytesRead = zipInputStream.read(buffer)) != -1) {
-          outputStream.write(buffer, 0, bytesRead);
+        if (zipEntry.isDirectory()) {
+          continue;
         }
 
-        zipFileMap.put(zipEntry.getName(), new ByteArrayInputStream(outputStream.toByteArray()));
+        Path file = Files.createTempFile("referencedata-import-", ".csv");
+        entries.add(zipEntry.getName(), file);
+        Files.copy(zipInputStream, file, StandardCopyOption.REPLACE_EXISTING);
       }
+    } catch (IOException e) {
+      entries.close();
+      throw new ValidationMessageException(e, MessageKeys.ERROR_IO, e.getMessage());
+    }
 
-      if (zipFileMap.isEmpty()) {
-        throw new ValidationMessageException(MessageKeys.ERROR_IO, "Empty archive");
-      }
+    if (entries.isEmpty()) {
+      throw new ValidationMessageException(MessageKeys.ERROR_IO, "Empty archive");
+    }
 
-      return zipFileMap;
+    return entries;
+  }
+
+  /**
+   * Copies every file entry of a multipart ZIP archive to a file with the same name in the given
+   * directory, reading the archive as a stream. Entry names are validated before anything is
+   * written, so entries cannot be placed outside the directory. The files stay in the directory
+   * until the returned object is closed, so they can be opened again with
+   * {@link SpooledZipEntries#fromDirectory(Path)}.
+   *
+   * @param multipartFile the multipart file containing the zip archive
+   * @param expectedFileNames the names of entries allowed in the archive
+   * @param directory the directory to copy the entries to, created if it does not exist
+   * @return the spooled entries, by entry name
+   * @throws ValidationMessageException if an error occurs while reading the multipart file or
+   *                                    parsing the zip archive, if any entry has an unexpected
+   *                                    name or if the archive is empty
+   */
+  public SpooledZipEntries spoolZipEntries(MultipartFile multipartFile,
+      List<String> expectedFileNames, Path directory) {
+    SpooledZipEntries entries = new SpooledZipEntries();
+
+    try (ZipInputStream zipInputStream = new ZipInputStream(multipartFile.getInputStream())) {
+      Files.createDirectories(directory);
+      ZipEntry zipEntry;
+
+      while ((zipEntry = zipInputStream.getNextEntry()) != null) {
+        if (zipEntry.isDirectory()) {
+          continue;
+        }
+
+        validateCsvFile(zipEntry.getName(), expectedFileNames);
+        Path file = directory.resolve(zipEntry.getName());
+        entries.add(zipEntry.getName(), file);
+        Files.copy(zipInputStream, file, StandardCopyOption.REPLACE_EXISTING);
+      }
     } catch (IOException e) {
+      entries.close();
       throw new ValidationMessageException(e, MessageKeys.ERROR_IO, e.getMessage());
+    } catch (RuntimeException e) {
+      entries.close();
+      throw e;
+    }
+
+    if (entries.isEmpty()) {
+      throw new ValidationMessageException(MessageKeys.ERROR_IO, "Empty archive");
     }
+
+    return entries;
   }
 
   /**
@@ -147,6 +147,36 @@ public class Pagination {
     }
   }
 
+  /**
+   * Static method that hands whole pages of resources to the given action, one page at a time.
+   * The first pageable should define a stable sort so that consecutive pages do not overlap.
+   *
+   * @param data       function that will return data based on passed pageable instance.
+   * @param pageable   the first page to fetch; its size is used for all following pages.
+   * @param pageAction action that should be executed on content of each page.
+   * @param <T>        type of resource.
+   */
+  public static <T> void handlePages(Function<Pageable, Page<T>> data, Pageable pageable,
+                                     Consumer<List<T>> pageAction) {
+    Pageable current = pageable;
+
+    while (true) {
+      Page<T> page = data.apply(current);
+
+      if (null == page || !page.hasContent()) {
+        break;
+      }
+
+      pageAction.accept(page.getContent());
+
+      if (!page.hasNext()) {
+        break;
+      }
+
+      current = current.next();
+    }
+  }
+
   public static <T> Page<T> getEmptyPage(Pageable pageable) {
     return Pagination.getPage(Collections.emptyList(), pageable, 0);
   }
@@ -0,0 +1,134 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.util;
+
+import static java.util.Collections.singletonList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.openlmis.referencedata.domain.Identifiable;
+
+/**
+ * Resolves entities referenced by imported records in bulk. Keys referenced by a whole batch are
+ * collected up front and the ones not resolved before are loaded with a single query. Only ids of
+ * the found entities are remembered, so following batches of the same import only query for new
+ * keys, while keys that do not exist are queried again, as an earlier batch may have created them.
+ * Entities are returned as references created by the given factory, usually
+ * {@code EntityManager#getReference}, so that they belong to the transaction of the batch that
+ * uses them. An instance should not outlive a single import. It may be shared by batches
+ * processed concurrently.
+ *
+ * @param <K> type of the key an entity is referenced by, e.g. its code
+ * @param <E> type of the referenced entity
+ */
+public class ReferenceResolver<K, E extends Identifiable> {
+
+  private final Function<List<K>, ? extends Collection<? extends E>> loader;
+  private final Function<? super E, K> keyExtractor;
+  private final Function<UUID, ? extends E> referenceFactory;
+  private final Map<K, UUID> resolved = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new resolver.
+   *
+   * @param loader           loads entities with the given keys, usually a {@code findAllByCodeIn}
+   *                         repository method
+   * @param keyExtractor     returns the key of a loaded entity
+   * @param referenceFactory returns the entity with the given id in the current transaction
+   */
+  public ReferenceResolver(Function<List<K>, ? extends Collection<? extends E>> loader,
+      Function<? super E, K> keyExtractor, Function<UUID, ? extends E> referenceFactory) {
+    this.loader = loader;
+    this.keyExtractor = keyExtractor;
+    this.referenceFactory = referenceFactory;
+  }
+
+  /**
+   * Creates a resolver for records processed outside of a transaction, where references cannot
+   * be created. The loaded entities are kept and returned detached.
+   *
+   * @param loader       loads entities with the given keys, usually a {@code findAllByCodeIn}
+   *                     repository method
+   * @param keyExtractor returns the key of a loaded entity
+   */
+  public static <K, E extends Identifiable> ReferenceResolver<K, E> detached(
+      Function<List<K>, ? extends Collection<? extends E>> loader,
+      Function<? super E, K> keyExtractor) {
+    Map<UUID, E> loaded = new ConcurrentHashMap<>();
+
+    return new ReferenceResolver<>(
+        keys -> {
+          Collection<? extends E> entities = loader.apply(keys);
+          entities.forEach(entity -> loaded.put(entity.getId(), entity));
+          return entities;
+        },
+        keyExtractor, loaded::get);
+  }
+
+  /**
+   * Loads entities for all keys referenced by the given items that have not been resolved yet,
+   * using a single call of the loader.
+   */
+  public <T> void prefetch(Collection<T> items, Function<? super T, K> keyMapper) {
+    Set<K> missing = new LinkedHashSet<>();
+
+    for (T item : items) {
+      K key = null == item ? null : keyMapper.apply(item);
+
+      if (null != key && !resolved.containsKey(key)) {
+        missing.add(key);
+      }
+    }
+
+    load(missing);
+  }
+
+  /**
+   * Returns the entity with the given key. Keys that were not resolved yet are loaded on demand.
+   */
+  public Optional<E> find(K key) {
+    if (null == key) {
+      return Optional.empty();
+    }
+
+    UUID id = resolved.get(key);
+
+    if (null == id) {
+      load(singletonList(key));
+      id = resolved.get(key);
+    }
+
+    return Optional.ofNullable(id).map(referenceFactory::apply);
+  }
+
+  private void load(Collection<K> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    for (E entity : loader.apply(new ArrayList<>(keys))) {
+      resolved.put(keyExtractor.apply(entity), entity.getId());
+    }
+  }
+}
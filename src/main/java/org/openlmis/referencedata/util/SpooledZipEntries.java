@@ -0,0 +1,103 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Entries of an uploaded ZIP archive, each spooled to its own temporary file. Entries are opened
+ * as streams only when they are imported, so the archive is never held in memory. Closing this
+ * object deletes all temporary files.
+ */
+public class SpooledZipEntries implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SpooledZipEntries.class);
+
+  private final Map<String, Path> files = new LinkedHashMap<>();
+
+  /**
+   * Opens entries spooled to the given directory earlier, using file names as entry names.
+   *
+   * @param directory the directory the entries were spooled to
+   * @return the spooled entries, empty if the directory does not exist
+   * @throws IOException if the directory cannot be listed
+   */
+  public static SpooledZipEntries fromDirectory(Path directory) throws IOException {
+    SpooledZipEntries entries = new SpooledZipEntries();
+
+    if (Files.isDirectory(directory)) {
+      try (Stream<Path> files = Files.list(directory)) {
+        files
+            .filter(Files::isRegularFile)
+            .sorted()
+            .forEach(file -> entries.files.put(file.getFileName().toString(), file));
+      }
+    }
+
+    return entries;
+  }
+
+  void add(String name, Path file) {
+    Path replaced = files.put(name, file);
+    if (null != replaced) {
+      delete(replaced);
+    }
+  }
+
+  public Set<String> getNames() {
+    return files.keySet();
+  }
+
+  public boolean isEmpty() {
+    return files.isEmpty();
+  }
+
+  /**
+   * Opens the entry with the given name.
+   *
+   * @param name the name of the entry
+   * @return the stream with the entry contents, or null if the archive has no such entry
+   * @throws IOException if the spooled file cannot be opened
+   */
+  public InputStream open(String name) throws IOException {
+    Path file = files.get(name);
+    return null == file ? null : Files.newInputStream(file);
+  }
+
+  @Override
+  public void close() {
+    files.values().forEach(SpooledZipEntries::delete);
+    files.clear();
+  }
+
+  private static void delete(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException ex) {
+      LOGGER.warn("Could not delete spooled import file {}", file, ex);
+    }
+  }
+}
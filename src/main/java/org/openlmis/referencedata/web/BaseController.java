@@ -19,6 +19,7 @@ import static org.openlmis.referencedata.util.messagekeys.CsvUploadMessageKeys.E
 import static org.openlmis.referencedata.util.messagekeys.CsvUploadMessageKeys.ERROR_INCORRECT_FILE_FORMAT;
 import static org.openlmis.referencedata.web.BaseController.API_PATH;
 
+import java.math.BigDecimal;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -26,14 +27,14 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import javax.annotation.Resource;
-import org.apache.commons.lang3.StringUtils;
 import org.javers.core.Javers;
 import org.javers.core.changelog.SimpleTextChangeLog;
 import org.javers.core.diff.Change;
 import org.javers.core.json.JsonConverter;
-import org.javers.repository.jql.QueryBuilder;
 import org.openlmis.referencedata.domain.BaseEntity;
 import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.service.AuditLogService;
+import org.openlmis.referencedata.service.AuditLogService.AuditedChanges;
 import org.openlmis.referencedata.service.ObjectReferenceExpander;
 import org.openlmis.referencedata.service.RightService;
 import org.openlmis.referencedata.util.Message;
@@ -56,6 +57,7 @@ public abstract class BaseController {
   public static final DateTimeFormatter RFC_7231_FORMAT =
       DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss z").withZone(ZoneId.of("GMT"));
   public static final String API_PATH = "/api";
+  public static final String AUDIT_LOG_NEXT_BEFORE_HEADER = "X-Audit-Log-Next-Before";
 
   @Autowired
   protected RightService rightService;
@@ -63,6 +65,9 @@ public abstract class BaseController {
   @Resource(name = "javersProvider")
   private Javers javers;
 
+  @Autowired
+  private AuditLogService auditLogService;
+
   @Autowired
   private ObjectReferenceExpander objectReferenceExpander;
 
@@ -91,16 +96,30 @@ public abstract class BaseController {
     return Pagination.getPage(originalList, pageable, totalElements);
   }
 
+  /**
+   * Returns a page of the audit log. If there may be a next page, the id of the oldest commit on
+   * this one is returned in the {@link #AUDIT_LOG_NEXT_BEFORE_HEADER} header, to be passed as the
+   * before parameter of the request for the next page.
+   */
   protected ResponseEntity<String> getAuditLogResponse(Class type, UUID id, String author,
                                                        String changedPropertyName,
-                                                       Pageable page, boolean returnJson) {
-    String auditLogs = getAuditLog(type, id, author, changedPropertyName, page, returnJson);
+                                                       BigDecimal before, Pageable page,
+                                                       boolean returnJson) {
+    AuditedChanges changes = auditLogService
+        .findChanges(type, id, author, changedPropertyName, before, page);
+    String auditLogs = returnJson
+        ? javers.getJsonConverter().toJson(changes.getChanges())
+        : javers.processChangeList(changes.getChanges(), new SimpleTextChangeLog());
 
     MediaType contentType = returnJson ? MediaType.APPLICATION_JSON : MediaType.TEXT_PLAIN;
 
     HttpHeaders headers = new HttpHeaders();
     headers.setContentType(contentType);
 
+    if (null != changes.getNextBefore()) {
+      headers.set(AUDIT_LOG_NEXT_BEFORE_HEADER, changes.getNextBefore().toPlainString());
+    }
+
     return new ResponseEntity<>(auditLogs, headers, HttpStatus.OK);
   }
 
@@ -115,11 +134,11 @@ public abstract class BaseController {
    * See getAuditedChanges() for a list and explanation of the available parameters.
    */
   protected String getAuditLog(Class type, UUID id, String author, String changedPropertyName,
-                               Pageable page, boolean returnJson) {
+                               BigDecimal before, Pageable page, boolean returnJson) {
     if (returnJson) {
-      return getAuditLogJson(type, id, author, changedPropertyName, page);
+      return getAuditLogJson(type, id, author, changedPropertyName, before, page);
     } else {
-      return getAuditLogText(type, id, author, changedPropertyName, page);
+      return getAuditLogText(type, id, author, changedPropertyName, before, page);
     }
   }
 
@@ -128,11 +147,11 @@ public abstract class BaseController {
    * @param type The type of class for which we wish to retrieve historical changes.
    */
   protected String getAuditLogJson(Class type) {
-    return getAuditLogJson(type, null, null, null, null);
+    return getAuditLogJson(type, null, null, null, null, null);
   }
 
   protected String getAuditLogJson(Class type, UUID id) {
-    return getAuditLogJson(type, id, null, null, null);
+    return getAuditLogJson(type, id, null, null, null, null);
   }
 
   /**
@@ -145,11 +164,17 @@ public abstract class BaseController {
    *               If null or empty, changes are returned regardless of author.
    * @param changedPropertyName The name of the property about which changes should be returned.
    *               If null or empty, changes associated with any and all properties are returned.
+   * @param before The ID of a commit. Only changes made by older commits are returned.
+   *               If null, changes are returned starting from the newest one.
    * @param page A Pageable object with PageNumber and PageSize values used for pagination.
+   *             The page number is ignored if the before parameter is given.
    */
   protected String getAuditLogJson(Class type, UUID id, String author,
-                                     String changedPropertyName, Pageable page) {
-    List<Change> changes = getChangesByType(type, id, author, changedPropertyName, page);
+                                     String changedPropertyName, BigDecimal before,
+                                     Pageable page) {
+    List<Change> changes = auditLogService
+        .findChanges(type, id, author, changedPropertyName, before, page)
+        .getChanges();
     JsonConverter jsonConverter = javers.getJsonConverter();
     return jsonConverter.toJson(changes);
   }
@@ -160,7 +185,7 @@ public abstract class BaseController {
    * @param type The type of class for which we wish to retrieve historical changes.
    */
   protected String getAuditLogText(Class type) {
-    return getAuditLogText(type, null, null, null, null);
+    return getAuditLogText(type, null, null, null, null, null);
   }
 
   /**
@@ -170,7 +195,7 @@ public abstract class BaseController {
    *           If null, entries are returned regardless of their ID.
    */
   protected String getAuditLogText(Class type, UUID id) {
-    return getAuditLogText(type, id, null, null, null);
+    return getAuditLogText(type, id, null, null, null, null);
   }
 
   /**
@@ -178,8 +203,10 @@ public abstract class BaseController {
    * The available parameters and their means are the same as for the getChangesByClass() method.
    */
   protected String getAuditLogText(Class type, UUID id, String author,
-                                   String changedPropertyName, Pageable page) {
-    List<Change> changes = getChangesByType(type, id, author, changedPropertyName, page);
+                                   String changedPropertyName, BigDecimal before, Pageable page) {
+    List<Change> changes = auditLogService
+        .findChanges(type, id, author, changedPropertyName, before, page)
+        .getChanges();
     return javers.processChangeList(changes, new SimpleTextChangeLog());
   }
 
@@ -187,6 +214,11 @@ public abstract class BaseController {
     objectReferenceExpander.expandDto(dto, entity, expands);
   }
 
+  protected void expandDtos(List<?> dtos, List<? extends BaseEntity> entities,
+      Set<String> expands) {
+    objectReferenceExpander.expandDtos(dtos, entities, expands);
+  }
+
   protected ZonedDateTime parseHttpDateToZonedDateTime(String httpDate) {
     return ZonedDateTime.parse(httpDate, RFC_7231_FORMAT);
   }
@@ -205,39 +237,4 @@ public abstract class BaseController {
           bindingResult.getFieldError().getArguments()));
     }
   }
-
-  /*
-    Return JaVers changes for the specified type, optionally filtered by id, author, and property.
-  */
-  private List<Change> getChangesByType(Class type, UUID id, String author,
-                                        String changedPropertyName, Pageable page) {
-    QueryBuilder queryBuilder;
-
-    if (id != null) {
-      queryBuilder = QueryBuilder.byInstanceId(id, type);
-    } else {
-      queryBuilder = QueryBuilder.byClass(type);
-    }
-
-    int skip = Pagination.getPageNumber(page);
-    int limit = Pagination.getPageSize(page);
-
-    queryBuilder = queryBuilder.withNewObjectChanges(true).skip(skip).limit(limit);
-
-    if (StringUtils.isNotBlank(author)) {
-      queryBuilder = queryBuilder.byAuthor(author);
-    }
-    if (StringUtils.isNotBlank(changedPropertyName)) {
-      queryBuilder = queryBuilder.andProperty(changedPropertyName);
-    }
-
-    /* Depending on the business' preference, we can either use findSnapshots() or findChanges().
-       Whereas the former returns the entire state of the object as it was at each commit, the later
-       returns only the property and values which changed. */
-    List<Change> changes = javers.findChanges(queryBuilder.build());
-
-    changes.sort((o1, o2) -> -1 * o1.getCommitMetadata().get().getCommitDate()
-                                  .compareTo(o2.getCommitMetadata().get().getCommitDate()));
-    return changes;
-  }
 }
@@ -17,6 +17,7 @@ package org.openlmis.referencedata.web;
 
 import static org.openlmis.referencedata.domain.RightName.ORDERABLES_MANAGE;
 
+import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -28,12 +29,14 @@ import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.CommodityTypeRepository;
 import org.openlmis.referencedata.repository.TradeItemRepository;
+import org.openlmis.referencedata.service.FulfillmentDataChangedEvent;
 import org.openlmis.referencedata.util.Message;
 import org.openlmis.referencedata.util.Pagination;
 import org.openlmis.referencedata.util.messagekeys.CommodityTypeMessageKeys;
 import org.openlmis.referencedata.util.messagekeys.TradeItemMessageKeys;
 import org.openlmis.referencedata.validate.CommodityTypeValidator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -63,6 +66,9 @@ public class CommodityTypeController extends BaseController {
   @Autowired
   private CommodityTypeValidator validator;
 
+  @Autowired
+  private ApplicationEventPublisher applicationEventPublisher;
+
   /**
    * Add or update a commodity type.
    *
@@ -99,7 +105,11 @@ public class CommodityTypeController extends BaseController {
       commodityType.assignParent(parent);
     }
 
-    return CommodityTypeDto.newInstance(repository.save(commodityType));
+    CommodityType savedCommodityType = repository.save(commodityType);
+    applicationEventPublisher.publishEvent(
+        new FulfillmentDataChangedEvent(this, CommodityType.class));
+
+    return CommodityTypeDto.newInstance(savedCommodityType);
   }
 
   /**
@@ -143,6 +153,7 @@ public class CommodityTypeController extends BaseController {
 
     // update the trade items with new classifications
     tradeItemRepository.saveAll(tradeItems);
+    applicationEventPublisher.publishEvent(new FulfillmentDataChangedEvent(this, TradeItem.class));
   }
 
   /**
@@ -205,6 +216,7 @@ public class CommodityTypeController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
 
     rightService.checkAdminRight(ORDERABLES_MANAGE);
@@ -215,7 +227,7 @@ public class CommodityTypeController extends BaseController {
       throw new NotFoundException(CommodityTypeMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(CommodityType.class, id, author, changedPropertyName, page,
+    return getAuditLogResponse(CommodityType.class, id, author, changedPropertyName, before, page,
         returnJson);
   }
 }
@@ -16,6 +16,8 @@
 package org.openlmis.referencedata.web;
 
 import com.vividsolutions.jts.geom.Polygon;
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -25,6 +27,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletResponse;
 import lombok.NoArgsConstructor;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
@@ -104,6 +107,9 @@ public class FacilityController extends BaseController {
   @Autowired
   private FacilityBuilder facilityBuilder;
 
+  @Autowired
+  private StreamingPageWriter streamingPageWriter;
+
   /**
    * Allows creating new facilities. If the id is specified, it will be ignored.
    *
@@ -223,6 +229,7 @@ public class FacilityController extends BaseController {
           //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
           @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
                         boolean returnJson,
+          @RequestParam(name = "before", required = false) BigDecimal before,
           Pageable page) {
     Profiler profiler = new Profiler("GET_AUDIT_LOG");
     profiler.setLogger(XLOGGER);
@@ -234,7 +241,7 @@ public class FacilityController extends BaseController {
 
     profiler.start("GET_AUDIT_LOG");
     ResponseEntity<String> response = getAuditLogResponse(
-        Facility.class, id, author, changedPropertyName, page, returnJson
+        Facility.class, id, author, changedPropertyName, before, page, returnJson
     );
 
     profiler.stop().log();
@@ -421,6 +428,28 @@ public class FacilityController extends BaseController {
     return dto;
   }
 
+  /**
+   * Streams all facilities as a single page, batch by batch, without building the page in
+   * memory. Selected instead of {@link #getFacilities} when the client sends the
+   * {@value StreamingPageWriter#HEADER} header; requests with search params, paging or sorting
+   * are answered with a regular page, written in the same compact form.
+   *
+   * @param requestParams request parameters (id, code, name, zone, recurse).
+   * @param pageable      object used to encapsulate the pagination related values.
+   */
+  @GetMapping(value = RESOURCE_PATH, headers = StreamingPageWriter.HEADER_ENABLED)
+  @ResponseStatus(HttpStatus.OK)
+  public void streamFacilities(@RequestParam MultiValueMap<String, Object> requestParams,
+      Pageable pageable, HttpServletResponse response) throws IOException {
+    FacilitySearchParams params = new FacilitySearchParams(requestParams);
+
+    if (params.isEmpty() && streamingPageWriter.canStream(pageable)) {
+      streamingPageWriter.write(response, pageable, facilityService::forEachBasicFacilityBatch);
+    } else {
+      streamingPageWriter.write(response, getFacilities(requestParams, pageable));
+    }
+  }
+
   /**
    * Retrieves all Facilities with facilityCode similar to code parameter or facilityName similar to
    * name parameter.
@@ -17,6 +17,7 @@ package org.openlmis.referencedata.web;
 
 import static org.openlmis.referencedata.web.FacilityOperatorController.RESOURCE_PATH;
 
+import java.math.BigDecimal;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.FacilityOperator;
 import org.openlmis.referencedata.domain.RightName;
@@ -159,6 +160,7 @@ public class FacilityOperatorController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
 
     rightService.checkAdminRight(RightName.FACILITIES_MANAGE_RIGHT);
@@ -169,7 +171,7 @@ public class FacilityOperatorController extends BaseController {
       throw new NotFoundException(FacilityOperatorMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(FacilityOperator.class, id, author, changedPropertyName, page,
-        returnJson);
+    return getAuditLogResponse(FacilityOperator.class, id, author, changedPropertyName, before,
+        page, returnJson);
   }
 }
@@ -142,6 +142,13 @@ public final class FacilitySearchParams implements FacilityRepositoryCustom.Sear
     return queryParams.getUuids(ID);
   }
 
+  /**
+   * Check if all params are empty.
+   */
+  public boolean isEmpty() {
+    return queryParams.isEmpty();
+  }
+
   /**
    * Checks if query params are valid. Returns false if any provided param is not on supported list.
    */
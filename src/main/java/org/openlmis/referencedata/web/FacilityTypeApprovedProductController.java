@@ -18,6 +18,7 @@ package org.openlmis.referencedata.web;
 import static org.openlmis.referencedata.domain.RightName.FACILITY_APPROVED_ORDERABLES_MANAGE;
 import static org.openlmis.referencedata.web.FacilityTypeApprovedProductController.RESOURCE_PATH;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -318,6 +319,7 @@ public class FacilityTypeApprovedProductController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
 
     rightService.checkAdminRight(FACILITY_APPROVED_ORDERABLES_MANAGE);
@@ -331,7 +333,7 @@ public class FacilityTypeApprovedProductController extends BaseController {
     }
 
     return getAuditLogResponse(
-        FacilityTypeApprovedProduct.class, id, author, changedPropertyName, page, returnJson
+        FacilityTypeApprovedProduct.class, id, author, changedPropertyName, before, page, returnJson
     );
   }
 
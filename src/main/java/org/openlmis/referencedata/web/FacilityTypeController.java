@@ -17,7 +17,9 @@ package org.openlmis.referencedata.web;
 
 import static org.openlmis.referencedata.web.FacilityTypeController.RESOURCE_PATH;
 
+import java.math.BigDecimal;
 import java.util.UUID;
+import org.openlmis.referencedata.cache.ReadThroughCache;
 import org.openlmis.referencedata.domain.FacilityType;
 import org.openlmis.referencedata.domain.RightName;
 import org.openlmis.referencedata.exception.IntegrityViolationException;
@@ -58,6 +60,9 @@ public class FacilityTypeController extends BaseController {
   @Autowired
   private FacilityTypeRepository facilityTypeRepository;
 
+  @Autowired
+  private ReadThroughCache<FacilityType> facilityTypeCache;
+
   @Autowired
   private FacilityTypeService facilityTypeService;
 
@@ -137,12 +142,9 @@ public class FacilityTypeController extends BaseController {
   @ResponseBody
   public FacilityType getFacilityType(@PathVariable("id") UUID facilityTypeId) {
 
-    FacilityType facilityType = facilityTypeRepository.findById(facilityTypeId).orElse(null);
-    if (facilityType == null) {
-      throw new NotFoundException(FacilityTypeMessageKeys.ERROR_NOT_FOUND);
-    } else {
-      return facilityType;
-    }
+    return facilityTypeCache
+        .get(facilityTypeId, facilityTypeRepository::findById)
+        .orElseThrow(() -> new NotFoundException(FacilityTypeMessageKeys.ERROR_NOT_FOUND));
   }
 
   /**
@@ -187,6 +189,7 @@ public class FacilityTypeController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
 
     rightService.checkAdminRight(RightName.FACILITIES_MANAGE_RIGHT);
@@ -197,7 +200,7 @@ public class FacilityTypeController extends BaseController {
       throw new NotFoundException(FacilityTypeMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(FacilityType.class, id, author, changedPropertyName, page,
+    return getAuditLogResponse(FacilityType.class, id, author, changedPropertyName, before, page,
         returnJson);
   }
 }
@@ -18,6 +18,7 @@ package org.openlmis.referencedata.web;
 import static org.openlmis.referencedata.domain.RightName.GEOGRAPHIC_ZONES_MANAGE_RIGHT;
 import static org.openlmis.referencedata.web.GeographicLevelController.RESOURCE_PATH;
 
+import java.math.BigDecimal;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.GeographicLevel;
 import org.openlmis.referencedata.exception.NotFoundException;
@@ -162,6 +163,7 @@ public class GeographicLevelController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
 
     rightService.checkAdminRight(GEOGRAPHIC_ZONES_MANAGE_RIGHT);
@@ -172,7 +174,7 @@ public class GeographicLevelController extends BaseController {
       throw new NotFoundException(GeographicLevelMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(GeographicLevel.class, id, author, changedPropertyName, page,
+    return getAuditLogResponse(GeographicLevel.class, id, author, changedPropertyName, before, page,
         returnJson);
   }
 }
@@ -16,6 +16,7 @@
 package org.openlmis.referencedata.web;
 
 import com.vividsolutions.jts.geom.Point;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -313,6 +314,7 @@ public class GeographicZoneController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
     Profiler profiler = new Profiler("GET_AUDIT_LOG_OF_GEO_ZONE");
     profiler.setLogger(XLOGGER);
@@ -329,7 +331,7 @@ public class GeographicZoneController extends BaseController {
 
     profiler.start("GET_AUDIT_LOG");
     ResponseEntity<String> response = getAuditLogResponse(
-        GeographicZone.class, id, author, changedPropertyName, page, returnJson
+        GeographicZone.class, id, author, changedPropertyName, before, page, returnJson
     );
 
     profiler.stop().log();
@@ -166,13 +166,17 @@ public class IdealStockAmountController extends BaseController {
    * Uploads csv file and converts to domain object.
    *
    * @param file File in ".csv" format to upload.
+   * @param bulk  whether the file should be copied straight to the database instead of being
+   *              processed row by row.
    * @return number of uploaded records
    */
   @PostMapping(value = RESOURCE_PATH, params = FORMAT)
   @ResponseBody
   @ResponseStatus(HttpStatus.OK)
   public UploadResultDto upload(@RequestParam(FORMAT) String format,
-                                @RequestPart("file") MultipartFile file) {
+                                @RequestPart("file") MultipartFile file,
+                                @RequestParam(value = "bulk", defaultValue = "false")
+                                    boolean bulk) {
     Profiler profiler = new Profiler("UPLOAD_IDEAL_STOCK_AMOUNTS");
     profiler.setLogger(LOGGER);
 
@@ -188,6 +192,17 @@ public class IdealStockAmountController extends BaseController {
     validateCsvFile(file);
     ModelClass modelClass = new ModelClass(IdealStockAmountCsvModel.class);
 
+    if (bulk) {
+      profiler.start("BULK_IMPORT_FILE");
+      try {
+        return new UploadResultDto(service.bulkImport(file.getInputStream()));
+      } catch (IOException ex) {
+        throw new ValidationMessageException(ex, MessageKeys.ERROR_IO, ex.getMessage());
+      } finally {
+        profiler.stop().log();
+      }
+    }
+
     profiler.start("PARSE_FILE");
     try {
       int result = csvParser.parse(file.getInputStream(), modelClass, csvHeaderValidator,
@@ -17,6 +17,7 @@ package org.openlmis.referencedata.web;
 
 import static org.openlmis.referencedata.domain.RightName.LOTS_MANAGE;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -204,6 +205,7 @@ public class LotController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
 
     rightService.checkAdminRight(LOTS_MANAGE);
@@ -214,7 +216,8 @@ public class LotController extends BaseController {
       throw new NotFoundException(LotMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(Lot.class, id, author, changedPropertyName, page, returnJson);
+    return getAuditLogResponse(Lot.class, id, author, changedPropertyName, before, page,
+        returnJson);
   }
 
   private LotDto exportToDto(Lot lot) {
@@ -17,11 +17,14 @@ package org.openlmis.referencedata.web;
 
 import static org.openlmis.referencedata.domain.RightName.ORDERABLES_MANAGE;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.referencedata.domain.Orderable;
 import org.openlmis.referencedata.dto.OrderableDto;
@@ -32,6 +35,7 @@ import org.openlmis.referencedata.extension.point.ExtensionPointId;
 import org.openlmis.referencedata.extension.point.OrderableCreatePostProcessor;
 import org.openlmis.referencedata.extension.point.OrderableUpdatePostProcessor;
 import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.service.FulfillmentDataChangedEvent;
 import org.openlmis.referencedata.service.OrderableService;
 import org.openlmis.referencedata.util.OrderableBuilder;
 import org.openlmis.referencedata.util.Pagination;
@@ -42,6 +46,7 @@ import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
@@ -74,6 +79,7 @@ public class OrderableController extends BaseController {
   private static final String CODE = "code";
   private static final String EXACT_CODE = "exactCode";
   private static final String PROGRAM_CODE = "program";
+  static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
 
   @Autowired
   private OrderableRepository repository;
@@ -90,6 +96,12 @@ public class OrderableController extends BaseController {
   @Autowired
   private ExtensionManager extensionManager;
 
+  @Autowired
+  private ApplicationEventPublisher applicationEventPublisher;
+
+  @Autowired
+  private StreamingPageWriter streamingPageWriter;
+
   /**
    * Create an orderable.
    *
@@ -115,6 +127,7 @@ public class OrderableController extends BaseController {
 
     profiler.start("SAVE_ORDERABLE");
     repository.save(orderable);
+    applicationEventPublisher.publishEvent(new FulfillmentDataChangedEvent(this, Orderable.class));
 
     OrderableCreatePostProcessor orderableCreatePostProcessor = extensionManager.getExtension(
         ExtensionPointId.ORDERABLE_CREATE_POST_POINT_ID, OrderableCreatePostProcessor.class);
@@ -158,6 +171,7 @@ public class OrderableController extends BaseController {
 
     Orderable savedOrderable = repository
         .save(orderableBuilder.newOrderable(orderableDto, foundOrderable));
+    applicationEventPublisher.publishEvent(new FulfillmentDataChangedEvent(this, Orderable.class));
 
     OrderableUpdatePostProcessor orderableUpdatePostProcessor = extensionManager.getExtension(
         ExtensionPointId.ORDERABLE_UPDATE_POST_POINT_ID, OrderableUpdatePostProcessor.class);
@@ -225,6 +239,61 @@ public class OrderableController extends BaseController {
     }
   }
 
+  /**
+   * Streams the latest versions of all orderables as newline-delimited JSON, one orderable per
+   * line. Selected instead of {@link #findAll} when the client accepts only
+   * {@code application/x-ndjson}; meant for integrations that pull the whole catalog, which is
+   * written out batch by batch rather than built as a single page in memory.
+   */
+  @GetMapping(value = RESOURCE_PATH, produces = NDJSON_MEDIA_TYPE)
+  @ResponseStatus(HttpStatus.OK)
+  public void exportAll(HttpServletResponse response) throws IOException {
+    XLOGGER.entry();
+    response.setContentType(NDJSON_MEDIA_TYPE);
+    orderableService.exportLatestOrderables(response.getOutputStream());
+    XLOGGER.exit();
+  }
+
+  /**
+   * Streams the latest versions of all orderables as a single page, batch by batch, without
+   * building the page in memory. Selected instead of {@link #findAll} when the client sends the
+   * {@value StreamingPageWriter#HEADER} header; requests with search params, paging or sorting
+   * are answered as by {@link #findAll}, written in the same compact form.
+   */
+  @GetMapping(value = RESOURCE_PATH, headers = StreamingPageWriter.HEADER_ENABLED)
+  public void streamAll(
+      @RequestParam MultiValueMap<String, Object> queryParams,
+      @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedDate,
+      Pageable pageable, HttpServletResponse response) throws IOException {
+    QueryOrderableSearchParams searchParams = new QueryOrderableSearchParams(queryParams);
+
+    if (!searchParams.isEmpty() || !streamingPageWriter.canStream(pageable)) {
+      streamingPageWriter.write(response, findAll(queryParams, ifModifiedDate, pageable));
+      return;
+    }
+
+    Profiler profiler = new Profiler("ORDERABLES_STREAM");
+    profiler.setLogger(XLOGGER);
+
+    ZonedDateTime lastUpdated = orderableService.getLatestLastUpdatedDate(searchParams, profiler);
+
+    if (null != lastUpdated) {
+      response.setDateHeader(HttpHeaders.LAST_MODIFIED,
+          lastUpdated.toInstant().toEpochMilli());
+
+      if (null != ifModifiedDate
+          && !wasModifiedSince(lastUpdated, parseHttpDateToZonedDateTime(ifModifiedDate))) {
+        profiler.stop().log();
+        response.setStatus(HttpStatus.NOT_MODIFIED.value());
+        return;
+      }
+    }
+
+    profiler.start("WRITE_BATCHES");
+    streamingPageWriter.write(response, pageable, orderableService::forEachLatestOrderableBatch);
+    profiler.stop().log();
+  }
+
   /**
    * Search orderables by search criteria.
    *
@@ -337,6 +406,7 @@ public class OrderableController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
       boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
 
     rightService.checkAdminRight(ORDERABLES_MANAGE);
@@ -346,7 +416,8 @@ public class OrderableController extends BaseController {
       throw new NotFoundException(OrderableMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(Orderable.class, id, author, changedPropertyName, page, returnJson);
+    return getAuditLogResponse(Orderable.class, id, author, changedPropertyName, before, page,
+        returnJson);
   }
 
   private HttpHeaders buildLastModifiedHeader(ZonedDateTime lastUpdated) {
@@ -18,6 +18,7 @@ package org.openlmis.referencedata.web;
 import static org.openlmis.referencedata.domain.RightName.ORDERABLES_MANAGE;
 import static org.openlmis.referencedata.dto.OrderableDisplayCategoryDto.newInstance;
 
+import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.Code;
@@ -196,6 +197,7 @@ public class OrderableDisplayCategoryController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
 
     rightService.checkAdminRight(ORDERABLES_MANAGE);
@@ -208,7 +210,7 @@ public class OrderableDisplayCategoryController extends BaseController {
     }
 
     return getAuditLogResponse(
-        OrderableDisplayCategory.class, id, author, changedPropertyName, page, returnJson
+        OrderableDisplayCategory.class, id, author, changedPropertyName, before, page, returnJson
     );
   }
 
@@ -18,27 +18,20 @@ package org.openlmis.referencedata.web;
 import static org.openlmis.referencedata.web.OrderableFulfillController.RESOURCE_PATH;
 
 import com.google.common.collect.Maps;
-import java.util.List;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import org.openlmis.referencedata.domain.CommodityType;
 import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
-import org.openlmis.referencedata.domain.Orderable;
-import org.openlmis.referencedata.domain.TradeItem;
-import org.openlmis.referencedata.repository.CommodityTypeRepository;
 import org.openlmis.referencedata.repository.FacilityTypeApprovedProductRepository;
-import org.openlmis.referencedata.repository.OrderableRepository;
-import org.openlmis.referencedata.repository.TradeItemRepository;
-import org.openlmis.referencedata.util.EntityCollection;
 import org.openlmis.referencedata.util.Pagination;
+import org.openlmis.referencedata.web.OrderableFulfillIndex.IndexedOrderable;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.transaction.annotation.Transactional;
@@ -60,17 +53,11 @@ public class OrderableFulfillController extends BaseController {
   public static final String RESOURCE_PATH = API_PATH + "/orderableFulfills";
 
   @Autowired
-  private OrderableRepository orderableRepository;
+  private OrderableFulfillIndex orderableFulfillIndex;
 
   @Autowired
   private OrderableFulfillFactory orderableFulfillFactory;
 
-  @Autowired
-  private TradeItemRepository tradeItemRepository;
-
-  @Autowired
-  private CommodityTypeRepository commodityTypeRepository;
-
   @Autowired
   private FacilityTypeApprovedProductRepository ftapRepository;
 
@@ -92,34 +79,20 @@ public class OrderableFulfillController extends BaseController {
 
     Set<UUID> ids = getOrderableIds(searchParams, profiler);
 
-    profiler.start("FIND_ALL_TRADE_ITEMS_AND_COMMODITY_TYPES");
-    EntityCollection<TradeItem> tradeItems = new EntityCollection<>(tradeItemRepository.findAll());
-    EntityCollection<CommodityType> commodityTypes
-        = new EntityCollection<>(commodityTypeRepository.findAll());
-
     profiler.start("GET_ORDERABLES");
-    List<Orderable> orderables = getOrderables(ids);
+    Collection<IndexedOrderable> orderables = orderableFulfillIndex.getLatestOrderables(ids);
 
     profiler.start("CONVERT_TO_ORDERABLE_FULFILLS");
     Map<UUID, OrderableFulfill> map = Maps.newHashMap();
-    orderables.forEach(orderable -> addEntry(map, orderable, tradeItems, commodityTypes));
+    orderables.forEach(orderable -> addEntry(map, orderable));
 
     profiler.stop().log();
     return map;
   }
 
-  private List<Orderable> getOrderables(Set<UUID> ids) {
-    Page<Orderable> pageWithAllOrderables = ids.isEmpty()
-        ? orderableRepository.findAllLatest(noPaginationRequest)
-        : orderableRepository.findAllLatestByIds(ids, noPaginationRequest);
-    return pageWithAllOrderables.getContent();
-  }
-
-  private void addEntry(Map<UUID, OrderableFulfill> map, Orderable orderable,
-                        EntityCollection<TradeItem> tradeItems,
-                        EntityCollection<CommodityType> commodityTypes) {
+  private void addEntry(Map<UUID, OrderableFulfill> map, IndexedOrderable orderable) {
     Optional
-        .ofNullable(orderableFulfillFactory.createFor(orderable, tradeItems, commodityTypes))
+        .ofNullable(orderableFulfillFactory.createFor(orderable))
         .ifPresent(resource -> map.put(orderable.getId(), resource));
   }
 
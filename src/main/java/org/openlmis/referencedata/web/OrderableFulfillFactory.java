@@ -21,14 +21,10 @@ import static org.openlmis.referencedata.domain.Orderable.TRADE_ITEM;
 
 import com.google.common.collect.Lists;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
-import org.openlmis.referencedata.domain.BaseEntity;
-import org.openlmis.referencedata.domain.CommodityType;
 import org.openlmis.referencedata.domain.Dispensable;
-import org.openlmis.referencedata.domain.Orderable;
-import org.openlmis.referencedata.domain.TradeItem;
-import org.openlmis.referencedata.repository.OrderableRepository;
-import org.openlmis.referencedata.util.EntityCollection;
+import org.openlmis.referencedata.web.OrderableFulfillIndex.IndexedOrderable;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
@@ -41,13 +37,13 @@ public class OrderableFulfillFactory {
   private static final XLogger XLOGGER = XLoggerFactory.getXLogger(OrderableFulfillFactory.class);
 
   @Autowired
-  private OrderableRepository orderableRepository;
+  private OrderableFulfillIndex orderableFulfillIndex;
 
   /**
-   * Create new instance of {@link OrderableFulfill} for the given orderable.
+   * Create new instance of {@link OrderableFulfill} for the given orderable. Relations are
+   * resolved from the {@link OrderableFulfillIndex} without touching the database.
    */
-  public OrderableFulfill createFor(Orderable orderable, EntityCollection<TradeItem> tradeItems,
-                                    EntityCollection<CommodityType> commodityTypes) {
+  public OrderableFulfill createFor(IndexedOrderable orderable) {
     Profiler profiler = new Profiler("CREATE_ORDERABLE_FULFILL");
     profiler.setLogger(XLOGGER);
     profiler.start("GET_IDENTIFIERS");
@@ -56,60 +52,51 @@ public class OrderableFulfillFactory {
 
     OrderableFulfill result = null;
     if (isNotBlank(tradeItemId)) {
-      result = createForTradeItem(tradeItems, commodityTypes, tradeItemId, orderable, profiler);
+      result = createForTradeItem(tradeItemId, orderable, profiler);
     } else if (isNotBlank(commodityTypeId)) {
-      result = createForCommodityType(tradeItems, commodityTypes, commodityTypeId, orderable,
-          profiler);
+      result = createForCommodityType(commodityTypeId, orderable, profiler);
     }
 
     profiler.stop().log();
     return result;
   }
 
-  private OrderableFulfill createForTradeItem(EntityCollection<TradeItem> tradeItems,
-      EntityCollection<CommodityType> commodityTypes, String id,
-      Orderable tradeItemOrderable, Profiler profiler) {
-    profiler.start("FETCH_TRADE_ITEM");
-    TradeItem tradeItem = tradeItems.getById(UUID.fromString(id));
+  private OrderableFulfill createForTradeItem(String id, IndexedOrderable tradeItemOrderable,
+      Profiler profiler) {
+    profiler.start("FETCH_COMMODITY_TYPES");
+    Set<UUID> commodityTypeIds = orderableFulfillIndex
+        .getCommodityTypesFulfilledBy(UUID.fromString(id));
 
     profiler.start("CREATE_ORDERABLE_FULFILL_FOR_TRADE_ITEM");
     List<UUID> canBeFulfilledByMe = Lists.newArrayList();
-    commodityTypes.values().forEach(
-        commodityType -> {
-          if (tradeItem.canFulfill(commodityType)) {
-            addToListIfDispensableMatches(canBeFulfilledByMe, COMMODITY_TYPE, commodityType,
-                tradeItemOrderable.getDispensable());
-          }
-        }
+    commodityTypeIds.forEach(
+        commodityTypeId -> addToListIfDispensableMatches(canBeFulfilledByMe, COMMODITY_TYPE,
+            commodityTypeId, tradeItemOrderable.getDispensable())
     );
 
     return OrderableFulfill.ofTradeItem(canBeFulfilledByMe);
   }
 
-  private OrderableFulfill createForCommodityType(EntityCollection<TradeItem> tradeItems,
-      EntityCollection<CommodityType> commodityTypes, String id,
-      Orderable commodityTypeOrderable, Profiler profiler) {
-    profiler.start("FETCH_COMMODITY_TYPE");
-    CommodityType commodityType = commodityTypes.getById(UUID.fromString(id));
+  private OrderableFulfill createForCommodityType(String id,
+      IndexedOrderable commodityTypeOrderable, Profiler profiler) {
+    profiler.start("FETCH_TRADE_ITEMS");
+    Set<UUID> tradeItemIds = orderableFulfillIndex
+        .getTradeItemsFulfilling(UUID.fromString(id));
 
     profiler.start("CREATE_ORDERABLE_FULFILL_FOR_COMMODITY_TYPE");
     List<UUID> canFulfillForMe = Lists.newArrayList();
-    tradeItems.values().forEach(
-        tradeItem -> {
-          if (tradeItem.canFulfill(commodityType)) {
-            addToListIfDispensableMatches(canFulfillForMe, TRADE_ITEM, tradeItem,
-                commodityTypeOrderable.getDispensable());
-          }
-        }
+    tradeItemIds.forEach(
+        tradeItemId -> addToListIfDispensableMatches(canFulfillForMe, TRADE_ITEM,
+            tradeItemId, commodityTypeOrderable.getDispensable())
     );
 
     return OrderableFulfill.ofCommodityType(canFulfillForMe);
   }
 
-  private void addToListIfDispensableMatches(List<UUID> list, String key, BaseEntity entity,
+  private void addToListIfDispensableMatches(List<UUID> list, String key, UUID entityId,
                                              Dispensable dispensableToMatch) {
-    List<Orderable> orderables = orderableRepository
-        .findAllLatestByIdentifier(key, entity.getId().toString());
+    List<IndexedOrderable> orderables = orderableFulfillIndex
+        .getLatestOrderablesByIdentifier(key, entityId.toString());
 
     orderables.forEach(
         item -> {
@@ -0,0 +1,327 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.web;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.openlmis.referencedata.cache.NearCacheInvalidator;
+import org.openlmis.referencedata.domain.CommodityType;
+import org.openlmis.referencedata.domain.Dispensable;
+import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.domain.TradeItem;
+import org.openlmis.referencedata.domain.TradeItemClassification;
+import org.openlmis.referencedata.repository.CommodityTypeRepository;
+import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.repository.TradeItemRepository;
+import org.openlmis.referencedata.service.FulfillmentDataChangedEvent;
+import org.openlmis.referencedata.util.Pagination;
+import org.slf4j.ext.XLogger;
+import org.slf4j.ext.XLoggerFactory;
+import org.slf4j.profiler.Profiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory fulfillment graph used by the /orderableFulfills endpoint. It keeps two independent
+ * parts: the trade item / commodity type relation (matched by classification) and the latest
+ * orderables keyed by id and by their trade item / commodity type identifiers. Each part is
+ * built lazily on first use and dropped when a {@link FulfillmentDataChangedEvent} for the
+ * corresponding type is committed. The drop is broadcast through the {@link NearCacheInvalidator},
+ * so that the other instances of the service drop their part as well.
+ */
+@Component
+public class OrderableFulfillIndex {
+
+  private static final XLogger XLOGGER = XLoggerFactory.getXLogger(OrderableFulfillIndex.class);
+
+  static final String GRAPH_INVALIDATION = "orderableFulfillIndex.graph";
+  static final String CATALOG_INVALIDATION = "orderableFulfillIndex.catalog";
+
+  @Autowired
+  private OrderableRepository orderableRepository;
+
+  @Autowired
+  private TradeItemRepository tradeItemRepository;
+
+  @Autowired
+  private CommodityTypeRepository commodityTypeRepository;
+
+  @Autowired
+  private NearCacheInvalidator nearCacheInvalidator;
+
+  private final Object graphLock = new Object();
+  private final Object catalogLock = new Object();
+
+  private volatile FulfillmentGraph graph;
+  private volatile OrderableCatalog catalog;
+
+  /**
+   * Subscribes to the drops broadcast by the other instances.
+   */
+  @PostConstruct
+  public void registerInvalidations() {
+    nearCacheInvalidator.register(GRAPH_INVALIDATION, ignored -> dropGraph());
+    nearCacheInvalidator.register(CATALOG_INVALIDATION, ignored -> dropCatalog());
+  }
+
+  /**
+   * Drops the part of the index affected by a committed write, on this and on the other
+   * instances, so that the next read rebuilds it from the database.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onFulfillmentDataChanged(FulfillmentDataChangedEvent event) {
+    if (event.isOrderableChange()) {
+      dropCatalog();
+      nearCacheInvalidator.broadcast(CATALOG_INVALIDATION, null);
+    } else {
+      dropGraph();
+      nearCacheInvalidator.broadcast(GRAPH_INVALIDATION, null);
+    }
+  }
+
+  /**
+   * Returns the latest versions of orderables with the given ids. If the set of ids is empty,
+   * all latest orderables are returned.
+   */
+  @Transactional(readOnly = true)
+  public Collection<IndexedOrderable> getLatestOrderables(Set<UUID> ids) {
+    OrderableCatalog current = getCatalog();
+
+    if (ids.isEmpty()) {
+      return current.byId.values();
+    }
+
+    return ids
+        .stream()
+        .map(current.byId::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the latest versions of orderables that have the given identifier.
+   */
+  @Transactional(readOnly = true)
+  public List<IndexedOrderable> getLatestOrderablesByIdentifier(String key, String value) {
+    return getCatalog()
+        .byIdentifier
+        .getOrDefault(key, emptyMap())
+        .getOrDefault(value, emptyList());
+  }
+
+  /**
+   * Returns ids of commodity types the given trade item can fulfill.
+   */
+  @Transactional(readOnly = true)
+  public Set<UUID> getCommodityTypesFulfilledBy(UUID tradeItemId) {
+    return getGraph().commodityTypesByTradeItem.getOrDefault(tradeItemId, emptySet());
+  }
+
+  /**
+   * Returns ids of trade items that can fulfill the given commodity type.
+   */
+  @Transactional(readOnly = true)
+  public Set<UUID> getTradeItemsFulfilling(UUID commodityTypeId) {
+    return getGraph().tradeItemsByCommodityType.getOrDefault(commodityTypeId, emptySet());
+  }
+
+  private FulfillmentGraph getGraph() {
+    FulfillmentGraph current = graph;
+
+    if (null == current) {
+      synchronized (graphLock) {
+        current = graph;
+        if (null == current) {
+          current = buildGraph();
+          graph = current;
+        }
+      }
+    }
+
+    return current;
+  }
+
+  private void dropGraph() {
+    synchronized (graphLock) {
+      graph = null;
+    }
+  }
+
+  private void dropCatalog() {
+    synchronized (catalogLock) {
+      catalog = null;
+    }
+  }
+
+  private OrderableCatalog getCatalog() {
+    OrderableCatalog current = catalog;
+
+    if (null == current) {
+      synchronized (catalogLock) {
+        current = catalog;
+        if (null == current) {
+          current = buildCatalog();
+          catalog = current;
+        }
+      }
+    }
+
+    return current;
+  }
+
+  private FulfillmentGraph buildGraph() {
+    Profiler profiler = new Profiler("BUILD_FULFILLMENT_GRAPH");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("GROUP_COMMODITY_TYPES_BY_CLASSIFICATION");
+    Map<String, Set<UUID>> commodityTypesByClassification = new HashMap<>();
+    for (CommodityType commodityType : commodityTypeRepository.findAll()) {
+      commodityTypesByClassification
+          .computeIfAbsent(
+              classificationKey(commodityType.getClassificationSystem(),
+                  commodityType.getClassificationId()),
+              key -> new HashSet<>())
+          .add(commodityType.getId());
+    }
+
+    profiler.start("MATCH_TRADE_ITEMS");
+    Map<UUID, Set<UUID>> commodityTypesByTradeItem = new HashMap<>();
+    Map<UUID, Set<UUID>> tradeItemsByCommodityType = new HashMap<>();
+    for (TradeItem tradeItem : tradeItemRepository.findAll()) {
+      for (TradeItemClassification classification : tradeItem.getClassifications()) {
+        Set<UUID> commodityTypeIds = commodityTypesByClassification.getOrDefault(
+            classificationKey(classification.getClassificationSystem(),
+                classification.getClassificationId()),
+            emptySet());
+
+        for (UUID commodityTypeId : commodityTypeIds) {
+          commodityTypesByTradeItem
+              .computeIfAbsent(tradeItem.getId(), key -> new HashSet<>())
+              .add(commodityTypeId);
+          tradeItemsByCommodityType
+              .computeIfAbsent(commodityTypeId, key -> new HashSet<>())
+              .add(tradeItem.getId());
+        }
+      }
+    }
+
+    profiler.stop().log();
+    return new FulfillmentGraph(commodityTypesByTradeItem, tradeItemsByCommodityType);
+  }
+
+  private OrderableCatalog buildCatalog() {
+    Profiler profiler = new Profiler("BUILD_ORDERABLE_CATALOG");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("FIND_ALL_LATEST_ORDERABLES");
+    List<Orderable> orderables = orderableRepository
+        .findAllLatest(PageRequest.of(Pagination.DEFAULT_PAGE_NUMBER, Pagination.NO_PAGINATION))
+        .getContent();
+
+    profiler.start("INDEX_ORDERABLES");
+    Map<UUID, IndexedOrderable> byId = new HashMap<>();
+    Map<String, Map<String, List<IndexedOrderable>>> byIdentifier = new HashMap<>();
+    for (Orderable orderable : orderables) {
+      IndexedOrderable indexed = new IndexedOrderable(orderable.getId(),
+          orderable.getTradeItemIdentifier(), orderable.getCommodityTypeIdentifier(),
+          orderable.getDispensable());
+      byId.put(indexed.getId(), indexed);
+
+      addByIdentifier(byIdentifier, Orderable.TRADE_ITEM, indexed.getTradeItemIdentifier(),
+          indexed);
+      addByIdentifier(byIdentifier, Orderable.COMMODITY_TYPE,
+          indexed.getCommodityTypeIdentifier(), indexed);
+    }
+
+    profiler.stop().log();
+    return new OrderableCatalog(unmodifiableMap(byId), byIdentifier);
+  }
+
+  private void addByIdentifier(Map<String, Map<String, List<IndexedOrderable>>> byIdentifier,
+      String key, String value, IndexedOrderable orderable) {
+    if (isNotBlank(value)) {
+      byIdentifier
+          .computeIfAbsent(key, k -> new HashMap<>())
+          .computeIfAbsent(value, v -> new ArrayList<>())
+          .add(orderable);
+    }
+  }
+
+  private static String classificationKey(String classificationSystem, String classificationId) {
+    return classificationSystem + '|' + classificationId;
+  }
+
+  /**
+   * Lightweight view of the latest version of an orderable, holding only what is needed to
+   * resolve fulfillment relations.
+   */
+  @Getter
+  @AllArgsConstructor
+  public static final class IndexedOrderable {
+    private final UUID id;
+    private final String tradeItemIdentifier;
+    private final String commodityTypeIdentifier;
+    private final Dispensable dispensable;
+
+    public boolean hasDispensable(Dispensable dispensableToMatch) {
+      return Objects.equals(dispensable, dispensableToMatch);
+    }
+  }
+
+  @AllArgsConstructor
+  private static final class FulfillmentGraph {
+    private final Map<UUID, Set<UUID>> commodityTypesByTradeItem;
+    private final Map<UUID, Set<UUID>> tradeItemsByCommodityType;
+  }
+
+  private static final class OrderableCatalog {
+    private final Map<UUID, IndexedOrderable> byId;
+    private final Map<String, Map<String, List<IndexedOrderable>>> byIdentifier;
+
+    OrderableCatalog(Map<UUID, IndexedOrderable> byId,
+        Map<String, Map<String, List<IndexedOrderable>>> byIdentifier) {
+      this.byId = byId;
+      this.byIdentifier = new HashMap<>();
+      byIdentifier.forEach((key, values) -> {
+        Map<String, List<IndexedOrderable>> copy = new HashMap<>();
+        values.forEach((value, list) -> copy.put(value, unmodifiableList(list)));
+        this.byIdentifier.put(key, unmodifiableMap(copy));
+      });
+    }
+  }
+}
@@ -17,6 +17,7 @@ package org.openlmis.referencedata.web;
 
 import static java.util.stream.Collectors.toList;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.ProcessingPeriod;
@@ -224,6 +225,7 @@ public class ProcessingPeriodController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
 
     rightService.checkAdminRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
@@ -234,8 +236,8 @@ public class ProcessingPeriodController extends BaseController {
       throw new NotFoundException(ProcessingPeriodMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(ProcessingPeriod.class, id, author, changedPropertyName, page,
-        returnJson);
+    return getAuditLogResponse(ProcessingPeriod.class, id, author, changedPropertyName, before,
+        page, returnJson);
   }
 
   private ProcessingPeriodDto exportToDto(ProcessingPeriod period) {
@@ -15,10 +15,12 @@
 
 package org.openlmis.referencedata.web;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import org.openlmis.referencedata.cache.ReadThroughCache;
 import org.openlmis.referencedata.domain.ProcessingSchedule;
 import org.openlmis.referencedata.domain.RequisitionGroupProgramSchedule;
 import org.openlmis.referencedata.domain.RightName;
@@ -61,6 +63,9 @@ public class ProcessingScheduleController extends BaseController {
   @Autowired
   private ProcessingScheduleRepository scheduleRepository;
 
+  @Autowired
+  private ReadThroughCache<ProcessingSchedule> processingScheduleCache;
+
 
   @Autowired
   private RequisitionGroupProgramScheduleService requisitionGroupProgramScheduleService;
@@ -188,12 +193,9 @@ public class ProcessingScheduleController extends BaseController {
   public ProcessingSchedule getProcessingSchedule(
       @PathVariable("id") UUID scheduleId) {
 
-    ProcessingSchedule schedule = scheduleRepository.findById(scheduleId).orElse(null);
-    if (schedule == null) {
-      throw new NotFoundException(ProcessingScheduleMessageKeys.ERROR_NOT_FOUND);
-    } else {
-      return schedule;
-    }
+    return processingScheduleCache
+        .get(scheduleId, scheduleRepository::findById)
+        .orElseThrow(() -> new NotFoundException(ProcessingScheduleMessageKeys.ERROR_NOT_FOUND));
   }
 
   /**
@@ -234,6 +236,7 @@ public class ProcessingScheduleController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
 
     rightService.checkAdminRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
@@ -244,8 +247,8 @@ public class ProcessingScheduleController extends BaseController {
       throw new NotFoundException(ProcessingScheduleMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(ProcessingSchedule.class, id, author, changedPropertyName, page,
-        returnJson);
+    return getAuditLogResponse(ProcessingSchedule.class, id, author, changedPropertyName, before,
+        page, returnJson);
   }
 
   private ProcessingScheduleDto exportToDto(ProcessingSchedule processingSchedule) {
@@ -20,10 +20,12 @@ import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.commons.lang3.BooleanUtils.isNotTrue;
 import static org.openlmis.referencedata.web.ProgramController.RESOURCE_PATH;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import org.openlmis.referencedata.AvailableFeatures;
+import org.openlmis.referencedata.cache.ReadThroughCache;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.RightName;
@@ -31,7 +33,6 @@ import org.openlmis.referencedata.dto.ProgramDto;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.ProgramRepository;
-import org.openlmis.referencedata.repository.custom.impl.ProgramRedisRepository;
 import org.openlmis.referencedata.util.Message;
 import org.openlmis.referencedata.util.messagekeys.ProgramMessageKeys;
 import org.openlmis.referencedata.validate.ProgramValidator;
@@ -69,7 +70,7 @@ public class ProgramController extends BaseController {
   private ProgramRepository programRepository;
 
   @Autowired
-  private ProgramRedisRepository programRedisRepository;
+  private ReadThroughCache<Program> programCache;
 
   @Autowired
   private ProgramValidator validator;
@@ -151,24 +152,12 @@ public class ProgramController extends BaseController {
     Profiler profiler = new Profiler("GET_PROGRAM_BY_ID");
     profiler.setLogger(XLOGGER);
 
-    Program program;
-
-    if (AvailableFeatures.REDIS_CACHING.isActive()) {
-      program = getProgramFromCache(programId, profiler);
-      profiler.stop().log();
-      return program;
-    }
-
-    if (!programRepository.existsById(programId)) {
-      profiler.stop().log();
-      throw new NotFoundException(ProgramMessageKeys.ERROR_NOT_FOUND);
-    }
-
-    profiler.start("GET_PROGRAM_FROM_DATABASE");
-    program = programRepository.findById(programId).orElse(null);
+    profiler.start("GET_PROGRAM");
+    Optional<Program> program = programCache.get(programId, programRepository::findById);
 
     profiler.stop().log();
-    return program;
+    return program
+        .orElseThrow(() -> new NotFoundException(ProgramMessageKeys.ERROR_NOT_FOUND));
   }
 
   /**
@@ -183,14 +172,11 @@ public class ProgramController extends BaseController {
 
     Program program = programRepository.findById(programId).orElse(null);
 
-    if (AvailableFeatures.REDIS_CACHING.isActive()) {
-      deleteProgramFromCache(programId);
-    }
-
     if (program == null) {
       throw new NotFoundException(ProgramMessageKeys.ERROR_NOT_FOUND);
     } else {
       programRepository.delete(program);
+      programCache.evict(programId);
     }
   }
 
@@ -231,10 +217,7 @@ public class ProgramController extends BaseController {
     Program updatedProgram = Program.newProgram(program);
 
     programRepository.save(updatedProgram);
-
-    if (AvailableFeatures.REDIS_CACHING.isActive()) {
-      deleteProgramFromCache(id);
-    }
+    programCache.evict(id);
 
     return updatedProgram;
   }
@@ -285,6 +268,7 @@ public class ProgramController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
     //Return a 404 if the specified instance can't be found
     Program instance = programRepository.findById(id).orElse(null);
@@ -292,45 +276,7 @@ public class ProgramController extends BaseController {
       throw new NotFoundException(ProgramMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(Program.class, id, author, changedPropertyName, page,
+    return getAuditLogResponse(Program.class, id, author, changedPropertyName, before, page,
         returnJson);
   }
-
-  /**
-   * Get the program from cache.
-   */
-  private Program getProgramFromCache(UUID programId, Profiler profiler) {
-    Program program;
-
-    profiler.start("CHECK_IF_PROGRAM_EXISTS_IN_CACHE");
-    boolean programInCache = programRedisRepository
-        .exists(programId);
-
-    if (programInCache) {
-      profiler.start("GET_PROGRAM_FROM_CACHE");
-      program = programRedisRepository.findById(programId);
-    } else if (!programRepository.existsById(programId)) {
-      profiler.stop().log();
-      throw new NotFoundException(ProgramMessageKeys.ERROR_NOT_FOUND);
-    } else {
-      profiler.start("GET_PROGRAM_FROM_DATABASE");
-      program = programRepository.findById(programId).orElse(null);
-      profiler.start("SAVE_PROGRAM_IN_CACHE");
-      programRedisRepository.save(program);
-    }
-
-    return program;
-  }
-
-  /**
-   * Delete the program from cache.
-   */
-  private void deleteProgramFromCache(UUID programId) {
-    if (!programRedisRepository.exists(programId)) {
-      throw new NotFoundException(ProgramMessageKeys.ERROR_NOT_FOUND);
-    } else {
-      Program program = programRedisRepository.findById(programId);
-      programRedisRepository.delete(program);
-    }
-  }
 }
@@ -17,6 +17,7 @@ package org.openlmis.referencedata.web;
 
 import static org.openlmis.referencedata.domain.RightName.REQUISITION_GROUPS_MANAGE;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -275,6 +276,7 @@ public class RequisitionGroupController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
     rightService.checkAdminRight(REQUISITION_GROUPS_MANAGE);
 
@@ -284,8 +286,8 @@ public class RequisitionGroupController extends BaseController {
       throw new NotFoundException(RequisitionGroupMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(RequisitionGroup.class, id, author, changedPropertyName, page,
-        returnJson);
+    return getAuditLogResponse(RequisitionGroup.class, id, author, changedPropertyName, before,
+        page, returnJson);
   }
 
   /**
@@ -18,6 +18,7 @@ package org.openlmis.referencedata.web;
 import static java.util.stream.Collectors.toSet;
 
 import com.google.common.collect.Sets;
+import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -124,6 +125,7 @@ public class RightController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
     rightService.checkRootAccess();
 
@@ -133,7 +135,8 @@ public class RightController extends BaseController {
       throw new NotFoundException(RightMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(Right.class, id, author, changedPropertyName, page, returnJson);
+    return getAuditLogResponse(Right.class, id, author, changedPropertyName, before, page,
+        returnJson);
   }
 
   /**
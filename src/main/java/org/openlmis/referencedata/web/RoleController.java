@@ -19,11 +19,13 @@ import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 
 import com.google.common.collect.Sets;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import lombok.NoArgsConstructor;
+import org.openlmis.referencedata.cache.ReadThroughCache;
 import org.openlmis.referencedata.domain.Right;
 import org.openlmis.referencedata.domain.RightName;
 import org.openlmis.referencedata.domain.Role;
@@ -65,6 +67,9 @@ public class RoleController extends BaseController {
   @Autowired
   private RoleRepository roleRepository;
 
+  @Autowired
+  private ReadThroughCache<RoleDto> roleCache;
+
   @Autowired
   private RoleAssignmentRepository roleAssignmentRepository;
 
@@ -115,12 +120,9 @@ public class RoleController extends BaseController {
   public RoleDto getRole(@PathVariable("roleId") UUID roleId) {
 
     LOGGER.debug("Getting role");
-    Role role = roleRepository.findById(roleId).orElse(null);
-    if (role == null) {
-      throw new NotFoundException(RoleMessageKeys.ERROR_NOT_FOUND);
-    }
-
-    return exportToDto(role);
+    return roleCache
+        .get(roleId, id -> roleRepository.findById(id).map(this::exportToDto))
+        .orElseThrow(() -> new NotFoundException(RoleMessageKeys.ERROR_NOT_FOUND));
   }
 
   /**
@@ -143,6 +145,7 @@ public class RoleController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
     rightService.checkAdminRight(RightName.USER_ROLES_MANAGE_RIGHT);
 
@@ -152,7 +155,8 @@ public class RoleController extends BaseController {
       throw new NotFoundException(RoleMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(Role.class, id, author, changedPropertyName, page, returnJson);
+    return getAuditLogResponse(Role.class, id, author, changedPropertyName, before, page,
+        returnJson);
   }
 
   /**
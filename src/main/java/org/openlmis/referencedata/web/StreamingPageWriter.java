@@ -0,0 +1,156 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.servlet.http.HttpServletResponse;
+import org.openlmis.referencedata.util.Pagination;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes pages of DTOs straight to the response through a {@link JsonGenerator}, without pretty
+ * printing. Used by list endpoints when the client opts in with the {@value #HEADER} header and
+ * asks for all elements at once: the content is written batch by batch while a database cursor
+ * is being iterated, so only one fetch batch is held in memory, and the page metadata is
+ * written after the content, once the number of elements is known. The JSON has the same shape
+ * as a regular page.
+ */
+@Component
+public class StreamingPageWriter {
+
+  public static final String HEADER = "X-Stream-Response";
+  static final String HEADER_ENABLED = HEADER + "=true";
+
+  private final ObjectWriter writer;
+
+  @Autowired
+  public StreamingPageWriter(ObjectMapper objectMapper) {
+    this.writer = objectMapper
+        .writer()
+        .without(SerializationFeature.INDENT_OUTPUT)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  /**
+   * Checks whether the given pageable asks for all elements in the default order, which is the
+   * only case where the content can be streamed from a cursor instead of built as a page.
+   */
+  public boolean canStream(Pageable pageable) {
+    return pageable.getPageNumber() == Pagination.DEFAULT_PAGE_NUMBER
+        && pageable.getPageSize() == Pagination.NO_PAGINATION
+        && pageable.getSort().isUnsorted();
+  }
+
+  /**
+   * Writes a page whose content is produced in batches by the given source. Every batch is
+   * written and flushed before the next one is requested. Once the content has started, the
+   * response is committed, so a failure of the source can no longer change the status code.
+   *
+   * @param response the response to write to
+   * @param pageable the pageable of the request, echoed in the page metadata
+   * @param source   hands all batches of the content, in order, to the given consumer
+   */
+  public <T> void write(HttpServletResponse response, Pageable pageable,
+      Consumer<Consumer<List<T>>> source) throws IOException {
+    try (JsonGenerator generator = createGenerator(response)) {
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("content");
+
+      int[] count = { 0 };
+      try {
+        source.accept(batch -> {
+          try {
+            for (T element : batch) {
+              writer.writeValue(generator, element);
+            }
+            generator.flush();
+            count[0] += batch.size();
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        });
+      } catch (UncheckedIOException ex) {
+        throw ex.getCause();
+      }
+
+      generator.writeEndArray();
+      writeMetadata(generator, Pagination.getPage(
+          Collections.nCopies(count[0], null), pageable, count[0]));
+      generator.writeEndObject();
+    }
+  }
+
+  /**
+   * Writes an already built page in the same compact form.
+   */
+  public void write(HttpServletResponse response, Page<?> page) throws IOException {
+    try (JsonGenerator generator = createGenerator(response)) {
+      writer.writeValue(generator, page);
+    }
+  }
+
+  /**
+   * Writes the status and headers of the given response entity and, if it has one, its page in
+   * the same compact form.
+   */
+  public void write(HttpServletResponse response, ResponseEntity<? extends Page<?>> entity)
+      throws IOException {
+    response.setStatus(entity.getStatusCodeValue());
+    entity.getHeaders().forEach((name, values) -> values
+        .forEach(value -> response.addHeader(name, value)));
+
+    if (entity.hasBody()) {
+      write(response, entity.getBody());
+    }
+  }
+
+  private JsonGenerator createGenerator(HttpServletResponse response) throws IOException {
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+    return writer
+        .getFactory()
+        .createGenerator(response.getOutputStream())
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  private void writeMetadata(JsonGenerator generator, Page<?> page) throws IOException {
+    generator.writeFieldName("pageable");
+    writer.writeValue(generator, page.getPageable());
+    generator.writeNumberField("totalElements", page.getTotalElements());
+    generator.writeNumberField("totalPages", page.getTotalPages());
+    generator.writeBooleanField("last", page.isLast());
+    generator.writeNumberField("size", page.getSize());
+    generator.writeNumberField("number", page.getNumber());
+    generator.writeFieldName("sort");
+    writer.writeValue(generator, page.getSort());
+    generator.writeNumberField("numberOfElements", page.getNumberOfElements());
+    generator.writeBooleanField("first", page.isFirst());
+    generator.writeBooleanField("empty", page.isEmpty());
+  }
+}
@@ -18,11 +18,13 @@ package org.openlmis.referencedata.web;
 import static java.util.stream.Collectors.toSet;
 import static org.openlmis.referencedata.domain.RightName.SUPERVISORY_NODES_MANAGE;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import org.openlmis.referencedata.AvailableFeatures;
+import org.openlmis.referencedata.cache.ReadThroughCache;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.RequisitionGroup;
@@ -39,7 +41,6 @@ import org.openlmis.referencedata.repository.RequisitionGroupRepository;
 import org.openlmis.referencedata.repository.RightRepository;
 import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
 import org.openlmis.referencedata.repository.UserRepository;
-import org.openlmis.referencedata.repository.custom.impl.SupervisoryNodeDtoRedisRepository;
 import org.openlmis.referencedata.service.RegenerateRightAssignmentsEvent;
 import org.openlmis.referencedata.service.SupervisoryNodeBuilder;
 import org.openlmis.referencedata.util.Message;
@@ -84,7 +85,7 @@ public class SupervisoryNodeController extends BaseController {
   private SupervisoryNodeRepository supervisoryNodeRepository;
 
   @Autowired
-  private SupervisoryNodeDtoRedisRepository supervisoryNodeDtoRedisRepository;
+  private ReadThroughCache<SupervisoryNodeDto> supervisoryNodeCache;
 
   @Autowired
   private ProgramRepository programRepository;
@@ -158,27 +159,13 @@ public class SupervisoryNodeController extends BaseController {
     Profiler profiler = new Profiler("GET_SUPERVISORY_NODE");
     profiler.setLogger(LOGGER);
 
-    SupervisoryNodeDto supervisoryNodeDto;
-
-    if (AvailableFeatures.REDIS_CACHING.isActive()) {
-      supervisoryNodeDto = getSupervisoryNodeDtoFromCache(supervisoryNodeId, profiler);
-      profiler.stop().log();
-      return supervisoryNodeDto;
-    }
-
-    if (!supervisoryNodeRepository.existsById(supervisoryNodeId)) {
-      profiler.stop().log();
-      throw new NotFoundException(SupervisoryNodeMessageKeys.ERROR_NOT_FOUND);
-    }
-
-    profiler.start("GET_SUPERVISORY_NODE_FROM_DATABASE");
-    SupervisoryNode supervisoryNode = supervisoryNodeRepository.findById(supervisoryNodeId)
-        .orElse(null);
-    profiler.start("EXPORT_TO_DTO");
-    supervisoryNodeDto = exportToDto(supervisoryNode);
+    profiler.start("GET_SUPERVISORY_NODE_DTO");
+    Optional<SupervisoryNodeDto> supervisoryNodeDto = supervisoryNodeCache.get(supervisoryNodeId,
+        id -> supervisoryNodeRepository.findById(id).map(this::exportToDto));
 
     profiler.stop().log();
-    return supervisoryNodeDto;
+    return supervisoryNodeDto
+        .orElseThrow(() -> new NotFoundException(SupervisoryNodeMessageKeys.ERROR_NOT_FOUND));
   }
 
   /**
@@ -223,10 +210,9 @@ public class SupervisoryNodeController extends BaseController {
               supervisoryNodeId, requisitionGroup.getId());
     }
 
-    profiler.start("DELETE_UPDATED_SUPERVISORY_NODE_FROM_CACHE");
-    if (AvailableFeatures.REDIS_CACHING.isActive()) {
-      deleteSupervisoryNodeDtoFromCache(supervisoryNodeId);
-    }
+    // the cached DTO also holds the requisition group, which is not a change of the node itself
+    profiler.start("EVICT_UPDATED_SUPERVISORY_NODE_FROM_CACHE");
+    supervisoryNodeCache.evict(supervisoryNodeId);
 
     profiler.start("REGENERATE_RIGHT_ASSIGNMENTS");
     applicationEventPublisher.publishEvent(new RegenerateRightAssignmentsEvent(this));
@@ -248,13 +234,10 @@ public class SupervisoryNodeController extends BaseController {
   public ResponseEntity deleteSupervisoryNode(@PathVariable("id") UUID supervisoryNodeId) {
     rightService.checkAdminRight(SUPERVISORY_NODES_MANAGE);
 
-    if (AvailableFeatures.REDIS_CACHING.isActive()) {
-      deleteSupervisoryNodeDtoFromCache(supervisoryNodeId);
-    }
-
     SupervisoryNode supervisoryNode = supervisoryNodeRepository.findById(supervisoryNodeId)
         .orElseThrow(() -> new NotFoundException(SupervisoryNodeMessageKeys.ERROR_NOT_FOUND));
     supervisoryNodeRepository.delete(supervisoryNode);
+    supervisoryNodeCache.evict(supervisoryNodeId);
     return new ResponseEntity(HttpStatus.NO_CONTENT);
   }
 
@@ -389,6 +372,7 @@ public class SupervisoryNodeController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
     rightService.checkAdminRight(SUPERVISORY_NODES_MANAGE);
 
@@ -398,52 +382,10 @@ public class SupervisoryNodeController extends BaseController {
       throw new NotFoundException(SupervisoryNodeMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(SupervisoryNode.class, id, author, changedPropertyName, page,
+    return getAuditLogResponse(SupervisoryNode.class, id, author, changedPropertyName, before, page,
         returnJson);
   }
 
-  /**
-   * Get the supervisory node from cache.
-   */
-  private SupervisoryNodeDto getSupervisoryNodeDtoFromCache(UUID supervisoryNodeId,
-      Profiler profiler) {
-    SupervisoryNodeDto supervisoryNodeDto;
-    SupervisoryNode supervisoryNode;
-
-    profiler.start("CHECK_IF_SUPERVISORY_NODE_EXISTS_IN_CACHE");
-    boolean supervisoryNodeIsInCache = supervisoryNodeDtoRedisRepository
-        .exists(supervisoryNodeId);
-
-    if (supervisoryNodeIsInCache) {
-      profiler.start("GET_SUPERVISORY_NODE_FROM_CACHE");
-      supervisoryNodeDto = supervisoryNodeDtoRedisRepository.findById(supervisoryNodeId);
-    } else if (!supervisoryNodeRepository.existsById(supervisoryNodeId)) {
-      profiler.stop().log();
-      throw new NotFoundException(SupervisoryNodeMessageKeys.ERROR_NOT_FOUND);
-    } else {
-      profiler.start("GET_SUPERVISORY_NODE_FROM_DATABASE");
-      supervisoryNode = supervisoryNodeRepository.findById(supervisoryNodeId).orElse(null);
-      profiler.start("EXPORT_TO_DTO");
-      supervisoryNodeDto = exportToDto(supervisoryNode);
-      profiler.start("SAVE_SUPERVISORY_NODE_IN_CACHE");
-      supervisoryNodeDtoRedisRepository.save(supervisoryNodeDto);
-    }
-    return supervisoryNodeDto;
-  }
-
-  /**
-   * Delete the supervisory node from cache.
-   */
-  private void deleteSupervisoryNodeDtoFromCache(UUID supervisoryNodeId) {
-    if (!supervisoryNodeDtoRedisRepository.exists(supervisoryNodeId)) {
-      throw new NotFoundException(SupervisoryNodeMessageKeys.ERROR_NOT_FOUND);
-    } else {
-      SupervisoryNodeDto supervisoryNodeDto = supervisoryNodeDtoRedisRepository
-          .findById(supervisoryNodeId);
-      supervisoryNodeDtoRedisRepository.delete(supervisoryNodeDto);
-    }
-  }
-
   private SupervisoryNodeDto exportToDto(SupervisoryNode supervisoryNode) {
     SupervisoryNodeDto supervisoryNodeDto = null;
 
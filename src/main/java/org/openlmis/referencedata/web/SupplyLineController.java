@@ -17,6 +17,7 @@ package org.openlmis.referencedata.web;
 
 import static org.openlmis.referencedata.domain.RightName.SUPPLY_LINES_MANAGE;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -160,6 +161,7 @@ public class SupplyLineController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
     rightService.checkAdminRight(SUPPLY_LINES_MANAGE);
 
@@ -169,7 +171,7 @@ public class SupplyLineController extends BaseController {
       throw new NotFoundException(SupplyLineMessageKeys.ERROR_NOT_FOUND);
     }
 
-    return getAuditLogResponse(SupplyLine.class, id, author, changedPropertyName, page,
+    return getAuditLogResponse(SupplyLine.class, id, author, changedPropertyName, before, page,
         returnJson);
   }
 
@@ -208,17 +210,6 @@ public class SupplyLineController extends BaseController {
     }
   }
 
-  private SupplyLineObjectReferenceDto export(SupplyLine supplyLine, Set<String> expand) {
-    SupplyLineObjectReferenceDto supplyLineDto = null;
-
-    if (supplyLine != null) {
-      supplyLineDto = SupplyLineObjectReferenceDto.newInstance(supplyLine, sericeUrl);
-      expandDto(supplyLineDto, supplyLine, expand);
-    }
-
-    return supplyLineDto;
-  }
-
   private SupplyLineDto exportToDto(SupplyLine supplyLine) {
     SupplyLineDto supplyLineDto = null;
 
@@ -233,8 +224,9 @@ public class SupplyLineController extends BaseController {
   private Page<SupplyLineObjectReferenceDto> exportToDtoWithExpand(Page<SupplyLine> page,
       Pageable pageable, Set<String> expand) {
     List<SupplyLineObjectReferenceDto> list = page.getContent().stream()
-        .map(supplyLine -> export(supplyLine, expand))
+        .map(supplyLine -> SupplyLineObjectReferenceDto.newInstance(supplyLine, sericeUrl))
         .collect(Collectors.toList());
+    expandDtos(list, page.getContent(), expand);
     return Pagination.getPage(list, pageable, page.getTotalElements());
   }
 }
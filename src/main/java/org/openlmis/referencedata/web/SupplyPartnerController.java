@@ -17,6 +17,7 @@ package org.openlmis.referencedata.web;
 
 import static org.openlmis.referencedata.web.SupplyPartnerController.RESOURCE_PATH;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
@@ -203,6 +204,7 @@ public class SupplyPartnerController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable pageable) {
 
     Profiler profiler = new Profiler("GET_AUDIT_LOG");
@@ -213,7 +215,7 @@ public class SupplyPartnerController extends BaseController {
 
     profiler.start("GET_AUDIT_LOG");
     ResponseEntity<String> response = getAuditLogResponse(
-        SupplyPartner.class, id, author, changedPropertyName, pageable, returnJson
+        SupplyPartner.class, id, author, changedPropertyName, before, pageable, returnJson
     );
 
     profiler.stop().log();
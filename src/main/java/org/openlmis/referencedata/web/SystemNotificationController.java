@@ -18,6 +18,7 @@ package org.openlmis.referencedata.web;
 import static org.openlmis.referencedata.domain.RightName.SYSTEM_NOTIFICATIONS_MANAGE;
 import static org.openlmis.referencedata.web.SystemNotificationController.RESOURCE_PATH;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -222,6 +223,7 @@ public class SystemNotificationController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable pageable) {
 
     Profiler profiler = new Profiler("GET_AUDIT_LOG");
@@ -232,7 +234,7 @@ public class SystemNotificationController extends BaseController {
 
     profiler.start("GET_AUDIT_LOG");
     ResponseEntity<String> response = getAuditLogResponse(
-        SystemNotification.class, id, author, changedPropertyName, pageable, returnJson
+        SystemNotification.class, id, author, changedPropertyName, before, pageable, returnJson
     );
 
     profiler.stop().log();
@@ -283,26 +285,15 @@ public class SystemNotificationController extends BaseController {
     return SystemNotificationDto.newInstance(notification, serviceUrl, null);
   }
 
-  private SystemNotificationDto exportToDtoWithExpand(SystemNotification systemNotification,
-      Set<String> expand, Boolean isDisplayed) {
-    SystemNotificationDto systemNotificationDto = null;
-
-    if (systemNotification != null) {
-      systemNotificationDto = SystemNotificationDto.newInstance(systemNotification, serviceUrl,
-          isDisplayed);
-      expandDto(systemNotificationDto, systemNotification, expand);
-    }
-
-    return systemNotificationDto;
-  }
-
   private Page<SystemNotificationDto> exportToDtosWithExpand(Page<SystemNotification> page,
       Pageable pageable, Set<String> expand, Boolean isDisplayed) {
 
     List<SystemNotificationDto> list = page.getContent().stream()
-        .map(systemNotification -> exportToDtoWithExpand(systemNotification, expand,
+        .map(systemNotification -> SystemNotificationDto.newInstance(systemNotification,
+            serviceUrl,
             verifyIfShouldBeDisplayed(isDisplayed, page, pageable, systemNotification)))
         .collect(Collectors.toList());
+    expandDtos(list, page.getContent(), expand);
     return Pagination.getPage(list, pageable, page.getTotalElements());
   }
 
@@ -17,11 +17,13 @@ package org.openlmis.referencedata.web;
 
 import static org.openlmis.referencedata.domain.RightName.ORDERABLES_MANAGE;
 
+import java.math.BigDecimal;
 import java.util.UUID;
 import org.openlmis.referencedata.domain.TradeItem;
 import org.openlmis.referencedata.dto.TradeItemDto;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.repository.TradeItemRepository;
+import org.openlmis.referencedata.service.FulfillmentDataChangedEvent;
 import org.openlmis.referencedata.service.TradeItemSearchParams;
 import org.openlmis.referencedata.service.TradeItemService;
 import org.openlmis.referencedata.util.Pagination;
@@ -31,6 +33,7 @@ import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -61,6 +64,9 @@ public class TradeItemController extends BaseController {
   @Autowired
   private TradeItemService tradeItemService;
 
+  @Autowired
+  private ApplicationEventPublisher applicationEventPublisher;
+
   /**
    * Create or update a trade item.
    *
@@ -76,7 +82,10 @@ public class TradeItemController extends BaseController {
 
     TradeItem tradeItem = TradeItem.newInstance(tradeItemDto);
 
-    return TradeItemDto.newInstance(repository.save(tradeItem));
+    TradeItem savedTradeItem = repository.save(tradeItem);
+    applicationEventPublisher.publishEvent(new FulfillmentDataChangedEvent(this, TradeItem.class));
+
+    return TradeItemDto.newInstance(savedTradeItem);
   }
 
   /**
@@ -99,6 +108,7 @@ public class TradeItemController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
     rightService.checkAdminRight(ORDERABLES_MANAGE);
 
@@ -108,7 +118,7 @@ public class TradeItemController extends BaseController {
       throw new NotFoundException(TradeItemMessageKeys.ERROR_NOT_FOUND_WITH_ID);
     }
 
-    return getAuditLogResponse(TradeItem.class, id, author, changedPropertyName, page,
+    return getAuditLogResponse(TradeItem.class, id, author, changedPropertyName, before, page,
         returnJson);
   }
 
@@ -17,6 +17,7 @@ package org.openlmis.referencedata.web;
 
 import static java.util.stream.Collectors.toList;
 
+import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -648,6 +649,7 @@ public class UserController extends BaseController {
       //Because JSON is all we formally support, returnJSON is excluded from our JavaDoc
       @RequestParam(name = "returnJSON", required = false, defaultValue = "true")
           boolean returnJson,
+      @RequestParam(name = "before", required = false) BigDecimal before,
       Pageable page) {
 
     Profiler profiler = new Profiler("GET_USER_AUDIT_LOG");
@@ -661,6 +663,7 @@ public class UserController extends BaseController {
         userId,
         author,
         changedPropertyName,
+        before,
         page,
         returnJson);
 
@@ -24,24 +24,27 @@ import java.io.OutputStreamWriter;
 import java.util.List;
 import lombok.Getter;
 import org.openlmis.referencedata.web.csv.model.ModelClass;
+import org.openlmis.referencedata.web.csv.model.ModelClassMapper;
 import org.openlmis.referencedata.web.csv.model.ModelField;
 import org.openlmis.referencedata.web.csv.processor.CsvCellProcessors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.supercsv.cellprocessor.ift.CellProcessor;
-import org.supercsv.io.dozer.CsvDozerBeanWriter;
+import org.supercsv.io.CsvListWriter;
 import org.supercsv.prefs.CsvPreference;
 
 /**
- * This class has responsibility to instantiate a csvDozerBeanWriter from given inputStream.
+ * This class has responsibility to instantiate a csv writer from given inputStream. Beans are
+ * mapped to rows by a {@link ModelClassMapper} built once for the headers.
  */
 class CsvBeanWriter<T extends Object> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CsvBeanWriter.class);
 
   private ModelClass<T> modelClass;
-  private CsvDozerBeanWriter csvDozerBeanWriter;
+  private CsvListWriter csvListWriter;
+  private ModelClassMapper<T> mapper;
   private CellProcessor[] processors;
 
   @Getter
@@ -56,7 +59,7 @@ class CsvBeanWriter<T extends Object> {
     this.modelClass = modelClass;
 
     profiler.start("CONFIGURE_WRITER");
-    configureDozerBeanWriter(outputStream);
+    configureListWriter(outputStream);
 
     profiler.start("CONFIGURE_PROCESSORS");
     configureProcessors();
@@ -69,21 +72,39 @@ class CsvBeanWriter<T extends Object> {
     profiler.setLogger(LOGGER);
 
     profiler.start("WRITE_HEADERS");
-    csvDozerBeanWriter.writeHeader(headers);
+    writeHeader();
 
     profiler.start("WRITE_LINE_ITEMS");
-    for (Object dto : dtos) {
-      csvDozerBeanWriter.write(dto, processors);
-    }
+    writeLineItems(dtos);
 
     profiler.start("CLOSE_STREAM");
-    csvDozerBeanWriter.close();
+    close();
 
     profiler.stop().log();
   }
 
-  private void configureDozerBeanWriter(OutputStream outputStream) throws IOException {
-    Profiler profiler = new Profiler("CONFIGURE_DOZER_WRITER");
+  void writeHeader() throws IOException {
+    csvListWriter.writeHeader(headers);
+  }
+
+  /**
+   * Writes the given rows and flushes them to the underlying stream, so that a caller writing
+   * rows in batches does not keep them buffered between batches.
+   */
+  void writeLineItems(List<? extends Object> dtos) throws IOException {
+    for (Object dto : dtos) {
+      csvListWriter.write(mapper.toRow(dto), processors);
+    }
+
+    csvListWriter.flush();
+  }
+
+  void close() throws IOException {
+    csvListWriter.close();
+  }
+
+  private void configureListWriter(OutputStream outputStream) throws IOException {
+    Profiler profiler = new Profiler("CONFIGURE_LIST_WRITER");
     profiler.setLogger(LOGGER);
 
     profiler.start("CSV_PREFERENCE");
@@ -95,17 +116,14 @@ class CsvBeanWriter<T extends Object> {
     BufferedWriter bufferedReader = new BufferedWriter(
         new OutputStreamWriter(outputStream, "UTF-8"));
 
-    profiler.start("NEW_READER");
-    csvDozerBeanWriter = new CsvDozerBeanWriter(bufferedReader, csvPreference);
+    profiler.start("NEW_WRITER");
+    csvListWriter = new CsvListWriter(bufferedReader, csvPreference);
 
     profiler.start("READ_HEADERS");
     headers = readHeaders();
 
-    profiler.start("GET_FIELD_MAPPINGS");
-    String[] mappings = modelClass.getFieldNameMappings(headers);
-
-    profiler.start("CONFIGURE_BEAN_MAPPING");
-    csvDozerBeanWriter.configureBeanMapping(modelClass.getClazz(), mappings);
+    profiler.start("CREATE_MAPPER");
+    mapper = modelClass.newMapper(headers);
 
     profiler.stop().log();
   }
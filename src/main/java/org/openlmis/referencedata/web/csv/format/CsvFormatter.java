@@ -19,7 +19,9 @@ import static org.openlmis.referencedata.util.messagekeys.CsvExportMessageKeys.E
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 import lombok.NoArgsConstructor;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.util.Message;
@@ -68,6 +70,43 @@ public class CsvFormatter {
     }
   }
 
+  /**
+   * Writes rows supplied in batches into the output stream. The header is written once and each
+   * batch is written as soon as it is supplied, so only a single batch has to be kept in memory.
+   *
+   * @param outputStream output stream of csv file
+   * @param modelClass   java model which will be mapped to the csv rows
+   * @param batchSource  supplies batches of rows to the consumer it is given
+   */
+  public <T> void process(OutputStream outputStream, ModelClass<T> modelClass,
+                          Consumer<Consumer<List<T>>> batchSource) throws IOException {
+    Profiler profiler = new Profiler("CSV_PROCESS_BATCHES");
+    profiler.setLogger(LOGGER);
+
+    profiler.start("CREATE_CSV_WRITER");
+    CsvBeanWriter<T> csvBeanWriter = new CsvBeanWriter<>(modelClass, outputStream);
+
+    profiler.start("WRITE_CSV");
+    try {
+      csvBeanWriter.writeHeader();
+      batchSource.accept(batch -> {
+        try {
+          csvBeanWriter.writeLineItems(batch);
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      });
+      csvBeanWriter.close();
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    } catch (SuperCsvException err) {
+      Message message = getCsvRowErrorMessage(err);
+      throw new ValidationMessageException(err, message);
+    } finally {
+      profiler.stop().log();
+    }
+  }
+
   private Message getCsvRowErrorMessage(SuperCsvException err) {
     CsvContext context = err.getCsvContext();
     int row = context.getRowNumber() - 1;
@@ -61,6 +61,13 @@ public class ModelClass<T extends Object> {
     return fieldMappings.toArray(new String[fieldMappings.size()]);
   }
 
+  /**
+   * Returns a mapper of rows with the given headers to and from instances of this class.
+   */
+  public ModelClassMapper<T> newMapper(String[] headers) {
+    return new ModelClassMapper<>(this, getFieldNameMappings(headers));
+  }
+
   /**
    * Returns import field with given name.
    *
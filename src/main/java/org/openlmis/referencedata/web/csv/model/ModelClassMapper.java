@@ -0,0 +1,353 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.web.csv.model;
+
+import com.google.common.collect.Maps;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Maps CSV columns to and from properties of a model class. Accessors of every mapped property
+ * are resolved once, compiled to method handles and cached per class, so rows are mapped without
+ * any reflective lookup. A value that is not an instance of the property type is converted the
+ * way Dozer converted it before: strings are parsed to booleans and numbers, and other values
+ * are written to string properties as text.
+ */
+public class ModelClassMapper<T> {
+
+  private static final Map<Class<?>, Map<String, PropertyPath>> PROPERTY_PATHS =
+      Maps.newConcurrentMap();
+  private static final Map<Class<?>, MethodHandle> CONSTRUCTORS = Maps.newConcurrentMap();
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final List<String> TRUE_VALUES = Arrays.asList("true", "yes", "y", "on", "1");
+  private static final List<String> FALSE_VALUES = Arrays.asList("false", "no", "n", "off", "0");
+
+  private final Class<T> clazz;
+  private final MethodHandle constructor;
+  private final PropertyPath[] columns;
+
+  /**
+   * Creates a mapper of the given columns.
+   *
+   * @param modelClass the model class the columns are mapped to
+   * @param fieldNameMappings property path of each column, or null for a column that is not mapped
+   */
+  ModelClassMapper(ModelClass<T> modelClass, String[] fieldNameMappings) {
+    this.clazz = modelClass.getClazz();
+    this.constructor = CONSTRUCTORS.computeIfAbsent(clazz, ModelClassMapper::findConstructor);
+    this.columns = new PropertyPath[fieldNameMappings.length];
+
+    Map<String, PropertyPath> paths =
+        PROPERTY_PATHS.computeIfAbsent(clazz, key -> Maps.newConcurrentMap());
+    for (int i = 0; i < fieldNameMappings.length; ++i) {
+      if (null != fieldNameMappings[i]) {
+        columns[i] = paths.computeIfAbsent(fieldNameMappings[i],
+            path -> new PropertyPath(clazz, path));
+      }
+    }
+  }
+
+  /**
+   * Creates a new instance of the model class with properties set to the given column values.
+   *
+   * @param values processed values of all columns of a row
+   * @return the new instance
+   * @throws IllegalArgumentException if a value cannot be converted to its property type
+   */
+  public T toBean(List<Object> values) {
+    T bean = clazz.cast(newInstance(constructor));
+
+    for (int i = 0; i < columns.length; ++i) {
+      if (null != columns[i]) {
+        columns[i].write(bean, values.get(i));
+      }
+    }
+
+    return bean;
+  }
+
+  /**
+   * Returns values of the mapped properties of the given instance, in column order.
+   *
+   * @param bean the instance to read
+   * @return the values, with null for columns that are not mapped
+   */
+  public List<Object> toRow(Object bean) {
+    List<Object> row = new ArrayList<>(columns.length);
+
+    for (PropertyPath column : columns) {
+      row.add(null == column ? null : column.read(bean));
+    }
+
+    return row;
+  }
+
+  private static MethodHandle findConstructor(Class<?> type) {
+    try {
+      Constructor<?> constructor = type.getDeclaredConstructor();
+      constructor.setAccessible(true);
+      return LOOKUP
+          .unreflectConstructor(constructor)
+          .asType(MethodType.methodType(Object.class));
+    } catch (NoSuchMethodException | IllegalAccessException ex) {
+      throw new IllegalArgumentException(type.getName() + " has no default constructor", ex);
+    }
+  }
+
+  private static Object newInstance(MethodHandle constructor) {
+    try {
+      return (Object) constructor.invokeExact();
+    } catch (RuntimeException | Error ex) {
+      throw ex;
+    } catch (Throwable ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  /**
+   * Property path of a column, such as {@code facility} or {@code facility.code}. Intermediate
+   * objects are created when a value is written through them.
+   */
+  private static final class PropertyPath {
+    private final String path;
+    private final Property[] properties;
+
+    PropertyPath(Class<?> type, String path) {
+      this.path = path;
+
+      String[] names = StringUtils.split(path, '.');
+      this.properties = new Property[names.length];
+
+      Class<?> owner = type;
+      for (int i = 0; i < names.length; ++i) {
+        properties[i] = new Property(owner, names[i]);
+        owner = properties[i].type;
+      }
+    }
+
+    void write(Object bean, Object value) {
+      Object owner = bean;
+
+      for (int i = 0; i < properties.length - 1; ++i) {
+        Object next = properties[i].get(owner);
+        if (null == next) {
+          next = newInstance(CONSTRUCTORS.computeIfAbsent(properties[i].type,
+              ModelClassMapper::findConstructor));
+          properties[i].set(owner, next);
+        }
+        owner = next;
+      }
+
+      Property last = properties[properties.length - 1];
+      last.set(owner, convert(value, last.valueType));
+    }
+
+    Object read(Object bean) {
+      Object value = bean;
+
+      for (int i = 0; i < properties.length && null != value; ++i) {
+        value = properties[i].get(value);
+      }
+
+      return value;
+    }
+
+    private Object convert(Object value, Class<?> type) {
+      if (null == value || ClassUtils.primitiveToWrapper(type).isInstance(value)) {
+        return value;
+      }
+
+      if (String.class.equals(type)) {
+        return value.toString();
+      }
+
+      if (value instanceof String) {
+        String text = ((String) value).trim();
+        if (text.isEmpty()) {
+          return null;
+        }
+
+        try {
+          return parse(text, ClassUtils.primitiveToWrapper(type));
+        } catch (NumberFormatException ex) {
+          throw cannotConvert(value, type, ex);
+        }
+      }
+
+      throw cannotConvert(value, type, null);
+    }
+
+    private Object parse(String text, Class<?> type) {
+      if (Boolean.class.equals(type)) {
+        String lowerCase = text.toLowerCase();
+        if (TRUE_VALUES.contains(lowerCase)) {
+          return Boolean.TRUE;
+        }
+        if (FALSE_VALUES.contains(lowerCase)) {
+          return Boolean.FALSE;
+        }
+      } else if (Integer.class.equals(type)) {
+        return Integer.valueOf(text);
+      } else if (Long.class.equals(type)) {
+        return Long.valueOf(text);
+      } else if (Short.class.equals(type)) {
+        return Short.valueOf(text);
+      } else if (Double.class.equals(type)) {
+        return Double.valueOf(text);
+      } else if (Float.class.equals(type)) {
+        return Float.valueOf(text);
+      }
+
+      throw cannotConvert(text, type, null);
+    }
+
+    private IllegalArgumentException cannotConvert(Object value, Class<?> type,
+        Exception cause) {
+      return new IllegalArgumentException("Cannot convert '" + value + "' of " + path
+          + " to " + type.getSimpleName(), cause);
+    }
+  }
+
+  /**
+   * Accessors of a single property, following the JavaBeans naming conventions. Among
+   * overloaded setters the one taking the property type is used.
+   */
+  private static final class Property {
+    private final String name;
+    private final Class<?> type;
+    private final Class<?> valueType;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    Property(Class<?> owner, String name) {
+      this.name = name;
+      String capitalized = StringUtils.capitalize(name);
+      Method readMethod = findMethod(owner, "get" + capitalized, null);
+      if (null == readMethod) {
+        readMethod = findMethod(owner, "is" + capitalized, null);
+      }
+
+      Field field = findField(owner, name);
+      if (null != field) {
+        type = field.getType();
+      } else if (null != readMethod) {
+        type = readMethod.getReturnType();
+      } else {
+        throw new IllegalArgumentException(
+            "Property " + name + " not found in " + owner.getName());
+      }
+
+      Method writeMethod = findMethod(owner, "set" + capitalized, type);
+      if (null == writeMethod && null != readMethod) {
+        writeMethod = findMethod(owner, "set" + capitalized, readMethod.getReturnType());
+      }
+
+      this.valueType = null == writeMethod ? type : writeMethod.getParameterTypes()[0];
+      this.getter = null == readMethod
+          ? null
+          : unreflect(readMethod, MethodType.methodType(Object.class, Object.class));
+      this.setter = null == writeMethod
+          ? null
+          : unreflect(writeMethod, MethodType.methodType(void.class, Object.class, Object.class));
+    }
+
+    Object get(Object bean) {
+      if (null == getter) {
+        throw new IllegalStateException(
+            "Property " + name + " of " + bean.getClass().getName() + " is not readable");
+      }
+
+      try {
+        return (Object) getter.invokeExact(bean);
+      } catch (RuntimeException | Error ex) {
+        throw ex;
+      } catch (Throwable ex) {
+        throw new IllegalStateException(ex);
+      }
+    }
+
+    void set(Object bean, Object value) {
+      if (null == setter) {
+        throw new IllegalStateException(
+            "Property " + name + " of " + bean.getClass().getName() + " is not writable");
+      }
+
+      // like Dozer, a missing value leaves a primitive property unchanged
+      if (null == value && valueType.isPrimitive()) {
+        return;
+      }
+
+      try {
+        setter.invokeExact(bean, value);
+      } catch (RuntimeException | Error ex) {
+        throw ex;
+      } catch (Throwable ex) {
+        throw new IllegalStateException(ex);
+      }
+    }
+
+    private static Method findMethod(Class<?> owner, String name, Class<?> parameterType) {
+      for (Method method : owner.getMethods()) {
+        if (!method.getName().equals(name)) {
+          continue;
+        }
+
+        if (null == parameterType && 0 == method.getParameterCount()) {
+          return method;
+        }
+
+        if (null != parameterType && 1 == method.getParameterCount()
+            && method.getParameterTypes()[0].equals(parameterType)) {
+          return method;
+        }
+      }
+
+      return null;
+    }
+
+    private static Field findField(Class<?> owner, String name) {
+      for (Class<?> type = owner; null != type; type = type.getSuperclass()) {
+        for (Field field : type.getDeclaredFields()) {
+          if (field.getName().equals(name)) {
+            return field;
+          }
+        }
+      }
+
+      return null;
+    }
+
+    private static MethodHandle unreflect(Method method, MethodType methodType) {
+      try {
+        method.setAccessible(true);
+        return LOOKUP.unreflect(method).asType(methodType);
+      } catch (IllegalAccessException ex) {
+        throw new IllegalArgumentException(ex);
+      }
+    }
+  }
+}
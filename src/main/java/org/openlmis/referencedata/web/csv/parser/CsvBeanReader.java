@@ -21,25 +21,28 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.Collections;
 import java.util.List;
 import lombok.Getter;
-import org.dozer.DozerBeanMapper;
 import org.openlmis.referencedata.validate.CsvHeaderValidator;
 import org.openlmis.referencedata.web.csv.model.ModelClass;
+import org.openlmis.referencedata.web.csv.model.ModelClassMapper;
 import org.openlmis.referencedata.web.csv.processor.CsvCellProcessors;
 import org.supercsv.cellprocessor.ift.CellProcessor;
-import org.supercsv.io.dozer.CsvDozerBeanReader;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.io.CsvListReader;
 import org.supercsv.prefs.CsvPreference;
+import org.supercsv.util.CsvContext;
 
 /**
- * This class has responsibility to instantiate a dozerBeanReader from given inputStream,
- * and CsvPreferences. Also is responsible for validating headers.
+ * This class has responsibility to instantiate a csv reader from given inputStream,
+ * and CsvPreferences. Also is responsible for validating headers. Processed rows are mapped to
+ * beans by a {@link ModelClassMapper} built once for the headers of the file.
  */
 public class CsvBeanReader<T> {
 
   private ModelClass<T> modelClass;
-  private CsvDozerBeanReader dozerBeanReader;
+  private CsvListReader listReader;
+  private ModelClassMapper<T> mapper;
   private CsvHeaderValidator csvHeaderValidator;
   private CellProcessor[] processors;
 
@@ -59,39 +62,52 @@ public class CsvBeanReader<T> {
                 CsvHeaderValidator csvHeaderValidator) throws IOException {
     this.modelClass = modelClass;
     this.csvHeaderValidator = csvHeaderValidator;
-    configureDozerBeanReader(inputStream);
+    configureListReader(inputStream);
     validateHeaders();
     configureProcessors();
   }
 
+  /**
+   * Reads the next row, processes its cells and maps it to a new bean.
+   *
+   * @return the bean, or null if the end of file has been reached
+   * @throws IOException If the row can't be read.
+   */
   public T readWithCellProcessors() throws IOException {
-    return dozerBeanReader.read(modelClass.getClazz(), processors);
+    List<Object> values = listReader.read(processors);
+    if (null == values) {
+      return null;
+    }
+
+    try {
+      return mapper.toBean(values);
+    } catch (IllegalArgumentException ex) {
+      throw new SuperCsvException(ex.getMessage(),
+          new CsvContext(listReader.getLineNumber(), listReader.getRowNumber(), 1), ex);
+    }
   }
 
   int getRowNumber() {
-    return dozerBeanReader.getRowNumber();
+    return listReader.getRowNumber();
   }
 
   void validateHeaders() {
     csvHeaderValidator.validateHeaders(asList(headers), modelClass, false);
   }
 
-  private void configureDozerBeanReader(InputStream inputStream) throws IOException {
+  private void configureListReader(InputStream inputStream) throws IOException {
     CsvPreference csvPreference = new CsvPreference.Builder(CsvPreference.STANDARD_PREFERENCE)
         .surroundingSpacesNeedQuotes(true)
         .build();
 
     BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"));
-    DozerBeanMapper beanMapper = new DozerBeanMapper();
-    beanMapper.setMappingFiles(Collections.singletonList("dozerJdk8Converters.xml"));
-    dozerBeanReader = new CsvDozerBeanReader(bufferedReader, csvPreference, beanMapper);
+    listReader = new CsvListReader(bufferedReader, csvPreference);
     headers = readHeaders();
-    String[] mappings = modelClass.getFieldNameMappings(headers);
-    dozerBeanReader.configureBeanMapping(modelClass.getClazz(), mappings);
+    mapper = modelClass.newMapper(headers);
   }
 
   private String[] readHeaders() throws IOException {
-    String[] headers = dozerBeanReader.getHeader(true);
+    String[] headers = listReader.getHeader(true);
     return headers == null ? new String[0] : headers;
   }
 
@@ -20,7 +20,14 @@ import static org.openlmis.referencedata.util.messagekeys.CsvUploadMessageKeys.E
 import com.google.common.collect.Lists;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import lombok.NoArgsConstructor;
 import org.openlmis.referencedata.domain.BaseEntity;
 import org.openlmis.referencedata.dto.BaseDto;
@@ -33,6 +40,8 @@ import org.openlmis.referencedata.web.csv.recordhandler.RecordWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.profiler.Profiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.supercsv.exception.SuperCsvException;
@@ -41,8 +50,12 @@ import org.supercsv.util.CsvContext;
 /**
  * This class has logic to invoke corresponding respective record handler to parse data from input
  * stream into the corresponding model. To speed up the process for huge files the stream is divided
- * into smaller chunks. The chunk size is set by {@code csvParser.chunkSize} property. Each chunk is
- * executed asynchronously in the thread pool with size set by {@code csvParser.poolSize}.
+ * into smaller chunks. The chunk size is set by {@code csvParser.chunkSize} property. The file is
+ * parsed by a pipeline of three stages connected by a bounded queue: a reader splits the file into
+ * chunks, the chunks are processed asynchronously in the thread pool with size set by
+ * {@code csvParser.poolSize}, and the calling thread writes the processed chunks in the order they
+ * appear in the file. The reader waits while {@code csvParser.poolSize} chunks are queued and not
+ * yet written, so only a bounded part of the file is held in memory.
  */
 @Component
 @NoArgsConstructor
@@ -53,6 +66,17 @@ public class CsvParser {
   @Value("${csvParser.chunkSize}")
   private int chunkSize;
 
+  @Value("${csvParser.poolSize}")
+  private int poolSize;
+
+  @Autowired
+  @Qualifier("csvParserExecutorService")
+  private ExecutorService processorExecutorService;
+
+  @Autowired
+  @Qualifier("csvReaderExecutorService")
+  private ExecutorService readerExecutorService;
+
   /**
    * Parses data from input stream into the corresponding model.
    *
@@ -76,18 +100,109 @@ public class CsvParser {
     csvBeanReader.validateHeaders();
 
     profiler.start("PROCESS_CSV");
+    RecordProcessor<D, E> uploadProcessor = processor.forUpload();
+    BlockingQueue<Chunk<E>> chunks = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+    Future<?> reading = readerExecutorService.submit(() -> {
+      read(csvBeanReader, uploadProcessor, chunks);
+      return null;
+    });
+
+    try {
+      writeInOrder(chunks, writer);
+      reading.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(ex.getMessage());
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException(ex.getCause());
+    } finally {
+      reading.cancel(true);
+      chunks.stream()
+          .filter(chunk -> !chunk.isEndOfFile())
+          .forEach(chunk -> chunk.entities.cancel(true));
+      profiler.stop().log();
+    }
+
+    return csvBeanReader.getRowNumber() - 1;
+  }
+
+  private <D extends BaseDto, E extends BaseEntity> void read(CsvBeanReader<D> csvBeanReader,
+      RecordProcessor<D, E> processor, BlockingQueue<Chunk<E>> chunks)
+      throws InterruptedException {
+    try {
+      while (true) {
+        int firstRow = csvBeanReader.getRowNumber();
+        List<D> imported = doRead(csvBeanReader);
+
+        if (imported.isEmpty()) {
+          break;
+        }
+
+        chunks.put(new Chunk<>(firstRow, csvBeanReader.getRowNumber() - 1,
+            processorExecutorService.submit(() -> doProcess(processor, imported))));
+      }
+
+      chunks.put(Chunk.endOfFile());
+    } catch (IOException | RuntimeException ex) {
+      CompletableFuture<List<E>> failure = new CompletableFuture<>();
+      failure.completeExceptionally(ex);
+      chunks.put(new Chunk<>(csvBeanReader.getRowNumber(), csvBeanReader.getRowNumber(),
+          failure));
+    }
+  }
+
+  private <E extends BaseEntity> void writeInOrder(BlockingQueue<Chunk<E>> chunks,
+      RecordWriter<E> writer) throws InterruptedException, IOException {
     while (true) {
-      List<D> imported = doRead(csvBeanReader);
+      Chunk<E> chunk = chunks.take();
 
-      if (imported.isEmpty()) {
+      if (chunk.isEndOfFile()) {
         break;
       }
 
-      doWrite(processor, writer, imported);
+      try {
+        List<E> entities = chunk.entities.get();
+
+        Profiler profiler = new Profiler("WRITE_CSV_CHUNK");
+        profiler.setLogger(LOGGER);
+        profiler.start("WRITE_TO_DB");
+        writer.write(entities);
+        profiler.stop().log();
+      } catch (ExecutionException ex) {
+        LOGGER.error("Failed to read or process rows {}-{} of the uploaded file", chunk.firstRow,
+            chunk.lastRow, ex.getCause());
+        throw rethrow(ex.getCause());
+      } catch (RuntimeException ex) {
+        LOGGER.error("Failed to write rows {}-{} of the uploaded file", chunk.firstRow,
+            chunk.lastRow, ex);
+        throw ex;
+      }
     }
+  }
+
+  private <D extends BaseDto, E extends BaseEntity> List<E> doProcess(
+      RecordProcessor<D, E> processor, List<D> imported) {
+    Profiler profiler = new Profiler("PROCESS_CSV_CHUNK");
+    profiler.setLogger(LOGGER);
+
+    profiler.start("PROCESS");
+    List<E> entities = processor.process(imported);
 
     profiler.stop().log();
-    return csvBeanReader.getRowNumber() - 1;
+    return entities;
+  }
+
+  private IOException rethrow(Throwable cause) throws IOException {
+    if (cause instanceof IOException) {
+      throw (IOException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    throw new IllegalStateException(cause);
   }
 
   private <D extends BaseDto> List<D> doRead(CsvBeanReader<D> csvBeanReader) throws IOException {
@@ -111,25 +226,36 @@ public class CsvParser {
     }
   }
 
-  private <D extends BaseDto, E extends BaseEntity> void doWrite(RecordProcessor<D, E> processor,
-                                                                 RecordWriter<E> writer,
-                                                                 List<D> imported) {
-    Profiler profiler = new Profiler("WRITE_CSV_CHUNK");
-    profiler.setLogger(LOGGER);
-
-    profiler.start("PROCESS");
-    List<E> entities = processor.process(imported);
-
-    profiler.start("WRITE_TO_DB");
-    writer.write(entities);
-
-    profiler.stop().log();
-  }
-
   private Message getCsvRowErrorMessage(SuperCsvException err) {
     CsvContext context = err.getCsvContext();
     int row = context.getRowNumber() - 1;
     return new Message(ERROR_UPLOAD_RECORD_INVALID, row, err.getMessage());
   }
 
+  /**
+   * Rows of the file read at once, together with the pending result of processing them.
+   */
+  private static final class Chunk<E> {
+    private static final Chunk<?> END_OF_FILE = new Chunk<>(-1, -1, null);
+
+    private final int firstRow;
+    private final int lastRow;
+    private final Future<List<E>> entities;
+
+    Chunk(int firstRow, int lastRow, Future<List<E>> entities) {
+      this.firstRow = firstRow;
+      this.lastRow = lastRow;
+      this.entities = entities;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> Chunk<E> endOfFile() {
+      return (Chunk<E>) END_OF_FILE;
+    }
+
+    boolean isEndOfFile() {
+      return this == END_OF_FILE;
+    }
+  }
+
 }
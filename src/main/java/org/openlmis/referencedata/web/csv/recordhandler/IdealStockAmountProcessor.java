@@ -20,10 +20,10 @@ import static org.openlmis.referencedata.util.messagekeys.IdealStockAmountMessag
 import static org.openlmis.referencedata.util.messagekeys.IdealStockAmountMessageKeys.ERROR_PROCESSING_PERIOD_NOT_FOUND;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.CommodityType;
 import org.openlmis.referencedata.domain.Facility;
@@ -36,8 +36,8 @@ import org.openlmis.referencedata.repository.CommodityTypeRepository;
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.ProcessingPeriodRepository;
 import org.openlmis.referencedata.repository.ProcessingScheduleRepository;
-import org.openlmis.referencedata.service.IdealStockAmountService;
 import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.ReferenceResolver;
 import org.openlmis.referencedata.util.messagekeys.ProcessingScheduleMessageKeys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,7 +47,8 @@ import org.springframework.stereotype.Component;
 
 /**
  * IdealStockAmountProcessor is used for uploads of Ideal Stock Amount.
- * It uploads each ideal stock amount by record.
+ * It resolves the references of each record. Chunks are processed outside of the transaction of
+ * the upload, so existing ideal stock amounts are looked up by {@link IdealStockAmountWriter}.
  */
 @Component
 public class IdealStockAmountProcessor
@@ -55,9 +56,6 @@ public class IdealStockAmountProcessor
 
   private static final Logger LOGGER = LoggerFactory.getLogger(IdealStockAmountProcessor.class);
 
-  @Autowired
-  private IdealStockAmountService idealStockAmountService;
-
   @Autowired
   private FacilityRepository facilityRepository;
 
@@ -72,27 +70,34 @@ public class IdealStockAmountProcessor
 
   @Override
   public List<IdealStockAmount> process(List<IdealStockAmountCsvModel> records) {
+    return process(records, new References());
+  }
+
+  /**
+   * Returns a processor that remembers facilities, schedules, periods and commodity types
+   * resolved for previous chunks of the same upload.
+   */
+  @Override
+  public RecordProcessor<IdealStockAmountCsvModel, IdealStockAmount> forUpload() {
+    References references = new References();
+    return records -> process(records, references);
+  }
+
+  private List<IdealStockAmount> process(List<IdealStockAmountCsvModel> records,
+      References references) {
     Profiler profiler = new Profiler("PROCESS_DTO_CHUNK");
     profiler.setLogger(LOGGER);
 
-    profiler.start("SEARCH_EXISTING_ISA");
     List<IdealStockAmount> idealStockAmounts = convert(records);
-    Map<Integer, IdealStockAmount> isaMap = new HashMap<>();
-    for (IdealStockAmount isa : idealStockAmountService.search(idealStockAmounts)) {
-      isaMap.put(hash(isa), isa);
-    }
+
+    profiler.start("RESOLVE_REFERENCES");
+    references.prefetch(idealStockAmounts);
 
     List<IdealStockAmount> resultList = new ArrayList<>();
 
     profiler.start("PROCESS_RECORDS");
     for (IdealStockAmount isa : idealStockAmounts) {
-      IdealStockAmount result = isaMap.getOrDefault(hash(isa), null);
-      if (null == result) {
-        resultList.add(prepareNewIdealStockAmountObject(isa));
-      } else {
-        result.setAmount(isa.getAmount());
-        resultList.add(result);
-      }
+      resultList.add(prepareNewIdealStockAmountObject(isa, references));
     }
 
     profiler.stop().log();
@@ -100,28 +105,26 @@ public class IdealStockAmountProcessor
     return resultList;
   }
 
-  private IdealStockAmount prepareNewIdealStockAmountObject(IdealStockAmount isa) {
-    Facility facility = facilityRepository.findByCode(isa.getFacility().getCode())
+  private IdealStockAmount prepareNewIdealStockAmountObject(IdealStockAmount isa,
+      References references) {
+    Facility facility = references.facilities.find(isa.getFacility().getCode())
         .orElseThrow(() -> new ValidationMessageException(new Message(ERROR_FACILITY_NOT_FOUND,
             isa.getFacility().getCode())));
 
-    ProcessingSchedule schedule = processingScheduleRepository
-        .findOneByCode(isa.getProcessingPeriod().getProcessingSchedule().getCode())
+    references.schedules
+        .find(isa.getProcessingPeriod().getProcessingSchedule().getCode())
         .orElseThrow(() -> new ValidationMessageException(new Message(
             ProcessingScheduleMessageKeys.ERROR_NOT_FOUND_WITH_CODE,
             isa.getProcessingPeriod().getProcessingSchedule().getCode()
         )));
-    ProcessingPeriod period = processingPeriodRepository.findOneByNameAndProcessingSchedule(
-        isa.getProcessingPeriod().getName(),
-        schedule)
+    ProcessingPeriod period = references.periods.find(periodKey(isa.getProcessingPeriod()))
         .orElseThrow(() -> new ValidationMessageException(
             new Message(ERROR_PROCESSING_PERIOD_NOT_FOUND,
             isa.getProcessingPeriod().getName(),
             isa.getProcessingPeriod().getProcessingSchedule().getCode())));
 
-    CommodityType commodityType = commodityTypeRepository
-        .findByClassificationIdAndClassificationSystem(isa.getCommodityType().getClassificationId(),
-            isa.getCommodityType().getClassificationSystem())
+    CommodityType commodityType = references.commodityTypes
+        .find(commodityTypeKey(isa.getCommodityType()))
         .orElseThrow(() -> new ValidationMessageException(new Message(
             ERROR_COMMODITY_TYPE_NOT_FOUND,
             isa.getCommodityType().getClassificationId(),
@@ -152,11 +155,46 @@ public class IdealStockAmountProcessor
     return result;
   }
 
-  private int hash(IdealStockAmount isa) {
-    return Objects.hash(isa.getFacility().getCode(),
-        isa.getCommodityType().getClassificationId(),
-        isa.getCommodityType().getClassificationSystem(),
-        isa.getProcessingPeriod().getName(),
-        isa.getProcessingPeriod().getProcessingSchedule().getCode());
+  private static Pair<Code, String> periodKey(ProcessingPeriod period) {
+    return Pair.of(period.getProcessingSchedule().getCode(), period.getName());
+  }
+
+  private static Pair<String, String> commodityTypeKey(CommodityType commodityType) {
+    return Pair.of(commodityType.getClassificationId(), commodityType.getClassificationSystem());
+  }
+
+  private static <K, V> List<V> distinct(List<K> keys, Function<K, V> part) {
+    return keys.stream().map(part).distinct().collect(Collectors.toList());
+  }
+
+  /**
+   * References of ideal stock amounts resolved in bulk for each chunk. Periods and commodity
+   * types are loaded by the distinct parts of their keys, so a query may return a few extra rows
+   * that are remembered for later lookups. Chunks are processed outside of a transaction, so the
+   * loaded entities are kept detached.
+   */
+  private final class References {
+    final ReferenceResolver<String, Facility> facilities = ReferenceResolver.detached(
+        facilityRepository::findAllByCodeIn, Facility::getCode);
+    final ReferenceResolver<Code, ProcessingSchedule> schedules = ReferenceResolver.detached(
+        processingScheduleRepository::findAllByCodeIn, ProcessingSchedule::getCode);
+    final ReferenceResolver<Pair<Code, String>, ProcessingPeriod> periods =
+        ReferenceResolver.detached(
+            keys -> processingPeriodRepository.findAllByProcessingScheduleCodeInAndNameIn(
+                distinct(keys, Pair::getLeft), distinct(keys, Pair::getRight)),
+            IdealStockAmountProcessor::periodKey);
+    final ReferenceResolver<Pair<String, String>, CommodityType> commodityTypes =
+        ReferenceResolver.detached(
+            keys -> commodityTypeRepository.findAllByClassificationIdIn(
+                distinct(keys, Pair::getLeft)),
+            IdealStockAmountProcessor::commodityTypeKey);
+
+    void prefetch(List<IdealStockAmount> idealStockAmounts) {
+      facilities.prefetch(idealStockAmounts, isa -> isa.getFacility().getCode());
+      schedules.prefetch(idealStockAmounts,
+          isa -> isa.getProcessingPeriod().getProcessingSchedule().getCode());
+      periods.prefetch(idealStockAmounts, isa -> periodKey(isa.getProcessingPeriod()));
+      commodityTypes.prefetch(idealStockAmounts, isa -> commodityTypeKey(isa.getCommodityType()));
+    }
   }
 }
@@ -15,13 +15,25 @@
 
 package org.openlmis.referencedata.web.csv.recordhandler;
 
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import org.openlmis.referencedata.domain.IdealStockAmount;
 import org.openlmis.referencedata.repository.IdealStockAmountRepository;
+import org.openlmis.referencedata.service.IdealStockAmountService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
  * This class is responsible for saving {@link IdealStockAmount} instances to the database.
+ * Existing ideal stock amounts are looked up here, within the transaction of the upload, so that
+ * they are updated in place, and an amount written by an earlier chunk of the same upload is
+ * updated instead of being inserted again.
  */
 @Component
 public class IdealStockAmountWriter implements RecordWriter<IdealStockAmount> {
@@ -29,8 +41,38 @@ public class IdealStockAmountWriter implements RecordWriter<IdealStockAmount> {
   @Autowired
   private IdealStockAmountRepository repository;
 
+  @Autowired
+  private IdealStockAmountService idealStockAmountService;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
   @Override
   public void write(Iterable<IdealStockAmount> records) {
-    repository.saveAll(records);
+    List<IdealStockAmount> idealStockAmounts = Lists.newArrayList(records);
+
+    Map<List<Object>, IdealStockAmount> existing = new HashMap<>();
+    for (IdealStockAmount isa : idealStockAmountService.search(idealStockAmounts)) {
+      existing.put(key(isa), isa);
+    }
+
+    List<IdealStockAmount> created = new ArrayList<>();
+    for (IdealStockAmount isa : idealStockAmounts) {
+      IdealStockAmount current = existing.putIfAbsent(key(isa), isa);
+      if (null == current) {
+        created.add(isa);
+      } else {
+        current.setAmount(isa.getAmount());
+      }
+    }
+
+    repository.saveAll(created);
+    // later chunks of the upload have to find the created amounts
+    entityManager.flush();
+  }
+
+  private static List<Object> key(IdealStockAmount isa) {
+    return Arrays.asList(isa.getFacility().getId(), isa.getCommodityType().getId(),
+        isa.getProcessingPeriod().getId());
   }
 }
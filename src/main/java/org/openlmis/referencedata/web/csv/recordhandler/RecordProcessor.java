@@ -25,4 +25,12 @@ import org.openlmis.referencedata.dto.BaseDto;
 public interface RecordProcessor<T extends BaseDto, R extends BaseEntity> {
 
   List<R> process(List<T> dto);
+
+  /**
+   * Returns the processor that should handle all chunks of a single upload. Processors that
+   * remember looked up references between chunks return a new instance for each upload.
+   */
+  default RecordProcessor<T, R> forUpload() {
+    return this;
+  }
 }
@@ -18,8 +18,12 @@ package org.openlmis.referencedata.web.export;
 import static org.openlmis.referencedata.web.export.DataImportController.RESOURCE_PATH;
 
 import java.util.List;
+import java.util.UUID;
+import org.openlmis.referencedata.domain.ImportJob;
 import org.openlmis.referencedata.domain.RightName;
+import org.openlmis.referencedata.dto.ImportJobDto;
 import org.openlmis.referencedata.dto.ImportResponseDto;
+import org.openlmis.referencedata.service.export.DataImportJobService;
 import org.openlmis.referencedata.service.export.DataImportService;
 import org.openlmis.referencedata.web.BaseController;
 import org.slf4j.ext.XLogger;
@@ -29,9 +33,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -42,6 +49,7 @@ public class DataImportController extends BaseController {
   private static final XLogger XLOGGER = XLoggerFactory.getXLogger(DataImportController.class);
 
   @Autowired private DataImportService dataImportService;
+  @Autowired private DataImportJobService dataImportJobService;
 
   /**
    * Imports the data from a ZIP with CSV files.
@@ -64,4 +72,55 @@ public class DataImportController extends BaseController {
     profiler.stop().log();
     return ResponseEntity.ok().body(new ImportResponseDto(importedDataSummary));
   }
+
+  /**
+   * Submits a ZIP with CSV files to be imported in the background.
+   *
+   * @param file ZIP archive being imported.
+   * @return the queued import job
+   */
+  @PostMapping("/jobs")
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  @ResponseBody
+  public ImportJobDto submitImportJob(@RequestPart("file") MultipartFile file) {
+    final Profiler profiler = new Profiler("SUBMIT_DATA_IMPORT_JOB");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("CHECK_ADMIN_RIGHT");
+    rightService.checkAdminRight(RightName.DATA_IMPORT);
+
+    profiler.start("SPOOL_AND_QUEUE");
+    final ImportJob job = dataImportJobService.submit(file);
+
+    profiler.stop().log();
+    return ImportJobDto.newInstance(job);
+  }
+
+  /**
+   * Returns the status and per-file progress of an import job.
+   *
+   * @param id id of the import job.
+   * @return the import job
+   */
+  @GetMapping("/jobs/{id}")
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public ImportJobDto getImportJob(@PathVariable("id") UUID id) {
+    rightService.checkAdminRight(RightName.DATA_IMPORT);
+    return ImportJobDto.newInstance(dataImportJobService.getJob(id));
+  }
+
+  /**
+   * Cancels a queued or running import job. Batches persisted before the job stops are kept.
+   *
+   * @param id id of the import job.
+   * @return the cancelled import job
+   */
+  @PostMapping("/jobs/{id}/cancel")
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public ImportJobDto cancelImportJob(@PathVariable("id") UUID id) {
+    rightService.checkAdminRight(RightName.DATA_IMPORT);
+    return ImportJobDto.newInstance(dataImportJobService.cancel(id));
+  }
 }
@@ -0,0 +1,21 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+-- Indexes used by the audit log paging, the audit log initializer and the audit log compaction.
+-- Built concurrently, outside of a transaction, so that audit log writes are not blocked while
+-- the indexes of large JaVers tables are built.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS jv_snapshot_global_id_fk_commit_fk_idx
+  ON referencedata.jv_snapshot (global_id_fk, commit_fk);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS jv_snapshot_global_id_fk_version_idx
+  ON referencedata.jv_snapshot (global_id_fk, version);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS jv_global_id_type_name_idx
+  ON referencedata.jv_global_id (type_name);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS jv_global_id_local_id_idx
+  ON referencedata.jv_global_id (local_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS jv_commit_commit_date_idx
+  ON referencedata.jv_commit (commit_date);
@@ -0,0 +1,8 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+-- Lets the audit log initializer match the local ids of versioned entities as JSON, so that the
+-- match doesn't depend on the order of fields or the formatting JaVers writes them with.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS jv_global_id_local_id_json_idx
+  ON referencedata.jv_global_id ((CAST(local_id AS jsonb)));
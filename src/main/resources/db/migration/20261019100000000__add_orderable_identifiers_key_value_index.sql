@@ -0,0 +1,9 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+-- Covering index for resolving orderables by identifier (key, value) without reading the table.
+-- Built concurrently, outside of a transaction, so that orderables can still be saved while the
+-- index is built.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS orderable_identifiers_key_value_idx
+  ON referencedata.orderable_identifiers (key, value, orderableid, orderableversionnumber);
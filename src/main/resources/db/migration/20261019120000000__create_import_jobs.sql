@@ -0,0 +1,38 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+CREATE TABLE import_jobs (
+    id uuid NOT NULL,
+    status character varying(255) NOT NULL,
+    spooldirectory text NOT NULL,
+    createddate timestamp with time zone NOT NULL,
+    finisheddate timestamp with time zone,
+    errormessage text
+);
+
+ALTER TABLE ONLY import_jobs
+  ADD CONSTRAINT import_jobs_pkey PRIMARY KEY (id);
+
+CREATE INDEX ON import_jobs (status);
+
+CREATE TABLE import_job_files (
+    id uuid NOT NULL,
+    jobid uuid NOT NULL,
+    filename text NOT NULL,
+    importorder integer NOT NULL,
+    status character varying(255) NOT NULL,
+    rowsread integer NOT NULL DEFAULT 0,
+    rowspersisted integer NOT NULL DEFAULT 0,
+    rowsfailed integer NOT NULL DEFAULT 0
+);
+
+ALTER TABLE ONLY import_job_files
+  ADD CONSTRAINT import_job_files_pkey PRIMARY KEY (id);
+
+ALTER TABLE import_job_files
+  ADD CONSTRAINT import_job_files_jobid_fkey FOREIGN KEY (jobid)
+  REFERENCES referencedata.import_jobs(id) ON DELETE CASCADE;
+
+ALTER TABLE ONLY import_job_files
+  ADD CONSTRAINT import_job_files_jobid_filename_unq UNIQUE (jobid, filename);
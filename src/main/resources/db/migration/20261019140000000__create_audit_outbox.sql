@@ -0,0 +1,15 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+CREATE TABLE audit_outbox (
+    id bigserial NOT NULL,
+    entitytype character varying(255) NOT NULL,
+    entityid uuid NOT NULL,
+    versionnumber bigint,
+    author text NOT NULL,
+    createddate timestamp with time zone NOT NULL DEFAULT now()
+);
+
+ALTER TABLE ONLY audit_outbox
+  ADD CONSTRAINT audit_outbox_pkey PRIMARY KEY (id);
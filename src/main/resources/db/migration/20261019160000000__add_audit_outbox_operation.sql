@@ -0,0 +1,8 @@
+-- WHEN COMMITTING OR REVIEWING THIS FILE: Make sure that the timestamp in the file name (that serves as a version) is the latest timestamp, and that no new migration have been added in the meanwhile.
+-- Adding migrations out of order may cause this migration to never execute or behave in an unexpected way.
+-- Migrations should NOT BE EDITED. Add a new migration to apply changes.
+
+ALTER TABLE audit_outbox
+  ADD COLUMN operation character varying(6) NOT NULL DEFAULT 'SAVE';
+
+CREATE INDEX audit_outbox_entity_idx ON audit_outbox (entitytype, entityid);
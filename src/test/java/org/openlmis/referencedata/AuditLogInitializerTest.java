@@ -15,44 +15,40 @@
 
 package org.openlmis.referencedata;
 
-import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.eq;
-import static org.mockito.Mockito.never;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Lists;
-import java.util.ArrayList;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.javers.core.Javers;
-import org.javers.core.metamodel.object.CdoSnapshot;
-import org.javers.repository.jql.JqlQuery;
 import org.javers.spring.annotation.JaversSpringDataAuditable;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
 import org.openlmis.referencedata.domain.TradeItem;
 import org.openlmis.referencedata.repository.TradeItemRepository;
 import org.openlmis.referencedata.testbuilder.TradeItemDataBuilder;
-import org.powermock.api.mockito.PowerMockito;
-import org.powermock.core.classloader.annotations.PrepareForTest;
-import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.context.ApplicationContext;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.transaction.PlatformTransactionManager;
 
-@RunWith(PowerMockRunner.class)
-@PrepareForTest({CdoSnapshot.class})
+@RunWith(MockitoJUnitRunner.class)
 public class AuditLogInitializerTest {
 
+  private static final UUID FIRST_ID = new UUID(0L, 0L);
+
   @Mock
   private ApplicationContext applicationContext;
 
@@ -60,10 +56,10 @@ public class AuditLogInitializerTest {
   private Javers javers;
 
   @Mock
-  private TradeItemRepository tradeItemRepository;
+  private PlatformTransactionManager transactionManager;
 
   @Mock
-  private CdoSnapshot snapshot;
+  private TradeItemRepository tradeItemRepository;
 
   @Mock
   private TestItemRepository testItemRepository;
@@ -74,7 +70,8 @@ public class AuditLogInitializerTest {
 
   @Before
   public void setUp() {
-    auditLogInitializer = new AuditLogInitializer(applicationContext, javers);
+    auditLogInitializer = new AuditLogInitializer(applicationContext, javers, transactionManager,
+        MoreExecutors.newDirectExecutorService(), 2);
 
     when(applicationContext.getBeansWithAnnotation(JaversSpringDataAuditable.class))
         .thenReturn(repositoryMap);
@@ -90,21 +87,40 @@ public class AuditLogInitializerTest {
   }
 
   @Test
-  public void shouldNotCreateSecondSnapshot() {
+  public void shouldCreateSnapshotsInBatchesStartingFromLastId() {
     repositoryMap.put("tradeItemRepository", tradeItemRepository);
 
-    ArrayList<TradeItem> content = Lists.newArrayList(new TradeItemDataBuilder().build());
-    Page<TradeItem> page = new PageImpl<>(content);
+    TradeItem first = new TradeItemDataBuilder().build();
+    TradeItem second = new TradeItemDataBuilder().build();
+    TradeItem third = new TradeItemDataBuilder().build();
+
+    when(tradeItemRepository.findAllWithoutSnapshots(eq(FIRST_ID), any(Pageable.class)))
+        .thenReturn(Lists.newArrayList(first, second));
+    when(tradeItemRepository.findAllWithoutSnapshots(eq(second.getId()), any(Pageable.class)))
+        .thenReturn(Lists.newArrayList(third));
+    when(tradeItemRepository.findAllWithoutSnapshots(eq(third.getId()), any(Pageable.class)))
+        .thenReturn(Lists.newArrayList());
+
+    auditLogInitializer.run();
+
+    verify(javers).commit(AuditLogInitializer.AUTHOR, first);
+    verify(javers).commit(AuditLogInitializer.AUTHOR, second);
+    verify(javers).commit(AuditLogInitializer.AUTHOR, third);
+    verify(transactionManager, times(3)).getTransaction(any());
+  }
 
-    when(tradeItemRepository.findAllWithoutSnapshots(any(Pageable.class)))
-        .thenReturn(page)
-        .thenReturn(new PageImpl<>(Lists.newArrayList()));
+  @Test
+  public void shouldNotCreateSecondSnapshot() {
+    repositoryMap.put("tradeItemRepository", tradeItemRepository);
+
+    TradeItem tradeItem = new TradeItemDataBuilder().build();
 
-    PowerMockito.when(javers.findSnapshots(any(JqlQuery.class)))
-        .thenReturn(Lists.newArrayList(snapshot));
+    when(tradeItemRepository.findAllWithoutSnapshots(any(UUID.class), any(Pageable.class)))
+        .thenReturn(Lists.newArrayList(tradeItem));
 
     auditLogInitializer.run();
-    verify(javers, never()).commit(eq("System: AuditLogInitializer"), any());
+
+    verify(javers, times(1)).commit(eq(AuditLogInitializer.AUTHOR), any());
   }
 
   @Getter
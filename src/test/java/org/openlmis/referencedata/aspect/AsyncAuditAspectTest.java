@@ -0,0 +1,94 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.aspect;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.openlmis.referencedata.repository.AuditOutboxRepository.Operation.DELETE;
+import static org.openlmis.referencedata.repository.AuditOutboxRepository.Operation.SAVE;
+
+import java.util.Collections;
+import java.util.Optional;
+import org.javers.core.Javers;
+import org.javers.spring.auditable.AuthorProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.repository.AuditOutboxRepository;
+import org.openlmis.referencedata.testbuilder.ProgramDataBuilder;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncAuditAspectTest {
+
+  @Mock
+  private AuditOutboxRepository auditOutboxRepository;
+
+  @Mock
+  private AuthorProvider authorProvider;
+
+  @Mock
+  private Javers javers;
+
+  @InjectMocks
+  private AsyncAuditAspect aspect;
+
+  private Program program = new ProgramDataBuilder().build();
+
+  @Before
+  public void setUp() {
+    when(authorProvider.provide()).thenReturn("remover");
+  }
+
+  @Test
+  public void shouldAddSavedEntitiesToOutbox() {
+    aspect.afterSave(program);
+
+    verify(auditOutboxRepository).add(Collections.singletonList(program), "remover", SAVE);
+    verify(javers, never()).commit(any(String.class), any());
+  }
+
+  @Test
+  public void shouldAddDeletedEntitiesToOutbox() {
+    when(auditOutboxRepository.removePendingSaves(program)).thenReturn(Optional.empty());
+
+    aspect.afterDelete(program);
+
+    verify(auditOutboxRepository).add(Collections.singletonList(program), "remover", DELETE);
+    verify(javers, never()).commit(any(String.class), any());
+    verify(javers, never()).commitShallowDelete(any(String.class), any());
+  }
+
+  @Test
+  public void shouldCommitPendingSaveBeforeQueuingDeleteOfEntityCreatedBeforePoll() {
+    when(auditOutboxRepository.removePendingSaves(program)).thenReturn(Optional.of("creator"));
+
+    aspect.afterDelete(program);
+
+    InOrder order = inOrder(auditOutboxRepository, javers);
+    order.verify(auditOutboxRepository).removePendingSaves(program);
+    order.verify(javers).commit("creator", program);
+    order.verify(auditOutboxRepository)
+        .add(Collections.singletonList(program), "remover", DELETE);
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.FacilityType;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.repository.FacilityTypeRepository;
+import org.openlmis.referencedata.repository.ProgramRepository;
+import org.openlmis.referencedata.testbuilder.ProgramDataBuilder;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CacheWarmUpTest {
+
+  @Mock
+  private ProgramRepository programRepository;
+
+  @Mock
+  private FacilityTypeRepository facilityTypeRepository;
+
+  @Mock
+  private ReadThroughCache<Program> programCache;
+
+  @Mock
+  private ReadThroughCache<FacilityType> facilityTypeCache;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @InjectMocks
+  private CacheWarmUp warmUp;
+
+  private List<Program> programs = Collections.singletonList(new ProgramDataBuilder().build());
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(warmUp, "programCache", programCache);
+    ReflectionTestUtils.setField(warmUp, "facilityTypeCache", facilityTypeCache);
+    ReflectionTestUtils.setField(warmUp, "meterRegistry", meterRegistry);
+    ReflectionTestUtils.setField(warmUp, "executorService",
+        MoreExecutors.newDirectExecutorService());
+    ReflectionTestUtils.setField(warmUp, "timeout", 1000L);
+  }
+
+  @Test
+  public void shouldReportOutOfServiceUntilCachesAreLoaded() {
+    ReflectionTestUtils.setField(warmUp, "caches", CacheWarmUp.PROGRAMS);
+    when(programRepository.findAll()).thenReturn(programs);
+    warmUp.init();
+
+    assertThat(warmUp.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+    warmUp.warmUp();
+
+    verify(programCache).putAll(programs);
+    assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+    assertThat(warmUp.health().getDetails()).containsEntry(CacheWarmUp.PROGRAMS, "1 entries");
+    assertThat(timerCount(CacheWarmUp.PROGRAMS, "success")).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldLoadOtherCachesIfOneFails() {
+    ReflectionTestUtils.setField(warmUp, "caches",
+        CacheWarmUp.FACILITY_TYPES + ", " + CacheWarmUp.PROGRAMS);
+    when(facilityTypeRepository.findAll()).thenThrow(new IllegalStateException());
+    when(programRepository.findAll()).thenReturn(programs);
+    warmUp.init();
+
+    warmUp.warmUp();
+
+    verify(programCache).putAll(programs);
+    assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+    assertThat(warmUp.health().getDetails())
+        .containsEntry(CacheWarmUp.FACILITY_TYPES, "FAILED");
+    assertThat(timerCount(CacheWarmUp.FACILITY_TYPES, "failure")).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldNotLoadAnythingIfNoCacheIsConfigured() {
+    ReflectionTestUtils.setField(warmUp, "caches", "");
+    warmUp.init();
+
+    assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+
+    warmUp.warmUp();
+
+    verifyZeroInteractions(programRepository, facilityTypeRepository, programCache,
+        facilityTypeCache);
+  }
+
+  @Test
+  public void shouldIgnoreUnknownCaches() {
+    ReflectionTestUtils.setField(warmUp, "caches", "unknown");
+    warmUp.init();
+
+    warmUp.warmUp();
+
+    assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+  }
+
+  private long timerCount(String cache, String outcome) {
+    return meterRegistry.timer("cache.warmup", "cache", cache, "outcome", outcome).count();
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NearCacheInvalidatorTest {
+
+  private static final String CACHE = "programs";
+  private static final String CHANNEL = "channel";
+
+  @Mock
+  private StringRedisTemplate stringRedisTemplate;
+
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @InjectMocks
+  private NearCacheInvalidator invalidator;
+
+  private UUID id = UUID.randomUUID();
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(invalidator, "objectMapper", objectMapper);
+    ReflectionTestUtils.setField(invalidator, "channel", CHANNEL);
+  }
+
+  @Test
+  public void shouldDropEntryEvictedByOtherNode() throws Exception {
+    NearCache<String> nearCache = invalidator.create(CACHE, 10, 60);
+    nearCache.put(id, "value");
+
+    invalidator.onMessage(message("other", CACHE, id), null);
+
+    assertThat(nearCache.get(id)).isNull();
+  }
+
+  @Test
+  public void shouldIgnoreEvictionsBroadcastBySameNode() throws Exception {
+    String nodeId = (String) ReflectionTestUtils.getField(invalidator, "nodeId");
+    NearCache<String> nearCache = invalidator.create(CACHE, 10, 60);
+    nearCache.put(id, "value");
+
+    invalidator.onMessage(message(nodeId, CACHE, id), null);
+
+    assertThat(nearCache.get(id)).isEqualTo("value");
+  }
+
+  @Test
+  public void shouldBroadcastEviction() throws Exception {
+    NearCache<String> nearCache = invalidator.create(CACHE, 10, 60);
+    nearCache.put(id, "value");
+
+    nearCache.evict(id);
+
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    verify(stringRedisTemplate).convertAndSend(eq(CHANNEL), captor.capture());
+
+    NearCacheInvalidationMessage invalidation = objectMapper
+        .readValue(captor.getValue(), NearCacheInvalidationMessage.class);
+    assertThat(invalidation.getCache()).isEqualTo(CACHE);
+    assertThat(invalidation.getId()).isEqualTo(id);
+    assertThat(nearCache.get(id)).isNull();
+  }
+
+  @Test
+  public void shouldNotBroadcastIfNearCacheIsDisabled() {
+    NearCache<String> nearCache = invalidator.create(CACHE, 0, 60);
+
+    nearCache.evict(id);
+
+    assertThat(nearCache.isEnabled()).isFalse();
+    verify(stringRedisTemplate, never()).convertAndSend(anyString(), anyString());
+  }
+
+  @Test
+  public void shouldRunInvalidationRegisteredForBroadcastByOtherNode() throws Exception {
+    List<UUID> invalidated = new ArrayList<>();
+    invalidator.register(CACHE, invalidated::add);
+
+    invalidator.onMessage(message("other", CACHE, null), null);
+    invalidator.onMessage(message("other", "other", id), null);
+
+    assertThat(invalidated).containsExactly((UUID) null);
+  }
+
+  @Test
+  public void shouldBroadcastInvalidationWithoutId() throws Exception {
+    invalidator.broadcast(CACHE, null);
+
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    verify(stringRedisTemplate).convertAndSend(eq(CHANNEL), captor.capture());
+
+    NearCacheInvalidationMessage invalidation = objectMapper
+        .readValue(captor.getValue(), NearCacheInvalidationMessage.class);
+    assertThat(invalidation.getCache()).isEqualTo(CACHE);
+    assertThat(invalidation.getId()).isNull();
+  }
+
+  private Message message(String nodeId, String cache, UUID id) throws Exception {
+    return new DefaultMessage(new byte[0], objectMapper.writeValueAsBytes(
+        new NearCacheInvalidationMessage(nodeId, cache, id)));
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.referencedata.AvailableFeatures;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.repository.custom.CrudRedisRepository;
+import org.openlmis.referencedata.testbuilder.ProgramDataBuilder;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.togglz.junit.TogglzRule;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReadThroughCacheTest {
+
+  @Rule
+  public TogglzRule togglzRule = TogglzRule.builder(AvailableFeatures.class)
+      .enable(AvailableFeatures.REDIS_CACHING)
+      .build();
+
+  @Mock
+  private CrudRedisRepository<Program> repository;
+
+  private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private ReadThroughCache<Program> cache;
+
+  private Program program = new ProgramDataBuilder().build();
+  private Program other = new ProgramDataBuilder().build();
+
+  @Before
+  public void setUp() {
+    cache = new ReadThroughCache<>("programs", Program.class, repository, meterRegistry);
+  }
+
+  @Test
+  public void shouldReturnCachedObjectWithoutCallingLoader() {
+    when(repository.findById(program.getId())).thenReturn(program);
+
+    Optional<Program> result = cache.get(program.getId(), id -> {
+      throw new IllegalStateException();
+    });
+
+    assertThat(result).contains(program);
+    assertThat(count("cache.gets", "hit")).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldLoadAndStoreObjectMissingFromCache() {
+    Optional<Program> result = cache.get(program.getId(), id -> Optional.of(program));
+
+    assertThat(result).contains(program);
+    verify(repository).save(program);
+    assertThat(count("cache.gets", "miss")).isEqualTo(1);
+    assertThat(meterRegistry.counter("cache.puts", "cache", "programs").count()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldNotStoreObjectThatDoesNotExist() {
+    Optional<Program> result = cache.get(program.getId(), id -> Optional.empty());
+
+    assertThat(result).isEmpty();
+    verify(repository, never()).save(any());
+  }
+
+  @Test
+  public void shouldBypassCacheIfFeatureIsDisabled() {
+    togglzRule.disable(AvailableFeatures.REDIS_CACHING);
+
+    Optional<Program> result = cache.get(program.getId(), id -> Optional.of(program));
+
+    assertThat(result).contains(program);
+    verifyZeroInteractions(repository);
+  }
+
+  @Test
+  public void shouldLoadFromDatabaseIfCacheIsUnavailable() {
+    when(repository.findById(program.getId()))
+        .thenThrow(new RedisConnectionFailureException("down"));
+    doThrow(new RedisConnectionFailureException("down")).when(repository).save(program);
+
+    Optional<Program> result = cache.get(program.getId(), id -> Optional.of(program));
+
+    assertThat(result).contains(program);
+  }
+
+  @Test
+  public void shouldLoadOnlyObjectsMissingFromCacheInOneCall() {
+    when(repository.findAllById(any()))
+        .thenReturn(ImmutableMap.of(program.getId(), program));
+
+    List<Program> result = cache.getAll(Arrays.asList(other.getId(), program.getId()), ids -> {
+      assertThat(ids).containsExactly(other.getId());
+      return Collections.singletonList(other);
+    });
+
+    assertThat(result).containsExactly(other, program);
+    verify(repository).saveAll(Collections.singletonList(other));
+    assertThat(count("cache.gets", "hit")).isEqualTo(1);
+    assertThat(count("cache.gets", "miss")).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldServeRepeatedReadsFromNearCache() {
+    cache = new ReadThroughCache<>("programs", Program.class, repository,
+        new NearCache<>(10, 60, id -> { }), meterRegistry);
+    when(repository.findById(program.getId())).thenReturn(program);
+
+    cache.get(program.getId(), id -> Optional.empty());
+    Optional<Program> result = cache.get(program.getId(), id -> Optional.empty());
+
+    assertThat(result).contains(program);
+    verify(repository, times(1)).findById(program.getId());
+    assertThat(count("cache.gets", "near_hit")).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldEvictObjectFromNearCache() {
+    cache = new ReadThroughCache<>("programs", Program.class, repository,
+        new NearCache<>(10, 60, id -> { }), meterRegistry);
+    cache.get(program.getId(), id -> Optional.of(program));
+
+    cache.evict(program.getId());
+    Optional<Program> result = cache.get(program.getId(), id -> Optional.empty());
+
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  public void shouldEvictObject() {
+    UUID id = program.getId();
+
+    cache.evict(id);
+
+    verify(repository).deleteById(id);
+    assertThat(meterRegistry.counter("cache.evictions", "cache", "programs").count())
+        .isEqualTo(1);
+  }
+
+  private double count(String name, String result) {
+    return meterRegistry.counter(name, "cache", "programs", "result", result).count();
+  }
+}
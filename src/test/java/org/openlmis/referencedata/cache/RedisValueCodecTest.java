@@ -0,0 +1,100 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.Test;
+import org.openlmis.referencedata.cache.RedisValueCodec.Format;
+import org.openlmis.referencedata.dto.ProgramDto;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+public class RedisValueCodecTest {
+
+  private ObjectMapper objectMapper = new ObjectMapper()
+      .enable(SerializationFeature.INDENT_OUTPUT);
+
+  private ProgramDto program = newProgram("description");
+
+  @Test
+  public void shouldEncodeAndDecodeValue() {
+    RedisSerializer<ProgramDto> serializer = serializer(Format.SMILE, 4096);
+
+    byte[] bytes = serializer.serialize(program);
+
+    assertThat(bytes[0]).isEqualTo(RedisValueCodec.ENVELOPE_VERSION);
+    assertThat(bytes[2]).isEqualTo(RedisValueCodec.UNCOMPRESSED);
+    assertThat(serializer.deserialize(bytes)).isEqualTo(program);
+  }
+
+  @Test
+  public void shouldCompressValuesAboveThreshold() {
+    RedisSerializer<ProgramDto> serializer = serializer(Format.SMILE, 100);
+    ProgramDto large = newProgram(new String(new char[1000]).replace('\0', 'x'));
+
+    byte[] bytes = serializer.serialize(large);
+
+    assertThat(bytes[2]).isEqualTo(RedisValueCodec.COMPRESSED);
+    assertThat(bytes.length).isLessThan(1000);
+    assertThat(serializer.deserialize(bytes)).isEqualTo(large);
+  }
+
+  @Test
+  public void shouldNotIndentJson() {
+    byte[] bytes = serializer(Format.JSON, 4096).serialize(program);
+
+    assertThat(new String(bytes, StandardCharsets.UTF_8)).doesNotContain("\n");
+  }
+
+  @Test
+  public void shouldReadValuesWrittenInOtherFormat() {
+    byte[] bytes = serializer(Format.JSON, 4096).serialize(program);
+
+    assertThat(serializer(Format.SMILE, 4096).deserialize(bytes)).isEqualTo(program);
+  }
+
+  @Test
+  public void shouldTreatValuesWithoutEnvelopeAsMissing() throws Exception {
+    byte[] legacy = objectMapper.writeValueAsBytes(program);
+
+    assertThat(serializer(Format.SMILE, 4096).deserialize(legacy)).isNull();
+  }
+
+  @Test
+  public void shouldTreatCorruptValuesAsMissing() {
+    byte[] bytes = serializer(Format.SMILE, 4096).serialize(program);
+    byte[] truncated = Arrays.copyOf(bytes, bytes.length - 5);
+
+    assertThat(serializer(Format.SMILE, 4096).deserialize(truncated)).isNull();
+  }
+
+  private RedisSerializer<ProgramDto> serializer(Format format, int compressionThreshold) {
+    return new RedisValueCodec(objectMapper, format, compressionThreshold)
+        .serializerFor(ProgramDto.class);
+  }
+
+  private ProgramDto newProgram(String description) {
+    ProgramDto dto = new ProgramDto();
+    dto.setCode("PRG");
+    dto.setName("Program");
+    dto.setDescription(description);
+    return dto;
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.cache;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.Program;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SecondLevelCacheInvalidatorTest {
+
+  private static final String ENTITY_NAME = Program.class.getName();
+
+  @Mock
+  private SessionFactoryImplementor sessionFactory;
+
+  @Mock
+  private Cache cache;
+
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @InjectMocks
+  private SecondLevelCacheInvalidator invalidator;
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(invalidator, "objectMapper", objectMapper);
+    ReflectionTestUtils.setField(invalidator, "sessionFactory", sessionFactory);
+  }
+
+  @Test
+  public void shouldEvictSingleEntityBroadcastByOtherNode() throws Exception {
+    UUID id = UUID.randomUUID();
+    when(sessionFactory.getCache()).thenReturn(cache);
+    mockIdentifierType();
+
+    invalidator.onMessage(message("other", ENTITY_NAME, id), null);
+
+    verify(cache).evictEntityData(ENTITY_NAME, id);
+  }
+
+  @Test
+  public void shouldEvictWholeRegionIfIdIsMissing() throws Exception {
+    when(sessionFactory.getCache()).thenReturn(cache);
+
+    invalidator.onMessage(message("other", ENTITY_NAME, null), null);
+
+    verify(cache).evictEntityData(ENTITY_NAME);
+  }
+
+  @Test
+  public void shouldIgnoreMessagesBroadcastBySameNode() throws Exception {
+    String nodeId = (String) ReflectionTestUtils.getField(invalidator, "nodeId");
+
+    invalidator.onMessage(message(nodeId, ENTITY_NAME, UUID.randomUUID()), null);
+
+    verify(cache, never()).evictEntityData(anyString());
+    verify(cache, never()).evictEntityData(anyString(), any());
+  }
+
+  @Test
+  public void shouldIgnoreMalformedMessages() {
+    invalidator.onMessage(new DefaultMessage(new byte[0], "{".getBytes(StandardCharsets.UTF_8)),
+        null);
+
+    verify(cache, never()).evictEntityData(anyString());
+  }
+
+  private void mockIdentifierType() {
+    MetamodelImplementor metamodel = mock(MetamodelImplementor.class);
+    EntityPersister persister = mock(EntityPersister.class);
+    Type identifierType = mock(Type.class);
+
+    when(sessionFactory.getMetamodel()).thenReturn(metamodel);
+    when(metamodel.entityPersister(eq(ENTITY_NAME))).thenReturn(persister);
+    when(persister.getIdentifierType()).thenReturn(identifierType);
+    when(identifierType.getReturnedClass()).thenReturn(UUID.class);
+  }
+
+  private Message message(String nodeId, String name, UUID id) throws Exception {
+    SecondLevelCacheInvalidationMessage invalidation = new SecondLevelCacheInvalidationMessage(
+        nodeId, SecondLevelCacheInvalidationMessage.Type.ENTITY, name,
+        null == id ? null : objectMapper.valueToTree(id));
+
+    return new DefaultMessage(new byte[0],
+        objectMapper.writeValueAsBytes(invalidation));
+  }
+}
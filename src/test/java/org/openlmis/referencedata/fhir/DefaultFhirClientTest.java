@@ -15,10 +15,13 @@
 
 package org.openlmis.referencedata.fhir;
 
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import ca.uhn.fhir.rest.server.exceptions.AuthenticationException;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.junit.Before;
 import org.junit.Test;
@@ -94,6 +97,24 @@ public class DefaultFhirClientTest {
     verify(locationSynchronizer).synchronize(location, resource);
   }
 
+  @Test
+  public void shouldRetrySynchronizationOnceWhenTokenIsRejected() {
+    //given
+    Facility facility = new FacilityDataBuilder().build();
+    FhirLocation location = FhirLocation.newInstance(SERVICE_URL, facility);
+    when(locationFactory.createFor(facility)).thenReturn(location);
+    when(locationConvert.convert(location)).thenReturn(resource);
+    doThrow(new AuthenticationException())
+        .doNothing()
+        .when(locationSynchronizer).synchronize(location, resource);
+
+    // when
+    client.synchronizeFacility(facility);
+
+    // then
+    verify(locationSynchronizer, times(2)).synchronize(location, resource);
+  }
+
   @Test
   public void shouldNotSynchronizeFacilityIfRequestCameFromFhirServer() {
     // given
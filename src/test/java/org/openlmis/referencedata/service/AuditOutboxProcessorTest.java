@@ -0,0 +1,171 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.openlmis.referencedata.repository.AuditOutboxRepository.Operation.DELETE;
+import static org.openlmis.referencedata.repository.AuditOutboxRepository.Operation.SAVE;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
+import org.javers.core.Javers;
+import org.javers.core.metamodel.object.CdoSnapshot;
+import org.javers.repository.jql.InstanceIdDTO;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.domain.VersionIdentity;
+import org.openlmis.referencedata.repository.AuditOutboxRepository;
+import org.openlmis.referencedata.repository.AuditOutboxRepository.AuditOutboxEntry;
+import org.openlmis.referencedata.testbuilder.OrderableDataBuilder;
+import org.openlmis.referencedata.testbuilder.ProgramDataBuilder;
+import org.openlmis.referencedata.util.TransactionUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AuditOutboxProcessorTest {
+
+  @Mock
+  private Javers javers;
+
+  @Mock
+  private AuditOutboxRepository auditOutboxRepository;
+
+  @Mock
+  private TransactionUtils transactionUtils;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @InjectMocks
+  private AuditOutboxProcessor processor;
+
+  private Program program = new ProgramDataBuilder().build();
+  private Orderable orderable = new OrderableDataBuilder().build();
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(processor, "meterRegistry", new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(processor, "batchSize", 10);
+
+    when(transactionUtils.runInOwnTransaction(any(Supplier.class)))
+        .thenAnswer(invocation -> ((Supplier) invocation.getArgument(0)).get());
+  }
+
+  @Test
+  public void shouldCommitOneSnapshotPerEntityWithLatestAuthor() {
+    when(auditOutboxRepository.lockOldest(10)).thenReturn(Arrays.asList(
+        new AuditOutboxEntry(1, Program.class.getName(), program.getId(), null, "first", SAVE),
+        new AuditOutboxEntry(2, Program.class.getName(), program.getId(), null, "second", SAVE)));
+    when(entityManager.find(Program.class, program.getId())).thenReturn(program);
+
+    processor.processPending();
+
+    verify(javers).commit("second", program);
+    verify(javers, never()).commit("first", program);
+    verify(auditOutboxRepository).delete(Arrays.asList(1L, 2L));
+  }
+
+  @Test
+  public void shouldFindVersionedEntitiesByVersionIdentity() {
+    when(auditOutboxRepository.lockOldest(10)).thenReturn(Collections.singletonList(
+        new AuditOutboxEntry(1, Orderable.class.getName(), orderable.getId(),
+            orderable.getVersionNumber(), "author", SAVE)));
+    when(entityManager.find(Orderable.class,
+        new VersionIdentity(orderable.getId(), orderable.getVersionNumber())))
+        .thenReturn(orderable);
+
+    processor.processPending();
+
+    verify(javers).commit("author", orderable);
+    verify(auditOutboxRepository).delete(Collections.singletonList(1L));
+  }
+
+  @Test
+  public void shouldSkipEntitiesThatNoLongerExist() {
+    UUID id = UUID.randomUUID();
+    when(auditOutboxRepository.lockOldest(10)).thenReturn(Collections.singletonList(
+        new AuditOutboxEntry(1, Program.class.getName(), id, null, "author", SAVE)));
+
+    processor.processPending();
+
+    verify(javers, never()).commit(any(String.class), any());
+    verify(auditOutboxRepository).delete(Collections.singletonList(1L));
+  }
+
+  @Test
+  public void shouldKeepEntriesWhenCommitFails() {
+    when(auditOutboxRepository.lockOldest(10)).thenReturn(Collections.singletonList(
+        new AuditOutboxEntry(1, Program.class.getName(), program.getId(), null, "author", SAVE)));
+    when(entityManager.find(Program.class, program.getId())).thenReturn(program);
+    when(javers.commit("author", program)).thenThrow(new IllegalStateException("failed"));
+
+    processor.processPending();
+
+    verify(auditOutboxRepository, never()).delete(any());
+  }
+
+  @Test
+  public void shouldCommitRemovalsAfterSnapshotsOfTheSameBatch() {
+    when(auditOutboxRepository.lockOldest(10)).thenReturn(Arrays.asList(
+        new AuditOutboxEntry(1, Program.class.getName(), program.getId(), null, "creator", SAVE),
+        new AuditOutboxEntry(2, Program.class.getName(), program.getId(), null, "remover",
+            DELETE)));
+    when(entityManager.find(Program.class, program.getId())).thenReturn(program);
+    when(javers.getLatestSnapshot(program.getId(), Program.class))
+        .thenReturn(Optional.of(mock(CdoSnapshot.class)));
+
+    processor.processPending();
+
+    InOrder order = inOrder(javers);
+    order.verify(javers).commit("creator", program);
+    order.verify(javers).commitShallowDeleteById(eq("remover"), argThat(
+        (InstanceIdDTO id) -> program.getId().equals(id.getCdoId())
+            && Program.class.equals(id.getEntity())));
+    verify(auditOutboxRepository).delete(Arrays.asList(1L, 2L));
+  }
+
+  @Test
+  public void shouldSkipRemovalsOfEntitiesThatWereNeverAudited() {
+    when(auditOutboxRepository.lockOldest(10)).thenReturn(Collections.singletonList(
+        new AuditOutboxEntry(1, Program.class.getName(), program.getId(), null, "author",
+            DELETE)));
+    when(javers.getLatestSnapshot(program.getId(), Program.class)).thenReturn(Optional.empty());
+
+    processor.processPending();
+
+    verify(javers, never()).commitShallowDeleteById(any(String.class), any());
+    verify(auditOutboxRepository).delete(Collections.singletonList(1L));
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.Sets;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.referencedata.repository.AuditRetentionRepository;
+import org.openlmis.referencedata.repository.AuditRetentionRepository.CompactableSnapshot;
+import org.openlmis.referencedata.service.AuditRetentionJob.RetentionPolicy;
+import org.openlmis.referencedata.util.TransactionUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AuditRetentionJobTest {
+
+  private static final String ORDERABLE = "Orderable";
+
+  @Mock
+  private AuditRetentionRepository auditRetentionRepository;
+
+  @Mock
+  private TransactionUtils transactionUtils;
+
+  @InjectMocks
+  private AuditRetentionJob job;
+
+  private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private Clock clock = Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC);
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(job, "meterRegistry", meterRegistry);
+    ReflectionTestUtils.setField(job, "clock", clock);
+    ReflectionTestUtils.setField(job, "batchSize", 2);
+
+    when(transactionUtils.runInOwnTransaction(any(Supplier.class)))
+        .thenAnswer(invocation -> ((Supplier) invocation.getArgument(0)).get());
+  }
+
+  @Test
+  public void shouldDeleteSnapshotsInBatchesAndReportReclaimedSpace() {
+    LocalDateTime before = LocalDateTime.of(2024, 10, 19, 12, 0);
+    when(auditRetentionRepository.findCompactable(ORDERABLE, before, "month", 0, 2))
+        .thenReturn(Arrays.asList(
+            new CompactableSnapshot(1, 10, 100),
+            new CompactableSnapshot(2, 11, 100)));
+    when(auditRetentionRepository.findCompactable(ORDERABLE, before, "month", 2, 2))
+        .thenReturn(Collections.singletonList(new CompactableSnapshot(5, 12, 100)));
+    when(auditRetentionRepository.deleteOrphanedCommits(anyCollection())).thenReturn(50L);
+
+    job.compact(new RetentionPolicy(ORDERABLE, Period.ofYears(2), "month"));
+
+    verify(auditRetentionRepository).deleteSnapshots(Arrays.asList(1L, 2L));
+    verify(auditRetentionRepository).deleteSnapshots(Collections.singletonList(5L));
+    verify(auditRetentionRepository).deleteOrphanedCommits(Sets.newHashSet(10L, 11L));
+    verify(auditRetentionRepository).deleteOrphanedCommits(Sets.newHashSet(12L));
+
+    assertThat(meterRegistry.counter("audit.retention.snapshots", "type", ORDERABLE).count(),
+        is(3.0));
+    assertThat(meterRegistry.counter("audit.retention.reclaimed", "type", ORDERABLE).count(),
+        is(400.0));
+  }
+
+  @Test
+  public void shouldStopWhenThereIsNothingToDelete() {
+    when(auditRetentionRepository.findCompactable(eq(ORDERABLE), any(LocalDateTime.class),
+        anyString(), eq(0L), eq(2)))
+        .thenReturn(Collections.emptyList());
+
+    job.compact(new RetentionPolicy(ORDERABLE, Period.ofYears(2), "month"));
+
+    verify(auditRetentionRepository, never()).deleteSnapshots(anyCollection());
+    verify(auditRetentionRepository, never()).deleteOrphanedCommits(anyCollection());
+  }
+
+  @Test
+  public void shouldParsePolicies() {
+    List<RetentionPolicy> policies = AuditRetentionJob
+        .parsePolicies("Orderable:P2Y:month, FacilityTypeApprovedProduct:P1Y6M:week");
+
+    assertThat(policies, hasSize(2));
+    assertThat(policies.get(0).getTypeName(), is(ORDERABLE));
+    assertThat(policies.get(0).getRetention(), is(Period.ofYears(2)));
+    assertThat(policies.get(0).getPeriod(), is("month"));
+    assertThat(policies.get(1).getTypeName(), is("FacilityTypeApprovedProduct"));
+    assertThat(policies.get(1).getRetention(), is(Period.of(1, 6, 0)));
+    assertThat(policies.get(1).getPeriod(), is("week"));
+  }
+
+  @Test
+  public void shouldParseNoPolicies() {
+    assertThat(AuditRetentionJob.parsePolicies(""), hasSize(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectPolicyWithUnknownPeriod() {
+    AuditRetentionJob.parsePolicies("Orderable:P2Y:decade");
+  }
+}
@@ -19,16 +19,30 @@ import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableMap;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -38,8 +52,10 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -49,6 +65,8 @@ public class AuthServiceTest {
   private static final URI AUTHORIZATION_URI = URI.create(
       AUTHORIZATION_URL + "?grant_type=client_credentials"
   );
+  private static final String INVALID_TOKEN_BODY = "{\"error\":\"invalid_token\"}";
+  private static final Instant NOW = Instant.parse("2017-01-01T12:00:00Z");
 
   @Mock
   private RestTemplate restTemplate;
@@ -66,6 +84,8 @@ public class AuthServiceTest {
     ReflectionTestUtils.setField(authService, "clientId", "trusted-client");
     ReflectionTestUtils.setField(authService, "clientSecret", "secret");
     ReflectionTestUtils.setField(authService, "authorizationUrl", AUTHORIZATION_URL);
+    ReflectionTestUtils.setField(authService, "expiryMargin", 60L);
+    ReflectionTestUtils.setField(authService, "clock", Clock.fixed(NOW, ZoneOffset.UTC));
   }
 
   @Test
@@ -92,4 +112,126 @@ public class AuthServiceTest {
         contains("Basic dHJ1c3RlZC1jbGllbnQ6c2VjcmV0")
     );
   }
+
+  @Test
+  public void shouldReuseAccessTokenUntilShortlyBeforeItExpires() {
+    mockTokenResponses(TOKEN, "other-token");
+
+    assertThat(authService.obtainAccessToken(), is(TOKEN));
+
+    ReflectionTestUtils.setField(authService, "clock",
+        Clock.fixed(NOW.plusSeconds(3539), ZoneOffset.UTC));
+    assertThat(authService.obtainAccessToken(), is(TOKEN));
+
+    ReflectionTestUtils.setField(authService, "clock",
+        Clock.fixed(NOW.plusSeconds(3540), ZoneOffset.UTC));
+    assertThat(authService.obtainAccessToken(), is("other-token"));
+
+    verify(restTemplate, times(2)).exchange(
+        eq(AUTHORIZATION_URI), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class));
+  }
+
+  @Test
+  public void shouldRequestAccessTokenOnceForConcurrentCallers() throws Exception {
+    mockTokenResponses(TOKEN);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    try {
+      List<Future<String>> tokens = executor.invokeAll(
+          Collections.nCopies(8, (Callable<String>) authService::obtainAccessToken));
+
+      for (Future<String> token : tokens) {
+        assertThat(token.get(), is(TOKEN));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(restTemplate).exchange(
+        eq(AUTHORIZATION_URI), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class));
+  }
+
+  @Test
+  public void shouldRequestNewAccessTokenAfterTokenWasInvalidated() {
+    mockTokenResponses(TOKEN, "other-token");
+
+    assertThat(authService.obtainAccessToken(), is(TOKEN));
+    authService.invalidateToken(TOKEN);
+
+    assertThat(authService.obtainAccessToken(), is("other-token"));
+  }
+
+  @Test
+  public void shouldKeepAccessTokenWhenOlderTokenIsInvalidated() {
+    mockTokenResponses(TOKEN, "other-token");
+
+    authService.obtainAccessToken();
+    authService.invalidateToken("older-token");
+
+    assertThat(authService.obtainAccessToken(), is(TOKEN));
+  }
+
+  @Test
+  public void shouldRetryCallOnceWithNewTokenWhenTokenIsRejected() {
+    mockTokenResponses(TOKEN, "other-token");
+    List<String> usedTokens = new ArrayList<>();
+
+    String result = authService.callWithAccessToken(token -> {
+      usedTokens.add(token);
+      if (TOKEN.equals(token)) {
+        throw new HttpClientErrorException(HttpStatus.UNAUTHORIZED);
+      }
+      return "result";
+    });
+
+    assertThat(result, is("result"));
+    assertThat(usedTokens, contains(TOKEN, "other-token"));
+  }
+
+  @Test
+  public void shouldRetryCallWhenResponseReportsInvalidToken() {
+    mockTokenResponses(TOKEN, "other-token");
+    List<String> usedTokens = new ArrayList<>();
+
+    authService.callWithAccessToken(token -> {
+      usedTokens.add(token);
+      if (TOKEN.equals(token)) {
+        throw new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Bad Request",
+            INVALID_TOKEN_BODY.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+      }
+      return null;
+    });
+
+    assertThat(usedTokens, contains(TOKEN, "other-token"));
+  }
+
+  @Test
+  public void shouldNotRetryCallWhenItFailsForOtherReasons() {
+    mockTokenResponses(TOKEN, "other-token");
+    List<String> usedTokens = new ArrayList<>();
+
+    try {
+      authService.callWithAccessToken(token -> {
+        usedTokens.add(token);
+        throw new HttpClientErrorException(HttpStatus.FORBIDDEN);
+      });
+      fail("Expected HttpClientErrorException");
+    } catch (HttpClientErrorException ex) {
+      assertThat(usedTokens, contains(TOKEN));
+      assertThat(authService.obtainAccessToken(), is(TOKEN));
+    }
+  }
+
+  private void mockTokenResponses(String... tokens) {
+    ResponseEntity<Object>[] responses = new ResponseEntity[tokens.length];
+    for (int i = 0; i < tokens.length; ++i) {
+      responses[i] = mock(ResponseEntity.class);
+      when(responses[i].getBody())
+          .thenReturn(ImmutableMap.of("access_token", tokens[i], "expires_in", 3600));
+    }
+
+    when(restTemplate.exchange(
+        eq(AUTHORIZATION_URI), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)
+    )).thenReturn(responses[0], Arrays.copyOfRange(responses, 1, responses.length));
+  }
 }
@@ -20,6 +20,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.UUID;
 import org.junit.Before;
@@ -30,7 +31,11 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.openlmis.referencedata.domain.IdealStockAmount;
+import org.openlmis.referencedata.dto.IdealStockAmountCsvModel;
 import org.openlmis.referencedata.repository.IdealStockAmountRepository;
+import org.openlmis.referencedata.util.CsvBatchIterator;
+import org.openlmis.referencedata.util.EasyBatchUtils;
+import org.openlmis.referencedata.util.FileHelper;
 
 @RunWith(MockitoJUnitRunner.class)
 public class IdealStockAmountServiceTest {
@@ -41,9 +46,18 @@ public class IdealStockAmountServiceTest {
   @InjectMocks
   private IdealStockAmountService service;
 
+  @Mock
+  private FileHelper fileHelper;
+
   @Mock
   private IdealStockAmount isa;
 
+  @Mock
+  private CsvBatchIterator<IdealStockAmountCsvModel> batches;
+
+  @Mock
+  private InputStream csvStream;
+
   private UUID isaId = UUID.randomUUID();
 
   @Before
@@ -74,4 +88,14 @@ public class IdealStockAmountServiceTest {
     verify(repository).search(Collections.singletonList(isa));
     verify(repository).findAllById(any(Iterable.class));
   }
+
+  @Test
+  public void shouldBulkImportBatchesReadFromFile() {
+    when(fileHelper.readCsvInBatches(IdealStockAmountCsvModel.class, csvStream,
+        EasyBatchUtils.DEFAULT_BATCH_SIZE)).thenReturn(batches);
+    when(repository.bulkImport(batches)).thenReturn(10);
+
+    assertEquals(10, service.bulkImport(csvStream));
+    verify(repository).bulkImport(batches);
+  }
 }
@@ -16,16 +16,20 @@
 package org.openlmis.referencedata.service;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.javers.common.collections.Sets.asSet;
 
+import java.util.Arrays;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.openlmis.referencedata.domain.SupplyLine;
 import org.openlmis.referencedata.dto.SupplyLineObjectReferenceDto;
+import org.openlmis.referencedata.dto.BasicFacilityDto;
 import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.testbuilder.FacilityDataBuilder;
 import org.openlmis.referencedata.testbuilder.RequisitionGroupDataBuilder;
 import org.openlmis.referencedata.testbuilder.SupervisoryNodeDataBuilder;
 import org.openlmis.referencedata.testbuilder.SupplyLineDataBuilder;
@@ -37,7 +41,9 @@ public class ObjectReferenceExpanderTest {
 
   private SupplyLine supplyLine = new SupplyLineDataBuilder()
       .withSupervisoryNode(new SupervisoryNodeDataBuilder()
-          .withRequisitionGroup(new RequisitionGroupDataBuilder().build())
+          .withRequisitionGroup(new RequisitionGroupDataBuilder()
+              .withMemberFacility(new FacilityDataBuilder().build())
+              .build())
           .build())
       .build();
   private SupplyLineObjectReferenceDto supplyLineDto = new SupplyLineObjectReferenceDto();
@@ -72,6 +78,33 @@ public class ObjectReferenceExpanderTest {
         notNullValue());
   }
 
+  @Test
+  public void shouldExpandNestedFieldOfCollectionElements() {
+    objectReferenceExpander.expandDto(supplyLineDto,
+        supplyLine, asSet("supervisoryNode.requisitionGroup.memberFacilities.type"));
+
+    assertThat(supplyLineDto.getSupervisoryNode().getRequisitionGroup().getMemberFacilities(),
+        hasSize(1));
+    for (BasicFacilityDto facility : supplyLineDto
+        .getSupervisoryNode().getRequisitionGroup().getMemberFacilities()) {
+      assertThat(facility.getType(), notNullValue());
+    }
+  }
+
+  @Test
+  public void shouldExpandPageOfDtos() {
+    SupplyLine otherSupplyLine = new SupplyLineDataBuilder().build();
+    SupplyLineObjectReferenceDto otherSupplyLineDto = new SupplyLineObjectReferenceDto();
+    otherSupplyLine.export(otherSupplyLineDto);
+
+    objectReferenceExpander.expandDtos(Arrays.asList(supplyLineDto, otherSupplyLineDto),
+        Arrays.asList(supplyLine, otherSupplyLine), asSet("supervisoryNode.requisitionGroup"));
+
+    assertThat(supplyLineDto.getSupervisoryNode().getRequisitionGroup().getSupervisoryNode(),
+        notNullValue());
+    assertThat(otherSupplyLineDto.getSupervisoryNode().getFacility(), notNullValue());
+  }
+
   @Test
   public void shouldNotThrowAnExceptionIfEntityFieldIsNull() {
     supplyLine.setSupervisoryNode(null);
@@ -17,16 +17,23 @@ package org.openlmis.referencedata.service;
 
 import static org.hamcrest.Matchers.hasItem;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -34,12 +41,14 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.openlmis.referencedata.domain.Orderable;
 import org.openlmis.referencedata.dto.OrderableDto;
@@ -52,6 +61,7 @@ import org.slf4j.profiler.Profiler;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
@@ -80,6 +90,9 @@ public class OrderableServiceTest {
   @Mock
   private Profiler profiler;
 
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+
   private UUID orderableId = UUID.randomUUID();
   private String programCode = "program-code";
   private List<Orderable> orderableList;
@@ -340,4 +353,27 @@ public class OrderableServiceTest {
     assertEquals(product.getClass(), resultType);
   }
 
+  @Test
+  public void shouldExportLatestOrderablesAsNewlineDelimitedJson() throws IOException {
+    // given
+    ReflectionTestUtils.setField(orderableService, "exportBatchSize", 2);
+    doAnswer(invocation -> {
+      Consumer<List<Orderable>> consumer = invocation.getArgument(1);
+      consumer.accept(orderableList);
+      consumer.accept(Lists.newArrayList(orderable1));
+      return null;
+    }).when(orderableRepository).forEachLatestBatch(eq(2), any(Consumer.class));
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    // when
+    orderableService.exportLatestOrderables(outputStream);
+
+    // then
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8.name()).split("\n");
+    assertEquals(3, lines.length);
+    for (String line : lines) {
+      assertNotNull(objectMapper.readValue(line, OrderableDto.class));
+    }
+  }
+
 }
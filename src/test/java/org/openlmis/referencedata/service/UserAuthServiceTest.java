@@ -18,6 +18,7 @@ package org.openlmis.referencedata.service;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -38,7 +39,9 @@ import org.openlmis.referencedata.dto.UserDto;
 import org.openlmis.referencedata.service.export.UserImportHelper;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestOperations;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -60,6 +63,7 @@ public class UserAuthServiceTest {
   @Before
   public void setUp() {
     when(authService.obtainAccessToken()).thenReturn("token");
+    when(authService.callWithAccessToken(any())).thenCallRealMethod();
     when(userImportHelper.getDefaultUserPassword()).thenReturn("password");
   }
 
@@ -77,6 +81,25 @@ public class UserAuthServiceTest {
     );
   }
 
+  @Test
+  public void shouldRetryWithNewTokenWhenTokenIsRejected() {
+    Set<UUID> userIds = Collections.singleton(UUID.randomUUID());
+    when(restTemplate.exchange(contains(EXTERNAL_API_URL), eq(HttpMethod.DELETE), any(),
+        eq(Void.class)))
+        .thenThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED))
+        .thenReturn(ResponseEntity.ok().build());
+
+    userAuthService.deleteAuthUsersByUserUuids(userIds);
+
+    verify(authService).invalidateToken("token");
+    verify(restTemplate, times(2)).exchange(
+        contains(EXTERNAL_API_URL),
+        eq(HttpMethod.DELETE),
+        any(),
+        eq(Void.class)
+    );
+  }
+
   @Test
   public void shouldPrepareDataAndCallExternalApiForSavingAuthDetails() {
     UserApiResponseDto mockResponse =
@@ -67,6 +67,7 @@ public class UserDetailsServiceTest {
   @Before
   public void setUp() {
     when(authService.obtainAccessToken()).thenReturn("token");
+    when(authService.callWithAccessToken(any())).thenCallRealMethod();
   }
 
   @Test
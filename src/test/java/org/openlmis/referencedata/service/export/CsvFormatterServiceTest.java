@@ -15,17 +15,22 @@
 
 package org.openlmis.referencedata.service.export;
 
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
+import java.util.function.Consumer;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.referencedata.dto.OrderableDto;
 import org.openlmis.referencedata.service.export.CsvFormatterService;
 import org.openlmis.referencedata.web.csv.format.CsvFormatter;
 import org.openlmis.referencedata.web.csv.model.ModelClass;
@@ -54,4 +59,25 @@ public class CsvFormatterServiceTest {
     verify(csvFormatter).process(outputStream, modelClass, data);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void shouldPassBatchesOfExportableItemsToFormatter() throws IOException {
+    // given
+    OutputStream outputStream = mock(OutputStream.class);
+    ExportableDataService<OrderableDto> source = mock(ExportableDataService.class);
+    Consumer<List<OrderableDto>> batchConsumer = mock(Consumer.class);
+    when(source.getExportableType()).thenReturn(OrderableDto.class);
+
+    // when
+    service.process(outputStream, source, 10);
+
+    // then
+    ArgumentCaptor<Consumer<Consumer<List<OrderableDto>>>> batchSource =
+        ArgumentCaptor.forClass(Consumer.class);
+    verify(csvFormatter)
+        .process(eq(outputStream), eq(new ModelClass<>(OrderableDto.class)), batchSource.capture());
+
+    batchSource.getValue().accept(batchConsumer);
+    verify(source).forEachExportableBatch(10, batchConsumer);
+  }
+
+}
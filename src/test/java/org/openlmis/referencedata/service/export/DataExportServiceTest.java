@@ -15,25 +15,39 @@
 
 package org.openlmis.referencedata.service.export;
 
-import static org.hamcrest.Matchers.instanceOf;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
-import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.openlmis.referencedata.service.export.DataExportService.FORMATTER_SERVICE_NAME_SUFFIX;
 import static org.openlmis.referencedata.service.export.DataExportService.SERVICE_NAME_SUFFIX;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import org.assertj.core.util.Lists;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import javax.persistence.EntityManager;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -52,10 +66,13 @@ import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @RunWith(MockitoJUnitRunner.class)
 public class DataExportServiceTest {
 
+  private static final int BATCH_SIZE = 10;
+
   private Map<String, String> queryParamsMap;
 
   private final InputStream inputStream = new ByteArrayInputStream("test-input-data".getBytes());
@@ -75,11 +92,15 @@ public class DataExportServiceTest {
   @Mock
   private Resource resource;
 
+  @Mock
+  private EntityManager entityManager;
+
   @InjectMocks
   private DataExportService dataExportService;
 
   @Before
   public void setUp() {
+    ReflectionTestUtils.setField(dataExportService, "batchSize", BATCH_SIZE);
     queryParamsMap = new HashMap<String, String>() {
       {
         put("data", "data-value");
@@ -89,18 +110,49 @@ public class DataExportServiceTest {
   }
 
   @Test
-  public void shouldReturnArrayOfBytes() throws IOException {
-    List<OrderableDto> productList = mock(List.class);
-
+  public void shouldWriteZipArchiveWithDataAndMappingFiles() throws IOException {
     setPreconditionsForServices();
-    when(orderableService.findAllExportableItems()).thenReturn(productList);
-    when(orderableService.getExportableType()).thenReturn(OrderableDto.class);
     when(loader.getResource(anyString())).thenReturn(resource);
     when(resource.getInputStream()).thenReturn(inputStream);
+    doAnswer(invocation -> {
+      OutputStream output = invocation.getArgument(0);
+      output.write("test-data".getBytes());
+      return null;
+    }).when(csvFormatterService)
+        .process(any(OutputStream.class), any(ExportableDataService.class), eq(BATCH_SIZE));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    dataExportService.exportData(new DataExportParams(queryParamsMap), outputStream);
+
+    Map<String, String> entries = readZip(outputStream.toByteArray());
+    assertThat(entries.keySet(),
+        contains("data-value.format-value", "data-value_mapping.format-value"));
+    assertThat(entries.get("data-value.format-value"), is("test-data"));
+    assertThat(entries.get("data-value_mapping.format-value"), is("test-input-data"));
+  }
 
-    byte[] result = dataExportService.exportData(new DataExportParams(queryParamsMap));
-
-    assertThat(result, is(instanceOf(byte[].class)));
+  @Test
+  public void shouldClearPersistenceContextAfterEachExportedBatch() throws IOException {
+    setPreconditionsForServices();
+    when(loader.getResource(anyString())).thenReturn(resource);
+    when(resource.getInputStream()).thenReturn(inputStream);
+    doAnswer(invocation -> {
+      Consumer<List<OrderableDto>> batchConsumer = invocation.getArgument(1);
+      batchConsumer.accept(emptyList());
+      batchConsumer.accept(emptyList());
+      return null;
+    }).when(orderableService).forEachExportableBatch(eq(BATCH_SIZE), any(Consumer.class));
+    doAnswer(invocation -> {
+      ExportableDataService<?> source = invocation.getArgument(1);
+      source.forEachExportableBatch(BATCH_SIZE, mock(Consumer.class));
+      return null;
+    }).when(csvFormatterService)
+        .process(any(OutputStream.class), any(ExportableDataService.class), eq(BATCH_SIZE));
+
+    dataExportService.exportData(new DataExportParams(queryParamsMap),
+        new ByteArrayOutputStream());
+
+    verify(entityManager, times(2)).clear();
   }
 
   @Test(expected = ValidationMessageException.class)
@@ -111,7 +163,8 @@ public class DataExportServiceTest {
     when(beanFactory.getBean(invalidFormat + FORMATTER_SERVICE_NAME_SUFFIX,
             DataFormatterService.class)).thenThrow(mock(BeansException.class));
 
-    dataExportService.exportData(new DataExportParams(queryParamsMap));
+    dataExportService.exportData(new DataExportParams(queryParamsMap),
+        new ByteArrayOutputStream());
   }
 
   @Test(expected = ValidationMessageException.class)
@@ -122,22 +175,8 @@ public class DataExportServiceTest {
     when(beanFactory.getBean(invalidData + SERVICE_NAME_SUFFIX,
             ExportableDataService.class)).thenThrow(mock(BeansException.class));
 
-    dataExportService.exportData(new DataExportParams(queryParamsMap));
-  }
-
-  @Test
-  public void shouldReturnArrayOfBytesIfNoDataFound() throws IOException {
-    List<OrderableDto> emptyProductList = Lists.emptyList();
-
-    setPreconditionsForServices();
-    when(orderableService.findAllExportableItems()).thenReturn(emptyProductList);
-    when(loader.getResource(anyString())).thenReturn(resource);
-    when(resource.getInputStream()).thenReturn(inputStream);
-
-    byte[] result = dataExportService.exportData(new DataExportParams(queryParamsMap));
-
-    assertThat(result, is(notNullValue()));
-    assertThat(result, is(instanceOf(byte[].class)));
+    dataExportService.exportData(new DataExportParams(queryParamsMap),
+        new ByteArrayOutputStream());
   }
 
   @Test(expected = ValidationMessageException.class)
@@ -146,7 +185,8 @@ public class DataExportServiceTest {
     when(loader.getResource(anyString())).thenReturn(resource);
     when(resource.getInputStream()).thenThrow(IOException.class);
 
-    dataExportService.exportData(new DataExportParams(queryParamsMap));
+    dataExportService.exportData(new DataExportParams(queryParamsMap),
+        new ByteArrayOutputStream());
   }
 
   @Test(expected = ValidationMessageException.class)
@@ -155,7 +195,39 @@ public class DataExportServiceTest {
     queryParamsMap.replace("data", dataWithParentDirIndicator);
     setPreconditionsForServices();
 
-    dataExportService.exportData(new DataExportParams(queryParamsMap));
+    dataExportService.exportData(new DataExportParams(queryParamsMap),
+        new ByteArrayOutputStream());
+  }
+
+  @Test
+  public void shouldNotWriteAnythingIfAnyRequestedDataIsInvalid() {
+    queryParamsMap.replace("data", "data-value,invalid-data-value");
+    doAnswer(invocation -> csvFormatterService).when(beanFactory).getBean(anyString(),
+        eq(DataFormatterService.class));
+    doReturn(orderableService).when(beanFactory)
+        .getBean("data-value" + SERVICE_NAME_SUFFIX, ExportableDataService.class);
+    doThrow(mock(BeansException.class)).when(beanFactory)
+        .getBean("invalid-data-value" + SERVICE_NAME_SUFFIX, ExportableDataService.class);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    try {
+      dataExportService.exportData(new DataExportParams(queryParamsMap), outputStream);
+      fail("Expected " + ValidationMessageException.class.getSimpleName());
+    } catch (ValidationMessageException ex) {
+      assertThat(outputStream.size(), is(0));
+    }
+  }
+
+  private Map<String, String> readZip(byte[] bytes) throws IOException {
+    Map<String, String> entries = new LinkedHashMap<>();
+
+    try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+      for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+        entries.put(entry.getName(), IOUtils.toString(zip, StandardCharsets.UTF_8));
+      }
+    }
+
+    return entries;
   }
 
   private void setPreconditionsForServices() {
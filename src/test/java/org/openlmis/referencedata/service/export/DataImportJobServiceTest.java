@@ -0,0 +1,200 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service.export;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.ImportJob;
+import org.openlmis.referencedata.domain.ImportJobFile;
+import org.openlmis.referencedata.dto.ImportResponseDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.repository.ImportJobFileRepository;
+import org.openlmis.referencedata.repository.ImportJobRepository;
+import org.openlmis.referencedata.util.SpooledZipEntries;
+import org.openlmis.referencedata.util.TransactionUtils;
+import org.slf4j.profiler.Profiler;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DataImportJobServiceTest {
+
+  private static final String FACILITY_FILE = "facility.csv";
+  private static final String ORDERABLE_FILE = "orderable.csv";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Mock
+  private DataImportService dataImportService;
+
+  @Mock
+  private ImportJobRepository importJobRepository;
+
+  @Mock
+  private ImportJobFileRepository importJobFileRepository;
+
+  @Mock
+  private TransactionUtils transactionUtils;
+
+  @InjectMocks
+  private DataImportJobService dataImportJobService;
+
+  private ImportJob job;
+
+  @Before
+  public void setUp() throws Exception {
+    job = ImportJob.newQueuedJob(temporaryFolder.newFolder().toString(),
+        Arrays.asList(FACILITY_FILE, ORDERABLE_FILE));
+    job.setId(UUID.randomUUID());
+    for (ImportJobFile file : job.getFiles()) {
+      file.setId(UUID.randomUUID());
+    }
+
+    when(importJobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldNotCancelFinishedJob() {
+    when(importJobRepository.finish(eq(job.getId()), eq(ImportJob.Status.CANCELLED),
+        any(), isNull(), anyList())).thenReturn(0);
+
+    dataImportJobService.cancel(job.getId());
+  }
+
+  @Test
+  public void shouldImportFilesThatAreNotCompletedAndFinishJob() throws Exception {
+    job.getFiles().get(0).setStatus(ImportJob.Status.COMPLETED);
+    mockTransactions();
+    when(importJobRepository.updateStatus(eq(job.getId()), eq(ImportJob.Status.RUNNING),
+        anyList())).thenReturn(1);
+    mockImportFiles();
+    when(dataImportService.importEntry(any(SpooledZipEntries.class), eq(ORDERABLE_FILE),
+        any(Profiler.class), any(ImportProgress.class)))
+        .thenReturn(new ImportResponseDto.ImportDetails(ORDERABLE_FILE, 1, 1, 0, null));
+
+    dataImportJobService.run(job.getId());
+
+    verify(dataImportService).importFiles(any(SpooledZipEntries.class),
+        eq(Collections.singleton(ORDERABLE_FILE)), any(Profiler.class), any(Function.class),
+        any(DataImportService.FileImport.class));
+    verify(dataImportService, never()).importEntry(any(SpooledZipEntries.class),
+        eq(FACILITY_FILE), any(Profiler.class), any(ImportProgress.class));
+    verify(importJobFileRepository).updateStatus(job.getFiles().get(1).getId(),
+        ImportJob.Status.COMPLETED);
+    verify(importJobRepository).finish(eq(job.getId()), eq(ImportJob.Status.COMPLETED),
+        any(), isNull(), anyList());
+  }
+
+  @Test
+  public void shouldStopCancelledJobBeforeNextFile() throws Exception {
+    mockTransactions();
+    when(importJobRepository.updateStatus(eq(job.getId()), eq(ImportJob.Status.RUNNING),
+        anyList())).thenReturn(1);
+    when(importJobRepository.findStatusById(job.getId()))
+        .thenReturn(ImportJob.Status.CANCELLED);
+
+    dataImportJobService.run(job.getId());
+
+    verify(dataImportService, never()).importFiles(any(SpooledZipEntries.class),
+        anyCollection(), any(Profiler.class), any(Function.class),
+        any(DataImportService.FileImport.class));
+    verify(importJobRepository, never()).finish(eq(job.getId()),
+        eq(ImportJob.Status.COMPLETED), any(), any(), anyList());
+  }
+
+  @Test
+  public void shouldNotRunJobThatCannotBeClaimed() throws Exception {
+    mockTransactions();
+    when(importJobRepository.updateStatus(eq(job.getId()), eq(ImportJob.Status.RUNNING),
+        anyList())).thenReturn(0);
+
+    dataImportJobService.run(job.getId());
+
+    verify(dataImportService, never()).importFiles(any(SpooledZipEntries.class),
+        anyCollection(), any(Profiler.class), any(Function.class),
+        any(DataImportService.FileImport.class));
+  }
+
+  @Test
+  public void shouldNotImportFileOfJobCancelledWhileOtherFilesWereImported() throws Exception {
+    mockTransactions();
+    mockImportFiles();
+    when(importJobRepository.updateStatus(eq(job.getId()), eq(ImportJob.Status.RUNNING),
+        anyList())).thenReturn(1);
+    when(importJobRepository.findStatusById(job.getId()))
+        .thenReturn(ImportJob.Status.RUNNING, ImportJob.Status.RUNNING,
+            ImportJob.Status.CANCELLED);
+    when(dataImportService.importEntry(any(SpooledZipEntries.class), eq(FACILITY_FILE),
+        any(Profiler.class), any(ImportProgress.class)))
+        .thenReturn(new ImportResponseDto.ImportDetails(FACILITY_FILE, 1, 1, 0, null));
+
+    dataImportJobService.run(job.getId());
+
+    verify(dataImportService, never()).importEntry(any(SpooledZipEntries.class),
+        eq(ORDERABLE_FILE), any(Profiler.class), any(ImportProgress.class));
+    verify(importJobRepository, never()).finish(eq(job.getId()),
+        eq(ImportJob.Status.COMPLETED), any(), any(), anyList());
+  }
+
+  // runs the files one after another, the way the dependency scheduler would with one thread
+  @SuppressWarnings("unchecked")
+  private void mockImportFiles() throws InterruptedException {
+    when(dataImportService.importFiles(any(SpooledZipEntries.class), anyCollection(),
+        any(Profiler.class), any(Function.class), any(DataImportService.FileImport.class)))
+        .thenAnswer(invocation -> {
+          Collection<String> fileNames = invocation.getArgument(1);
+          Function<String, ImportProgress> progressFactory = invocation.getArgument(3);
+          DataImportService.FileImport<ImportProgress> fileImport = invocation.getArgument(4);
+          List<ImportResponseDto.ImportDetails> result = new ArrayList<>();
+
+          for (String fileName : fileNames) {
+            result.add(fileImport.importFile(fileName, mock(Profiler.class),
+                progressFactory.apply(fileName)));
+          }
+
+          return result;
+        });
+  }
+
+  private void mockTransactions() {
+    when(transactionUtils.runInOwnTransaction(any(Supplier.class)))
+        .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+  }
+}
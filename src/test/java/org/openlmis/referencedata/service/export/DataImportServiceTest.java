@@ -15,18 +15,35 @@
 
 package org.openlmis.referencedata.service.export;
 
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -35,18 +52,25 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.openlmis.referencedata.dto.ImportResponseDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.util.FileHelper;
+import org.openlmis.referencedata.util.SpooledZipEntries;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 @RunWith(MockitoJUnitRunner.class)
 public class DataImportServiceTest {
 
+  private static final String FACILITY_FILE = "facility.csv";
+  private static final String GEOGRAPHIC_ZONE_FILE = "geographicZone.csv";
+  private static final String ORDERABLE_FILE = "orderable.csv";
+
   @Rule public final EnvironmentVariables environmentVariables = new EnvironmentVariables();
-  private Map<String, InputStream> fileMap;
-  private DataImportPersister<?, ?, ?> dataImportPersister;
+  private SpooledZipEntries entries;
   @Mock private FileHelper fileHelper;
 
   @Mock private BeanFactory beanFactory;
@@ -57,21 +81,17 @@ public class DataImportServiceTest {
 
   @Before
   public void setUp() {
-    fileMap = new HashMap<>();
-    fileMap.put("facility.csv", mock(InputStream.class));
-    dataImportPersister = mock(DataImportPersister.class);
-
+    entries = mock(SpooledZipEntries.class);
     when(profiler.startNested(anyString())).thenReturn(profiler);
+    ReflectionTestUtils.setField(dataImportService, "importFileExecutorService",
+        MoreExecutors.newDirectExecutorService());
   }
 
   @Test
-  public void shouldSuccessfullyImportData() throws InterruptedException {
+  public void shouldSuccessfullyImportData() throws Exception {
     // Given
-    when(fileHelper.convertMultipartFileToZipFileMap(any(MultipartFile.class))).thenReturn(fileMap);
-    when(beanFactory.getBean(anyString(), eq(DataImportPersister.class)))
-        .thenReturn(dataImportPersister);
-    when(dataImportPersister.processAndPersist(any(InputStream.class), any(Profiler.class)))
-        .thenReturn(mock(ImportResponseDto.ImportDetails.class));
+    mockEntries(FACILITY_FILE);
+    mockPersister(FACILITY_FILE, invocation -> mock(ImportResponseDto.ImportDetails.class));
 
     // When
     List<ImportResponseDto.ImportDetails> result =
@@ -80,5 +100,135 @@ public class DataImportServiceTest {
     // Then
     assertNotNull(result);
     assertEquals(1, result.size());
+    verify(entries).close();
+  }
+
+  @Test
+  public void shouldImportFilesAfterTheirDependencies() throws Exception {
+    // Given
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    ReflectionTestUtils.setField(dataImportService, "importFileExecutorService", executor);
+    mockEntries(GEOGRAPHIC_ZONE_FILE, FACILITY_FILE, ORDERABLE_FILE);
+
+    CountDownLatch orderableStarted = new CountDownLatch(1);
+    AtomicBoolean zonesImported = new AtomicBoolean();
+    AtomicBoolean facilityImportedAfterZones = new AtomicBoolean();
+    mockPersister(GEOGRAPHIC_ZONE_FILE, invocation -> {
+      // orderables do not depend on zones, so they are imported at the same time
+      orderableStarted.await();
+      zonesImported.set(true);
+      return new ImportResponseDto.ImportDetails(GEOGRAPHIC_ZONE_FILE, 1, 1, 0, null);
+    });
+    mockPersister(FACILITY_FILE, invocation -> {
+      facilityImportedAfterZones.set(zonesImported.get());
+      return new ImportResponseDto.ImportDetails(FACILITY_FILE, 1, 1, 0, null);
+    });
+    mockPersister(ORDERABLE_FILE, invocation -> {
+      orderableStarted.countDown();
+      return new ImportResponseDto.ImportDetails(ORDERABLE_FILE, 1, 1, 0, null);
+    });
+
+    try {
+      // When
+      List<ImportResponseDto.ImportDetails> result =
+          dataImportService.importData(mock(MultipartFile.class), profiler);
+
+      // Then
+      assertEquals(Arrays.asList(GEOGRAPHIC_ZONE_FILE, FACILITY_FILE, ORDERABLE_FILE),
+          result.stream()
+              .map(ImportResponseDto.ImportDetails::getFileName)
+              .collect(Collectors.toList()));
+      assertTrue(facilityImportedAfterZones.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void shouldNotImportFileWhenItsDependencyFailed() throws Exception {
+    // Given
+    mockEntries(GEOGRAPHIC_ZONE_FILE, FACILITY_FILE);
+    DataImportPersister<?, ?, ?> zonePersister = mockPersister(GEOGRAPHIC_ZONE_FILE,
+        invocation -> {
+          throw new ValidationMessageException("error");
+        });
+
+    // When
+    try {
+      dataImportService.importData(mock(MultipartFile.class), profiler);
+      fail("Expected ValidationMessageException");
+    } catch (ValidationMessageException ex) {
+      // Then
+      verify(zonePersister).processAndPersist(any(InputStream.class), any(Profiler.class),
+          any(ImportProgress.class));
+      verify(beanFactory, never()).getBean(FACILITY_FILE, DataImportPersister.class);
+      verify(entries).close();
+    }
+  }
+
+  @Test
+  public void shouldStopRunningImportWhenInterrupted() throws Exception {
+    // Given
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    ReflectionTestUtils.setField(dataImportService, "importFileExecutorService", executor);
+    mockEntries(ORDERABLE_FILE);
+
+    CountDownLatch importStarted = new CountDownLatch(1);
+    CountDownLatch importStopped = new CountDownLatch(1);
+    AtomicReference<RuntimeException> stoppedWith = new AtomicReference<>();
+    mockPersister(ORDERABLE_FILE, invocation -> {
+      Iterator<List<Integer>> batches = invocation.<ImportProgress>getArgument(2)
+          .resume(Stream.generate(() -> singletonList(1)).iterator());
+      importStarted.countDown();
+      try {
+        while (batches.hasNext()) {
+          batches.next();
+        }
+      } catch (RuntimeException ex) {
+        stoppedWith.set(ex);
+      } finally {
+        importStopped.countDown();
+      }
+      return null;
+    });
+
+    Thread importing = new Thread(() -> {
+      try {
+        dataImportService.importData(mock(MultipartFile.class), profiler);
+      } catch (InterruptedException ex) {
+        // expected
+      }
+    });
+
+    try {
+      // When
+      importing.start();
+      assertTrue(importStarted.await(10, TimeUnit.SECONDS));
+      importing.interrupt();
+
+      // Then
+      assertTrue(importStopped.await(10, TimeUnit.SECONDS));
+      assertTrue(stoppedWith.get() instanceof CancellationException);
+      importing.join(10000);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void mockEntries(String... fileNames) throws IOException {
+    Set<String> names = new HashSet<>(Arrays.asList(fileNames));
+    when(entries.getNames()).thenReturn(names);
+    when(entries.open(anyString())).thenAnswer(invocation ->
+        names.contains(invocation.<String>getArgument(0)) ? mock(InputStream.class) : null);
+    when(fileHelper.spoolZipEntries(any(MultipartFile.class))).thenReturn(entries);
+  }
+
+  private DataImportPersister<?, ?, ?> mockPersister(String fileName,
+      Answer<ImportResponseDto.ImportDetails> answer) throws InterruptedException {
+    DataImportPersister<?, ?, ?> persister = mock(DataImportPersister.class);
+    when(beanFactory.getBean(fileName, DataImportPersister.class)).thenReturn(persister);
+    when(persister.processAndPersist(any(InputStream.class), any(Profiler.class),
+        any(ImportProgress.class))).thenAnswer(answer);
+    return persister;
   }
 }
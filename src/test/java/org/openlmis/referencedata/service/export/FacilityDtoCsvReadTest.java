@@ -16,6 +16,7 @@
 package org.openlmis.referencedata.service.export;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -40,6 +41,7 @@ import org.openlmis.referencedata.testbuilder.FacilityDataBuilder;
 import org.openlmis.referencedata.testbuilder.FacilityOperatorDataBuilder;
 import org.openlmis.referencedata.testbuilder.FacilityTypeDataBuilder;
 import org.openlmis.referencedata.testbuilder.GeographicZoneDataBuilder;
+import org.openlmis.referencedata.util.CsvBatchIterator;
 import org.openlmis.referencedata.util.FileHelper;
 import org.openlmis.referencedata.validate.CsvHeaderValidator;
 import org.openlmis.referencedata.web.csv.model.ModelClass;
@@ -103,6 +105,20 @@ public class FacilityDtoCsvReadTest {
     assertByContentFromCsv(expectedFacility2, facilityDtos.get(1));
   }
 
+  @Test
+  public void shouldReadFacilityDtosFromCsvInBatches() throws IOException {
+    final InputStream csvStream =
+        new ClassPathResource("/FacilityDtoCsvReadTest/shouldReadFacilityDtoFromCsv.csv")
+            .getInputStream();
+    final CsvBatchIterator<FacilityDto> batches =
+        fileHelper.readCsvInBatches(FacilityDto.class, csvStream, 1);
+
+    assertEquals("TEST1", batches.next().get(0).getCode());
+    assertEquals("TEST2", batches.next().get(0).getCode());
+    assertFalse(batches.hasNext());
+    assertEquals(2, batches.getRowCount());
+  }
+
   @SuppressWarnings("PMD.CyclomaticComplexity")
   private void assertByContentFromCsv(FacilityDto expected, FacilityDto actual) {
     if (expected == null || actual == null) {
@@ -20,15 +20,18 @@ import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.openlmis.referencedata.util.CsvBatchIteratorStubs.singleBatch;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_BATCH_SIZE;
 
 import com.google.common.util.concurrent.MoreExecutors;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.function.Supplier;
+import javax.persistence.EntityManager;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -36,6 +39,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.openlmis.referencedata.domain.Facility;
+import org.openlmis.referencedata.domain.FacilityOperator;
+import org.openlmis.referencedata.domain.FacilityType;
+import org.openlmis.referencedata.domain.GeographicZone;
 import org.openlmis.referencedata.dto.FacilityDto;
 import org.openlmis.referencedata.dto.ImportResponseDto;
 import org.openlmis.referencedata.repository.FacilityOperatorRepository;
@@ -43,6 +49,7 @@ import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.FacilityTypeRepository;
 import org.openlmis.referencedata.repository.GeographicZoneRepository;
 import org.openlmis.referencedata.testbuilder.FacilityDataBuilder;
+import org.openlmis.referencedata.util.CsvBatchIterator;
 import org.openlmis.referencedata.util.FileHelper;
 import org.openlmis.referencedata.util.TransactionUtils;
 import org.slf4j.profiler.Profiler;
@@ -60,6 +67,7 @@ public class FacilityImportPersisterTest {
   @Mock private FacilityTypeRepository facilityTypeRepository;
   @Mock private FacilityOperatorRepository facilityOperatorRepository;
   @Mock private TransactionUtils transactionUtils;
+  @Mock private EntityManager entityManager;
   @InjectMocks private FacilityImportPersister facilityImportPersister;
 
   @Before
@@ -71,7 +79,6 @@ public class FacilityImportPersisterTest {
     ReflectionTestUtils.setField(
         facilityImportPersister, "importExecutorService", MoreExecutors.newDirectExecutorService());
 
-    when(fileHelper.readCsv(FacilityDto.class, dataStream)).thenReturn(singletonList(dto));
     when(facilityRepository.saveAll(any()))
         .thenAnswer(
             invocation -> {
@@ -82,7 +89,6 @@ public class FacilityImportPersisterTest {
               }
               return answer;
             });
-    when(facilityRepository.findAllByCodeIn(any())).thenReturn(emptyList());
     when(geographicZoneRepository.findAllByCodeIn(
             singletonList(facility.getGeographicZone().getCode())))
         .thenReturn(singletonList(facility.getGeographicZone()));
@@ -98,7 +104,11 @@ public class FacilityImportPersisterTest {
   @Test
   public void shouldCreateFacility() throws InterruptedException {
     // Given
-    when(facilityRepository.findByCode(facility.getCode())).thenReturn(Optional.empty());
+    when(fileHelper.readCsvInBatches(FacilityDto.class, dataStream, DEFAULT_BATCH_SIZE))
+        .thenReturn(singleBatch(singletonList(dto)));
+    when(facilityRepository.findAllByCodeIn(singletonList(facility.getCode())))
+        .thenReturn(emptyList());
+    mockReferences();
 
     // When
     ImportResponseDto.ImportDetails result =
@@ -106,14 +116,17 @@ public class FacilityImportPersisterTest {
 
     // Then
     assertEquals(Integer.valueOf(1), result.getSuccessfulEntriesCount());
-    verify(fileHelper).readCsv(FacilityDto.class, dataStream);
+    verify(fileHelper).readCsvInBatches(FacilityDto.class, dataStream, DEFAULT_BATCH_SIZE);
     verify(facilityRepository).saveAll(singletonList(facility));
   }
 
   @Test
   public void shouldUpdateFacility() throws InterruptedException {
     // Given
-    when(facilityRepository.findByCode(facility.getCode())).thenReturn(Optional.of(facility));
+    when(fileHelper.readCsvInBatches(FacilityDto.class, dataStream, DEFAULT_BATCH_SIZE))
+        .thenReturn(singleBatch(singletonList(dto)));
+    when(facilityRepository.findAllByCodeIn(singletonList(facility.getCode())))
+        .thenReturn(singletonList(facility));
 
     // When
     ImportResponseDto.ImportDetails result =
@@ -121,7 +134,80 @@ public class FacilityImportPersisterTest {
 
     // Then
     assertEquals(Integer.valueOf(1), result.getSuccessfulEntriesCount());
-    verify(fileHelper).readCsv(FacilityDto.class, dataStream);
+    verify(fileHelper).readCsvInBatches(FacilityDto.class, dataStream, DEFAULT_BATCH_SIZE);
     verify(facilityRepository).saveAll(singletonList(facility));
   }
+
+  @Test
+  public void shouldResolveReferencesOnceForAllBatches() throws InterruptedException {
+    // Given
+    FacilityDto other = FacilityDto.newInstance(new FacilityDataBuilder()
+        .withGeographicZone(facility.getGeographicZone())
+        .withType(facility.getType())
+        .withOperator(facility.getOperator())
+        .build());
+    when(fileHelper.readCsvInBatches(FacilityDto.class, dataStream, DEFAULT_BATCH_SIZE))
+        .thenReturn(batches(singletonList(dto), singletonList(other)));
+    when(facilityRepository.findAllByCodeIn(any())).thenReturn(emptyList());
+    mockReferences();
+
+    // When
+    ImportResponseDto.ImportDetails result =
+        facilityImportPersister.processAndPersist(dataStream, mock(Profiler.class));
+
+    // Then
+    assertEquals(Integer.valueOf(2), result.getSuccessfulEntriesCount());
+    verify(facilityRepository, times(2)).findAllByCodeIn(any());
+    verify(geographicZoneRepository).findAllByCodeIn(any());
+    verify(facilityTypeRepository).findAllByCodeIn(any());
+    verify(facilityOperatorRepository).findAllByCodeIn(any());
+    verify(entityManager, times(2))
+        .getReference(GeographicZone.class, facility.getGeographicZone().getId());
+  }
+
+  @Test
+  public void shouldLookUpReferenceMissingInEarlierBatchAgain() throws InterruptedException {
+    // Given
+    FacilityDto other = FacilityDto.newInstance(new FacilityDataBuilder()
+        .withGeographicZone(facility.getGeographicZone())
+        .withType(facility.getType())
+        .withOperator(facility.getOperator())
+        .build());
+    when(fileHelper.readCsvInBatches(FacilityDto.class, dataStream, DEFAULT_BATCH_SIZE))
+        .thenReturn(batches(singletonList(dto), singletonList(other)));
+    when(facilityRepository.findAllByCodeIn(any())).thenReturn(emptyList());
+    when(facilityOperatorRepository.findAllByCodeIn(
+            singletonList(facility.getOperator().getCode())))
+        .thenReturn(emptyList(), emptyList(), singletonList(facility.getOperator()));
+    mockReferences();
+
+    // When
+    ImportResponseDto.ImportDetails result =
+        facilityImportPersister.processAndPersist(dataStream, mock(Profiler.class));
+
+    // Then
+    assertEquals(Integer.valueOf(2), result.getSuccessfulEntriesCount());
+    verify(facilityOperatorRepository, times(3)).findAllByCodeIn(any());
+    verify(entityManager)
+        .getReference(FacilityOperator.class, facility.getOperator().getId());
+  }
+
+  private void mockReferences() {
+    when(entityManager.getReference(GeographicZone.class, facility.getGeographicZone().getId()))
+        .thenReturn(facility.getGeographicZone());
+    when(entityManager.getReference(FacilityType.class, facility.getType().getId()))
+        .thenReturn(facility.getType());
+    when(entityManager.getReference(FacilityOperator.class, facility.getOperator().getId()))
+        .thenReturn(facility.getOperator());
+  }
+
+  @SuppressWarnings("unchecked")
+  private CsvBatchIterator<FacilityDto> batches(List<FacilityDto> first,
+      List<FacilityDto> second) {
+    CsvBatchIterator<FacilityDto> batches = mock(CsvBatchIterator.class);
+    when(batches.hasNext()).thenReturn(true, true, false);
+    when(batches.next()).thenReturn(first, second);
+    when(batches.getRowCount()).thenReturn(first.size() + second.size());
+    return batches;
+  }
 }
@@ -0,0 +1,105 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.collect.Lists;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import org.junit.Test;
+import org.openlmis.referencedata.dto.ImportResponseDto;
+
+public class ImportProgressTest {
+
+  private final List<List<String>> batches = Arrays.asList(
+      Arrays.asList("a", "b"),
+      Arrays.asList("c", "d"),
+      Arrays.asList("e"));
+
+  @Test
+  public void shouldReturnAllBatchesWhenStartingFromBeginning() {
+    ImportProgress progress = ImportProgress.fromStart();
+
+    assertEquals(batches, Lists.newArrayList(progress.resume(batches.iterator())));
+  }
+
+  @Test
+  public void shouldSkipBatchesCoveredByCheckpoint() {
+    ImportProgress progress = new ImportProgress(2, 2, 0);
+
+    Iterator<List<String>> remaining = progress.resume(batches.iterator());
+
+    assertEquals(Arrays.asList("c", "d"), remaining.next());
+    assertEquals(Arrays.asList("e"), remaining.next());
+    assertFalse(remaining.hasNext());
+  }
+
+  @Test
+  public void shouldMoveCheckpointAfterEachCompletedBatch() {
+    CountingProgress progress = new CountingProgress();
+    Iterator<List<String>> remaining = progress.resume(batches.iterator());
+    remaining.next();
+    remaining.next();
+
+    progress.onBatchCompleted(2);
+    assertEquals(2, progress.getRowsRead());
+    assertEquals(2, progress.getRowsPersisted());
+
+    progress.onBatchCompleted(1);
+    assertEquals(4, progress.getRowsRead());
+    assertEquals(3, progress.getRowsPersisted());
+    assertEquals(2, progress.checkpoints);
+  }
+
+  @Test(expected = CancellationException.class)
+  public void shouldStopPullingBatchesWhenCancelled() {
+    ImportProgress progress = ImportProgress.fromStart();
+    Iterator<List<String>> remaining = progress.resume(batches.iterator());
+    remaining.next();
+
+    progress.cancel();
+
+    remaining.hasNext();
+  }
+
+  @Test
+  public void shouldAddResultOfResumedImportToCountsFromBefore() {
+    ImportProgress progress = new ImportProgress(2, 2, 1);
+
+    progress.complete(new ImportResponseDto.ImportDetails("facility.csv", 5, 3, 1, null));
+
+    assertEquals(5, progress.getRowsRead());
+    assertEquals(5, progress.getRowsPersisted());
+    assertEquals(2, progress.getRowsFailed());
+  }
+
+  private static class CountingProgress extends ImportProgress {
+    private int checkpoints;
+
+    CountingProgress() {
+      super(0, 0, 0);
+    }
+
+    @Override
+    protected void onCheckpoint() {
+      checkpoints++;
+    }
+  }
+}
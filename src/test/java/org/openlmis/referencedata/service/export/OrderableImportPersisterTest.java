@@ -21,6 +21,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.openlmis.referencedata.util.CsvBatchIteratorStubs.singleBatch;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_BATCH_SIZE;
 
 import com.google.common.util.concurrent.MoreExecutors;
 import java.io.InputStream;
@@ -40,6 +42,7 @@ import org.openlmis.referencedata.testbuilder.OrderableDataBuilder;
 import org.openlmis.referencedata.util.FileHelper;
 import org.openlmis.referencedata.util.TransactionUtils;
 import org.slf4j.profiler.Profiler;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -52,6 +55,7 @@ public class OrderableImportPersisterTest {
   @Mock private FileHelper fileHelper;
   @Mock private OrderableRepository orderableRepository;
   @Mock private TransactionUtils transactionUtils;
+  @Mock private ApplicationEventPublisher applicationEventPublisher;
   @InjectMocks private OrderableImportPersister orderableImportPersister;
 
   @Before
@@ -68,8 +72,8 @@ public class OrderableImportPersisterTest {
     when(transactionUtils.runInOwnTransaction(any(Supplier.class)))
         .thenAnswer(invocation -> ((Supplier) invocation.getArgument(0)).get());
     when(orderableRepository.findAllLatestByProductCode(any())).thenReturn(emptyList());
-    when(fileHelper.readCsv(OrderableDto.class, dataStream))
-        .thenReturn(Collections.singletonList(dto));
+    when(fileHelper.readCsvInBatches(OrderableDto.class, dataStream, DEFAULT_BATCH_SIZE))
+        .thenReturn(singleBatch(Collections.singletonList(dto)));
     when(orderableRepository.saveAll(any())).thenReturn(Collections.singletonList(orderable));
   }
 
@@ -81,7 +85,7 @@ public class OrderableImportPersisterTest {
 
     // Then
     assertEquals(Integer.valueOf(1), result.getSuccessfulEntriesCount());
-    verify(fileHelper).readCsv(OrderableDto.class, dataStream);
+    verify(fileHelper).readCsvInBatches(OrderableDto.class, dataStream, DEFAULT_BATCH_SIZE);
     verify(orderableRepository).saveAll(any());
   }
 }
@@ -22,6 +22,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.openlmis.referencedata.util.CsvBatchIteratorStubs.singleBatch;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_BATCH_SIZE;
 
 import com.google.common.util.concurrent.MoreExecutors;
 import java.io.InputStream;
@@ -91,8 +93,9 @@ public class ProgramOrderableImportPersisterTest {
 
     when(transactionUtils.runInOwnTransaction(any(Supplier.class)))
         .thenAnswer(invocation -> ((Supplier) invocation.getArgument(0)).get());
-    when(fileHelper.readCsv(ProgramOrderableCsvModel.class, dataStream))
-        .thenReturn(singletonList(csvModel));
+    when(fileHelper.readCsvInBatches(
+        ProgramOrderableCsvModel.class, dataStream, DEFAULT_BATCH_SIZE))
+        .thenReturn(singleBatch(singletonList(csvModel)));
     when(programOrderableRepository.saveAll(any()))
         .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -115,7 +118,8 @@ public class ProgramOrderableImportPersisterTest {
 
     // Then
     assertEquals(Integer.valueOf(1), result.getSuccessfulEntriesCount());
-    verify(fileHelper).readCsv(ProgramOrderableCsvModel.class, dataStream);
+    verify(fileHelper)
+        .readCsvInBatches(ProgramOrderableCsvModel.class, dataStream, DEFAULT_BATCH_SIZE);
     verify(programOrderableRepository).saveAll(any());
   }
 }
@@ -22,6 +22,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.openlmis.referencedata.util.CsvBatchIteratorStubs.singleBatch;
+import static org.openlmis.referencedata.util.EasyBatchUtils.DEFAULT_BATCH_SIZE;
 
 import com.google.common.util.concurrent.MoreExecutors;
 import java.io.InputStream;
@@ -88,8 +90,9 @@ public class SupportedProgramImportPersisterTest {
 
     when(transactionUtils.runInOwnTransaction(any(Supplier.class)))
         .thenAnswer(invocation -> ((Supplier) invocation.getArgument(0)).get());
-    when(fileHelper.readCsv(SupportedProgramCsvModel.class, dataStream))
-        .thenReturn(singletonList(csvModel));
+    when(fileHelper.readCsvInBatches(
+        SupportedProgramCsvModel.class, dataStream, DEFAULT_BATCH_SIZE))
+        .thenReturn(singleBatch(singletonList(csvModel)));
     when(facilityRepository.findAllByCodeIn(singletonList(facility.getCode())))
         .thenReturn(singletonList(facility));
     when(programRepository.findAllByCodeIn(singletonList(program.getCode())))
@@ -119,7 +122,8 @@ public class SupportedProgramImportPersisterTest {
 
     // Then
     assertEquals(Integer.valueOf(1), result.getSuccessfulEntriesCount());
-    verify(fileHelper).readCsv(SupportedProgramCsvModel.class, dataStream);
+    verify(fileHelper)
+        .readCsvInBatches(SupportedProgramCsvModel.class, dataStream, DEFAULT_BATCH_SIZE);
     verify(supportedProgramRepository).saveAll(singletonList(supportedProgram));
   }
 
@@ -136,7 +140,8 @@ public class SupportedProgramImportPersisterTest {
 
     // Then
     assertEquals(Integer.valueOf(1), result.getSuccessfulEntriesCount());
-    verify(fileHelper).readCsv(SupportedProgramCsvModel.class, dataStream);
+    verify(fileHelper)
+        .readCsvInBatches(SupportedProgramCsvModel.class, dataStream, DEFAULT_BATCH_SIZE);
     verify(supportedProgramRepository).saveAll(singletonList(supportedProgram));
   }
 }
@@ -47,6 +47,7 @@ import org.openlmis.referencedata.testbuilder.TradeItemDataBuilder;
 import org.openlmis.referencedata.util.FileHelper;
 import org.openlmis.referencedata.util.TransactionUtils;
 import org.slf4j.profiler.Profiler;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -66,6 +67,7 @@ public class TradeItemImportPersisterTest {
   @Mock private TradeItemRepository tradeItemRepository;
   @Mock private OrderableRepository orderableRepository;
   @Mock private TransactionUtils transactionUtils;
+  @Mock private ApplicationEventPublisher applicationEventPublisher;
   @InjectMocks private TradeItemImportPersister tradeItemImportPersister;
 
   @Before
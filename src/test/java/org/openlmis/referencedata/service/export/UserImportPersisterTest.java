@@ -0,0 +1,273 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.service.export;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.User;
+import org.openlmis.referencedata.dto.ImportResponseDto;
+import org.openlmis.referencedata.dto.ImportedUserItemDto;
+import org.openlmis.referencedata.dto.SaveBatchResultDto;
+import org.openlmis.referencedata.dto.UserDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.repository.FacilityRepository;
+import org.openlmis.referencedata.service.UserAuthService;
+import org.openlmis.referencedata.service.UserDetailsService;
+import org.openlmis.referencedata.service.UserService;
+import org.openlmis.referencedata.testbuilder.UserDataBuilder;
+import org.openlmis.referencedata.util.FileHelper;
+import org.slf4j.profiler.Profiler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserImportPersisterTest {
+
+  @Mock private FileHelper fileHelper;
+  @Mock private FacilityRepository facilityRepository;
+  @Mock private UserService userService;
+  @Mock private UserDetailsService userDetailsService;
+  @Mock private UserAuthService userAuthService;
+  @Mock private UserImportRollback userImportRollback;
+  @InjectMocks private UserImportPersister userImportPersister;
+
+  private InputStream dataStream = mock(InputStream.class);
+  private List<User> users;
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(userImportPersister, "persistExecutorService",
+        MoreExecutors.newDirectExecutorService());
+    ReflectionTestUtils.setField(userImportPersister, "contactDetailsExecutorService",
+        MoreExecutors.newDirectExecutorService());
+    ReflectionTestUtils.setField(userImportPersister, "authDetailsExecutorService",
+        MoreExecutors.newDirectExecutorService());
+    ReflectionTestUtils.setField(userImportPersister, "persistBatchSize", 2);
+    ReflectionTestUtils.setField(userImportPersister, "contactDetailsBatchSize", 1);
+    ReflectionTestUtils.setField(userImportPersister, "authDetailsBatchSize", 2);
+
+    users = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      users.add(new UserDataBuilder().build());
+    }
+
+    when(fileHelper.readCsv(UserDto.class, dataStream))
+        .thenReturn(UserDto.newInstances(users));
+    when(facilityRepository.findAllByCodeIn(anyList())).thenReturn(emptyList());
+    when(userService.saveUsersFromFile(anyList(), anyMap())).thenAnswer(invocation -> {
+      List<UserDto> batch = invocation.getArgument(0);
+      return batch.stream()
+          .map(dto -> new ImportedUserItemDto(findUser(dto.getUsername()), true))
+          .collect(Collectors.toList());
+    });
+  }
+
+  @Test
+  public void shouldPassUsersThroughAllStagesInBatchesOfEachStage() throws Exception {
+    when(userDetailsService.saveUsersContactDetailsFromFile(anyList(), anyList()))
+        .thenAnswer(invocation -> succeeded(invocation.getArgument(0)));
+    when(userAuthService.saveUserAuthDetailsFromFile(anyList()))
+        .thenAnswer(invocation -> succeeded(invocation.getArgument(0)));
+
+    ImportResponseDto.ImportDetails result =
+        userImportPersister.processAndPersist(dataStream, mock(Profiler.class));
+
+    assertEquals(Integer.valueOf(3), result.getTotalEntriesCount());
+    assertEquals(Integer.valueOf(3), result.getSuccessfulEntriesCount());
+    assertEquals(Integer.valueOf(0), result.getFailedEntriesCount());
+    assertTrue(result.getErrors().isEmpty());
+
+    verify(userService, times(2)).saveUsersFromFile(anyList(), anyMap());
+    verify(userDetailsService, times(3)).saveUsersContactDetailsFromFile(anyList(), anyList());
+    verify(userAuthService, times(2)).saveUserAuthDetailsFromFile(anyList());
+    verify(userImportRollback, times(2)).cleanupInconsistentData(any(UserImportResult.class));
+  }
+
+  @Test
+  public void shouldNotPassUsersWithoutContactDetailsToAuthStage() throws Exception {
+    ImportResponseDto.ErrorDetails error = new ImportResponseDto.ErrorDetails(
+        singletonList("contact details error"));
+    when(userDetailsService.saveUsersContactDetailsFromFile(anyList(), anyList()))
+        .thenAnswer(invocation -> {
+          List<UserDto> part = invocation.getArgument(0);
+          return users.get(0).getUsername().equals(part.get(0).getUsername())
+              ? new SaveBatchResultDto<>(emptyList(), singletonList(error))
+              : succeeded(part);
+        });
+    when(userAuthService.saveUserAuthDetailsFromFile(anyList()))
+        .thenAnswer(invocation -> succeeded(invocation.getArgument(0)));
+
+    ImportResponseDto.ImportDetails result =
+        userImportPersister.processAndPersist(dataStream, mock(Profiler.class));
+
+    assertEquals(Integer.valueOf(2), result.getSuccessfulEntriesCount());
+    assertEquals(Integer.valueOf(1), result.getFailedEntriesCount());
+    assertEquals(singletonList(error), result.getErrors());
+
+    ArgumentCaptor<UserImportResult> captor = ArgumentCaptor.forClass(UserImportResult.class);
+    verify(userImportRollback, times(2)).cleanupInconsistentData(captor.capture());
+
+    UserImportResult firstBatch = captor.getAllValues().get(0);
+    assertEquals(2, firstBatch.getSuccessfulUsers().size());
+    assertEquals(1, firstBatch.getSuccessfulContactDetails().size());
+    assertEquals(1, firstBatch.getSuccessfulAuthDetails().size());
+  }
+
+  @Test
+  public void shouldRollBackAllUsersOfBatchWhenStageFails() throws Exception {
+    when(userDetailsService.saveUsersContactDetailsFromFile(anyList(), anyList()))
+        .thenAnswer(invocation -> succeeded(invocation.getArgument(0)));
+    when(userAuthService.saveUserAuthDetailsFromFile(anyList()))
+        .thenThrow(new IllegalStateException("auth service is down"));
+
+    try {
+      userImportPersister.processAndPersist(dataStream, mock(Profiler.class));
+      fail("Expected the import to fail");
+    } catch (ValidationMessageException ex) {
+      // expected
+    }
+
+    ArgumentCaptor<UserImportResult> captor = ArgumentCaptor.forClass(UserImportResult.class);
+    verify(userImportRollback, times(2)).cleanupInconsistentData(captor.capture());
+
+    for (UserImportResult batchResult : captor.getAllValues()) {
+      assertFalse(batchResult.getSuccessfulUsers().isEmpty());
+      assertTrue(batchResult.getSuccessfulContactDetails().isEmpty());
+      assertTrue(batchResult.getSuccessfulAuthDetails().isEmpty());
+    }
+  }
+
+  @Test
+  public void shouldWaitForAllBatchesBeforeFailing() throws Exception {
+    ReflectionTestUtils.setField(userImportPersister, "authDetailsExecutorService",
+        Executors.newCachedThreadPool());
+    String lastUsername = users.get(2).getUsername();
+    when(userDetailsService.saveUsersContactDetailsFromFile(anyList(), anyList()))
+        .thenAnswer(invocation -> succeeded(invocation.getArgument(0)));
+    when(userAuthService.saveUserAuthDetailsFromFile(anyList())).thenAnswer(invocation -> {
+      List<UserDto> part = invocation.getArgument(0);
+      if (!lastUsername.equals(part.get(0).getUsername())) {
+        throw new IllegalStateException("auth service is down");
+      }
+
+      // the second batch is still being saved when the first one fails
+      Thread.sleep(100);
+      return succeeded(part);
+    });
+
+    try {
+      userImportPersister.processAndPersist(dataStream, mock(Profiler.class));
+      fail("Expected the import to fail");
+    } catch (ValidationMessageException ex) {
+      // expected
+    }
+
+    verify(userImportRollback, times(2)).cleanupInconsistentData(any(UserImportResult.class));
+  }
+
+  @Test
+  public void shouldReportEachBatchToProgress() throws Exception {
+    when(userDetailsService.saveUsersContactDetailsFromFile(anyList(), anyList()))
+        .thenAnswer(invocation -> succeeded(invocation.getArgument(0)));
+    when(userAuthService.saveUserAuthDetailsFromFile(anyList()))
+        .thenAnswer(invocation -> succeeded(invocation.getArgument(0)));
+    ImportProgress progress = ImportProgress.fromStart();
+
+    userImportPersister.processAndPersist(dataStream, mock(Profiler.class), progress);
+
+    assertEquals(3, progress.getRowsRead());
+    assertEquals(3, progress.getRowsPersisted());
+  }
+
+  @Test
+  public void shouldSkipBatchesCoveredByCheckpoint() throws Exception {
+    when(userDetailsService.saveUsersContactDetailsFromFile(anyList(), anyList()))
+        .thenAnswer(invocation -> succeeded(invocation.getArgument(0)));
+    when(userAuthService.saveUserAuthDetailsFromFile(anyList()))
+        .thenAnswer(invocation -> succeeded(invocation.getArgument(0)));
+    ImportProgress progress = new ImportProgress(2, 2, 0);
+
+    ImportResponseDto.ImportDetails result =
+        userImportPersister.processAndPersist(dataStream, mock(Profiler.class), progress);
+
+    assertEquals(Integer.valueOf(1), result.getSuccessfulEntriesCount());
+    assertEquals(Integer.valueOf(0), result.getFailedEntriesCount());
+    assertEquals(3, progress.getRowsRead());
+    assertEquals(3, progress.getRowsPersisted());
+    verify(userService).saveUsersFromFile(anyList(), anyMap());
+  }
+
+  @Test
+  public void shouldStopPullingBatchesWhenCancelled() throws Exception {
+    ReflectionTestUtils.setField(userImportPersister, "persistBatchSize", 1);
+    when(userDetailsService.saveUsersContactDetailsFromFile(anyList(), anyList()))
+        .thenAnswer(invocation -> succeeded(invocation.getArgument(0)));
+    when(userAuthService.saveUserAuthDetailsFromFile(anyList()))
+        .thenAnswer(invocation -> succeeded(invocation.getArgument(0)));
+    ImportProgress progress = ImportProgress.fromStart();
+    doAnswer(invocation -> {
+      progress.cancel();
+      return null;
+    }).when(userImportRollback).cleanupInconsistentData(any(UserImportResult.class));
+
+    try {
+      userImportPersister.processAndPersist(dataStream, mock(Profiler.class), progress);
+      fail("Expected the import to be cancelled");
+    } catch (CancellationException ex) {
+      // expected
+    }
+
+    verify(userService).saveUsersFromFile(anyList(), anyMap());
+  }
+
+  private User findUser(String username) {
+    return users
+        .stream()
+        .filter(user -> user.getUsername().equals(username))
+        .findFirst()
+        .orElseThrow(IllegalStateException::new);
+  }
+
+  private static SaveBatchResultDto<UserDto> succeeded(List<UserDto> part) {
+    return new SaveBatchResultDto<>(new ArrayList<>(part), emptyList());
+  }
+}
@@ -18,7 +18,7 @@ package org.openlmis.referencedata.testbuilder;
 import com.google.common.collect.Lists;
 import java.util.List;
 import java.util.UUID;
-import org.apache.commons.lang.RandomStringUtils;
+import org.apache.commons.lang3.RandomStringUtils;
 import org.openlmis.referencedata.domain.CommodityType;
 
 public class CommodityTypeDataBuilder {
@@ -19,7 +19,7 @@ import static org.openlmis.referencedata.domain.ProcessingPeriod.newPeriod;
 
 import java.time.LocalDate;
 import java.util.UUID;
-import org.apache.commons.lang.RandomStringUtils;
+import org.apache.commons.lang3.RandomStringUtils;
 import org.openlmis.referencedata.domain.ProcessingPeriod;
 import org.openlmis.referencedata.domain.ProcessingSchedule;
 
@@ -19,7 +19,7 @@ import com.google.common.collect.Lists;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
-import org.apache.commons.lang.RandomStringUtils;
+import org.apache.commons.lang3.RandomStringUtils;
 import org.openlmis.referencedata.domain.SupplyPartner;
 import org.openlmis.referencedata.domain.SupplyPartnerAssociation;
 
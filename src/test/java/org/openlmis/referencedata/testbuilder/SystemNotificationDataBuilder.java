@@ -17,7 +17,7 @@ package org.openlmis.referencedata.testbuilder;
 
 import java.time.ZonedDateTime;
 import java.util.UUID;
-import org.apache.commons.lang.RandomStringUtils;
+import org.apache.commons.lang3.RandomStringUtils;
 import org.openlmis.referencedata.domain.SupplyPartner;
 import org.openlmis.referencedata.domain.SystemNotification;
 import org.openlmis.referencedata.domain.User;
@@ -0,0 +1,39 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.util;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+public final class CsvBatchIteratorStubs {
+
+  private CsvBatchIteratorStubs() {
+  }
+
+  /**
+   * Creates a {@link CsvBatchIterator} returning the given rows as its only batch.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> CsvBatchIterator<T> singleBatch(List<T> rows) {
+    CsvBatchIterator<T> batches = mock(CsvBatchIterator.class);
+    when(batches.hasNext()).thenReturn(true, false);
+    when(batches.next()).thenReturn(rows);
+    when(batches.getRowCount()).thenReturn(rows.size());
+    return batches;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import org.junit.Test;
+
+public class CustomSqlFunctionsContributorTest {
+
+  @Test
+  public void toArrayLiteralShouldReturnEmptyArrayForNoValues() {
+    assertEquals("{}", CustomSqlFunctionsContributor.toArrayLiteral(Collections.emptyList()));
+  }
+
+  @Test
+  public void toArrayLiteralShouldQuoteEveryElement() {
+    UUID id = UUID.randomUUID();
+
+    assertEquals("{\"" + id + "\",\"2\"}",
+        CustomSqlFunctionsContributor.toArrayLiteral(Arrays.asList(id, 2L)));
+  }
+
+  @Test
+  public void toArrayLiteralShouldEscapeQuotesAndBackslashes() {
+    assertEquals("{\"a,b\",\"say \\\"hi\\\"\",\"c:\\\\d\",\"{e}\"}",
+        CustomSqlFunctionsContributor.toArrayLiteral(
+            Arrays.asList("a,b", "say \"hi\"", "c:\\d", "{e}")));
+  }
+}
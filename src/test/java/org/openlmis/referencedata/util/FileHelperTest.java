@@ -16,20 +16,28 @@
 package org.openlmis.referencedata.util;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -48,30 +56,81 @@ public class FileHelperTest {
                   "programOrderable.csv",
                   "tradeItem.csv");
 
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @InjectMocks
   private FileHelper fileHelper;
 
   @Test
-  public void shouldConvertMultipartFileToZipFileMapWithValidZipFile() throws IOException {
+  public void shouldSpoolZipEntriesWithValidZipFile() throws IOException {
     byte[] fileContent = createValidZipFileContent();
     MockMultipartFile mockMultipartFile = new MockMultipartFile("test.zip", fileContent);
 
-    Map<String, InputStream> result = fileHelper
-            .convertMultipartFileToZipFileMap(mockMultipartFile);
+    try (SpooledZipEntries result = fileHelper.spoolZipEntries(mockMultipartFile)) {
+      assertEquals(2, result.getNames().size());
+      assertEquals("This is the contents of file1.txt", read(result.open("file1.txt")));
+      assertEquals("This is the contents of file2.txt", read(result.open("file2.txt")));
+      assertNull(result.open("file3.txt"));
+    }
+  }
+
+  @Test
+  public void shouldDeleteSpooledFilesOnClose() throws IOException {
+    MockMultipartFile mockMultipartFile =
+        new MockMultipartFile("test.zip", createValidZipFileContent());
+    SpooledZipEntries result = fileHelper.spoolZipEntries(mockMultipartFile);
+
+    result.close();
 
-    assertNotNull(result);
-    assertEquals(2, result.size());
-    assertNotNull(result.get("file1.txt"));
-    assertNotNull(result.get("file2.txt"));
+    assertTrue(result.isEmpty());
   }
 
   @Test(expected = ValidationMessageException.class)
-  public void shouldConvertMultipartFileToZipFileMapWithInvalidZipFile() {
+  public void shouldNotSpoolZipEntriesWithInvalidZipFile() {
     String fileName = "test.zip";
     String fileContent = "This is not a valid zip file.";
     MockMultipartFile mockMultipartFile = new MockMultipartFile(fileName, fileName,
             "application/zip", fileContent.getBytes());
-    fileHelper.convertMultipartFileToZipFileMap(mockMultipartFile);
+    fileHelper.spoolZipEntries(mockMultipartFile);
+  }
+
+  @Test
+  public void shouldSpoolZipEntriesToDirectoryAndOpenThemAgain() throws IOException {
+    MockMultipartFile mockMultipartFile = new MockMultipartFile("test.zip",
+        createZipFileContent("facility.csv", "orderable.csv"));
+    Path directory = temporaryFolder.getRoot().toPath().resolve("job");
+
+    fileHelper.spoolZipEntries(mockMultipartFile, IMPORTABLE_FILES, directory);
+
+    try (SpooledZipEntries result = SpooledZipEntries.fromDirectory(directory)) {
+      assertEquals(2, result.getNames().size());
+      assertEquals("This is the contents of facility.csv", read(result.open("facility.csv")));
+      assertEquals("This is the contents of orderable.csv", read(result.open("orderable.csv")));
+    }
+
+    assertFalse(Files.exists(directory.resolve("facility.csv")));
+  }
+
+  @Test
+  public void shouldNotSpoolZipEntriesWithUnexpectedNamesToDirectory() throws IOException {
+    MockMultipartFile mockMultipartFile = new MockMultipartFile("test.zip",
+        createZipFileContent("facility.csv", "../orderable.csv"));
+    Path directory = temporaryFolder.getRoot().toPath().resolve("job");
+
+    try {
+      fileHelper.spoolZipEntries(mockMultipartFile, IMPORTABLE_FILES, directory);
+      fail("Expected ValidationMessageException");
+    } catch (ValidationMessageException ex) {
+      assertFalse(Files.exists(directory.resolve("facility.csv")));
+      assertFalse(Files.exists(temporaryFolder.getRoot().toPath().resolve("orderable.csv")));
+    }
+  }
+
+  private static String read(InputStream stream) throws IOException {
+    try (InputStream input = stream) {
+      return IOUtils.toString(input, StandardCharsets.UTF_8);
+    }
   }
 
   private byte[] createValidZipFileContent() throws IOException {
@@ -111,4 +170,18 @@ public class FileHelperTest {
     fileHelper.validateMultipartFile(multipartFile);
   }
 
+
+  private byte[] createZipFileContent(String... fileNames) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+    try (ZipOutputStream zipOutputStream = new ZipOutputStream(baos)) {
+      for (String fileName : fileNames) {
+        zipOutputStream.putNextEntry(new ZipEntry(fileName));
+        zipOutputStream.write(("This is the contents of " + fileName).getBytes());
+        zipOutputStream.closeEntry();
+      }
+    }
+
+    return baos.toByteArray();
+  }
 }
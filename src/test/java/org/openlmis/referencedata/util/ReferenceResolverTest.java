@@ -0,0 +1,139 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.util;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.referencedata.domain.Identifiable;
+
+public class ReferenceResolverTest {
+
+  private final Map<String, Entity> database = new HashMap<>();
+  private final List<List<String>> loadedKeys = new ArrayList<>();
+  private final List<UUID> referencedIds = new ArrayList<>();
+
+  private final ReferenceResolver<String, Entity> resolver = new ReferenceResolver<>(
+      this::load, Entity::getCode,
+      id -> {
+        referencedIds.add(id);
+        return new Entity(null, id);
+      });
+
+  @Before
+  public void setUp() {
+    asList("a", "b", "c", "d").forEach(this::insert);
+  }
+
+  @Test
+  public void shouldLoadAllPrefetchedKeysWithSingleCall() {
+    resolver.prefetch(asList("a", "b", "a", null), Function.identity());
+
+    assertEquals(singletonList(asList("a", "b")), loadedKeys);
+    assertEquals(idOf("a"), resolver.find("a").map(Entity::getId));
+    assertEquals(idOf("b"), resolver.find("b").map(Entity::getId));
+    assertEquals(1, loadedKeys.size());
+  }
+
+  @Test
+  public void shouldOnlyLoadKeysNotResolvedBefore() {
+    resolver.prefetch(asList("a", "missing"), Function.identity());
+    resolver.prefetch(asList("a", "missing", "c"), Function.identity());
+
+    assertEquals(asList(asList("a", "missing"), asList("missing", "c")), loadedKeys);
+  }
+
+  @Test
+  public void shouldLookUpMissingKeysAgain() {
+    assertFalse(resolver.find("missing").isPresent());
+
+    insert("missing");
+
+    assertEquals(idOf("missing"), resolver.find("missing").map(Entity::getId));
+    assertEquals(asList(singletonList("missing"), singletonList("missing")), loadedKeys);
+  }
+
+  @Test
+  public void shouldLoadKeyOnDemandIfNotPrefetched() {
+    assertEquals(idOf("d"), resolver.find("d").map(Entity::getId));
+    assertEquals(singletonList(singletonList("d")), loadedKeys);
+  }
+
+  @Test
+  public void shouldCreateNewReferenceForEachLookup() {
+    resolver.prefetch(singletonList("a"), Function.identity());
+
+    resolver.find("a");
+    resolver.find("a");
+
+    assertEquals(asList(database.get("a").getId(), database.get("a").getId()), referencedIds);
+    assertEquals(1, loadedKeys.size());
+  }
+
+  @Test
+  public void shouldReturnEmptyForNullKey() {
+    assertFalse(resolver.find(null).isPresent());
+    assertEquals(0, loadedKeys.size());
+  }
+
+  @Test
+  public void shouldReturnLoadedEntitiesIfDetached() {
+    ReferenceResolver<String, Entity> detached =
+        ReferenceResolver.detached(this::load, Entity::getCode);
+
+    detached.prefetch(asList("a", "b"), Function.identity());
+
+    assertSame(database.get("a"), detached.find("a").orElse(null));
+    assertSame(database.get("b"), detached.find("b").orElse(null));
+    assertEquals(1, loadedKeys.size());
+  }
+
+  private List<Entity> load(List<String> keys) {
+    loadedKeys.add(keys);
+    return keys.stream().map(database::get).filter(Objects::nonNull).collect(toList());
+  }
+
+  private void insert(String code) {
+    database.put(code, new Entity(code, UUID.randomUUID()));
+  }
+
+  private Optional<UUID> idOf(String code) {
+    return Optional.of(database.get(code).getId());
+  }
+
+  @Getter
+  @AllArgsConstructor
+  private static final class Entity implements Identifiable {
+    private final String code;
+    private final UUID id;
+  }
+}
@@ -151,6 +151,23 @@ public class FacilitySearchParamsTest {
     assertNull(params.getExtraData());
   }
 
+  @Test
+  public void shouldBeEmptyIfThereAreOnlyPaginationParameters() {
+    queryMap.add("page", "0");
+    queryMap.add("size", "10");
+    FacilitySearchParams params = new FacilitySearchParams(queryMap);
+
+    assertTrue(params.isEmpty());
+  }
+
+  @Test
+  public void shouldNotBeEmptyIfThereAreSearchParameters() {
+    queryMap.add(CODE, "code");
+    FacilitySearchParams params = new FacilitySearchParams(queryMap);
+
+    assertFalse(params.isEmpty());
+  }
+
   @Test
   public void shouldThrowExceptionIfThereIsUnknownParameterInParameters() {
     exception.expect(ValidationMessageException.class);
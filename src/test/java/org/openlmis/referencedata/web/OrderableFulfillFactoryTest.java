@@ -32,19 +32,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.openlmis.referencedata.domain.CommodityType;
+import org.openlmis.referencedata.domain.Dispensable;
 import org.openlmis.referencedata.domain.Orderable;
 import org.openlmis.referencedata.domain.TradeItem;
-import org.openlmis.referencedata.repository.OrderableRepository;
 import org.openlmis.referencedata.testbuilder.CommodityTypeDataBuilder;
 import org.openlmis.referencedata.testbuilder.OrderableDataBuilder;
 import org.openlmis.referencedata.testbuilder.TradeItemDataBuilder;
-import org.openlmis.referencedata.util.EntityCollection;
+import org.openlmis.referencedata.web.OrderableFulfillIndex.IndexedOrderable;
 
 @RunWith(MockitoJUnitRunner.class)
 public class OrderableFulfillFactoryTest {
 
   @Mock
-  private OrderableRepository orderableRepository;
+  private OrderableFulfillIndex orderableFulfillIndex;
 
   @InjectMocks
   private OrderableFulfillFactory factory;
@@ -54,27 +54,23 @@ public class OrderableFulfillFactoryTest {
       .withClassification(commodityType)
       .build();
 
-  private Orderable tradeItemOrderable = new OrderableDataBuilder()
+  private IndexedOrderable tradeItemOrderable = index(new OrderableDataBuilder()
       .withIdentifier(TRADE_ITEM, tradeItem.getId())
-      .build();
+      .build());
 
-  private Orderable commodityTypeOrderable = new OrderableDataBuilder()
+  private IndexedOrderable commodityTypeOrderable = index(new OrderableDataBuilder()
       .withIdentifier(COMMODITY_TYPE, commodityType.getId())
-      .build();
-
-  private EntityCollection<TradeItem> tradeItems = new EntityCollection<>(
-      Collections.singletonList(tradeItem));
-
-  private EntityCollection<CommodityType> commodityTypes = new EntityCollection<>(
-      Collections.singletonList(commodityType));
+      .build());
 
   @Test
   public void shouldCreateResourceForTradeItem() {
-    when(orderableRepository.findAllLatestByIdentifier(
+    when(orderableFulfillIndex.getCommodityTypesFulfilledBy(tradeItem.getId()))
+        .thenReturn(Collections.singleton(commodityType.getId()));
+    when(orderableFulfillIndex.getLatestOrderablesByIdentifier(
         COMMODITY_TYPE, commodityType.getId().toString()))
         .thenReturn(Lists.newArrayList(commodityTypeOrderable));
 
-    OrderableFulfill response = factory.createFor(tradeItemOrderable, tradeItems, commodityTypes);
+    OrderableFulfill response = factory.createFor(tradeItemOrderable);
     assertThat(response.getCanFulfillForMe(), hasSize(0));
     assertThat(response.getCanBeFulfilledByMe(), hasSize(1));
     assertThat(response.getCanBeFulfilledByMe(), hasItem(commodityTypeOrderable.getId()));
@@ -82,20 +78,42 @@ public class OrderableFulfillFactoryTest {
 
   @Test
   public void shouldCreateResourceForCommodityType() {
-    when(orderableRepository.findAllLatestByIdentifier(TRADE_ITEM, tradeItem.getId().toString()))
+    when(orderableFulfillIndex.getTradeItemsFulfilling(commodityType.getId()))
+        .thenReturn(Collections.singleton(tradeItem.getId()));
+    when(orderableFulfillIndex.getLatestOrderablesByIdentifier(
+        TRADE_ITEM, tradeItem.getId().toString()))
         .thenReturn(Lists.newArrayList(tradeItemOrderable));
 
-    OrderableFulfill response = factory.createFor(commodityTypeOrderable,
-        tradeItems, commodityTypes);
+    OrderableFulfill response = factory.createFor(commodityTypeOrderable);
     assertThat(response.getCanFulfillForMe(), hasSize(1));
     assertThat(response.getCanFulfillForMe(), hasItem(tradeItemOrderable.getId()));
     assertThat(response.getCanBeFulfilledByMe(), hasSize(0));
   }
 
+  @Test
+  public void shouldNotAddOrderablesWithDifferentDispensable() {
+    IndexedOrderable otherDispensableOrderable = new IndexedOrderable(
+        commodityTypeOrderable.getId(), null, commodityType.getId().toString(),
+        Dispensable.createNew("other"));
+
+    when(orderableFulfillIndex.getCommodityTypesFulfilledBy(tradeItem.getId()))
+        .thenReturn(Collections.singleton(commodityType.getId()));
+    when(orderableFulfillIndex.getLatestOrderablesByIdentifier(
+        COMMODITY_TYPE, commodityType.getId().toString()))
+        .thenReturn(Lists.newArrayList(otherDispensableOrderable));
+
+    OrderableFulfill response = factory.createFor(tradeItemOrderable);
+    assertThat(response.getCanBeFulfilledByMe(), hasSize(0));
+  }
+
   @Test
   public void shouldNotCreateResourceIfThereAreNoIdentifiers() {
-    OrderableFulfill response = factory.createFor(new OrderableDataBuilder().build(),
-        tradeItems, commodityTypes);
+    OrderableFulfill response = factory.createFor(index(new OrderableDataBuilder().build()));
     assertThat(response, is(nullValue()));
   }
+
+  private static IndexedOrderable index(Orderable orderable) {
+    return new IndexedOrderable(orderable.getId(), orderable.getTradeItemIdentifier(),
+        orderable.getCommodityTypeIdentifier(), orderable.getDispensable());
+  }
 }
@@ -0,0 +1,248 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.web;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.openlmis.referencedata.domain.Orderable.COMMODITY_TYPE;
+import static org.openlmis.referencedata.domain.Orderable.TRADE_ITEM;
+
+import com.google.common.collect.Lists;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.referencedata.cache.NearCacheInvalidator;
+import org.openlmis.referencedata.domain.CommodityType;
+import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.domain.TradeItem;
+import org.openlmis.referencedata.repository.CommodityTypeRepository;
+import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.repository.TradeItemRepository;
+import org.openlmis.referencedata.service.FulfillmentDataChangedEvent;
+import org.openlmis.referencedata.testbuilder.CommodityTypeDataBuilder;
+import org.openlmis.referencedata.testbuilder.OrderableDataBuilder;
+import org.openlmis.referencedata.testbuilder.TradeItemDataBuilder;
+import org.openlmis.referencedata.web.OrderableFulfillIndex.IndexedOrderable;
+import org.springframework.data.domain.PageImpl;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OrderableFulfillIndexTest {
+
+  @Mock
+  private OrderableRepository orderableRepository;
+
+  @Mock
+  private TradeItemRepository tradeItemRepository;
+
+  @Mock
+  private CommodityTypeRepository commodityTypeRepository;
+
+  @Mock
+  private NearCacheInvalidator nearCacheInvalidator;
+
+  @Captor
+  private ArgumentCaptor<Consumer<UUID>> invalidationCaptor;
+
+  @InjectMocks
+  private OrderableFulfillIndex index;
+
+  private CommodityType commodityType = new CommodityTypeDataBuilder().build();
+  private CommodityType otherCommodityType = new CommodityTypeDataBuilder().build();
+  private TradeItem tradeItem = new TradeItemDataBuilder()
+      .withClassification(commodityType)
+      .build();
+
+  private Orderable tradeItemOrderable = new OrderableDataBuilder()
+      .withIdentifier(TRADE_ITEM, tradeItem.getId())
+      .build();
+  private Orderable commodityTypeOrderable = new OrderableDataBuilder()
+      .withIdentifier(COMMODITY_TYPE, commodityType.getId())
+      .build();
+  private Orderable plainOrderable = new OrderableDataBuilder().build();
+
+  @Test
+  public void shouldMatchTradeItemsAndCommodityTypesByClassification() {
+    mockGraph();
+
+    assertThat(index.getCommodityTypesFulfilledBy(tradeItem.getId()),
+        contains(commodityType.getId()));
+    assertThat(index.getTradeItemsFulfilling(commodityType.getId()),
+        contains(tradeItem.getId()));
+    assertThat(index.getTradeItemsFulfilling(otherCommodityType.getId()), empty());
+    assertThat(index.getCommodityTypesFulfilledBy(UUID.randomUUID()), empty());
+  }
+
+  @Test
+  public void shouldIndexLatestOrderablesByIdentifier() {
+    mockCatalog();
+
+    assertThat(getIds(index.getLatestOrderablesByIdentifier(TRADE_ITEM,
+        tradeItem.getId().toString())), contains(tradeItemOrderable.getId()));
+    assertThat(getIds(index.getLatestOrderablesByIdentifier(COMMODITY_TYPE,
+        commodityType.getId().toString())), contains(commodityTypeOrderable.getId()));
+    assertThat(index.getLatestOrderablesByIdentifier(COMMODITY_TYPE,
+        otherCommodityType.getId().toString()), empty());
+  }
+
+  @Test
+  public void shouldReturnAllLatestOrderablesIfIdsAreEmpty() {
+    mockCatalog();
+
+    assertThat(getIds(index.getLatestOrderables(Collections.emptySet())),
+        containsInAnyOrder(tradeItemOrderable.getId(), commodityTypeOrderable.getId(),
+            plainOrderable.getId()));
+  }
+
+  @Test
+  public void shouldReturnOnlyKnownLatestOrderablesWithGivenIds() {
+    mockCatalog();
+
+    assertThat(getIds(index.getLatestOrderables(
+        Collections.singleton(plainOrderable.getId()))), contains(plainOrderable.getId()));
+    assertThat(index.getLatestOrderables(Collections.singleton(UUID.randomUUID())), empty());
+  }
+
+  @Test
+  public void shouldBuildIndexOnlyOnce() {
+    mockGraph();
+    mockCatalog();
+
+    index.getLatestOrderables(Collections.emptySet());
+    index.getLatestOrderablesByIdentifier(TRADE_ITEM, tradeItem.getId().toString());
+    index.getCommodityTypesFulfilledBy(tradeItem.getId());
+    index.getTradeItemsFulfilling(commodityType.getId());
+
+    verify(orderableRepository, times(1)).findAllLatest(any());
+    verify(tradeItemRepository, times(1)).findAll();
+    verify(commodityTypeRepository, times(1)).findAll();
+  }
+
+  @Test
+  public void shouldRebuildOnlyOrderablesAfterOrderableChange() {
+    mockGraph();
+    mockCatalog();
+
+    index.getLatestOrderables(Collections.emptySet());
+    index.getCommodityTypesFulfilledBy(tradeItem.getId());
+
+    index.onFulfillmentDataChanged(new FulfillmentDataChangedEvent(this, Orderable.class));
+    index.getLatestOrderables(Collections.emptySet());
+    index.getCommodityTypesFulfilledBy(tradeItem.getId());
+
+    verify(orderableRepository, times(2)).findAllLatest(any());
+    verify(tradeItemRepository, times(1)).findAll();
+  }
+
+  @Test
+  public void shouldRebuildOnlyGraphAfterTradeItemChange() {
+    mockGraph();
+    mockCatalog();
+
+    index.getLatestOrderables(Collections.emptySet());
+    index.getCommodityTypesFulfilledBy(tradeItem.getId());
+
+    index.onFulfillmentDataChanged(new FulfillmentDataChangedEvent(this, TradeItem.class));
+    index.getLatestOrderables(Collections.emptySet());
+    index.getCommodityTypesFulfilledBy(tradeItem.getId());
+
+    verify(orderableRepository, times(1)).findAllLatest(any());
+    verify(tradeItemRepository, times(2)).findAll();
+    verify(commodityTypeRepository, times(2)).findAll();
+  }
+
+  @Test
+  public void shouldBroadcastChangesToOtherInstances() {
+    index.onFulfillmentDataChanged(new FulfillmentDataChangedEvent(this, Orderable.class));
+    index.onFulfillmentDataChanged(new FulfillmentDataChangedEvent(this, TradeItem.class));
+
+    verify(nearCacheInvalidator).broadcast(OrderableFulfillIndex.CATALOG_INVALIDATION, null);
+    verify(nearCacheInvalidator).broadcast(OrderableFulfillIndex.GRAPH_INVALIDATION, null);
+  }
+
+  @Test
+  public void shouldRebuildOnlyOrderablesAfterChangeOnOtherInstance() {
+    mockGraph();
+    mockCatalog();
+    index.registerInvalidations();
+    verify(nearCacheInvalidator).register(eq(OrderableFulfillIndex.CATALOG_INVALIDATION),
+        invalidationCaptor.capture());
+
+    index.getLatestOrderables(Collections.emptySet());
+    index.getCommodityTypesFulfilledBy(tradeItem.getId());
+
+    invalidationCaptor.getValue().accept(null);
+    index.getLatestOrderables(Collections.emptySet());
+    index.getCommodityTypesFulfilledBy(tradeItem.getId());
+
+    verify(orderableRepository, times(2)).findAllLatest(any());
+    verify(tradeItemRepository, times(1)).findAll();
+  }
+
+  @Test
+  public void shouldRebuildOnlyGraphAfterChangeOnOtherInstance() {
+    mockGraph();
+    mockCatalog();
+    index.registerInvalidations();
+    verify(nearCacheInvalidator).register(eq(OrderableFulfillIndex.GRAPH_INVALIDATION),
+        invalidationCaptor.capture());
+
+    index.getLatestOrderables(Collections.emptySet());
+    index.getCommodityTypesFulfilledBy(tradeItem.getId());
+
+    invalidationCaptor.getValue().accept(null);
+    index.getLatestOrderables(Collections.emptySet());
+    index.getCommodityTypesFulfilledBy(tradeItem.getId());
+
+    verify(orderableRepository, times(1)).findAllLatest(any());
+    verify(tradeItemRepository, times(2)).findAll();
+  }
+
+  private void mockGraph() {
+    when(commodityTypeRepository.findAll())
+        .thenReturn(Lists.newArrayList(commodityType, otherCommodityType));
+    when(tradeItemRepository.findAll()).thenReturn(Lists.newArrayList(tradeItem));
+  }
+
+  private void mockCatalog() {
+    when(orderableRepository.findAllLatest(any()))
+        .thenReturn(new PageImpl<>(
+            Lists.newArrayList(tradeItemOrderable, commodityTypeOrderable, plainOrderable)));
+  }
+
+  private static List<UUID> getIds(Collection<IndexedOrderable> orderables) {
+    return orderables
+        .stream()
+        .map(IndexedOrderable::getId)
+        .collect(Collectors.toList());
+  }
+}
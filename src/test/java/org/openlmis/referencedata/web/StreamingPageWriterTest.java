@@ -0,0 +1,118 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.openlmis.referencedata.util.Pagination;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class StreamingPageWriterTest {
+
+  private static final Pageable UNPAGED = PageRequest
+      .of(Pagination.DEFAULT_PAGE_NUMBER, Pagination.NO_PAGINATION);
+
+  private ObjectMapper objectMapper = new ObjectMapper()
+      .enable(SerializationFeature.INDENT_OUTPUT);
+
+  private StreamingPageWriter writer = new StreamingPageWriter(objectMapper);
+
+  private MockHttpServletResponse response = new MockHttpServletResponse();
+
+  private List<Map<String, String>> first = Arrays.asList(
+      ImmutableMap.of("code", "A"), ImmutableMap.of("code", "B"));
+  private List<Map<String, String>> second = Collections.singletonList(
+      ImmutableMap.of("code", "C"));
+
+  @Test
+  public void shouldStreamBatchesAsRegularPage() throws IOException {
+    writer.<Map<String, String>>write(response, UNPAGED, batchConsumer -> {
+      batchConsumer.accept(first);
+      batchConsumer.accept(second);
+    });
+
+    List<Map<String, String>> content = Arrays.asList(
+        first.get(0), first.get(1), second.get(0));
+
+    assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+    assertThat(objectMapper.readTree(response.getContentAsByteArray()))
+        .isEqualTo(objectMapper.valueToTree(Pagination.getPage(content, UNPAGED, 3)));
+  }
+
+  @Test
+  public void shouldStreamEmptyPage() throws IOException {
+    writer.write(response, UNPAGED, batchConsumer -> { });
+
+    assertThat(objectMapper.readTree(response.getContentAsByteArray()))
+        .isEqualTo(objectMapper.valueToTree(Pagination.getEmptyPage(UNPAGED)));
+  }
+
+  @Test
+  public void shouldNotPrettyPrint() throws IOException {
+    writer.<Map<String, String>>write(response, UNPAGED,
+        batchConsumer -> batchConsumer.accept(first));
+
+    assertThat(response.getContentAsString()).doesNotContain("\n");
+  }
+
+  @Test
+  public void shouldWriteStatusHeadersAndBodyOfResponseEntity() throws IOException {
+    writer.write(response, ResponseEntity
+        .ok()
+        .header(HttpHeaders.LAST_MODIFIED, "Wed, 21 Oct 2015 07:28:00 GMT")
+        .body(Pagination.getPage(first, UNPAGED, 2)));
+
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    assertThat(response.getHeader(HttpHeaders.LAST_MODIFIED))
+        .isEqualTo("Wed, 21 Oct 2015 07:28:00 GMT");
+    assertThat(response.getContentAsString()).doesNotContain("\n");
+    assertThat(objectMapper.readTree(response.getContentAsByteArray()))
+        .isEqualTo(objectMapper.valueToTree(Pagination.getPage(first, UNPAGED, 2)));
+  }
+
+  @Test
+  public void shouldWriteOnlyStatusOfResponseEntityWithoutBody() throws IOException {
+    writer.write(response, ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+    assertThat(response.getContentAsByteArray()).isEmpty();
+  }
+
+  @Test
+  public void shouldStreamOnlyUnpagedAndUnsortedRequests() {
+    assertThat(writer.canStream(UNPAGED)).isTrue();
+    assertThat(writer.canStream(PageRequest.of(0, 10))).isFalse();
+    assertThat(writer.canStream(PageRequest.of(1, Pagination.NO_PAGINATION))).isFalse();
+    assertThat(writer.canStream(PageRequest
+        .of(0, Pagination.NO_PAGINATION, Sort.by("name")))).isFalse();
+  }
+}
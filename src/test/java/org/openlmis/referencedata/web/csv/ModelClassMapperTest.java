@@ -0,0 +1,96 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.web.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.openlmis.referencedata.web.dummy.DummyTransferObject.MANDATORY_STRING_FIELD;
+import static org.openlmis.referencedata.web.dummy.DummyTransferObject.OPTIONAL_NESTED_FIELD;
+
+import java.util.Arrays;
+import org.junit.Test;
+import org.openlmis.referencedata.dto.UserDto;
+import org.openlmis.referencedata.web.csv.model.ModelClass;
+import org.openlmis.referencedata.web.csv.model.ModelClassMapper;
+import org.openlmis.referencedata.web.dummy.DummyNestedField;
+import org.openlmis.referencedata.web.dummy.DummyTransferObject;
+
+public class ModelClassMapperTest {
+
+  private static final String[] HEADERS = {
+      MANDATORY_STRING_FIELD, "mandatoryIntField", "unknown", OPTIONAL_NESTED_FIELD
+  };
+
+  private ModelClassMapper<DummyTransferObject> mapper =
+      new ModelClass<>(DummyTransferObject.class).newMapper(HEADERS);
+
+  @Test
+  public void shouldMapValuesToNewBean() {
+    DummyTransferObject bean = mapper.toBean(Arrays.asList("string", 5, "ignored", "code"));
+
+    assertEquals("string", bean.getMandatoryStringField());
+    assertEquals(5, bean.getMandatoryIntField());
+    assertEquals("code", bean.getDummyNestedField().getCode());
+    assertNull(bean.getOptionalStringField());
+  }
+
+  @Test
+  public void shouldLeavePrimitivePropertyUnchangedIfValueIsMissing() {
+    DummyTransferObject bean = mapper.toBean(Arrays.asList(null, null, null, null));
+
+    assertNull(bean.getMandatoryStringField());
+    assertEquals(0, bean.getMandatoryIntField());
+  }
+
+  @Test
+  public void shouldConvertTextToPropertyType() {
+    ModelClassMapper<UserDto> userMapper =
+        new ModelClass<>(UserDto.class).newMapper(new String[]{"username", "isActive"});
+
+    assertTrue(userMapper.toBean(Arrays.asList("jdoe", "true")).isActive());
+    assertTrue(userMapper.toBean(Arrays.asList("jdoe", "Y")).isActive());
+    assertFalse(userMapper.toBean(Arrays.asList("jdoe", "false")).isActive());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowExceptionIfValueCannotBeConverted() {
+    new ModelClass<>(UserDto.class)
+        .newMapper(new String[]{"username", "isActive"})
+        .toBean(Arrays.asList("jdoe", "maybe"));
+  }
+
+  @Test
+  public void shouldReadValuesOfBean() {
+    DummyNestedField nested = new DummyNestedField();
+    nested.setCode("code");
+
+    DummyTransferObject bean = new DummyTransferObject();
+    bean.setMandatoryStringField("string");
+    bean.setMandatoryIntField(5);
+    bean.setDummyNestedField(nested);
+
+    assertEquals(Arrays.asList("string", 5, null, "code"), mapper.toRow(bean));
+  }
+
+  @Test
+  public void shouldReadNullIfIntermediatePropertyIsMissing() {
+    DummyTransferObject bean = new DummyTransferObject();
+
+    assertNull(mapper.toRow(bean).get(3));
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.referencedata.web.csv.parser;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.referencedata.domain.Facility;
+import org.openlmis.referencedata.dto.IdealStockAmountCsvModel;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.util.messagekeys.CsvUploadMessageKeys;
+import org.openlmis.referencedata.validate.CsvHeaderValidator;
+import org.openlmis.referencedata.web.csv.model.ModelClass;
+import org.openlmis.referencedata.web.csv.processor.ParseCommodityType;
+import org.openlmis.referencedata.web.csv.processor.ParseProcessingPeriod;
+import org.openlmis.referencedata.web.csv.recordhandler.RecordProcessor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class CsvParserTest {
+
+  private static final String HEADER = "Facility Code,Commodity Type,Period,Ideal Stock Amount\n";
+
+  private final ModelClass<IdealStockAmountCsvModel> modelClass =
+      new ModelClass<>(IdealStockAmountCsvModel.class);
+  private final List<String> written = new ArrayList<>();
+
+  private ExecutorService processorExecutorService;
+  private ExecutorService readerExecutorService;
+  private CsvParser csvParser;
+
+  @Before
+  public void setUp() {
+    ParseCommodityType.SEPARATOR = "|";
+    ParseProcessingPeriod.SEPARATOR = "|";
+
+    processorExecutorService = Executors.newFixedThreadPool(3);
+    readerExecutorService = Executors.newCachedThreadPool();
+
+    csvParser = new CsvParser();
+    ReflectionTestUtils.setField(csvParser, "chunkSize", 1);
+    ReflectionTestUtils.setField(csvParser, "poolSize", 3);
+    ReflectionTestUtils.setField(csvParser, "processorExecutorService", processorExecutorService);
+    ReflectionTestUtils.setField(csvParser, "readerExecutorService", readerExecutorService);
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    processorExecutorService.shutdownNow();
+    readerExecutorService.shutdownNow();
+    processorExecutorService.awaitTermination(5, TimeUnit.SECONDS);
+    readerExecutorService.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void shouldWriteChunksInFileOrderEvenIfProcessedOutOfOrder() throws IOException {
+    int result = parse(csv("f1", "f2", "f3", "f4", "f5"), records -> {
+      String code = records.get(0).getFacility().getCode();
+      sleep("f1".equals(code) ? 200 : 10);
+      return toFacilities(records);
+    });
+
+    assertEquals(5, result);
+    assertEquals(Arrays.asList("f1", "f2", "f3", "f4", "f5"), written);
+  }
+
+  @Test
+  public void shouldStopWritingAfterProcessingError() throws IOException {
+    try {
+      parse(csv("f1", "f2", "f3", "f4"), records -> {
+        if ("f3".equals(records.get(0).getFacility().getCode())) {
+          throw new ValidationMessageException("f3 is invalid");
+        }
+        return toFacilities(records);
+      });
+      fail("Expected " + ValidationMessageException.class.getSimpleName());
+    } catch (ValidationMessageException ex) {
+      assertEquals("f3 is invalid", ex.asMessage().getKey());
+      assertEquals(Arrays.asList("f1", "f2"), written);
+    }
+  }
+
+  @Test
+  public void shouldReportInvalidRecordWithItsRowNumber() throws IOException {
+    InputStream csv = new ByteArrayInputStream((HEADER
+        + "f1,system|id,schedule|period,1\n"
+        + "f2,system|id,schedule|period,-1\n").getBytes(StandardCharsets.UTF_8));
+
+    try {
+      parse(csv, this::toFacilities);
+      fail("Expected " + ValidationMessageException.class.getSimpleName());
+    } catch (ValidationMessageException ex) {
+      assertEquals(CsvUploadMessageKeys.ERROR_UPLOAD_POSITIVE_OR_ZERO,
+          ex.asMessage().getKey());
+      assertEquals(Arrays.asList("f1"), written);
+    }
+  }
+
+  private int parse(InputStream csv,
+      RecordProcessor<IdealStockAmountCsvModel, Facility> processor) throws IOException {
+    return csvParser.parse(csv, modelClass, new CsvHeaderValidator(), processor,
+        facilities -> facilities.forEach(facility -> written.add(facility.getCode())));
+  }
+
+  private InputStream csv(String... facilityCodes) {
+    StringBuilder builder = new StringBuilder(HEADER);
+    for (String code : facilityCodes) {
+      builder.append(code).append(",system|id,schedule|period,1\n");
+    }
+    return new ByteArrayInputStream(builder.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private List<Facility> toFacilities(List<IdealStockAmountCsvModel> records) {
+    return records
+        .stream()
+        .map(record -> new Facility(record.getFacility().getCode()))
+        .collect(toList());
+  }
+
+  private void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -15,14 +15,15 @@
 
 package org.openlmis.referencedata.web.csv.recordhandler;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
-import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.UUID;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
@@ -44,7 +45,6 @@ import org.openlmis.referencedata.repository.CommodityTypeRepository;
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.ProcessingPeriodRepository;
 import org.openlmis.referencedata.repository.ProcessingScheduleRepository;
-import org.openlmis.referencedata.service.IdealStockAmountService;
 import org.openlmis.referencedata.validate.IdealStockAmountValidator;
 
 public class IdealStockAmountProcessorTest {
@@ -58,9 +58,6 @@ public class IdealStockAmountProcessorTest {
   @Mock
   private FacilityRepository facilityRepository;
 
-  @Mock
-  private IdealStockAmountService service;
-
   @Mock
   private ProcessingPeriodRepository processingPeriodRepository;
 
@@ -76,7 +73,6 @@ public class IdealStockAmountProcessorTest {
   @InjectMocks
   private IdealStockAmountProcessor idealStockAmountProcessor;
 
-  private IdealStockAmount idealStockAmount;
   private Facility facility;
   private CommodityType commodityType;
   private ProcessingPeriod processingPeriod;
@@ -87,42 +83,32 @@ public class IdealStockAmountProcessorTest {
     MockitoAnnotations.initMocks(this);
 
     facility = new Facility(FACILITY_CODE);
+    facility.setId(UUID.randomUUID());
     commodityType = new CommodityType();
+    commodityType.setId(UUID.randomUUID());
     commodityType.setClassificationSystem(SYSTEM);
     commodityType.setClassificationId(ID);
     schedule = new ProcessingSchedule();
     schedule.setCode(Code.code(SCHEDULE));
+    schedule.setId(UUID.randomUUID());
     processingPeriod = new ProcessingPeriod();
+    processingPeriod.setId(UUID.randomUUID());
     processingPeriod.setName(PERIOD);
     processingPeriod.setProcessingSchedule(schedule);
 
-    idealStockAmount = new IdealStockAmount(facility, commodityType, processingPeriod, 1);
-
-    when(service.search(anyListOf(IdealStockAmount.class)))
-        .thenReturn(Collections.emptyList());
-
-    when(facilityRepository.findByCode(FACILITY_CODE)).thenReturn(Optional.of(facility));
-    when(processingScheduleRepository.findOneByCode(schedule.getCode()))
-        .thenReturn(Optional.of(schedule));
-    when(processingPeriodRepository.findOneByNameAndProcessingSchedule(PERIOD, schedule))
-        .thenReturn(Optional.of(processingPeriod));
-    when(commodityTypeRepository.findByClassificationIdAndClassificationSystem(ID, SYSTEM))
-        .thenReturn(Optional.of(commodityType));
-  }
-
-  @Test
-  public void shouldUseExistingObject() {
-    when(service.search(anyListOf(IdealStockAmount.class)))
-        .thenReturn(Collections.singletonList(idealStockAmount));
-
-    processAndCheckIsa();
+    when(facilityRepository.findAllByCodeIn(singletonList(FACILITY_CODE)))
+        .thenReturn(singletonList(facility));
+    when(processingScheduleRepository.findAllByCodeIn(singletonList(schedule.getCode())))
+        .thenReturn(singletonList(schedule));
+    when(processingPeriodRepository.findAllByProcessingScheduleCodeInAndNameIn(
+        singletonList(schedule.getCode()), singletonList(PERIOD)))
+        .thenReturn(singletonList(processingPeriod));
+    when(commodityTypeRepository.findAllByClassificationIdIn(singletonList(ID)))
+        .thenReturn(singletonList(commodityType));
   }
 
   @Test
   public void shouldCreateNewObject() {
-    when(service.search(anyListOf(IdealStockAmount.class)))
-        .thenReturn(Collections.emptyList());
-
     processAndCheckIsa();
   }
 
@@ -131,9 +117,8 @@ public class IdealStockAmountProcessorTest {
     IdealStockAmountCsvModel isa = createIsaDto();
 
     idealStockAmountsValidator.validate(isa);
-    when(service.search(anyListOf(IdealStockAmount.class)))
-        .thenReturn(Collections.emptyList());
-    when(facilityRepository.findByCode(FACILITY_CODE)).thenReturn(Optional.empty());
+    when(facilityRepository.findAllByCodeIn(singletonList(FACILITY_CODE)))
+        .thenReturn(emptyList());
 
     idealStockAmountProcessor.process(Collections.singletonList(isa));
   }
@@ -143,10 +128,8 @@ public class IdealStockAmountProcessorTest {
     IdealStockAmountCsvModel isa = createIsaDto();
 
     idealStockAmountsValidator.validate(isa);
-    when(service.search(anyListOf(IdealStockAmount.class)))
-        .thenReturn(Collections.emptyList());
-    when(processingScheduleRepository.findOneByCode(schedule.getCode()))
-        .thenReturn(Optional.empty());
+    when(processingScheduleRepository.findAllByCodeIn(singletonList(schedule.getCode())))
+        .thenReturn(emptyList());
 
     idealStockAmountProcessor.process(Collections.singletonList(isa));
   }
@@ -156,10 +139,9 @@ public class IdealStockAmountProcessorTest {
     IdealStockAmountCsvModel isa = createIsaDto();
 
     idealStockAmountsValidator.validate(isa);
-    when(service.search(anyListOf(IdealStockAmount.class)))
-        .thenReturn(Collections.emptyList());
-    when(processingPeriodRepository.findOneByNameAndProcessingSchedule(PERIOD, schedule))
-        .thenReturn(Optional.empty());
+    when(processingPeriodRepository.findAllByProcessingScheduleCodeInAndNameIn(
+        singletonList(schedule.getCode()), singletonList(PERIOD)))
+        .thenReturn(emptyList());
 
     idealStockAmountProcessor.process(Collections.singletonList(isa));
   }
@@ -169,14 +151,28 @@ public class IdealStockAmountProcessorTest {
     IdealStockAmountCsvModel isa = createIsaDto();
 
     idealStockAmountsValidator.validate(isa);
-    when(service.search(anyListOf(IdealStockAmount.class)))
-        .thenReturn(Collections.emptyList());
-    when(commodityTypeRepository.findByClassificationIdAndClassificationSystem(ID, SYSTEM))
-        .thenReturn(Optional.empty());
+    when(commodityTypeRepository.findAllByClassificationIdIn(singletonList(ID)))
+        .thenReturn(emptyList());
 
     idealStockAmountProcessor.process(Collections.singletonList(isa));
   }
 
+  @Test
+  public void shouldResolveReferencesOncePerUpload() {
+    IdealStockAmountCsvModel isa = createIsaDto();
+    RecordProcessor<IdealStockAmountCsvModel, IdealStockAmount> uploadProcessor =
+        idealStockAmountProcessor.forUpload();
+
+    uploadProcessor.process(Collections.singletonList(isa));
+    uploadProcessor.process(Collections.singletonList(isa));
+
+    verify(facilityRepository).findAllByCodeIn(singletonList(FACILITY_CODE));
+    verify(processingScheduleRepository).findAllByCodeIn(singletonList(schedule.getCode()));
+    verify(processingPeriodRepository).findAllByProcessingScheduleCodeInAndNameIn(
+        singletonList(schedule.getCode()), singletonList(PERIOD));
+    verify(commodityTypeRepository).findAllByClassificationIdIn(singletonList(ID));
+  }
+
   private IdealStockAmountCsvModel createIsaDto() {
     BasicFacilityDto facilityDto = new BasicFacilityDto();
     facilityDto.setCode(FACILITY_CODE);
@@ -200,7 +196,6 @@ public class IdealStockAmountProcessorTest {
         .process(Collections.singletonList(isa));
 
     verify(idealStockAmountsValidator).validate(isa);
-    verify(service).search(anyListOf(IdealStockAmount.class));
 
     assertEquals(result.get(0).getFacility(), facility);
     assertEquals(result.get(0).getAmount(), new Integer(1212));
@@ -15,11 +15,17 @@
 
 package org.openlmis.referencedata.web.csv.recordhandler;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.UUID;
+import javax.persistence.EntityManager;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
@@ -30,37 +36,90 @@ import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.IdealStockAmount;
 import org.openlmis.referencedata.domain.ProcessingPeriod;
 import org.openlmis.referencedata.repository.IdealStockAmountRepository;
+import org.openlmis.referencedata.service.IdealStockAmountService;
 
 public class IdealStockAmountWriterTest {
 
   @Mock
   private IdealStockAmountRepository idealStockAmountRepository;
 
+  @Mock
+  private IdealStockAmountService idealStockAmountService;
+
+  @Mock
+  private EntityManager entityManager;
+
   @InjectMocks
   private IdealStockAmountWriter idealStockAmountWriter;
 
   private IdealStockAmount idealStockAmount;
+  private Facility facility;
+  private CommodityType commodityType;
+  private ProcessingPeriod processingPeriod;
 
   @Before
   public void setUp() {
     MockitoAnnotations.initMocks(this);
 
-    Facility facility = new Facility("facility-code");
-    CommodityType commodityType = new CommodityType();
-    ProcessingPeriod processingPeriod = new ProcessingPeriod();
+    facility = new Facility("facility-code");
+    facility.setId(UUID.randomUUID());
+    commodityType = new CommodityType();
+    commodityType.setId(UUID.randomUUID());
+    processingPeriod = new ProcessingPeriod();
+    processingPeriod.setId(UUID.randomUUID());
     processingPeriod.setStartDate(LocalDate.of(2017, 10, 1));
     processingPeriod.setEndDate(LocalDate.of(2017, 10, 30));
 
     idealStockAmount = new IdealStockAmount(facility, commodityType, processingPeriod, 123);
+
+    when(idealStockAmountService.search(anyList())).thenReturn(emptyList());
   }
 
   @Test
-  public void shouldSetIdIfExistingItemFoundByCode() {
-    IdealStockAmount existingCatalogItem = new IdealStockAmount();
-    existingCatalogItem.setId(UUID.randomUUID());
-
+  public void shouldSaveNewItems() {
     idealStockAmountWriter.write(Arrays.asList(idealStockAmount));
 
     verify(idealStockAmountRepository).saveAll(Arrays.asList(idealStockAmount));
+    verify(entityManager).flush();
+  }
+
+  @Test
+  public void shouldUpdateExistingItem() {
+    IdealStockAmount existing =
+        new IdealStockAmount(facility, commodityType, processingPeriod, 1);
+    existing.setId(UUID.randomUUID());
+    when(idealStockAmountService.search(singletonList(idealStockAmount)))
+        .thenReturn(singletonList(existing));
+
+    idealStockAmountWriter.write(singletonList(idealStockAmount));
+
+    assertEquals(Integer.valueOf(123), existing.getAmount());
+    verify(idealStockAmountRepository).saveAll(emptyList());
+  }
+
+  @Test
+  public void shouldSaveItemOnceWhenItsKeyRepeatsInChunk() {
+    IdealStockAmount repeated =
+        new IdealStockAmount(facility, commodityType, processingPeriod, 456);
+
+    idealStockAmountWriter.write(Arrays.asList(idealStockAmount, repeated));
+
+    assertEquals(Integer.valueOf(456), idealStockAmount.getAmount());
+    verify(idealStockAmountRepository).saveAll(singletonList(idealStockAmount));
+  }
+
+  @Test
+  public void shouldUpdateItemSavedByEarlierChunk() {
+    IdealStockAmount repeated =
+        new IdealStockAmount(facility, commodityType, processingPeriod, 456);
+
+    idealStockAmountWriter.write(singletonList(idealStockAmount));
+    when(idealStockAmountService.search(singletonList(repeated)))
+        .thenReturn(singletonList(idealStockAmount));
+    idealStockAmountWriter.write(singletonList(repeated));
+
+    assertEquals(Integer.valueOf(456), idealStockAmount.getAmount());
+    verify(idealStockAmountRepository).saveAll(singletonList(idealStockAmount));
+    verify(idealStockAmountRepository).saveAll(emptyList());
   }
 }